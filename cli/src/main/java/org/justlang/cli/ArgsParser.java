@@ -27,6 +27,10 @@ public final class ArgsParser {
             return parseFmt(args);
         }
 
+        if ("daemon".equals(command)) {
+            return parseDaemon(args);
+        }
+
         // Shortcut: `just <file.just|dir> [--out path]` behaves like `just build ...`.
         return parseBuildShortcut(args);
     }
@@ -34,6 +38,7 @@ public final class ArgsParser {
     private Command parseBuild(String[] args) {
         java.nio.file.Path inputPath = null;
         java.nio.file.Path outputJar = null;
+        boolean lineFlushed = false;
 
         for (int i = 1; i < args.length; i++) {
             String arg = args[i];
@@ -44,6 +49,10 @@ public final class ArgsParser {
                 outputJar = java.nio.file.Path.of(args[++i]);
                 continue;
             }
+            if ("--line-flushed".equals(arg)) {
+                lineFlushed = true;
+                continue;
+            }
 
             if (inputPath == null) {
                 inputPath = PathResolver.resolveInput(arg);
@@ -64,12 +73,13 @@ public final class ArgsParser {
             outputJar = base.resolve("build/just.jar");
         }
 
-        return new BuildCommand(inputPath, outputJar);
+        return new BuildCommand(inputPath, outputJar, lineFlushed);
     }
 
     private Command parseBuildShortcut(String[] args) {
         java.nio.file.Path inputPath = null;
         java.nio.file.Path outputJar = null;
+        boolean lineFlushed = false;
 
         for (int i = 0; i < args.length; i++) {
             String arg = args[i];
@@ -80,6 +90,10 @@ public final class ArgsParser {
                 outputJar = java.nio.file.Path.of(args[++i]);
                 continue;
             }
+            if ("--line-flushed".equals(arg)) {
+                lineFlushed = true;
+                continue;
+            }
             if (inputPath == null) {
                 inputPath = PathResolver.resolveInput(arg);
                 continue;
@@ -98,18 +112,30 @@ public final class ArgsParser {
             outputJar = base.resolve("build/just.jar");
         }
 
-        return new BuildCommand(inputPath, outputJar);
+        return new BuildCommand(inputPath, outputJar, lineFlushed);
     }
 
     private Command parseRun(String[] args) {
-        if (args.length < 2) {
-            return HelpCommand.usage("Missing input file for run.");
-        }
-        if (args.length > 2) {
+        java.nio.file.Path inputPath = null;
+        boolean writeJar = false;
+
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i];
+            if ("--jar".equals(arg)) {
+                writeJar = true;
+                continue;
+            }
+            if (inputPath == null) {
+                inputPath = PathResolver.resolveInput(arg);
+                continue;
+            }
             return HelpCommand.usage("Unexpected arguments for run.");
         }
-        java.nio.file.Path inputPath = PathResolver.resolveInput(args[1]);
-        return new RunCommand(inputPath);
+
+        if (inputPath == null) {
+            return HelpCommand.usage("Missing input file for run.");
+        }
+        return new RunCommand(inputPath, writeJar);
     }
 
     private Command parseCheck(String[] args) {
@@ -162,4 +188,30 @@ public final class ArgsParser {
         java.nio.file.Path inputPath = PathResolver.resolveInput(args[1]);
         return new FmtCommand(inputPath);
     }
+
+    private Command parseDaemon(String[] args) {
+        java.nio.file.Path socketPath = null;
+        boolean stop = false;
+
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i];
+            if ("--socket".equals(arg)) {
+                if (i + 1 >= args.length) {
+                    return HelpCommand.usage("Missing value for " + arg);
+                }
+                socketPath = java.nio.file.Path.of(args[++i]);
+                continue;
+            }
+            if ("--stop".equals(arg)) {
+                stop = true;
+                continue;
+            }
+            return HelpCommand.usage("Unexpected argument for daemon: " + arg);
+        }
+
+        if (socketPath == null) {
+            socketPath = DaemonProtocol.defaultSocket();
+        }
+        return new DaemonCommand(socketPath, stop);
+    }
 }
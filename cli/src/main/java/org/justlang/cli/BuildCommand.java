@@ -6,10 +6,16 @@ import org.justlang.compiler.CompileResult;
 public final class BuildCommand implements Command {
     private final Path inputPath;
     private final Path outputJar;
+    private final boolean lineFlushed;
 
     public BuildCommand(Path inputPath, Path outputJar) {
+        this(inputPath, outputJar, false);
+    }
+
+    public BuildCommand(Path inputPath, Path outputJar, boolean lineFlushed) {
         this.inputPath = inputPath;
         this.outputJar = outputJar;
+        this.lineFlushed = lineFlushed;
     }
 
     @Override
@@ -23,7 +29,7 @@ public final class BuildCommand implements Command {
             return 2;
         }
         CompilerService compilerService = new CompilerService();
-        CompileResult result = compilerService.build(config, outputJar);
+        CompileResult result = compilerService.build(config, outputJar, lineFlushed);
 
         for (var diagnostic : result.diagnostics()) {
             System.err.println(diagnostic.message());
@@ -0,0 +1,149 @@
+package org.justlang.cli;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.justlang.compiler.ClassFile;
+import org.justlang.compiler.CompileResult;
+import org.justlang.compiler.Diagnostic;
+
+public final class CompilerDaemon {
+    private final Path socketPath;
+    private final CompilerService compilerService = CompilerService.inProcess();
+    private final String version = DaemonProtocol.version();
+    private volatile ServerSocketChannel server;
+
+    public CompilerDaemon(Path socketPath) {
+        this.socketPath = socketPath;
+    }
+
+    public Path socketPath() {
+        return socketPath;
+    }
+
+    // Binds the socket; fails if another daemon is already answering on it.
+    public void bind() throws IOException {
+        if (new DaemonClient(socketPath).isRunning()) {
+            throw new IOException("A just daemon is already listening on " + socketPath);
+        }
+        Path parent = socketPath.toAbsolutePath().getParent();
+        if (parent == null) {
+            throw new IOException("Daemon socket needs a parent directory: " + socketPath);
+        }
+        DaemonProtocol.createPrivateDirectories(parent);
+        if (!DaemonProtocol.isPrivateDirectory(parent)) {
+            throw new IOException("Refusing to listen in " + parent + ": it must be owned by the current user and not writable by others");
+        }
+        Files.deleteIfExists(socketPath);
+        ServerSocketChannel channel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        channel.bind(UnixDomainSocketAddress.of(socketPath));
+        DaemonProtocol.restrictToOwner(socketPath);
+        server = channel;
+    }
+
+    public void serve() throws IOException {
+        ServerSocketChannel channel = server;
+        if (channel == null) {
+            throw new IllegalStateException("Daemon socket is not bound");
+        }
+        try {
+            while (channel.isOpen()) {
+                SocketChannel client;
+                try {
+                    client = channel.accept();
+                } catch (ClosedChannelException closed) {
+                    break;
+                }
+                Thread.ofVirtual().name("just-daemon-client").start(() -> handle(client));
+            }
+        } finally {
+            Files.deleteIfExists(socketPath);
+        }
+    }
+
+    public void stop() {
+        ServerSocketChannel channel = server;
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // Already closed.
+        }
+    }
+
+    private void handle(SocketChannel client) {
+        try (client) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(client)));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(client)));
+            DaemonProtocol.Request request = DaemonProtocol.readRequest(in, version);
+            if (request == null) {
+                out.writeByte(DaemonProtocol.STATUS_REJECTED);
+                DaemonProtocol.writeString(out, "Daemon runs compiler " + version);
+                out.flush();
+                return;
+            }
+            if (DaemonProtocol.STOP.equals(request.command())) {
+                out.writeByte(DaemonProtocol.STATUS_OK);
+                out.writeByte(DaemonProtocol.FRAME_RESULT);
+                out.writeBoolean(true);
+                DaemonProtocol.writeString(out, null);
+                out.flush();
+                stop();
+                return;
+            }
+            CompileResult result = compile(request);
+            if (result == null) {
+                out.writeByte(DaemonProtocol.STATUS_REJECTED);
+                DaemonProtocol.writeString(out, "Unknown daemon command: " + request.command());
+                out.flush();
+                return;
+            }
+            out.writeByte(DaemonProtocol.STATUS_OK);
+            for (Diagnostic diagnostic : result.diagnostics()) {
+                out.writeByte(DaemonProtocol.FRAME_DIAGNOSTIC);
+                DaemonProtocol.writeString(out, diagnostic.message());
+                DaemonProtocol.writePath(out, diagnostic.path());
+                out.flush();
+            }
+            if (DaemonProtocol.COMPILE.equals(request.command())) {
+                for (ClassFile classFile : result.classFiles()) {
+                    out.writeByte(DaemonProtocol.FRAME_CLASS);
+                    DaemonProtocol.writeString(out, classFile.internalName());
+                    out.writeInt(classFile.bytes().length);
+                    out.write(classFile.bytes());
+                }
+            }
+            out.writeByte(DaemonProtocol.FRAME_RESULT);
+            out.writeBoolean(result.success());
+            DaemonProtocol.writeString(out, result.mainClassName());
+            out.flush();
+        } catch (IOException | RuntimeException error) {
+            // The client sees a dropped connection and compiles in-process instead.
+        }
+    }
+
+    private CompileResult compile(DaemonProtocol.Request request) {
+        if (DaemonProtocol.BUILD.equals(request.command())) {
+            return compilerService.build(request.config(), request.outputJar());
+        }
+        if (DaemonProtocol.CHECK.equals(request.command())) {
+            return compilerService.check(request.config());
+        }
+        if (DaemonProtocol.COMPILE.equals(request.command())) {
+            return compilerService.compile(request.config(), request.outputJar());
+        }
+        return null;
+    }
+}
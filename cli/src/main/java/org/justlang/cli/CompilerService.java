@@ -6,15 +6,69 @@ import org.justlang.compiler.CompileResult;
 import org.justlang.compiler.JustCompiler;
 
 public final class CompilerService {
+    private static final String CACHE_DIRECTORY = "build/.just-cache";
+
+    private final DaemonClient daemon;
+
+    public CompilerService() {
+        this(DaemonClient.fromEnvironment());
+    }
+
+    CompilerService(DaemonClient daemon) {
+        this.daemon = daemon;
+    }
+
+    public static CompilerService inProcess() {
+        return new CompilerService(null);
+    }
+
     public CompileResult build(ProjectConfig config, Path outputJar) {
+        return build(config, outputJar, false);
+    }
+
+    // The daemon protocol carries no codegen options, so line-flushed builds always compile in-process.
+    public CompileResult build(ProjectConfig config, Path outputJar, boolean lineFlushed) {
+        if (daemon != null && !lineFlushed) {
+            CompileResult remote = daemon.build(config, outputJar);
+            if (remote != null) {
+                return remote;
+            }
+        }
+        JustCompiler compiler = new JustCompiler();
+        CompileRequest request = CompileRequest.forBuild(config.inputPath(), outputJar, config.dependencyRoots())
+            .withCacheDirectory(cacheDirectory(config))
+            .withLineFlushedOutput(lineFlushed);
+        return compiler.compile(request);
+    }
+
+    // Returns class files for in-memory execution; the jar is only written when outputJar is set.
+    public CompileResult compile(ProjectConfig config, Path outputJar) {
+        if (daemon != null) {
+            CompileResult remote = daemon.compile(config, outputJar);
+            if (remote != null) {
+                return remote;
+            }
+        }
         JustCompiler compiler = new JustCompiler();
-        CompileRequest request = CompileRequest.forBuild(config.inputPath(), outputJar, config.dependencyRoots());
+        CompileRequest request = CompileRequest.forRun(config.inputPath(), outputJar, config.dependencyRoots())
+            .withCacheDirectory(cacheDirectory(config));
         return compiler.compile(request);
     }
 
     public CompileResult check(ProjectConfig config) {
+        if (daemon != null) {
+            CompileResult remote = daemon.check(config);
+            if (remote != null) {
+                return remote;
+            }
+        }
         JustCompiler compiler = new JustCompiler();
-        CompileRequest request = CompileRequest.forCheck(config.inputPath(), config.dependencyRoots());
+        CompileRequest request = CompileRequest.forCheck(config.inputPath(), config.dependencyRoots())
+            .withCacheDirectory(cacheDirectory(config));
         return compiler.compile(request);
     }
+
+    private static Path cacheDirectory(ProjectConfig config) {
+        return config.projectRoot() == null ? null : config.projectRoot().resolve(CACHE_DIRECTORY);
+    }
 }
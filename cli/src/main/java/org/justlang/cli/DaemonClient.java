@@ -0,0 +1,128 @@
+package org.justlang.cli;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.justlang.compiler.ClassFile;
+import org.justlang.compiler.CompileResult;
+import org.justlang.compiler.Diagnostic;
+
+public final class DaemonClient {
+    private final Path socketPath;
+
+    public DaemonClient(Path socketPath) {
+        this.socketPath = socketPath;
+    }
+
+    public static DaemonClient fromEnvironment() {
+        return new DaemonClient(DaemonProtocol.defaultSocket());
+    }
+
+    public Path socketPath() {
+        return socketPath;
+    }
+
+    public boolean isRunning() {
+        try (SocketChannel ignored = connect()) {
+            return ignored != null;
+        } catch (IOException error) {
+            return false;
+        }
+    }
+
+    // Each method returns null when no compatible daemon answered, so callers can compile in-process.
+    public CompileResult build(ProjectConfig config, Path outputJar) {
+        return send(new DaemonProtocol.Request(
+            DaemonProtocol.BUILD,
+            config.inputPath(),
+            config.projectRoot(),
+            outputJar,
+            config.dependencyRoots()
+        ));
+    }
+
+    public CompileResult check(ProjectConfig config) {
+        return send(new DaemonProtocol.Request(
+            DaemonProtocol.CHECK,
+            config.inputPath(),
+            config.projectRoot(),
+            null,
+            config.dependencyRoots()
+        ));
+    }
+
+    public CompileResult compile(ProjectConfig config, Path outputJar) {
+        return send(new DaemonProtocol.Request(
+            DaemonProtocol.COMPILE,
+            config.inputPath(),
+            config.projectRoot(),
+            outputJar,
+            config.dependencyRoots()
+        ));
+    }
+
+    public boolean stop() {
+        return send(new DaemonProtocol.Request(DaemonProtocol.STOP, null, null, null, Map.of())) != null;
+    }
+
+    private CompileResult send(DaemonProtocol.Request request) {
+        try (SocketChannel channel = connect()) {
+            if (channel == null) {
+                return null;
+            }
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            DaemonProtocol.writeRequest(out, request);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            if (in.readByte() != DaemonProtocol.STATUS_OK) {
+                return null;
+            }
+            List<Diagnostic> diagnostics = new ArrayList<>();
+            List<ClassFile> classFiles = new ArrayList<>();
+            while (true) {
+                byte frame = in.readByte();
+                if (frame == DaemonProtocol.FRAME_DIAGNOSTIC) {
+                    diagnostics.add(new Diagnostic(DaemonProtocol.readString(in), DaemonProtocol.readPath(in)));
+                } else if (frame == DaemonProtocol.FRAME_CLASS) {
+                    String internalName = DaemonProtocol.readString(in);
+                    byte[] bytes = new byte[in.readInt()];
+                    in.readFully(bytes);
+                    classFiles.add(new ClassFile(internalName, bytes));
+                } else if (frame == DaemonProtocol.FRAME_RESULT) {
+                    boolean success = in.readBoolean();
+                    String mainClassName = DaemonProtocol.readString(in);
+                    return new CompileResult(success, List.copyOf(diagnostics), classFiles, mainClassName);
+                } else {
+                    return null;
+                }
+            }
+        } catch (IOException | RuntimeException error) {
+            return null;
+        }
+    }
+
+    // A socket some other user could have created is never trusted: its classes would run in-process.
+    private SocketChannel connect() throws IOException {
+        if (!Files.exists(socketPath) || !DaemonProtocol.isTrustedSocket(socketPath)) {
+            return null;
+        }
+        SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+        try {
+            channel.connect(UnixDomainSocketAddress.of(socketPath));
+            return channel;
+        } catch (IOException error) {
+            channel.close();
+            return null;
+        }
+    }
+}
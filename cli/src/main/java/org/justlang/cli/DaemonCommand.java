@@ -0,0 +1,37 @@
+package org.justlang.cli;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+public final class DaemonCommand implements Command {
+    private final Path socketPath;
+    private final boolean stop;
+
+    public DaemonCommand(Path socketPath, boolean stop) {
+        this.socketPath = socketPath;
+        this.stop = stop;
+    }
+
+    @Override
+    public int run() {
+        if (stop) {
+            if (new DaemonClient(socketPath).stop()) {
+                System.out.println("Stopped daemon at " + socketPath);
+                return 0;
+            }
+            System.err.println("No daemon running at " + socketPath);
+            return 1;
+        }
+
+        CompilerDaemon daemon = new CompilerDaemon(socketPath);
+        try {
+            daemon.bind();
+            System.out.println("Listening on " + socketPath);
+            daemon.serve();
+            return 0;
+        } catch (IOException error) {
+            System.err.println("Daemon failed: " + error.getMessage());
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package org.justlang.cli;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import org.justlang.compiler.JustCompiler;
+
+final class DaemonProtocol {
+    static final String SOCKET_ENV = "JUST_DAEMON_SOCKET";
+    static final String BUILD = "build";
+    static final String CHECK = "check";
+    static final String COMPILE = "compile";
+    static final String STOP = "stop";
+
+    static final byte STATUS_OK = 'K';
+    static final byte STATUS_REJECTED = 'X';
+    static final byte FRAME_DIAGNOSTIC = 'D';
+    static final byte FRAME_CLASS = 'C';
+    static final byte FRAME_RESULT = 'R';
+
+    private DaemonProtocol() {}
+
+    /**
+     * The socket lives in a per-user directory, {@code $XDG_RUNTIME_DIR/just} or else
+     * {@code ~/.just/run}, never in a shared temp directory where another user could claim the
+     * name first.
+     */
+    static Path defaultSocket() {
+        String configured = System.getenv(SOCKET_ENV);
+        if (configured != null && !configured.isBlank()) {
+            return Path.of(configured);
+        }
+        String runtimeDir = System.getenv("XDG_RUNTIME_DIR");
+        if (runtimeDir != null && !runtimeDir.isBlank()) {
+            return Path.of(runtimeDir, "just", "daemon.sock");
+        }
+        return Path.of(System.getProperty("user.home"), ".just", "run", "daemon.sock");
+    }
+
+    // Missing directories are created owner-only (0700) where the file system has POSIX permissions.
+    static void createPrivateDirectories(Path directory) throws IOException {
+        if (Files.isDirectory(directory)) {
+            return;
+        }
+        if (directory.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+        } else {
+            Files.createDirectories(directory);
+        }
+    }
+
+    static void restrictToOwner(Path socket) throws IOException {
+        if (Files.getFileAttributeView(socket, PosixFileAttributeView.class) != null) {
+            Files.setPosixFilePermissions(socket, PosixFilePermissions.fromString("rw-------"));
+        }
+    }
+
+    /**
+     * A directory is trusted when the current user owns it and nobody else can write to it, so no
+     * other user can plant or swap a socket inside.
+     */
+    static boolean isPrivateDirectory(Path directory) {
+        try {
+            Path real = directory.toRealPath();
+            if (!currentUser().equals(Files.getOwner(real))) {
+                return false;
+            }
+            PosixFileAttributeView view = Files.getFileAttributeView(real, PosixFileAttributeView.class);
+            if (view == null) {
+                return true;
+            }
+            Set<PosixFilePermission> permissions = view.readAttributes().permissions();
+            return !permissions.contains(PosixFilePermission.GROUP_WRITE) && !permissions.contains(PosixFilePermission.OTHERS_WRITE);
+        } catch (IOException | UnsupportedOperationException error) {
+            return false;
+        }
+    }
+
+    /** Whether a client may talk to {@code socket}: it and its directory must belong to the current user. */
+    static boolean isTrustedSocket(Path socket) {
+        try {
+            Path real = socket.toRealPath();
+            return real.getParent() != null
+                && isPrivateDirectory(real.getParent())
+                && currentUser().equals(Files.getOwner(real));
+        } catch (IOException | UnsupportedOperationException error) {
+            return false;
+        }
+    }
+
+    private static UserPrincipal currentUser() throws IOException {
+        return FileSystems.getDefault().getUserPrincipalLookupService().lookupPrincipalByName(System.getProperty("user.name"));
+    }
+
+    // The build id, not the manifest version, so an upgraded client never uses an older daemon's compiler.
+    static String version() {
+        return JustCompiler.buildId();
+    }
+
+    static void writeRequest(DataOutputStream out, Request request) throws IOException {
+        writeString(out, version());
+        writeString(out, request.command());
+        writePath(out, request.inputPath());
+        writePath(out, request.projectRoot());
+        writePath(out, request.outputJar());
+        out.writeInt(request.dependencyRoots().size());
+        for (Map.Entry<String, Path> entry : request.dependencyRoots().entrySet()) {
+            writeString(out, entry.getKey());
+            writePath(out, entry.getValue());
+        }
+        out.flush();
+    }
+
+    static Request readRequest(DataInputStream in, String expectedVersion) throws IOException {
+        String clientVersion = readString(in);
+        String command = readString(in);
+        Path inputPath = readPath(in);
+        Path projectRoot = readPath(in);
+        Path outputJar = readPath(in);
+        int dependencyCount = in.readInt();
+        Map<String, Path> dependencyRoots = new LinkedHashMap<>();
+        for (int i = 0; i < dependencyCount; i++) {
+            dependencyRoots.put(readString(in), readPath(in));
+        }
+        if (!expectedVersion.equals(clientVersion)) {
+            return null;
+        }
+        return new Request(command, inputPath, projectRoot, outputJar, dependencyRoots);
+    }
+
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void writePath(DataOutputStream out, Path path) throws IOException {
+        writeString(out, path == null ? null : path.toAbsolutePath().normalize().toString());
+    }
+
+    static Path readPath(DataInputStream in) throws IOException {
+        String value = readString(in);
+        return value == null ? null : Path.of(value);
+    }
+
+    record Request(
+        String command,
+        Path inputPath,
+        Path projectRoot,
+        Path outputJar,
+        Map<String, Path> dependencyRoots
+    ) {
+        ProjectConfig config() {
+            return new ProjectConfig(inputPath, projectRoot, dependencyRoots);
+        }
+    }
+}
@@ -18,11 +18,12 @@ public final class HelpCommand implements Command {
             System.err.println();
         }
         System.err.println("Usage:");
-        System.err.println("  just <file.just|dir> [--out <jarPath>]");
-        System.err.println("  just build <file.just|dir> [--out <jarPath>]");
-        System.err.println("  just run <file.just|dir>");
+        System.err.println("  just <file.just|dir> [--out <jarPath>] [--line-flushed]");
+        System.err.println("  just build <file.just|dir> [--out <jarPath>] [--line-flushed]");
+        System.err.println("  just run <file.just|dir> [--jar]");
         System.err.println("  just check <file.just|dir>");
         System.err.println("  just fmt <file.just|dir>");
+        System.err.println("  just daemon [--socket <path>] [--stop]");
         System.err.println("  just jargo new <name>");
         System.err.println("  just jargo build");
         System.err.println("  just jargo run");
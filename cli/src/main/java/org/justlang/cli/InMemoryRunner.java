@@ -0,0 +1,59 @@
+package org.justlang.cli;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.justlang.compiler.ClassFile;
+
+public final class InMemoryRunner {
+    public int run(List<ClassFile> classFiles, String mainClassName, String[] args) {
+        ClassFileLoader loader = new ClassFileLoader(classFiles, InMemoryRunner.class.getClassLoader());
+        Thread thread = Thread.currentThread();
+        ClassLoader previous = thread.getContextClassLoader();
+        thread.setContextClassLoader(loader);
+        try {
+            Class<?> mainClass = loader.loadClass(mainClassName.replace('/', '.'));
+            Method main = mainClass.getMethod("main", String[].class);
+            main.invoke(null, (Object) args);
+            return 0;
+        } catch (InvocationTargetException error) {
+            Throwable cause = error.getCause() == null ? error : error.getCause();
+            System.err.println("Exception in thread \"main\" " + cause);
+            for (StackTraceElement frame : cause.getStackTrace()) {
+                if (frame.getClassName().startsWith("jdk.internal.reflect.")) {
+                    break;
+                }
+                System.err.println("\tat " + frame);
+            }
+            return 1;
+        } catch (ReflectiveOperationException | LinkageError error) {
+            System.err.println("Failed to run program: " + error);
+            return 1;
+        } finally {
+            System.out.flush();
+            thread.setContextClassLoader(previous);
+        }
+    }
+
+    static final class ClassFileLoader extends ClassLoader {
+        private final Map<String, byte[]> classes = new HashMap<>();
+
+        ClassFileLoader(List<ClassFile> classFiles, ClassLoader parent) {
+            super("just-program", parent);
+            for (ClassFile classFile : classFiles) {
+                classes.put(classFile.internalName().replace('/', '.'), classFile.bytes());
+            }
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            byte[] bytes = classes.get(name);
+            if (bytes == null) {
+                throw new ClassNotFoundException(name);
+            }
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
@@ -5,9 +5,15 @@ import java.nio.file.Path;
 
 public final class RunCommand implements Command {
     private final Path inputPath;
+    private final boolean writeJar;
 
     public RunCommand(Path inputPath) {
+        this(inputPath, false);
+    }
+
+    public RunCommand(Path inputPath, boolean writeJar) {
         this.inputPath = inputPath;
+        this.writeJar = writeJar;
     }
 
     @Override
@@ -20,19 +26,22 @@ public final class RunCommand implements Command {
             System.err.println(error.getMessage());
             return 2;
         }
-        Path base = config.projectRoot() != null
-            ? config.projectRoot()
-            : (Files.isDirectory(inputPath) ? inputPath : inputPath.getParent());
-        Path outputJar = base.resolve("build/just.jar");
+        Path outputJar = null;
+        if (writeJar) {
+            Path base = config.projectRoot() != null
+                ? config.projectRoot()
+                : (Files.isDirectory(inputPath) ? inputPath : inputPath.getParent());
+            outputJar = base.resolve("build/just.jar");
+        }
         CompilerService compilerService = new CompilerService();
-        var result = compilerService.build(config, outputJar);
+        var result = compilerService.compile(config, outputJar);
         for (var diagnostic : result.diagnostics()) {
             System.err.println(diagnostic.message());
         }
         if (!result.success()) {
             return 1;
         }
-        JarRunner runner = new JarRunner();
-        return runner.runJar(outputJar);
+        InMemoryRunner runner = new InMemoryRunner();
+        return runner.run(result.classFiles(), result.mainClassName(), new String[0]);
     }
 }
@@ -19,10 +19,32 @@ public class ArgsParserTest {
         assertTrue(command instanceof BuildCommand);
     }
 
+    @Test
+    void buildAcceptsLineFlushedFlag() {
+        ArgsParser parser = new ArgsParser();
+        assertTrue(parser.parse(new String[] { "build", "examples/hello.just", "--line-flushed" }) instanceof BuildCommand);
+        assertTrue(parser.parse(new String[] { "examples/hello.just", "--line-flushed", "--out", "tmp/out.jar" }) instanceof BuildCommand);
+    }
+
     @Test
     void unknownVerbStillReturnsUsageCommand() {
         ArgsParser parser = new ArgsParser();
         Command command = parser.parse(new String[] { "unknown", "arg" });
         assertTrue(command instanceof HelpCommand);
     }
+
+    @Test
+    void daemonVerbReturnsDaemonCommand() {
+        ArgsParser parser = new ArgsParser();
+        assertTrue(parser.parse(new String[] { "daemon" }) instanceof DaemonCommand);
+        assertTrue(parser.parse(new String[] { "daemon", "--socket", "tmp/just.sock", "--stop" }) instanceof DaemonCommand);
+        assertTrue(parser.parse(new String[] { "daemon", "--bogus" }) instanceof HelpCommand);
+    }
+
+    @Test
+    void runAcceptsJarFlag() {
+        ArgsParser parser = new ArgsParser();
+        assertTrue(parser.parse(new String[] { "run", "examples/hello.just", "--jar" }) instanceof RunCommand);
+        assertTrue(parser.parse(new String[] { "run", "examples/hello.just", "extra" }) instanceof HelpCommand);
+    }
 }
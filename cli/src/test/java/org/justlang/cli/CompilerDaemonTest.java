@@ -0,0 +1,136 @@
+package org.justlang.cli;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.justlang.compiler.CompileResult;
+import org.justlang.compiler.Diagnostic;
+import org.justlang.compiler.JustCompiler;
+
+public class CompilerDaemonTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void daemonCompilesRequestsAndStreamsDiagnostics() throws Exception {
+        Path main = tempDir.resolve("main.just");
+        Files.writeString(main, """
+            fn main() {
+                std::print(1);
+                return;
+            }
+            """);
+        Path broken = tempDir.resolve("broken.just");
+        Files.writeString(broken, "fn main() { let = 1; }\n");
+
+        Path socket = tempDir.resolve("d.sock");
+        CompilerDaemon daemon = new CompilerDaemon(socket);
+        daemon.bind();
+        Thread server = Thread.ofPlatform().daemon().start(() -> {
+            try {
+                daemon.serve();
+            } catch (IOException error) {
+                throw new RuntimeException(error);
+            }
+        });
+        try {
+            DaemonClient client = new DaemonClient(socket);
+            assertTrue(client.isRunning());
+
+            Path jar = tempDir.resolve("build/just.jar");
+            CompileResult built = client.build(new ProjectConfig(main, tempDir, Map.of()), jar);
+            assertNotNull(built);
+            assertTrue(built.success());
+            assertTrue(Files.exists(jar));
+
+            CompileResult failed = client.check(new ProjectConfig(broken, tempDir, Map.of()));
+            assertNotNull(failed);
+            assertFalse(failed.success());
+            Diagnostic first = failed.diagnostics().get(0);
+            assertEquals(broken, first.path());
+
+            CompileResult compiled = client.compile(new ProjectConfig(main, tempDir, Map.of()), null);
+            assertNotNull(compiled);
+            assertTrue(compiled.success());
+            assertEquals("Main", compiled.mainClassName());
+            assertTrue(compiled.classFiles().stream().anyMatch(file -> file.internalName().equals("Main")));
+
+            assertTrue(client.stop());
+            server.join(5_000);
+            assertFalse(server.isAlive());
+            assertFalse(client.isRunning());
+        } finally {
+            daemon.stop();
+        }
+    }
+
+    @Test
+    void compilerServiceFallsBackWhenNoDaemonIsListening() throws IOException {
+        Path main = tempDir.resolve("main.just");
+        Files.writeString(main, "fn main() { return; }\n");
+        DaemonClient client = new DaemonClient(tempDir.resolve("missing.sock"));
+        ProjectConfig config = new ProjectConfig(main, tempDir, Map.of());
+
+        assertNull(client.check(config));
+        CompileResult result = new CompilerService(client).check(config);
+        assertTrue(result.success());
+    }
+
+    @Test
+    void socketsInDirectoriesOthersCanWriteAreRefused() throws Exception {
+        Path runDir = tempDir.resolve("run/just");
+        Path socket = runDir.resolve("daemon.sock");
+        CompilerDaemon daemon = new CompilerDaemon(socket);
+        daemon.bind();
+        Thread server = Thread.ofPlatform().daemon().start(() -> {
+            try {
+                daemon.serve();
+            } catch (IOException error) {
+                throw new RuntimeException(error);
+            }
+        });
+        try {
+            assertEquals("rwx------", PosixFilePermissions.toString(Files.getPosixFilePermissions(runDir)));
+            assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(socket)));
+            DaemonClient client = new DaemonClient(socket);
+            assertTrue(client.isRunning());
+
+            Files.setPosixFilePermissions(runDir, PosixFilePermissions.fromString("rwxrwxrwx"));
+            assertFalse(client.isRunning());
+            Path main = tempDir.resolve("main.just");
+            Files.writeString(main, "fn main() { return; }\n");
+            assertNull(client.check(new ProjectConfig(main, tempDir, Map.of())));
+
+            IOException refused = assertThrows(IOException.class, () -> new CompilerDaemon(runDir.resolve("other.sock")).bind());
+            assertTrue(refused.getMessage().startsWith("Refusing to listen in"), refused.getMessage());
+        } finally {
+            Files.setPosixFilePermissions(runDir, PosixFilePermissions.fromString("rwx------"));
+            daemon.stop();
+            server.join(5_000);
+        }
+    }
+
+    @Test
+    void handshakeRequiresTheSameCompilerBuild() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DaemonProtocol.writeRequest(new DataOutputStream(bytes), new DaemonProtocol.Request(DaemonProtocol.CHECK, null, null, null, Map.of()));
+
+        assertNotNull(DaemonProtocol.readRequest(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), JustCompiler.buildId()));
+        assertNull(DaemonProtocol.readRequest(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), JustCompiler.version()));
+    }
+}
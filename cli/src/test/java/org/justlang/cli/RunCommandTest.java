@@ -0,0 +1,66 @@
+package org.justlang.cli;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class RunCommandTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void runsProgramInProcessWithoutWritingJar() throws IOException {
+        Path main = writeProgram();
+
+        String output = captureStdout(() -> assertEquals(0, new RunCommand(main).run()));
+
+        assertEquals("42", output.trim());
+        assertFalse(Files.exists(tempDir.resolve("build/just.jar")));
+    }
+
+    @Test
+    void jarFlagAlsoWritesJar() throws IOException {
+        Path main = writeProgram();
+
+        String output = captureStdout(() -> assertEquals(0, new RunCommand(main, true).run()));
+
+        assertEquals("42", output.trim());
+        assertTrue(Files.exists(tempDir.resolve("build/just.jar")));
+    }
+
+    private Path writeProgram() throws IOException {
+        Path main = tempDir.resolve("main.just");
+        Files.writeString(main, """
+            fn answer() -> i32 {
+                return 42;
+            }
+
+            fn main() {
+                std::print(answer());
+                return;
+            }
+            """);
+        return main;
+    }
+
+    private static String captureStdout(Runnable action) {
+        PrintStream original = System.out;
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (PrintStream capture = new PrintStream(buffer, true, StandardCharsets.UTF_8)) {
+            System.setOut(capture);
+            action.run();
+        } finally {
+            System.setOut(original);
+        }
+        return buffer.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -15,11 +15,21 @@ java {
 
 dependencies {
     implementation(libs.asm)
+    implementation(project(":runtime"))
     testImplementation(libs.junit.jupiter)
     testImplementation(libs.asm.util)
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 }
 
+tasks.jar {
+    manifest {
+        attributes(
+            "Implementation-Title" to "just-compiler",
+            "Implementation-Version" to project.version,
+        )
+    }
+}
+
 tasks.named<Test>("test") {
     useJUnitPlatform()
 }
@@ -0,0 +1,35 @@
+package org.justlang.compiler;
+
+import java.util.List;
+
+/** An array literal: {@code [a, b, c]}, or {@code [value; count]} when {@link #isRepeat()}. */
+public final class AstArrayExpr implements AstExpr {
+    private final List<AstExpr> elements;
+    private final int repeatCount;
+
+    private AstArrayExpr(List<AstExpr> elements, int repeatCount) {
+        this.elements = elements;
+        this.repeatCount = repeatCount;
+    }
+
+    public static AstArrayExpr list(List<AstExpr> elements) {
+        return new AstArrayExpr(elements, -1);
+    }
+
+    public static AstArrayExpr repeat(AstExpr value, int count) {
+        return new AstArrayExpr(List.of(value), count);
+    }
+
+    /** The listed elements; a repeat literal has exactly one, its value. */
+    public List<AstExpr> elements() {
+        return elements;
+    }
+
+    public boolean isRepeat() {
+        return repeatCount >= 0;
+    }
+
+    public int length() {
+        return isRepeat() ? repeatCount : elements.size();
+    }
+}
@@ -0,0 +1,768 @@
+package org.justlang.compiler;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * On-disk cache of parsed {@link AstModule}s, one entry per source file keyed by a hash of the
+ * file contents, the entry format and the compiler build ({@link JustCompiler#buildId()}), so a
+ * parser change invalidates entries even when the format is unchanged. Entries never record the source path; it is rebound
+ * from the {@link SourceFile} on load, so a moved or duplicated file still hits. Like
+ * {@link MethodCache}, {@link #prune()} keeps only the entries the latest build used.
+ */
+public final class AstCache {
+    private static final int MAGIC = 0x4A415354;
+    private static final int FORMAT_VERSION = 4;
+
+    private static final byte ITEM_FUNCTION = 1;
+    private static final byte ITEM_STRUCT = 2;
+    private static final byte ITEM_ENUM = 3;
+    private static final byte ITEM_IMPORT = 4;
+    private static final byte ITEM_USE = 5;
+
+    private static final byte STMT_LET = 1;
+    private static final byte STMT_ASSIGN = 2;
+    private static final byte STMT_EXPR = 3;
+    private static final byte STMT_RETURN = 4;
+    private static final byte STMT_IF = 5;
+    private static final byte STMT_IF_LET = 6;
+    private static final byte STMT_WHILE = 7;
+    private static final byte STMT_WHILE_LET = 8;
+    private static final byte STMT_FOR = 9;
+    private static final byte STMT_LOOP = 10;
+    private static final byte STMT_BREAK = 11;
+    private static final byte STMT_CONTINUE = 12;
+    private static final byte STMT_INDEX_ASSIGN = 13;
+
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_NAMED = 1;
+    private static final byte TYPE_REFERENCE = 2;
+    private static final byte TYPE_GENERIC = 3;
+    private static final byte TYPE_ARRAY = 4;
+
+    private static final byte EXPR_NULL = 0;
+    private static final byte EXPR_NUMBER = 1;
+    private static final byte EXPR_STRING = 2;
+    private static final byte EXPR_BOOL = 3;
+    private static final byte EXPR_IDENT = 4;
+    private static final byte EXPR_PATH = 5;
+    private static final byte EXPR_CALL = 6;
+    private static final byte EXPR_BINARY = 7;
+    private static final byte EXPR_UNARY = 8;
+    private static final byte EXPR_FIELD_ACCESS = 9;
+    private static final byte EXPR_STRUCT_INIT = 10;
+    private static final byte EXPR_BLOCK = 11;
+    private static final byte EXPR_IF = 12;
+    private static final byte EXPR_LOOP = 13;
+    private static final byte EXPR_MATCH = 14;
+    private static final byte EXPR_ARRAY = 15;
+    private static final byte EXPR_INDEX = 16;
+
+    private final Path directory;
+    private final String compilerBuild;
+    private final Set<Path> used = ConcurrentHashMap.newKeySet();
+
+    public AstCache(Path directory) {
+        this(directory, JustCompiler.buildId());
+    }
+
+    AstCache(Path directory, String compilerBuild) {
+        this.directory = directory;
+        this.compilerBuild = compilerBuild;
+    }
+
+    public Path directory() {
+        return directory;
+    }
+
+    /** Returns the cached module for {@code source}, or {@code null} on a miss or unreadable entry. */
+    public AstModule load(SourceFile source) {
+        Path entry = entryPath(source);
+        if (!Files.isRegularFile(entry)) {
+            return null;
+        }
+        try (InputStream stream = new BufferedInputStream(Files.newInputStream(entry))) {
+            Reader reader = new Reader(new DataInputStream(stream), source.path());
+            if (!reader.readHeader(compilerBuild)) {
+                return null;
+            }
+            AstModule module = reader.readModule();
+            used.add(entry);
+            return module;
+        } catch (IOException | RuntimeException error) {
+            return null;
+        }
+    }
+
+    /** Best effort: failures leave the cache without an entry and never fail the compile. */
+    public void store(SourceFile source, AstModule module) {
+        Path entry = entryPath(source);
+        Path temp = null;
+        try {
+            Files.createDirectories(directory);
+            temp = Files.createTempFile(directory, entry.getFileName().toString(), ".tmp");
+            try (OutputStream stream = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                Writer writer = new Writer(new DataOutputStream(stream));
+                writer.writeHeader(compilerBuild);
+                writer.writeModule(module);
+                writer.out.flush();
+            }
+            moveIntoPlace(temp, entry);
+            used.add(entry);
+            temp = null;
+        } catch (IOException | RuntimeException error) {
+            // A missing entry only costs a re-parse on the next build.
+        } finally {
+            if (temp != null) {
+                deleteQuietly(temp);
+            }
+        }
+    }
+
+    /** Deletes every entry that was not loaded or stored since the last prune. */
+    public void prune() {
+        if (Files.isDirectory(directory)) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.ast")) {
+                for (Path entry : stream) {
+                    if (!used.contains(entry)) {
+                        deleteQuietly(entry);
+                    }
+                }
+            } catch (IOException error) {
+                // Whatever is left is pruned by a later build.
+            }
+        }
+        used.clear();
+    }
+
+    /** Encodes a single item in the cache format; equal encodings mean structurally equal items. */
+    static ItemFingerprint fingerprint(AstItem item) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Writer writer = new Writer(new DataOutputStream(bytes));
+        try {
+            writer.writeItem(item);
+            writer.out.flush();
+        } catch (IOException error) {
+            throw new UncheckedIOException(error);
+        }
+        return new ItemFingerprint(bytes.toByteArray(), Set.copyOf(writer.strings.keySet()));
+    }
+
+    Path entryPath(SourceFile source) {
+        return directory.resolve(key(source.bytes()) + ".ast");
+    }
+
+    private String key(ByteBuffer contents) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((FORMAT_VERSION + ":" + compilerBuild + "\0").getBytes(StandardCharsets.UTF_8));
+            digest.update(contents);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException error) {
+            throw new IllegalStateException("SHA-256 is not available", error);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // Leftover files are harmless.
+        }
+    }
+
+    private static void moveIntoPlace(Path temp, Path entry) throws IOException {
+        try {
+            Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException error) {
+            Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    record ItemFingerprint(byte[] encoded, Set<String> strings) {}
+
+    private static final class Writer {
+        private final DataOutputStream out;
+        private final Map<String, Integer> strings = new HashMap<>();
+
+        private Writer(DataOutputStream out) {
+            this.out = out;
+        }
+
+        private void writeHeader(String compilerBuild) throws IOException {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(compilerBuild);
+        }
+
+        private void writeModule(AstModule module) throws IOException {
+            out.writeInt(module.items().size());
+            for (AstItem item : module.items()) {
+                writeItem(item);
+            }
+        }
+
+        private void writeItem(AstItem item) throws IOException {
+            if (item instanceof AstFunction function) {
+                out.writeByte(ITEM_FUNCTION);
+                writeString(function.name());
+                writeStrings(function.typeParams());
+                out.writeInt(function.params().size());
+                for (AstParam param : function.params()) {
+                    writeString(param.name());
+                    writeType(param.typeNode());
+                    out.writeBoolean(param.mutable());
+                }
+                writeType(function.returnTypeNode());
+                writeStmts(function.body());
+                out.writeBoolean(function.isPublicItem());
+                return;
+            }
+            if (item instanceof AstStruct struct) {
+                out.writeByte(ITEM_STRUCT);
+                writeString(struct.name());
+                writeStrings(struct.typeParams());
+                out.writeInt(struct.fields().size());
+                for (AstField field : struct.fields()) {
+                    writeString(field.name());
+                    writeType(field.typeNode());
+                }
+                return;
+            }
+            if (item instanceof AstEnum enumItem) {
+                out.writeByte(ITEM_ENUM);
+                writeString(enumItem.name());
+                out.writeInt(enumItem.variants().size());
+                for (AstEnumVariant variant : enumItem.variants()) {
+                    writeString(variant.name());
+                    writeType(variant.payloadTypeNode());
+                }
+                return;
+            }
+            if (item instanceof AstImport importItem) {
+                out.writeByte(ITEM_IMPORT);
+                writeString(importItem.path());
+                return;
+            }
+            if (item instanceof AstUse use) {
+                out.writeByte(ITEM_USE);
+                writeString(use.moduleName());
+                writeString(use.symbolName());
+                writeString(use.alias());
+                return;
+            }
+            throw new IllegalStateException("Unsupported item: " + item.getClass().getSimpleName());
+        }
+
+        private void writeStmts(List<AstStmt> stmts) throws IOException {
+            if (stmts == null) {
+                out.writeInt(-1);
+                return;
+            }
+            out.writeInt(stmts.size());
+            for (AstStmt stmt : stmts) {
+                writeStmt(stmt);
+            }
+        }
+
+        private void writeStmt(AstStmt stmt) throws IOException {
+            if (stmt instanceof AstLetStmt let) {
+                out.writeByte(STMT_LET);
+                writeString(let.name());
+                out.writeBoolean(let.mutable());
+                writeType(let.typeNode());
+                writeExpr(let.initializer());
+            } else if (stmt instanceof AstAssignStmt assign) {
+                out.writeByte(STMT_ASSIGN);
+                writeString(assign.name());
+                writeString(assign.operator());
+                writeExpr(assign.value());
+            } else if (stmt instanceof AstIndexAssignStmt assign) {
+                out.writeByte(STMT_INDEX_ASSIGN);
+                writeExpr(assign.target());
+                writeString(assign.operator());
+                writeExpr(assign.value());
+            } else if (stmt instanceof AstExprStmt exprStmt) {
+                out.writeByte(STMT_EXPR);
+                writeExpr(exprStmt.expr());
+            } else if (stmt instanceof AstReturnStmt returnStmt) {
+                out.writeByte(STMT_RETURN);
+                writeExpr(returnStmt.expr());
+            } else if (stmt instanceof AstIfStmt ifStmt) {
+                out.writeByte(STMT_IF);
+                writeExpr(ifStmt.condition());
+                writeStmts(ifStmt.thenBranch());
+                writeStmts(ifStmt.elseBranch());
+            } else if (stmt instanceof AstIfLetStmt ifLet) {
+                out.writeByte(STMT_IF_LET);
+                writePattern(ifLet.pattern());
+                writeExpr(ifLet.target());
+                writeStmts(ifLet.thenBranch());
+                writeStmts(ifLet.elseBranch());
+            } else if (stmt instanceof AstWhileStmt whileStmt) {
+                out.writeByte(STMT_WHILE);
+                writeString(whileStmt.label());
+                writeExpr(whileStmt.condition());
+                writeStmts(whileStmt.body());
+            } else if (stmt instanceof AstWhileLetStmt whileLet) {
+                out.writeByte(STMT_WHILE_LET);
+                writeString(whileLet.label());
+                writePattern(whileLet.pattern());
+                writeExpr(whileLet.target());
+                writeStmts(whileLet.body());
+            } else if (stmt instanceof AstForStmt forStmt) {
+                out.writeByte(STMT_FOR);
+                writeString(forStmt.label());
+                writeString(forStmt.name());
+                writeExpr(forStmt.start());
+                writeExpr(forStmt.end());
+                out.writeBoolean(forStmt.inclusive());
+                writeStmts(forStmt.body());
+            } else if (stmt instanceof AstLoopStmt loop) {
+                out.writeByte(STMT_LOOP);
+                writeString(loop.label());
+                writeStmts(loop.body());
+            } else if (stmt instanceof AstBreakStmt breakStmt) {
+                out.writeByte(STMT_BREAK);
+                writeString(breakStmt.label());
+                writeExpr(breakStmt.expr());
+            } else if (stmt instanceof AstContinueStmt continueStmt) {
+                out.writeByte(STMT_CONTINUE);
+                writeString(continueStmt.label());
+            } else {
+                throw new IllegalStateException("Unsupported statement: " + stmt.getClass().getSimpleName());
+            }
+        }
+
+        private void writeExpr(AstExpr expr) throws IOException {
+            if (expr == null) {
+                out.writeByte(EXPR_NULL);
+            } else if (expr instanceof AstNumberExpr number) {
+                out.writeByte(EXPR_NUMBER);
+                writeString(number.literal());
+            } else if (expr instanceof AstStringExpr string) {
+                out.writeByte(EXPR_STRING);
+                writeString(string.literal());
+            } else if (expr instanceof AstBoolExpr bool) {
+                out.writeByte(EXPR_BOOL);
+                out.writeBoolean(bool.value());
+            } else if (expr instanceof AstIdentExpr ident) {
+                out.writeByte(EXPR_IDENT);
+                writeString(ident.name());
+            } else if (expr instanceof AstPathExpr path) {
+                out.writeByte(EXPR_PATH);
+                writeStrings(path.segments());
+            } else if (expr instanceof AstCallExpr call) {
+                out.writeByte(EXPR_CALL);
+                writeStrings(call.callee());
+                out.writeInt(call.args().size());
+                for (AstExpr arg : call.args()) {
+                    writeExpr(arg);
+                }
+            } else if (expr instanceof AstBinaryExpr binary) {
+                out.writeByte(EXPR_BINARY);
+                writeExpr(binary.left());
+                writeString(binary.operator());
+                writeExpr(binary.right());
+            } else if (expr instanceof AstUnaryExpr unary) {
+                out.writeByte(EXPR_UNARY);
+                writeString(unary.operator());
+                writeExpr(unary.expr());
+            } else if (expr instanceof AstFieldAccessExpr access) {
+                out.writeByte(EXPR_FIELD_ACCESS);
+                writeExpr(access.target());
+                writeString(access.field());
+            } else if (expr instanceof AstArrayExpr array) {
+                out.writeByte(EXPR_ARRAY);
+                out.writeInt(array.isRepeat() ? array.length() : -1);
+                out.writeInt(array.elements().size());
+                for (AstExpr element : array.elements()) {
+                    writeExpr(element);
+                }
+            } else if (expr instanceof AstIndexExpr index) {
+                out.writeByte(EXPR_INDEX);
+                writeExpr(index.target());
+                writeExpr(index.index());
+            } else if (expr instanceof AstStructInitExpr init) {
+                out.writeByte(EXPR_STRUCT_INIT);
+                writeString(init.name());
+                out.writeInt(init.fields().size());
+                for (AstFieldInit field : init.fields()) {
+                    writeString(field.name());
+                    writeExpr(field.value());
+                }
+            } else if (expr instanceof AstBlockExpr block) {
+                out.writeByte(EXPR_BLOCK);
+                writeStmts(block.statements());
+                writeExpr(block.value());
+            } else if (expr instanceof AstIfExpr ifExpr) {
+                out.writeByte(EXPR_IF);
+                writeExpr(ifExpr.condition());
+                writeExpr(ifExpr.thenExpr());
+                writeExpr(ifExpr.elseExpr());
+            } else if (expr instanceof AstLoopExpr loop) {
+                out.writeByte(EXPR_LOOP);
+                writeStmts(loop.body());
+            } else if (expr instanceof AstMatchExpr match) {
+                out.writeByte(EXPR_MATCH);
+                writeExpr(match.target());
+                out.writeInt(match.arms().size());
+                for (AstMatchArm arm : match.arms()) {
+                    writePattern(arm.pattern());
+                    writeExpr(arm.guard());
+                    writeExpr(arm.expr());
+                }
+            } else {
+                throw new IllegalStateException("Unsupported expression: " + expr.getClass().getSimpleName());
+            }
+        }
+
+        private void writePattern(AstMatchPattern pattern) throws IOException {
+            out.writeByte(pattern.kind().ordinal());
+            writeString(pattern.value());
+            writeString(pattern.rangeStart());
+            writeString(pattern.rangeEnd());
+            out.writeBoolean(pattern.inclusive());
+            writeString(pattern.enumName());
+            writeString(pattern.variantName());
+            writeString(pattern.binding());
+        }
+
+        private void writeType(AstType type) throws IOException {
+            if (type == null) {
+                out.writeByte(TYPE_NULL);
+                return;
+            }
+            switch (type.kind()) {
+                case NAMED -> {
+                    out.writeByte(TYPE_NAMED);
+                    writeString(type.name());
+                }
+                case REFERENCE -> {
+                    out.writeByte(TYPE_REFERENCE);
+                    out.writeBoolean(type.mutable());
+                    writeType(type.referent());
+                }
+                case ARRAY -> {
+                    out.writeByte(TYPE_ARRAY);
+                    out.writeInt(type.length());
+                    writeType(type.referent());
+                }
+                case GENERIC -> {
+                    out.writeByte(TYPE_GENERIC);
+                    writeString(type.name());
+                    out.writeInt(type.arguments().size());
+                    for (AstType argument : type.arguments()) {
+                        writeType(argument);
+                    }
+                }
+            }
+        }
+
+        private void writeStrings(List<String> values) throws IOException {
+            out.writeInt(values.size());
+            for (String value : values) {
+                writeString(value);
+            }
+        }
+
+        // Strings go through a per-entry table: repeated identifiers cost one int after first use.
+        private void writeString(String value) throws IOException {
+            if (value == null) {
+                out.writeInt(-1);
+                return;
+            }
+            Integer index = strings.get(value);
+            if (index != null) {
+                out.writeInt(index);
+                return;
+            }
+            int next = strings.size();
+            strings.put(value, next);
+            out.writeInt(next);
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static final class Reader {
+        private final DataInputStream in;
+        private final Path sourcePath;
+        private final List<String> strings = new ArrayList<>();
+
+        private Reader(DataInputStream in, Path sourcePath) {
+            this.in = in;
+            this.sourcePath = sourcePath;
+        }
+
+        private boolean readHeader(String compilerBuild) throws IOException {
+            return in.readInt() == MAGIC
+                && in.readInt() == FORMAT_VERSION
+                && in.readUTF().equals(compilerBuild);
+        }
+
+        private AstModule readModule() throws IOException {
+            int count = in.readInt();
+            List<AstItem> items = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                items.add(readItem());
+            }
+            return new AstModule(items);
+        }
+
+        private AstItem readItem() throws IOException {
+            byte tag = in.readByte();
+            switch (tag) {
+                case ITEM_FUNCTION -> {
+                    String name = readString();
+                    List<String> typeParams = readStrings();
+                    int paramCount = in.readInt();
+                    List<AstParam> params = new ArrayList<>(paramCount);
+                    for (int i = 0; i < paramCount; i++) {
+                        params.add(AstParam.of(readString(), readType(), in.readBoolean()));
+                    }
+                    AstType returnType = readType();
+                    List<AstStmt> body = readStmts();
+                    boolean publicItem = in.readBoolean();
+                    return AstFunction.of(name, typeParams, params, returnType, body, publicItem, sourcePath);
+                }
+                case ITEM_STRUCT -> {
+                    String name = readString();
+                    List<String> typeParams = readStrings();
+                    int fieldCount = in.readInt();
+                    List<AstField> fields = new ArrayList<>(fieldCount);
+                    for (int i = 0; i < fieldCount; i++) {
+                        fields.add(AstField.of(readString(), readType()));
+                    }
+                    return new AstStruct(name, typeParams, fields);
+                }
+                case ITEM_ENUM -> {
+                    String name = readString();
+                    int variantCount = in.readInt();
+                    List<AstEnumVariant> variants = new ArrayList<>(variantCount);
+                    for (int i = 0; i < variantCount; i++) {
+                        variants.add(AstEnumVariant.of(readString(), readType()));
+                    }
+                    return new AstEnum(name, variants);
+                }
+                case ITEM_IMPORT -> {
+                    return new AstImport(readString());
+                }
+                case ITEM_USE -> {
+                    return new AstUse(readString(), readString(), readString(), sourcePath);
+                }
+                default -> throw new IllegalStateException("Unknown item tag: " + tag);
+            }
+        }
+
+        private List<AstStmt> readStmts() throws IOException {
+            int count = in.readInt();
+            if (count < 0) {
+                return null;
+            }
+            List<AstStmt> stmts = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                stmts.add(readStmt());
+            }
+            return stmts;
+        }
+
+        private AstStmt readStmt() throws IOException {
+            byte tag = in.readByte();
+            return switch (tag) {
+                case STMT_LET -> AstLetStmt.of(readString(), in.readBoolean(), readType(), readExpr());
+                case STMT_ASSIGN -> new AstAssignStmt(readString(), readString(), readExpr());
+                case STMT_EXPR -> new AstExprStmt(readExpr());
+                case STMT_RETURN -> new AstReturnStmt(readExpr());
+                case STMT_IF -> new AstIfStmt(readExpr(), readStmts(), readStmts());
+                case STMT_IF_LET -> new AstIfLetStmt(readPattern(), readExpr(), readStmts(), readStmts());
+                case STMT_WHILE -> new AstWhileStmt(readString(), readExpr(), readStmts());
+                case STMT_WHILE_LET -> new AstWhileLetStmt(readString(), readPattern(), readExpr(), readStmts());
+                case STMT_FOR -> new AstForStmt(readString(), readString(), readExpr(), readExpr(), in.readBoolean(), readStmts());
+                case STMT_LOOP -> new AstLoopStmt(readString(), readStmts());
+                case STMT_BREAK -> new AstBreakStmt(readString(), readExpr());
+                case STMT_CONTINUE -> new AstContinueStmt(readString());
+                case STMT_INDEX_ASSIGN -> new AstIndexAssignStmt((AstIndexExpr) readExpr(), readString(), readExpr());
+                default -> throw new IllegalStateException("Unknown statement tag: " + tag);
+            };
+        }
+
+        private AstExpr readExpr() throws IOException {
+            byte tag = in.readByte();
+            switch (tag) {
+                case EXPR_NULL -> {
+                    return null;
+                }
+                case EXPR_NUMBER -> {
+                    return new AstNumberExpr(readString());
+                }
+                case EXPR_STRING -> {
+                    return new AstStringExpr(readString());
+                }
+                case EXPR_BOOL -> {
+                    return new AstBoolExpr(in.readBoolean());
+                }
+                case EXPR_IDENT -> {
+                    return new AstIdentExpr(readString());
+                }
+                case EXPR_PATH -> {
+                    return new AstPathExpr(readStrings());
+                }
+                case EXPR_CALL -> {
+                    List<String> callee = readStrings();
+                    int argCount = in.readInt();
+                    List<AstExpr> args = new ArrayList<>(argCount);
+                    for (int i = 0; i < argCount; i++) {
+                        args.add(readExpr());
+                    }
+                    return new AstCallExpr(callee, args);
+                }
+                case EXPR_BINARY -> {
+                    return new AstBinaryExpr(readExpr(), readString(), readExpr());
+                }
+                case EXPR_UNARY -> {
+                    return new AstUnaryExpr(readString(), readExpr());
+                }
+                case EXPR_FIELD_ACCESS -> {
+                    return new AstFieldAccessExpr(readExpr(), readString());
+                }
+                case EXPR_ARRAY -> {
+                    int repeatCount = in.readInt();
+                    int elementCount = in.readInt();
+                    List<AstExpr> elements = new ArrayList<>(elementCount);
+                    for (int i = 0; i < elementCount; i++) {
+                        elements.add(readExpr());
+                    }
+                    return repeatCount >= 0 ? AstArrayExpr.repeat(elements.get(0), repeatCount) : AstArrayExpr.list(elements);
+                }
+                case EXPR_INDEX -> {
+                    return new AstIndexExpr(readExpr(), readExpr());
+                }
+                case EXPR_STRUCT_INIT -> {
+                    String name = readString();
+                    int fieldCount = in.readInt();
+                    List<AstFieldInit> fields = new ArrayList<>(fieldCount);
+                    for (int i = 0; i < fieldCount; i++) {
+                        fields.add(new AstFieldInit(readString(), readExpr()));
+                    }
+                    return new AstStructInitExpr(name, fields);
+                }
+                case EXPR_BLOCK -> {
+                    return new AstBlockExpr(readStmts(), readExpr());
+                }
+                case EXPR_IF -> {
+                    return new AstIfExpr(readExpr(), readExpr(), readExpr());
+                }
+                case EXPR_LOOP -> {
+                    return new AstLoopExpr(readStmts());
+                }
+                case EXPR_MATCH -> {
+                    AstExpr target = readExpr();
+                    int armCount = in.readInt();
+                    List<AstMatchArm> arms = new ArrayList<>(armCount);
+                    for (int i = 0; i < armCount; i++) {
+                        arms.add(new AstMatchArm(readPattern(), readExpr(), readExpr()));
+                    }
+                    return new AstMatchExpr(target, arms);
+                }
+                default -> throw new IllegalStateException("Unknown expression tag: " + tag);
+            }
+        }
+
+        private AstMatchPattern readPattern() throws IOException {
+            AstMatchPattern.Kind kind = AstMatchPattern.Kind.values()[in.readByte()];
+            String value = readString();
+            String rangeStart = readString();
+            String rangeEnd = readString();
+            boolean inclusive = in.readBoolean();
+            String enumName = readString();
+            String variantName = readString();
+            String binding = readString();
+            return switch (kind) {
+                case WILDCARD -> AstMatchPattern.wildcard();
+                case INT -> AstMatchPattern.intLiteral(value);
+                case BOOL -> AstMatchPattern.boolLiteral(value);
+                case STRING -> AstMatchPattern.stringLiteral(value);
+                case RANGE -> AstMatchPattern.range(rangeStart, rangeEnd, inclusive);
+                case ENUM -> AstMatchPattern.enumVariant(enumName, variantName, binding);
+            };
+        }
+
+        private List<String> readStrings() throws IOException {
+            int count = in.readInt();
+            List<String> values = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                values.add(readString());
+            }
+            return values;
+        }
+
+        private AstType readType() throws IOException {
+            byte tag = in.readByte();
+            return switch (tag) {
+                case TYPE_NULL -> null;
+                case TYPE_NAMED -> AstType.named(readString());
+                case TYPE_REFERENCE -> {
+                    boolean mutable = in.readBoolean();
+                    yield AstType.reference(readType(), mutable);
+                }
+                case TYPE_ARRAY -> {
+                    int length = in.readInt();
+                    yield AstType.array(readType(), length);
+                }
+                case TYPE_GENERIC -> {
+                    String name = readString();
+                    int count = in.readInt();
+                    List<AstType> arguments = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        arguments.add(readType());
+                    }
+                    yield AstType.generic(name, arguments);
+                }
+                default -> throw new IllegalStateException("Unknown type tag: " + tag);
+            };
+        }
+
+        private String readString() throws IOException {
+            int index = in.readInt();
+            if (index < 0) {
+                return null;
+            }
+            if (index < strings.size()) {
+                return strings.get(index);
+            }
+            if (index != strings.size()) {
+                throw new IllegalStateException("Corrupt string table index: " + index);
+            }
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            String value = new String(bytes, StandardCharsets.UTF_8);
+            strings.add(value);
+            return value;
+        }
+    }
+}
@@ -2,18 +2,30 @@ package org.justlang.compiler;
 
 public final class AstEnumVariant {
     private final String name;
-    private final String payloadType;
+    private final AstType payloadType;
 
     public AstEnumVariant(String name, String payloadType) {
+        this(name, AstType.parse(payloadType));
+    }
+
+    private AstEnumVariant(String name, AstType payloadType) {
         this.name = name;
         this.payloadType = payloadType;
     }
 
+    public static AstEnumVariant of(String name, AstType payloadType) {
+        return new AstEnumVariant(name, payloadType);
+    }
+
     public String name() {
         return name;
     }
 
     public String payloadType() {
+        return payloadType == null ? null : payloadType.text();
+    }
+
+    public AstType payloadTypeNode() {
         return payloadType;
     }
 }
@@ -2,18 +2,30 @@ package org.justlang.compiler;
 
 public final class AstField {
     private final String name;
-    private final String type;
+    private final AstType type;
 
     public AstField(String name, String type) {
+        this(name, AstType.parse(type));
+    }
+
+    private AstField(String name, AstType type) {
         this.name = name;
         this.type = type;
     }
 
+    public static AstField of(String name, AstType type) {
+        return new AstField(name, type);
+    }
+
     public String name() {
         return name;
     }
 
     public String type() {
+        return type == null ? null : type.text();
+    }
+
+    public AstType typeNode() {
         return type;
     }
 }
@@ -5,8 +5,9 @@ import java.util.List;
 
 public final class AstFunction implements AstItem {
     private final String name;
+    private final List<String> typeParams;
     private final List<AstParam> params;
-    private final String returnType;
+    private final AstType returnType;
     private final List<AstStmt> body;
     private final boolean publicItem;
     private final Path sourcePath;
@@ -22,8 +23,21 @@ public final class AstFunction implements AstItem {
         List<AstStmt> body,
         boolean publicItem,
         Path sourcePath
+    ) {
+        this(name, List.of(), params, AstType.parse(returnType), body, publicItem, sourcePath);
+    }
+
+    private AstFunction(
+        String name,
+        List<String> typeParams,
+        List<AstParam> params,
+        AstType returnType,
+        List<AstStmt> body,
+        boolean publicItem,
+        Path sourcePath
     ) {
         this.name = name;
+        this.typeParams = typeParams;
         this.params = params;
         this.returnType = returnType;
         this.body = body;
@@ -31,15 +45,51 @@ public final class AstFunction implements AstItem {
         this.sourcePath = sourcePath;
     }
 
+    public static AstFunction of(
+        String name,
+        List<AstParam> params,
+        AstType returnType,
+        List<AstStmt> body,
+        boolean publicItem,
+        Path sourcePath
+    ) {
+        return of(name, List.of(), params, returnType, body, publicItem, sourcePath);
+    }
+
+    public static AstFunction of(
+        String name,
+        List<String> typeParams,
+        List<AstParam> params,
+        AstType returnType,
+        List<AstStmt> body,
+        boolean publicItem,
+        Path sourcePath
+    ) {
+        return new AstFunction(name, List.copyOf(typeParams), params, returnType, body, publicItem, sourcePath);
+    }
+
     public String name() {
         return name;
     }
 
+    /** Declared type parameters, in order; empty for an ordinary function. */
+    public List<String> typeParams() {
+        return typeParams;
+    }
+
+    public boolean isGeneric() {
+        return !typeParams.isEmpty();
+    }
+
     public List<AstParam> params() {
         return params;
     }
 
     public String returnType() {
+        return returnType == null ? null : returnType.text();
+    }
+
+    public AstType returnTypeNode() {
         return returnType;
     }
 
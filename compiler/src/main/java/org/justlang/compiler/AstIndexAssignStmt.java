@@ -0,0 +1,26 @@
+package org.justlang.compiler;
+
+/** An assignment to an array element, {@code target[index] op value}. */
+public final class AstIndexAssignStmt implements AstStmt {
+    private final AstIndexExpr target;
+    private final String operator;
+    private final AstExpr value;
+
+    public AstIndexAssignStmt(AstIndexExpr target, String operator, AstExpr value) {
+        this.target = target;
+        this.operator = operator;
+        this.value = value;
+    }
+
+    public AstIndexExpr target() {
+        return target;
+    }
+
+    public String operator() {
+        return operator;
+    }
+
+    public AstExpr value() {
+        return value;
+    }
+}
@@ -0,0 +1,19 @@
+package org.justlang.compiler;
+
+public final class AstIndexExpr implements AstExpr {
+    private final AstExpr target;
+    private final AstExpr index;
+
+    public AstIndexExpr(AstExpr target, AstExpr index) {
+        this.target = target;
+        this.index = index;
+    }
+
+    public AstExpr target() {
+        return target;
+    }
+
+    public AstExpr index() {
+        return index;
+    }
+}
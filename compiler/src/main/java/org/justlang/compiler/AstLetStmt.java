@@ -3,16 +3,24 @@ package org.justlang.compiler;
 public final class AstLetStmt implements AstStmt {
     private final String name;
     private final boolean mutable;
-    private final String type;
+    private final AstType type;
     private final AstExpr initializer;
 
     public AstLetStmt(String name, boolean mutable, String type, AstExpr initializer) {
+        this(name, mutable, AstType.parse(type), initializer);
+    }
+
+    private AstLetStmt(String name, boolean mutable, AstType type, AstExpr initializer) {
         this.name = name;
         this.mutable = mutable;
         this.type = type;
         this.initializer = initializer;
     }
 
+    public static AstLetStmt of(String name, boolean mutable, AstType type, AstExpr initializer) {
+        return new AstLetStmt(name, mutable, type, initializer);
+    }
+
     public String name() {
         return name;
     }
@@ -22,6 +30,10 @@ public final class AstLetStmt implements AstStmt {
     }
 
     public String type() {
+        return type == null ? null : type.text();
+    }
+
+    public AstType typeNode() {
         return type;
     }
 
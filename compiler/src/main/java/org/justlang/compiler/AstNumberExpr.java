@@ -1,6 +1,8 @@
 package org.justlang.compiler;
 
 public final class AstNumberExpr implements AstExpr {
+    private static final int SUFFIX_LENGTH = 3;
+
     private final String literal;
 
     public AstNumberExpr(String literal) {
@@ -10,4 +12,24 @@ public final class AstNumberExpr implements AstExpr {
     public String literal() {
         return literal;
     }
+
+    /** The type suffix the lexer kept on the literal ({@code i64} in {@code 42i64}), or null. */
+    public String suffix() {
+        int split = literal.length() - SUFFIX_LENGTH;
+        return split > 0 && Character.isLetter(literal.charAt(split)) ? literal.substring(split) : null;
+    }
+
+    /** The literal without its suffix. */
+    public String digits() {
+        return suffix() == null ? literal : literal.substring(0, literal.length() - SUFFIX_LENGTH);
+    }
+
+    /** Unsuffixed literals are {@code i32}, or {@code f64} when they have a fraction. */
+    public TypeId type() {
+        String suffix = suffix();
+        if (suffix != null) {
+            return TypeId.fromTypeName(suffix);
+        }
+        return literal.indexOf('.') >= 0 ? TypeId.F64 : TypeId.INT;
+    }
 }
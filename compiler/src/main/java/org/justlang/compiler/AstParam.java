@@ -2,20 +2,32 @@ package org.justlang.compiler;
 
 public final class AstParam {
     private final String name;
-    private final String type;
+    private final AstType type;
     private final boolean mutable;
 
     public AstParam(String name, String type, boolean mutable) {
+        this(name, AstType.parse(type), mutable);
+    }
+
+    private AstParam(String name, AstType type, boolean mutable) {
         this.name = name;
         this.type = type;
         this.mutable = mutable;
     }
 
+    public static AstParam of(String name, AstType type, boolean mutable) {
+        return new AstParam(name, type, mutable);
+    }
+
     public String name() {
         return name;
     }
 
     public String type() {
+        return type == null ? null : type.text();
+    }
+
+    public AstType typeNode() {
         return type;
     }
 
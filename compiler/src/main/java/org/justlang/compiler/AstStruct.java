@@ -4,10 +4,16 @@ import java.util.List;
 
 public final class AstStruct implements AstItem {
     private final String name;
+    private final List<String> typeParams;
     private final List<AstField> fields;
 
     public AstStruct(String name, List<AstField> fields) {
+        this(name, List.of(), fields);
+    }
+
+    public AstStruct(String name, List<String> typeParams, List<AstField> fields) {
         this.name = name;
+        this.typeParams = List.copyOf(typeParams);
         this.fields = fields;
     }
 
@@ -15,6 +21,15 @@ public final class AstStruct implements AstItem {
         return name;
     }
 
+    /** Declared type parameters, in order; empty for an ordinary struct. */
+    public List<String> typeParams() {
+        return typeParams;
+    }
+
+    public boolean isGeneric() {
+        return !typeParams.isEmpty();
+    }
+
     public List<AstField> fields() {
         return fields;
     }
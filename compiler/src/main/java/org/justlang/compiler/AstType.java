@@ -0,0 +1,148 @@
+package org.justlang.compiler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A type annotation as written in source. The parser builds it once per declaration so later
+ * stages resolve structure directly instead of re-scanning type text; {@link #text()} keeps the
+ * spelling used in diagnostics.
+ */
+public final class AstType {
+    public enum Kind {
+        NAMED,
+        REFERENCE,
+        GENERIC,
+        ARRAY
+    }
+
+    private final Kind kind;
+    private final String name;
+    private final AstType referent;
+    private final boolean mutable;
+    private final List<AstType> arguments;
+    private final int length;
+    private final String text;
+
+    private AstType(Kind kind, String name, AstType referent, boolean mutable, List<AstType> arguments, String text) {
+        this(kind, name, referent, mutable, arguments, 0, text);
+    }
+
+    private AstType(Kind kind, String name, AstType referent, boolean mutable, List<AstType> arguments, int length, String text) {
+        this.kind = kind;
+        this.name = name;
+        this.referent = referent;
+        this.mutable = mutable;
+        this.arguments = arguments;
+        this.length = length;
+        this.text = text;
+    }
+
+    public static AstType named(String name) {
+        return new AstType(Kind.NAMED, name, null, false, List.of(), name);
+    }
+
+    public static AstType reference(AstType referent, boolean mutable) {
+        String text = (mutable ? "&mut " : "&") + referent.text;
+        return new AstType(Kind.REFERENCE, null, referent, mutable, List.of(), text);
+    }
+
+    /** A fixed-size array {@code [element; length]}; the element is kept as the referent. */
+    public static AstType array(AstType element, int length) {
+        return new AstType(Kind.ARRAY, null, element, false, List.of(), length, "[" + element.text + "; " + length + "]");
+    }
+
+    public static AstType generic(String name, List<AstType> arguments) {
+        StringBuilder text = new StringBuilder(name).append('<');
+        for (int i = 0; i < arguments.size(); i++) {
+            if (i > 0) {
+                text.append(", ");
+            }
+            text.append(arguments.get(i).text);
+        }
+        text.append('>');
+        return new AstType(Kind.GENERIC, name, null, false, List.copyOf(arguments), text.toString());
+    }
+
+    /**
+     * Builds a type from annotation text, for AST nodes constructed without the parser. The
+     * original text is kept verbatim so diagnostics read the same as before.
+     */
+    public static AstType parse(String text) {
+        if (text == null) {
+            return null;
+        }
+        AstType parsed = parseTrimmed(text.trim());
+        return new AstType(parsed.kind, parsed.name, parsed.referent, parsed.mutable, parsed.arguments, parsed.length, text);
+    }
+
+    private static AstType parseTrimmed(String text) {
+        int separator = text.lastIndexOf(';');
+        if (text.startsWith("[") && text.endsWith("]") && separator > 0) {
+            AstType element = parseTrimmed(text.substring(1, separator).trim());
+            return array(element, Integer.parseInt(text.substring(separator + 1, text.length() - 1).trim()));
+        }
+        if (text.startsWith("&")) {
+            boolean mutable = text.startsWith("&mut");
+            String inner = text.substring(mutable ? "&mut".length() : 1).trim();
+            return reference(parseTrimmed(inner), mutable);
+        }
+        int open = text.indexOf('<');
+        if (open > 0 && text.endsWith(">")) {
+            String inside = text.substring(open + 1, text.length() - 1);
+            List<AstType> arguments = new ArrayList<>();
+            int depth = 0;
+            int start = 0;
+            for (int i = 0; i < inside.length(); i++) {
+                char ch = inside.charAt(i);
+                if (ch == '<') {
+                    depth++;
+                } else if (ch == '>') {
+                    depth--;
+                } else if (ch == ',' && depth == 0) {
+                    arguments.add(parseTrimmed(inside.substring(start, i).trim()));
+                    start = i + 1;
+                }
+            }
+            String last = inside.substring(start).trim();
+            if (!last.isEmpty() || !arguments.isEmpty()) {
+                arguments.add(parseTrimmed(last));
+            }
+            return generic(text.substring(0, open).trim(), arguments);
+        }
+        return named(text);
+    }
+
+    public Kind kind() {
+        return kind;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public AstType referent() {
+        return referent;
+    }
+
+    public boolean mutable() {
+        return mutable;
+    }
+
+    public List<AstType> arguments() {
+        return arguments;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public String text() {
+        return text;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
@@ -1,46 +1,126 @@
 package org.justlang.compiler;
 
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Handle;
 import org.objectweb.asm.Label;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
 
 public final class Codegen implements CodegenStrategy {
     private static final String MAIN_CLASS_NAME = "Main";
     private static final String MAIN_INTERNAL_NAME = "Main";
+    private static final String STDOUT_INTERNAL_NAME = "org/justlang/runtime/Stdout";
+    private static final Handle STRING_CONCAT_BOOTSTRAP = new Handle(
+        Opcodes.H_INVOKESTATIC,
+        "java/lang/invoke/StringConcatFactory",
+        "makeConcatWithConstants",
+        "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/invoke/MethodType;Ljava/lang/String;[Ljava/lang/Object;)Ljava/lang/invoke/CallSite;",
+        false
+    );
+    // StringConcatFactory accepts at most 200 argument slots per call site.
+    private static final int MAX_CONCAT_ARGUMENTS = 200;
     private final Map<String, StructLayout> structLayouts = new HashMap<>();
     private final Map<String, EnumLayout> enumLayouts = new HashMap<>();
     private final Map<String, FunctionInfo> functions = new HashMap<>();
-    private final Map<Path, Map<String, String>> useAliasesBySource = new HashMap<>();
+    private final Map<String, AstStruct> genericStructs = new HashMap<>();
+    private final Map<String, AstFunction> genericFunctions = new HashMap<>();
+    private FunctionInfo[] functionsBySymbol = new FunctionInfo[0];
+    private HirModule hir;
     private final Deque<LoopContext> loopStack = new ArrayDeque<>();
     private ReturnInfo currentReturnInfo;
-    private Map<String, String> currentUseAliases = Map.of();
     private String currentFunctionModule = "main";
+    private String mainModule = "main";
+    private TypedModule types = TypedModule.empty();
+    private MirModule mir;
+    private List<String> currentTypeParams = List.of();
+    private Map<TypeId, TypeId> typeBindings = Map.of();
+    private final MethodCache methodCache;
+    private final boolean lineFlushedOutput;
+
+    public Codegen() {
+        this(null);
+    }
+
+    public Codegen(MethodCache methodCache) {
+        this(methodCache, false);
+    }
+
+    private Codegen(MethodCache methodCache, boolean lineFlushedOutput) {
+        this.methodCache = methodCache;
+        this.lineFlushedOutput = lineFlushedOutput;
+    }
 
     @Override
     public List<ClassFile> emit(AstModule module) {
-        collectUseAliases(module);
+        return emit(module, TypedModule.empty());
+    }
+
+    @Override
+    public List<ClassFile> emit(AstModule module, TypedModule types) {
+        return emit(new Monomorphizer().specialize(MirPassManager.standard().run(new MirBuilder().lower(module, types))));
+    }
+
+    @Override
+    public List<ClassFile> emit(MirModule mir) {
+        if (!mir.isSpecialized()) {
+            mir = new Monomorphizer().specialize(mir);
+        }
+        AstModule module = mir.source();
+        this.mir = mir;
+        this.types = mir.types();
+        this.hir = types.hir() != null && types.hir().module() == module ? types.hir() : new NameResolver().resolve(module);
+        structLayouts.clear();
+        enumLayouts.clear();
+        functions.clear();
+        genericStructs.clear();
+        genericFunctions.clear();
+        loopStack.clear();
+        AstFunction main = findMain(module);
+        if (main == null) {
+            throw new IllegalStateException("Missing `fn main()`");
+        }
+        mainModule = hir.moduleName(main.sourcePath());
         buildEnumLayouts(module);
         buildStructLayouts(module);
         buildFunctionRegistry(module);
+        // Functions go first so any struct instantiation they meet is laid out before classes are written.
+        List<ClassFile> functionClasses = emitFunctionClasses(module, main);
         List<ClassFile> classFiles = new ArrayList<>();
         for (StructLayout layout : structLayouts.values()) {
             classFiles.add(emitStructClass(layout));
         }
         for (EnumLayout layout : enumLayouts.values()) {
-            classFiles.add(emitEnumClass(layout));
+            classFiles.addAll(emitEnumClasses(layout));
+        }
+        classFiles.addAll(functionClasses);
+        if (!lineFlushedOutput) {
+            classFiles.add(new ClassFile(STDOUT_INTERNAL_NAME, RuntimeClasses.stdout()));
+        }
+        if (methodCache != null) {
+            methodCache.prune();
         }
-        classFiles.add(emitMainClass(module));
         return classFiles;
     }
 
@@ -49,22 +129,203 @@ public final class Codegen implements CodegenStrategy {
         return MAIN_CLASS_NAME;
     }
 
-    private ClassFile emitMainClass(AstModule module) {
-        AstFunction main = findMain(module);
-        if (main == null) {
-            throw new IllegalStateException("Missing `fn main()`");
+    @Override
+    public CodegenStrategy withMethodCache(Path cacheDirectory) {
+        return new Codegen(new MethodCache(cacheDirectory), lineFlushedOutput);
+    }
+
+    @Override
+    public CodegenStrategy withLineFlushedOutput() {
+        return new Codegen(methodCache, true);
+    }
+
+    /**
+     * Emits one class per source module: the module declaring {@code main} keeps {@code Main}, and
+     * every other module gets a class named after it that holds its functions and the
+     * specializations of its generics. Calls go straight to the owning class, so the JVM loads and
+     * verifies a module's code only when one of its functions is first called.
+     */
+    private List<ClassFile> emitFunctionClasses(AstModule module, AstFunction main) {
+        Map<String, List<ClassMethod>> methodsByClass = new LinkedHashMap<>();
+        methodsByClass.put(MAIN_INTERNAL_NAME, new ArrayList<>());
+        for (AstItem item : module.items()) {
+            if (item instanceof AstFunction fn && !"main".equals(fn.name()) && !fn.isGeneric()) {
+                methodsByClass.computeIfAbsent(functions.get(fn.name()).owner(), owner -> new ArrayList<>())
+                    .add(new ClassMethod(fn, "", writer -> emitFunction(writer, fn)));
+            }
+        }
+        for (MirModule.FunctionInstance instance : mir.functionInstances()) {
+            methodsByClass.computeIfAbsent(functions.get(instance.name()).owner(), owner -> new ArrayList<>())
+                .add(new ClassMethod(instance.function(), instance.name(), writer -> emitFunctionInstance(writer, instance)));
         }
+        methodsByClass.get(MAIN_INTERNAL_NAME).add(new ClassMethod(main, "", writer -> emitMainMethod(writer, main)));
 
+        List<ClassFile> classFiles = new ArrayList<>();
+        for (Map.Entry<String, List<ClassMethod>> entry : methodsByClass.entrySet()) {
+            classFiles.add(methodCache != null
+                ? emitFunctionClassIncremental(entry.getKey(), entry.getValue())
+                : emitFunctionClass(entry.getKey(), entry.getValue()));
+        }
+        return classFiles;
+    }
+
+    private ClassFile emitFunctionClass(String internalName, List<ClassMethod> methods) {
         ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
-        writer.visit(Opcodes.V17, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL, MAIN_INTERNAL_NAME, null, "java/lang/Object", null);
+        writer.visit(Opcodes.V17, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL, internalName, null, "java/lang/Object", null);
 
         emitDefaultConstructor(writer);
-        emitFunctions(writer, module);
-        emitMainMethod(writer, main);
+        for (ClassMethod method : methods) {
+            method.emitter().accept(writer);
+        }
 
         writer.visitEnd();
-        byte[] bytes = writer.toByteArray();
-        return new ClassFile(MAIN_CLASS_NAME, bytes);
+        return new ClassFile(internalName, writer.toByteArray());
+    }
+
+    private ClassFile emitFunctionClassIncremental(String internalName, List<ClassMethod> methods) {
+        // Fragments carry their own frames and maxs, so splicing needs no recomputation.
+        ClassWriter writer = new ClassWriter(0);
+        writer.visit(Opcodes.V17, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL, internalName, null, "java/lang/Object", null);
+
+        spliceMethods(writer, emitFragment(this::emitDefaultConstructor));
+        for (ClassMethod method : methods) {
+            spliceMethods(writer, cachedFragment(methodKey(method.function(), method.specialization()), method.emitter()));
+        }
+
+        writer.visitEnd();
+        return new ClassFile(internalName, writer.toByteArray());
+    }
+
+    /**
+     * The class holding a module's functions. A module whose name is already taken by {@code Main}
+     * or a struct/enum class gets a {@code $module} suffix.
+     */
+    private String moduleClassName(String moduleName) {
+        if (moduleName.equals(mainModule)) {
+            return MAIN_INTERNAL_NAME;
+        }
+        if (MAIN_INTERNAL_NAME.equals(moduleName) || structLayouts.containsKey(moduleName) || enumLayouts.containsKey(moduleName)) {
+            return moduleName + "$module";
+        }
+        return moduleName;
+    }
+
+    private byte[] cachedFragment(String key, Consumer<ClassWriter> emitter) {
+        byte[] fragment = methodCache.get(key);
+        if (fragment == null) {
+            fragment = emitFragment(emitter);
+            methodCache.put(key, fragment);
+        }
+        return fragment;
+    }
+
+    private byte[] emitFragment(Consumer<ClassWriter> emitter) {
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+        writer.visit(Opcodes.V17, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL, MAIN_INTERNAL_NAME, null, "java/lang/Object", null);
+        emitter.accept(writer);
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    private void spliceMethods(ClassWriter target, byte[] fragment) {
+        new ClassReader(fragment).accept(new ClassVisitor(Opcodes.ASM9) {
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+                return target.visitMethod(access, name, descriptor, signature, exceptions);
+            }
+        }, 0);
+    }
+
+    // A function's bytecode depends on its body, its module and `use` aliases, the
+    // signatures/layouts of everything it can reach by name and, for a specialization of a
+    // generic, the type arguments spelled out in its name, so all of those feed the key.
+    private String methodKey(AstFunction fn, String specialization) {
+        AstCache.ItemFingerprint fingerprint = AstCache.fingerprint(fn);
+        Map<String, String> aliases = hir.useAliases(fn.sourcePath());
+        TreeSet<String> pending = new TreeSet<>();
+        for (String value : fingerprint.strings()) {
+            addIdentifiers(pending, value);
+        }
+        for (String target : aliases.values()) {
+            addIdentifiers(pending, target);
+        }
+
+        Set<String> visited = new HashSet<>();
+        List<String> signatures = new ArrayList<>();
+        while (!pending.isEmpty()) {
+            String name = pending.pollFirst();
+            if (!visited.add(name)) {
+                continue;
+            }
+            String signature = signatureOf(name);
+            if (signature != null) {
+                signatures.add(signature);
+                addIdentifiers(pending, signature);
+            }
+        }
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((JustCompiler.buildId() + "\0" + hir.moduleName(fn.sourcePath()) + "\0").getBytes(StandardCharsets.UTF_8));
+            digest.update((specialization + "\0").getBytes(StandardCharsets.UTF_8));
+            digest.update(new TreeMap<>(aliases).toString().getBytes(StandardCharsets.UTF_8));
+            digest.update(fingerprint.encoded());
+            digest.update((byte) (loweredFunction(fn) != null ? 2 : types.isEmpty() ? 0 : 1));
+            digest.update((byte) (lineFlushedOutput ? 1 : 0));
+            for (String signature : signatures) {
+                digest.update(signature.getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException error) {
+            throw new IllegalStateException("SHA-256 is not available", error);
+        }
+    }
+
+    private String signatureOf(String name) {
+        StringBuilder signature = new StringBuilder();
+        FunctionInfo function = functions.get(name);
+        if (function != null) {
+            signature.append(function);
+        }
+        StructLayout struct = structLayouts.get(name);
+        if (struct != null) {
+            signature.append(struct);
+        }
+        EnumLayout enumLayout = enumLayouts.get(name);
+        if (enumLayout != null) {
+            signature.append(enumLayout);
+        }
+        AstFunction genericFunction = genericFunctions.get(name);
+        if (genericFunction != null) {
+            signature.append(genericFunction.name()).append(genericFunction.typeParams()).append('(');
+            for (AstParam param : genericFunction.params()) {
+                signature.append(param.name()).append(": ").append(param.type()).append(", ");
+            }
+            signature.append(") -> ").append(genericFunction.returnTypeNode());
+        }
+        AstStruct genericStruct = genericStructs.get(name);
+        if (genericStruct != null) {
+            signature.append(genericStruct.name()).append(genericStruct.typeParams()).append('{');
+            for (AstField field : genericStruct.fields()) {
+                signature.append(field.name()).append(": ").append(field.type()).append(", ");
+            }
+            signature.append('}');
+        }
+        return signature.isEmpty() ? null : signature.toString();
+    }
+
+    private static void addIdentifiers(Set<String> names, String text) {
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean identifierChar = i < text.length()
+                && (Character.isLetterOrDigit(text.charAt(i)) || text.charAt(i) == '_');
+            if (identifierChar && start < 0) {
+                start = i;
+            } else if (!identifierChar && start >= 0) {
+                names.add(text.substring(start, i));
+                start = -1;
+            }
+        }
     }
 
     private ClassFile emitStructClass(StructLayout layout) {
@@ -81,19 +342,143 @@ public final class Codegen implements CodegenStrategy {
         return new ClassFile(layout.internalName(), writer.toByteArray());
     }
 
-    private ClassFile emitEnumClass(EnumLayout layout) {
-        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
-        writer.visit(Opcodes.V17, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL, layout.internalName(), null, "java/lang/Object", null);
+    /**
+     * An enum is a sealed abstract class holding the tag, plus one final subclass per variant that
+     * stores the payload in a field of its own type. A variant whose payload is {@code Any} (the
+     * builtin {@code Option}/{@code Result} payloads) also gets {@code $i32} and {@code $bool}
+     * subclasses, and its factories route every {@code int}/{@code bool} payload there, so a match
+     * whose checked binding type is primitive reads the field directly instead of unboxing.
+     */
+    private List<ClassFile> emitEnumClasses(EnumLayout layout) {
+        List<String> variantClasses = new ArrayList<>();
+        for (EnumVariant variant : layout.variants()) {
+            variantClasses.add(variant.className());
+            if (variant.specializesPayload()) {
+                variantClasses.add(variant.className(ValueKind.INT));
+                variantClasses.add(variant.className(ValueKind.BOOL));
+            }
+        }
 
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+        writer.visit(Opcodes.V17, Opcodes.ACC_PUBLIC | Opcodes.ACC_ABSTRACT, layout.internalName(), null, "java/lang/Object", null);
+        for (String variantClass : variantClasses) {
+            writer.visitPermittedSubclass(variantClass);
+        }
         writer.visitField(Opcodes.ACC_FINAL, "tag", "I", null, null).visitEnd();
-        writer.visitField(Opcodes.ACC_FINAL, "payload", "Ljava/lang/Object;", null, null).visitEnd();
 
         emitEnumConstructor(writer, layout);
         emitEnumFactories(writer, layout);
+        emitEnumPayloadAccessor(writer, null, null);
         emitEnumToString(writer, layout);
+        writer.visitEnd();
+
+        List<ClassFile> classFiles = new ArrayList<>();
+        classFiles.add(new ClassFile(layout.internalName(), writer.toByteArray()));
+        for (EnumVariant variant : layout.variants()) {
+            if (variant.payloadType() == null) {
+                classFiles.add(emitVariantClass(layout, variant, variant.className(), null));
+            } else if (variant.specializesPayload()) {
+                classFiles.add(emitVariantClass(layout, variant, variant.className(), "Ljava/lang/Object;"));
+                classFiles.add(emitVariantClass(layout, variant, variant.className(ValueKind.INT), "I"));
+                classFiles.add(emitVariantClass(layout, variant, variant.className(ValueKind.BOOL), "Z"));
+            } else {
+                classFiles.add(emitVariantClass(layout, variant, variant.className(), descriptorFor(variant.payloadType())));
+            }
+        }
+        return classFiles;
+    }
+
+    private ClassFile emitVariantClass(EnumLayout layout, EnumVariant variant, String internalName, String payloadDescriptor) {
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+        writer.visit(Opcodes.V17, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL, internalName, null, layout.internalName(), null);
+        if (payloadDescriptor != null) {
+            writer.visitField(Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL, "value", payloadDescriptor, null, null).visitEnd();
+        } else {
+            emitVariantSingleton(writer, layout, internalName);
+        }
+
+        String constructorDescriptor = payloadDescriptor == null ? "()V" : "(" + payloadDescriptor + ")V";
+        int constructorAccess = payloadDescriptor == null ? Opcodes.ACC_PRIVATE : Opcodes.ACC_PUBLIC;
+        MethodVisitor mv = writer.visitMethod(constructorAccess, "<init>", constructorDescriptor, null, null);
+        mv.visitCode();
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitLdcInsn(variant.tag());
+        mv.visitMethodInsn(Opcodes.INVOKESPECIAL, layout.internalName(), "<init>", "(I)V", false);
+        if (payloadDescriptor != null) {
+            mv.visitVarInsn(Opcodes.ALOAD, 0);
+            loadLocal(mv, kindForDescriptor(payloadDescriptor), 1);
+            mv.visitFieldInsn(Opcodes.PUTFIELD, internalName, "value", payloadDescriptor);
+        }
+        mv.visitInsn(Opcodes.RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
 
+        if (payloadDescriptor != null) {
+            emitEnumPayloadAccessor(writer, internalName, payloadDescriptor);
+        }
         writer.visitEnd();
-        return new ClassFile(layout.internalName(), writer.toByteArray());
+        return new ClassFile(internalName, writer.toByteArray());
+    }
+
+    /**
+     * A payload-less variant has exactly one instance, held in a {@code static final INSTANCE}
+     * field typed as the enum. Class initialization makes it lazy (the variant class is only
+     * initialized on first use) and lets the JIT treat the load as a constant.
+     */
+    private void emitVariantSingleton(ClassWriter writer, EnumLayout layout, String internalName) {
+        writer.visitField(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC | Opcodes.ACC_FINAL, "INSTANCE", "L" + layout.internalName() + ";", null, null).visitEnd();
+        MethodVisitor mv = writer.visitMethod(Opcodes.ACC_STATIC, "<clinit>", "()V", null, null);
+        mv.visitCode();
+        mv.visitTypeInsn(Opcodes.NEW, internalName);
+        mv.visitInsn(Opcodes.DUP);
+        mv.visitMethodInsn(Opcodes.INVOKESPECIAL, internalName, "<init>", "()V", false);
+        mv.visitFieldInsn(Opcodes.PUTSTATIC, internalName, "INSTANCE", "L" + layout.internalName() + ";");
+        mv.visitInsn(Opcodes.RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private void loadUnitVariant(MethodVisitor mv, EnumLayout layout, EnumVariant variant) {
+        mv.visitFieldInsn(Opcodes.GETSTATIC, variant.className(), "INSTANCE", "L" + layout.internalName() + ";");
+    }
+
+    /**
+     * {@code payload()} boxes the variant's value for code that only knows the payload as
+     * {@code Any}; the base class answers {@code null} for payload-less variants.
+     */
+    private void emitEnumPayloadAccessor(ClassWriter writer, String internalName, String payloadDescriptor) {
+        MethodVisitor mv = writer.visitMethod(Opcodes.ACC_PUBLIC, "payload", "()Ljava/lang/Object;", null, null);
+        mv.visitCode();
+        if (payloadDescriptor == null) {
+            mv.visitInsn(Opcodes.ACONST_NULL);
+        } else {
+            mv.visitVarInsn(Opcodes.ALOAD, 0);
+            mv.visitFieldInsn(Opcodes.GETFIELD, internalName, "value", payloadDescriptor);
+            boxIfNeeded(mv, kindForDescriptor(payloadDescriptor));
+        }
+        mv.visitInsn(Opcodes.ARETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    /** How an {@code Any} payload of {@code kind} is stored: unboxed for ints and bools. */
+    private String anyPayloadDescriptor(ValueKind kind) {
+        return switch (kind) {
+            case INT -> "I";
+            case BOOL -> "Z";
+            default -> "Ljava/lang/Object;";
+        };
+    }
+
+    private ValueKind kindForDescriptor(String descriptor) {
+        return switch (descriptor) {
+            case "I" -> ValueKind.INT;
+            case "Z" -> ValueKind.BOOL;
+            case "J" -> ValueKind.LONG;
+            case "F" -> ValueKind.FLOAT;
+            case "D" -> ValueKind.DOUBLE;
+            default -> ValueKind.ANY;
+        };
     }
 
     private void emitDefaultConstructor(ClassWriter writer) {
@@ -117,7 +502,7 @@ public final class Codegen implements CodegenStrategy {
             mv.visitVarInsn(Opcodes.ALOAD, 0);
             loadLocal(mv, field.kind(), slot);
             mv.visitFieldInsn(Opcodes.PUTFIELD, layout.internalName(), field.name(), field.descriptor());
-            slot += 1;
+            slot += field.kind().slots();
         }
 
         mv.visitInsn(Opcodes.RETURN);
@@ -129,74 +514,142 @@ public final class Codegen implements CodegenStrategy {
         MethodVisitor mv = writer.visitMethod(Opcodes.ACC_PUBLIC, "toString", "()Ljava/lang/String;", null, null);
         mv.visitCode();
 
-        mv.visitTypeInsn(Opcodes.NEW, "java/lang/StringBuilder");
-        mv.visitInsn(Opcodes.DUP);
-        mv.visitLdcInsn(layout.name() + "{");
-        mv.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/StringBuilder", "<init>", "(Ljava/lang/String;)V", false);
-
-        int index = 0;
+        List<String> pieces = new ArrayList<>();
+        StringBuilder piece = new StringBuilder(layout.name()).append('{');
+        StringBuilder descriptors = new StringBuilder();
         for (FieldInfo field : layout.fields()) {
-            if (index > 0) {
-                mv.visitLdcInsn(", ");
-                mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/lang/StringBuilder", "append", "(Ljava/lang/String;)Ljava/lang/StringBuilder;", false);
+            if (!descriptors.isEmpty()) {
+                piece.append(", ");
             }
-            mv.visitLdcInsn(field.name() + "=");
-            mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/lang/StringBuilder", "append", "(Ljava/lang/String;)Ljava/lang/StringBuilder;", false);
+            piece.append(field.name()).append('=');
+            pieces.add(piece.toString());
+            piece.setLength(0);
 
             mv.visitVarInsn(Opcodes.ALOAD, 0);
             mv.visitFieldInsn(Opcodes.GETFIELD, layout.internalName(), field.name(), field.descriptor());
-
-            mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/lang/StringBuilder", "append", field.appendDescriptor(), false);
-            index++;
+            if (field.kind() == ValueKind.ULONG) {
+                emitUnsignedToString(mv);
+                descriptors.append("Ljava/lang/String;");
+            } else {
+                descriptors.append(field.descriptor());
+            }
         }
+        pieces.add(piece.append('}').toString());
+        emitConcat(mv, pieces, descriptors.toString());
 
-        mv.visitLdcInsn("}");
-        mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/lang/StringBuilder", "append", "(Ljava/lang/String;)Ljava/lang/StringBuilder;", false);
-        mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/lang/StringBuilder", "toString", "()Ljava/lang/String;", false);
         mv.visitInsn(Opcodes.ARETURN);
         mv.visitMaxs(0, 0);
         mv.visitEnd();
     }
 
+    /**
+     * Joins the values on the stack (typed by {@code argumentDescriptors}) with the literal
+     * {@code pieces} around them through one {@code makeConcatWithConstants} call site, so
+     * primitives are formatted without boxing or an intermediate {@code String.valueOf}.
+     */
+    private void emitConcat(MethodVisitor mv, List<String> pieces, String argumentDescriptors) {
+        if (pieces.size() == 1) {
+            mv.visitLdcInsn(pieces.get(0));
+            return;
+        }
+        if (pieces.size() - 1 > MAX_CONCAT_ARGUMENTS) {
+            throw new IllegalStateException("Too many values to format: " + (pieces.size() - 1));
+        }
+        List<Object> constants = new ArrayList<>();
+        String recipe = FormatString.recipe(pieces, constants);
+        Object[] bootstrapArguments = new Object[constants.size() + 1];
+        bootstrapArguments[0] = recipe;
+        for (int i = 0; i < constants.size(); i++) {
+            bootstrapArguments[i + 1] = constants.get(i);
+        }
+        mv.visitInvokeDynamicInsn(
+            "makeConcatWithConstants",
+            "(" + argumentDescriptors + ")Ljava/lang/String;",
+            STRING_CONCAT_BOOTSTRAP,
+            bootstrapArguments
+        );
+    }
+
     private void emitEnumConstructor(ClassWriter writer, EnumLayout layout) {
-        MethodVisitor mv = writer.visitMethod(Opcodes.ACC_PRIVATE, "<init>", "(ILjava/lang/Object;)V", null, null);
+        MethodVisitor mv = writer.visitMethod(Opcodes.ACC_PROTECTED, "<init>", "(I)V", null, null);
         mv.visitCode();
         mv.visitVarInsn(Opcodes.ALOAD, 0);
         mv.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
         mv.visitVarInsn(Opcodes.ALOAD, 0);
         mv.visitVarInsn(Opcodes.ILOAD, 1);
         mv.visitFieldInsn(Opcodes.PUTFIELD, layout.internalName(), "tag", "I");
-        mv.visitVarInsn(Opcodes.ALOAD, 0);
-        mv.visitVarInsn(Opcodes.ALOAD, 2);
-        mv.visitFieldInsn(Opcodes.PUTFIELD, layout.internalName(), "payload", "Ljava/lang/Object;");
         mv.visitInsn(Opcodes.RETURN);
         mv.visitMaxs(0, 0);
         mv.visitEnd();
     }
 
     private void emitEnumFactories(ClassWriter writer, EnumLayout layout) {
+        String returnDescriptor = "L" + layout.internalName() + ";";
         for (EnumVariant variant : layout.variants()) {
-            String desc = variant.payloadType() == null
-                ? "()" + "L" + layout.internalName() + ";"
-                : "(" + descriptorFor(variant.payloadType()) + ")" + "L" + layout.internalName() + ";";
-            MethodVisitor mv = writer.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, variant.name(), desc, null, null);
-            mv.visitCode();
-            mv.visitTypeInsn(Opcodes.NEW, layout.internalName());
-            mv.visitInsn(Opcodes.DUP);
-            mv.visitLdcInsn(variant.tag());
             if (variant.payloadType() == null) {
-                mv.visitInsn(Opcodes.ACONST_NULL);
+                emitEnumFactory(writer, variant, returnDescriptor, variant.className(), null);
+            } else if (variant.specializesPayload()) {
+                emitEnumFactory(writer, variant, returnDescriptor, variant.className(ValueKind.INT), "I");
+                emitEnumFactory(writer, variant, returnDescriptor, variant.className(ValueKind.BOOL), "Z");
+                emitBoxedPayloadFactory(writer, variant, returnDescriptor);
             } else {
-                loadLocal(mv, toValueKind(variant.payloadType()), 0);
-                loadAndBoxPayload(mv, variant.payloadType());
+                emitEnumFactory(writer, variant, returnDescriptor, variant.className(), descriptorFor(variant.payloadType()));
             }
-            mv.visitMethodInsn(Opcodes.INVOKESPECIAL, layout.internalName(), "<init>", "(ILjava/lang/Object;)V", false);
-            mv.visitInsn(Opcodes.ARETURN);
-            mv.visitMaxs(0, 0);
-            mv.visitEnd();
         }
     }
 
+    private void emitEnumFactory(ClassWriter writer, EnumVariant variant, String returnDescriptor, String variantClass, String payloadDescriptor) {
+        String payload = payloadDescriptor == null ? "" : payloadDescriptor;
+        MethodVisitor mv = writer.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, variant.name(), "(" + payload + ")" + returnDescriptor, null, null);
+        mv.visitCode();
+        if (payloadDescriptor == null) {
+            mv.visitFieldInsn(Opcodes.GETSTATIC, variantClass, "INSTANCE", returnDescriptor);
+        } else {
+            mv.visitTypeInsn(Opcodes.NEW, variantClass);
+            mv.visitInsn(Opcodes.DUP);
+            loadLocal(mv, kindForDescriptor(payloadDescriptor), 0);
+            mv.visitMethodInsn(Opcodes.INVOKESPECIAL, variantClass, "<init>", "(" + payload + ")V", false);
+        }
+        mv.visitInsn(Opcodes.ARETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    /**
+     * The {@code Object} factory for an {@code Any} payload, used when the caller cannot prove the
+     * payload's type: boxed ints and bools still land in the primitive subclasses, which is what
+     * lets a primitive binding trust the {@code $i32}/{@code $bool} cast.
+     */
+    private void emitBoxedPayloadFactory(ClassWriter writer, EnumVariant variant, String returnDescriptor) {
+        MethodVisitor mv = writer.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, variant.name(), "(Ljava/lang/Object;)" + returnDescriptor, null, null);
+        mv.visitCode();
+        Label notInt = new Label();
+        Label notBool = new Label();
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitTypeInsn(Opcodes.INSTANCEOF, "java/lang/Integer");
+        mv.visitJumpInsn(Opcodes.IFEQ, notInt);
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        unboxAnyTopToInt(mv);
+        mv.visitMethodInsn(Opcodes.INVOKESTATIC, variant.owner(), variant.name(), "(I)" + returnDescriptor, false);
+        mv.visitInsn(Opcodes.ARETURN);
+        mv.visitLabel(notInt);
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitTypeInsn(Opcodes.INSTANCEOF, "java/lang/Boolean");
+        mv.visitJumpInsn(Opcodes.IFEQ, notBool);
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        unboxAnyTopToBool(mv);
+        mv.visitMethodInsn(Opcodes.INVOKESTATIC, variant.owner(), variant.name(), "(Z)" + returnDescriptor, false);
+        mv.visitInsn(Opcodes.ARETURN);
+        mv.visitLabel(notBool);
+        mv.visitTypeInsn(Opcodes.NEW, variant.className());
+        mv.visitInsn(Opcodes.DUP);
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitMethodInsn(Opcodes.INVOKESPECIAL, variant.className(), "<init>", "(Ljava/lang/Object;)V", false);
+        mv.visitInsn(Opcodes.ARETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
     private void emitEnumToString(ClassWriter writer, EnumLayout layout) {
         MethodVisitor mv = writer.visitMethod(Opcodes.ACC_PUBLIC, "toString", "()Ljava/lang/String;", null, null);
         mv.visitCode();
@@ -227,58 +680,29 @@ public final class Codegen implements CodegenStrategy {
         mv.visitEnd();
     }
 
-    private void loadAndBoxPayload(MethodVisitor mv, TypeId payloadType) {
-        if (payloadType == TypeId.INT) {
-            mv.visitMethodInsn(Opcodes.INVOKESTATIC, "java/lang/Integer", "valueOf", "(I)Ljava/lang/Integer;", false);
-            return;
-        }
-        if (payloadType == TypeId.BOOL) {
-            mv.visitMethodInsn(Opcodes.INVOKESTATIC, "java/lang/Boolean", "valueOf", "(Z)Ljava/lang/Boolean;", false);
-            return;
-        }
-        // String, struct, enum are already Objects on stack
-    }
-
     private void boxIfNeeded(MethodVisitor mv, ValueKind kind) {
-        if (kind == ValueKind.INT) {
-            mv.visitMethodInsn(Opcodes.INVOKESTATIC, "java/lang/Integer", "valueOf", "(I)Ljava/lang/Integer;", false);
-            return;
-        }
-        if (kind == ValueKind.BOOL) {
-            mv.visitMethodInsn(Opcodes.INVOKESTATIC, "java/lang/Boolean", "valueOf", "(Z)Ljava/lang/Boolean;", false);
+        String box = boxClass(kind);
+        if (box != null) {
+            mv.visitMethodInsn(Opcodes.INVOKESTATIC, box, "valueOf", "(" + kind.asmType().getDescriptor() + ")L" + box + ";", false);
         }
     }
 
-    private void emitUnboxPayload(MethodVisitor mv, TypeId payloadType) {
-        if (payloadType == TypeId.INT) {
-            mv.visitTypeInsn(Opcodes.CHECKCAST, "java/lang/Integer");
-            mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/lang/Integer", "intValue", "()I", false);
-            return;
-        }
-        if (payloadType == TypeId.BOOL) {
-            mv.visitTypeInsn(Opcodes.CHECKCAST, "java/lang/Boolean");
-            mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/lang/Boolean", "booleanValue", "()Z", false);
-            return;
-        }
-        if (payloadType == TypeId.STRING) {
-            mv.visitTypeInsn(Opcodes.CHECKCAST, "java/lang/String");
-            return;
-        }
-        if (payloadType.isStruct()) {
-            mv.visitTypeInsn(Opcodes.CHECKCAST, payloadType.structName());
-            return;
-        }
-        if (payloadType.isEnum()) {
-            mv.visitTypeInsn(Opcodes.CHECKCAST, payloadType.enumName());
-        }
+    private void unboxAnyTop(MethodVisitor mv, ValueKind kind) {
+        String box = boxClass(kind);
+        Type primitive = kind.asmType();
+        mv.visitTypeInsn(Opcodes.CHECKCAST, box);
+        mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, box, primitive.getClassName() + "Value", "()" + primitive.getDescriptor(), false);
     }
 
-    private void emitFunctions(ClassWriter writer, AstModule module) {
-        for (AstItem item : module.items()) {
-            if (item instanceof AstFunction fn && !"main".equals(fn.name())) {
-                emitFunction(writer, fn);
-            }
-        }
+    private static String boxClass(ValueKind kind) {
+        return switch (kind) {
+            case INT -> "java/lang/Integer";
+            case BOOL -> "java/lang/Boolean";
+            case LONG, ULONG -> "java/lang/Long";
+            case FLOAT -> "java/lang/Float";
+            case DOUBLE -> "java/lang/Double";
+            default -> null;
+        };
     }
 
     private void emitFunction(ClassWriter writer, AstFunction fn) {
@@ -286,9 +710,31 @@ public final class Codegen implements CodegenStrategy {
         if (info == null) {
             throw new IllegalStateException("Unknown function: " + fn.name());
         }
+        MirFunction lowered = loweredFunction(fn);
+        if (lowered != null) {
+            emitMirFunction(writer, lowered, info.descriptor());
+            return;
+        }
+        emitFunctionBody(writer, fn, info);
+    }
+
+    // A specialization is the generic body emitted again with its type parameters bound, so
+    // values of type `T` live in primitive slots whenever `T` is primitive.
+    private void emitFunctionInstance(ClassWriter writer, MirModule.FunctionInstance instance) {
+        FunctionInfo info = functions.get(instance.name());
+        if (info == null) {
+            throw new IllegalStateException("Unknown function: " + instance.name());
+        }
+        inSpecialization(instance.function().typeParams(), instance.bindings(), () -> {
+            emitFunctionBody(writer, instance.function(), info);
+            return null;
+        });
+    }
+
+    private void emitFunctionBody(ClassWriter writer, AstFunction fn, FunctionInfo info) {
         MethodVisitor mv = writer.visitMethod(
             Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC,
-            fn.name(),
+            info.name(),
             info.descriptor(),
             null,
             null
@@ -296,20 +742,17 @@ public final class Codegen implements CodegenStrategy {
         mv.visitCode();
         ReturnInfo returnInfo = new ReturnInfo(info.returnKind(), info.returnStructName());
         ReturnInfo previousReturn = currentReturnInfo;
-        Map<String, String> previousUseAliases = currentUseAliases;
         String previousModule = currentFunctionModule;
         currentReturnInfo = returnInfo;
-        currentUseAliases = useAliasesBySource.getOrDefault(fn.sourcePath(), Map.of());
-        currentFunctionModule = moduleNameFor(fn.sourcePath());
-        LocalState locals = new LocalState(info.paramCount());
+        currentFunctionModule = hir.moduleName(fn.sourcePath());
+        LocalState locals = new LocalState(0);
         int slot = 0;
         for (ParamInfo param : info.params()) {
             locals.define(param.name(), param.kind(), param.structName(), slot);
-            slot += 1;
+            slot += param.kind().slots();
         }
         emitBlock(mv, fn.body(), locals, returnInfo);
         currentReturnInfo = previousReturn;
-        currentUseAliases = previousUseAliases;
         currentFunctionModule = previousModule;
         if (returnInfo.kind() == ValueKind.VOID) {
             mv.visitInsn(Opcodes.RETURN);
@@ -322,27 +765,29 @@ public final class Codegen implements CodegenStrategy {
         if (!main.params().isEmpty()) {
             throw new IllegalStateException("main() parameters are not supported yet");
         }
+        MirFunction lowered = loweredFunction(main);
+        if (lowered != null) {
+            emitMirFunction(writer, lowered, "([Ljava/lang/String;)V");
+            return;
+        }
 
-        MethodVisitor mv = writer.visitMethod(
+        MethodVisitor mv = flushingOnExit(writer.visitMethod(
             Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC,
             "main",
             "([Ljava/lang/String;)V",
             null,
             null
-        );
+        ));
         mv.visitCode();
 
         LocalState locals = new LocalState(1);
         ReturnInfo returnInfo = new ReturnInfo(ValueKind.VOID, null);
         ReturnInfo previousReturn = currentReturnInfo;
-        Map<String, String> previousUseAliases = currentUseAliases;
         String previousModule = currentFunctionModule;
         currentReturnInfo = returnInfo;
-        currentUseAliases = useAliasesBySource.getOrDefault(main.sourcePath(), Map.of());
-        currentFunctionModule = moduleNameFor(main.sourcePath());
+        currentFunctionModule = hir.moduleName(main.sourcePath());
         emitBlock(mv, main.body(), locals, returnInfo);
         currentReturnInfo = previousReturn;
-        currentUseAliases = previousUseAliases;
         currentFunctionModule = previousModule;
 
         mv.visitInsn(Opcodes.RETURN);
@@ -350,6 +795,385 @@ public final class Codegen implements CodegenStrategy {
         mv.visitEnd();
     }
 
+    /**
+     * Wraps the entry point so buffered output is flushed before every {@code return} and, through
+     * a catch-all handler, before an exception escapes {@code main}.
+     */
+    private MethodVisitor flushingOnExit(MethodVisitor mv) {
+        if (lineFlushedOutput) {
+            return mv;
+        }
+        Label start = new Label();
+        Label end = new Label();
+        Label handler = new Label();
+        return new MethodVisitor(Opcodes.ASM9, mv) {
+            @Override
+            public void visitCode() {
+                super.visitCode();
+                super.visitTryCatchBlock(start, end, handler, null);
+                super.visitLabel(start);
+            }
+
+            @Override
+            public void visitInsn(int opcode) {
+                if (opcode == Opcodes.RETURN) {
+                    super.visitMethodInsn(Opcodes.INVOKESTATIC, STDOUT_INTERNAL_NAME, "flush", "()V", false);
+                }
+                super.visitInsn(opcode);
+            }
+
+            @Override
+            public void visitMaxs(int maxStack, int maxLocals) {
+                super.visitLabel(end);
+                super.visitLabel(handler);
+                super.visitMethodInsn(Opcodes.INVOKESTATIC, STDOUT_INTERNAL_NAME, "flush", "()V", false);
+                super.visitInsn(Opcodes.ATHROW);
+                super.visitMaxs(maxStack, maxLocals);
+            }
+        };
+    }
+
+    // Line-flushed output prints through System.out; buffered output needs no receiver.
+    private void emitPrintTarget(MethodVisitor mv) {
+        if (lineFlushedOutput) {
+            mv.visitFieldInsn(Opcodes.GETSTATIC, "java/lang/System", "out", "Ljava/io/PrintStream;");
+        }
+    }
+
+    private void emitPrintln(MethodVisitor mv, String descriptor) {
+        if (lineFlushedOutput) {
+            mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/io/PrintStream", "println", descriptor, false);
+        } else {
+            mv.visitMethodInsn(Opcodes.INVOKESTATIC, STDOUT_INTERNAL_NAME, "println", descriptor, false);
+        }
+    }
+
+    private MirFunction loweredFunction(AstFunction fn) {
+        MirFunction lowered = mir != null ? mir.function(fn) : null;
+        return lowered != null && lowered.isComplete() ? lowered : null;
+    }
+
+    // MIR locals take consecutive JVM slots in index order (two for `i64`/`u64`/`f64`), so the
+    // parameters land where the descriptor puts them; `main` keeps slot 0 for its String[] argument.
+    private void emitMirFunction(ClassWriter writer, MirFunction fn, String descriptor) {
+        MethodVisitor mv = writer.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, fn.name(), descriptor, null, null);
+        if (fn.isEntryPoint()) {
+            mv = flushingOnExit(mv);
+        }
+        mv.visitCode();
+        MirFrame frame = mirFrame(fn);
+        int[] uses = MirCfg.useCounts(fn);
+        Map<Integer, Label> labels = new HashMap<>();
+        for (MirBlock block : fn.blocks()) {
+            labels.put(block.id(), new Label());
+        }
+        List<MirBlock> blocks = fn.blocks();
+        if (blocks.get(0).id() != fn.entry()) {
+            mv.visitJumpInsn(Opcodes.GOTO, labels.get(fn.entry()));
+        }
+        for (int i = 0; i < blocks.size(); i++) {
+            MirBlock block = blocks.get(i);
+            int next = i + 1 < blocks.size() ? blocks.get(i + 1).id() : -1;
+            mv.visitLabel(labels.get(block.id()));
+            MirInstr.Binary fused = fusedCondition(fn, block, uses);
+            List<MirInstr> instructions = block.instructions();
+            int count = fused != null ? instructions.size() - 1 : instructions.size();
+            for (int j = 0; j < count; j++) {
+                emitMirInstr(mv, instructions.get(j), frame);
+            }
+            emitMirTerminator(mv, block.terminator(), fused, labels, next, frame);
+        }
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private MirFrame mirFrame(MirFunction fn) {
+        List<MirLocal> locals = fn.locals();
+        ValueKind[] kinds = new ValueKind[locals.size()];
+        int[] slots = new int[locals.size()];
+        int slot = fn.isEntryPoint() ? 1 : 0;
+        for (MirLocal local : locals) {
+            kinds[local.index()] = toValueKind(local.type());
+            slots[local.index()] = slot;
+            slot += kinds[local.index()].slots();
+        }
+        return new MirFrame(kinds, slots);
+    }
+
+    // A comparison whose only reader is the branch right after it jumps directly instead of
+    // materializing a 0/1 first.
+    private MirInstr.Binary fusedCondition(MirFunction fn, MirBlock block, int[] uses) {
+        List<MirInstr> instructions = block.instructions();
+        if (instructions.isEmpty()
+            || !(block.terminator() instanceof MirTerminator.Branch branch)
+            || !(instructions.get(instructions.size() - 1) instanceof MirInstr.Binary binary)) {
+            return null;
+        }
+        int condition = branch.condition().local();
+        boolean fusable = binary.isComparison()
+            && binary.target() == condition
+            && fn.local(condition).isTemp()
+            && uses[condition] == 1;
+        return fusable ? binary : null;
+    }
+
+    private void emitMirInstr(MethodVisitor mv, MirInstr instruction, MirFrame frame) {
+        if (instruction instanceof MirInstr.Move move) {
+            loadOperand(mv, move.source(), frame);
+            storeMirLocal(mv, move.target(), frame);
+            return;
+        }
+        if (instruction instanceof MirInstr.Unary unary) {
+            loadOperand(mv, unary.operand(), frame);
+            if ("-".equals(unary.op())) {
+                mv.visitInsn(operandKind(unary.operand(), frame).asmType().getOpcode(Opcodes.INEG));
+            } else {
+                mv.visitInsn(Opcodes.ICONST_1);
+                mv.visitInsn(Opcodes.IXOR);
+            }
+            storeMirLocal(mv, unary.target(), frame);
+            return;
+        }
+        if (instruction instanceof MirInstr.Binary binary) {
+            if (emitIncrement(mv, binary, frame)) {
+                return;
+            }
+            if (binary.isComparison()) {
+                emitBooleanJump(mv, emitMirCompare(mv, binary, frame));
+            } else {
+                loadOperand(mv, binary.left(), frame);
+                loadOperand(mv, binary.right(), frame);
+                emitArithmetic(mv, binary.op(), operandKind(binary.left(), frame));
+            }
+            storeMirLocal(mv, binary.target(), frame);
+            return;
+        }
+        if (instruction instanceof MirInstr.Call call) {
+            FunctionInfo info = functionInfo(call.symbol());
+            if (info == null) {
+                throw new IllegalStateException("Unknown function symbol: " + call.symbol());
+            }
+            for (MirOperand arg : call.args()) {
+                loadOperand(mv, arg, frame);
+            }
+            mv.visitMethodInsn(Opcodes.INVOKESTATIC, info.owner(), info.name(), info.descriptor(), false);
+            if (call.target() != MirInstr.NO_TARGET) {
+                storeMirLocal(mv, call.target(), frame);
+            } else if (info.returnKind() != ValueKind.VOID) {
+                mv.visitInsn(info.returnKind().slots() == 2 ? Opcodes.POP2 : Opcodes.POP);
+            }
+            return;
+        }
+        if (instruction instanceof MirInstr.NewArray newArray) {
+            Type elementType = Type.getType(descriptorFor(newArray.type().arrayElement()));
+            mv.visitLdcInsn(newArray.type().arrayLength());
+            emitNewArray(mv, elementType);
+            if (!(newArray.fill() instanceof MirOperand.Constant constant && constant.bits() == 0)) {
+                mv.visitInsn(Opcodes.DUP);
+                loadOperand(mv, newArray.fill(), frame);
+                String slotDescriptor = elementType.getDescriptor();
+                mv.visitMethodInsn(Opcodes.INVOKESTATIC, "java/util/Arrays", "fill", "([" + slotDescriptor + slotDescriptor + ")V", false);
+            }
+            storeMirLocal(mv, newArray.target(), frame);
+            return;
+        }
+        if (instruction instanceof MirInstr.ArrayLoad load) {
+            loadOperand(mv, load.array(), frame);
+            loadOperand(mv, load.index(), frame);
+            mv.visitInsn(frame.kind(load.target()).asmType().getOpcode(Opcodes.IALOAD));
+            storeMirLocal(mv, load.target(), frame);
+            return;
+        }
+        if (instruction instanceof MirInstr.ArrayStore store) {
+            loadOperand(mv, store.array(), frame);
+            loadOperand(mv, store.index(), frame);
+            loadOperand(mv, store.value(), frame);
+            mv.visitInsn(operandKind(store.value(), frame).asmType().getOpcode(Opcodes.IASTORE));
+            return;
+        }
+        if (instruction instanceof MirInstr.Print print) {
+            emitMirPrint(mv, print, frame);
+            return;
+        }
+        throw new IllegalStateException("Unsupported MIR instruction: " + instruction);
+    }
+
+    private boolean emitIncrement(MethodVisitor mv, MirInstr.Binary binary, MirFrame frame) {
+        if (binary.left().local() != binary.target()
+            || frame.kind(binary.target()) != ValueKind.INT
+            || !(binary.right() instanceof MirOperand.Constant constant)) {
+            return false;
+        }
+        int delta = switch (binary.op()) {
+            case "+" -> constant.value();
+            case "-" -> -constant.value();
+            default -> Integer.MIN_VALUE;
+        };
+        if (delta < Short.MIN_VALUE || delta > Short.MAX_VALUE) {
+            return false;
+        }
+        mv.visitIincInsn(frame.slot(binary.target()), delta);
+        return true;
+    }
+
+    private void emitMirPrint(MethodVisitor mv, MirInstr.Print print, MirFrame frame) {
+        emitPrintTarget(mv);
+        if (print.values().isEmpty()) {
+            mv.visitLdcInsn(print.format());
+        } else if (print.format() == null) {
+            ValueKind kind = toValueKind(print.valueTypes().get(0));
+            loadOperand(mv, print.values().get(0), frame);
+            if (kind == ValueKind.ULONG) {
+                emitUnsignedToString(mv);
+                emitPrintln(mv, "(Ljava/lang/String;)V");
+            } else {
+                emitPrintln(mv, "(" + kind.asmType().getDescriptor() + ")V");
+            }
+            return;
+        } else {
+            StringBuilder descriptors = new StringBuilder();
+            for (int i = 0; i < print.values().size(); i++) {
+                ValueKind kind = toValueKind(print.valueTypes().get(i));
+                loadOperand(mv, print.values().get(i), frame);
+                if (kind == ValueKind.ULONG) {
+                    emitUnsignedToString(mv);
+                    descriptors.append("Ljava/lang/String;");
+                } else {
+                    descriptors.append(kind.asmType().getDescriptor());
+                }
+            }
+            emitConcat(mv, FormatString.pieces(print.format()), descriptors.toString());
+        }
+        emitPrintln(mv, "(Ljava/lang/String;)V");
+    }
+
+    private void emitMirTerminator(
+        MethodVisitor mv,
+        MirTerminator terminator,
+        MirInstr.Binary fused,
+        Map<Integer, Label> labels,
+        int next,
+        MirFrame frame
+    ) {
+        if (terminator instanceof MirTerminator.Goto jump) {
+            if (jump.target() != next) {
+                mv.visitJumpInsn(Opcodes.GOTO, labels.get(jump.target()));
+            }
+            return;
+        }
+        if (terminator instanceof MirTerminator.Branch branch) {
+            int opcode;
+            if (fused != null) {
+                opcode = emitMirCompare(mv, fused, frame);
+            } else {
+                loadOperand(mv, branch.condition(), frame);
+                opcode = Opcodes.IFNE;
+            }
+            if (branch.ifTrue() == next) {
+                mv.visitJumpInsn(negateJump(opcode), labels.get(branch.ifFalse()));
+                return;
+            }
+            mv.visitJumpInsn(opcode, labels.get(branch.ifTrue()));
+            if (branch.ifFalse() != next) {
+                mv.visitJumpInsn(Opcodes.GOTO, labels.get(branch.ifFalse()));
+            }
+            return;
+        }
+        MirTerminator.Return ret = (MirTerminator.Return) terminator;
+        if (ret.value() == null) {
+            mv.visitInsn(Opcodes.RETURN);
+            return;
+        }
+        loadOperand(mv, ret.value(), frame);
+        mv.visitInsn(operandKind(ret.value(), frame).asmType().getOpcode(Opcodes.IRETURN));
+    }
+
+    /**
+     * Loads a comparison's operands and returns the jump taken when it holds. Operands other than
+     * {@code i32}/{@code bool} are first reduced to -1/0/1, with the same NaN handling as the AST path.
+     */
+    private int emitMirCompare(MethodVisitor mv, MirInstr.Binary binary, MirFrame frame) {
+        loadOperand(mv, binary.left(), frame);
+        loadOperand(mv, binary.right(), frame);
+        ValueKind kind = operandKind(binary.left(), frame);
+        if (kind == ValueKind.INT || kind == ValueKind.BOOL) {
+            return compareOpcode(binary.op());
+        }
+        String op = binary.op();
+        emitWideCompare(mv, kind, "<".equals(op) || "<=".equals(op));
+        return switch (op) {
+            case "<" -> Opcodes.IFLT;
+            case "<=" -> Opcodes.IFLE;
+            case ">" -> Opcodes.IFGT;
+            case ">=" -> Opcodes.IFGE;
+            case "==" -> Opcodes.IFEQ;
+            case "!=" -> Opcodes.IFNE;
+            default -> throw new IllegalStateException("Unsupported comparison: " + op);
+        };
+    }
+
+    private ValueKind operandKind(MirOperand operand, MirFrame frame) {
+        if (operand instanceof MirOperand.Constant constant) {
+            return toValueKind(constant.type());
+        }
+        return frame.kind(operand.local());
+    }
+
+    private void storeMirLocal(MethodVisitor mv, int local, MirFrame frame) {
+        storeLocal(mv, frame.kind(local), frame.slot(local));
+    }
+
+    private void loadOperand(MethodVisitor mv, MirOperand operand, MirFrame frame) {
+        if (operand instanceof MirOperand.Copy copy) {
+            loadLocal(mv, frame.kind(copy.local()), frame.slot(copy.local()));
+            return;
+        }
+        // Same encoding as the AST path: ICONST for 0/1 (booleans), LDC for other numbers.
+        MirOperand.Constant constant = (MirOperand.Constant) operand;
+        TypeId type = constant.type();
+        if (type == TypeId.F32) {
+            mv.visitLdcInsn((float) constant.doubleValue());
+        } else if (type == TypeId.F64) {
+            mv.visitLdcInsn(constant.doubleValue());
+        } else if (type == TypeId.I64 || type == TypeId.U64) {
+            mv.visitLdcInsn(constant.bits());
+        } else if (constant.value() == 0 || constant.value() == 1) {
+            mv.visitInsn(constant.value() == 0 ? Opcodes.ICONST_0 : Opcodes.ICONST_1);
+        } else {
+            mv.visitLdcInsn(constant.value());
+        }
+    }
+
+    private int compareOpcode(String op) {
+        return switch (op) {
+            case "<" -> Opcodes.IF_ICMPLT;
+            case "<=" -> Opcodes.IF_ICMPLE;
+            case ">" -> Opcodes.IF_ICMPGT;
+            case ">=" -> Opcodes.IF_ICMPGE;
+            case "==" -> Opcodes.IF_ICMPEQ;
+            case "!=" -> Opcodes.IF_ICMPNE;
+            default -> throw new IllegalStateException("Unsupported comparison: " + op);
+        };
+    }
+
+    private int negateJump(int opcode) {
+        return switch (opcode) {
+            case Opcodes.IF_ICMPLT -> Opcodes.IF_ICMPGE;
+            case Opcodes.IF_ICMPGE -> Opcodes.IF_ICMPLT;
+            case Opcodes.IF_ICMPLE -> Opcodes.IF_ICMPGT;
+            case Opcodes.IF_ICMPGT -> Opcodes.IF_ICMPLE;
+            case Opcodes.IF_ICMPEQ -> Opcodes.IF_ICMPNE;
+            case Opcodes.IF_ICMPNE -> Opcodes.IF_ICMPEQ;
+            case Opcodes.IFLT -> Opcodes.IFGE;
+            case Opcodes.IFGE -> Opcodes.IFLT;
+            case Opcodes.IFLE -> Opcodes.IFGT;
+            case Opcodes.IFGT -> Opcodes.IFLE;
+            case Opcodes.IFNE -> Opcodes.IFEQ;
+            case Opcodes.IFEQ -> Opcodes.IFNE;
+            default -> throw new IllegalStateException("Unsupported jump: " + opcode);
+        };
+    }
+
     private void emitBlock(MethodVisitor mv, List<AstStmt> statements, LocalState locals, ReturnInfo returnInfo) {
         for (AstStmt stmt : statements) {
             emitStatement(mv, stmt, locals, returnInfo);
@@ -385,6 +1209,10 @@ public final class Codegen implements CodegenStrategy {
             emitAssign(mv, assignStmt, locals);
             return;
         }
+        if (stmt instanceof AstIndexAssignStmt indexAssignStmt) {
+            emitIndexAssign(mv, indexAssignStmt, locals);
+            return;
+        }
         if (stmt instanceof AstBreakStmt breakStmt) {
             emitBreak(mv, breakStmt, locals);
             return;
@@ -405,6 +1233,7 @@ public final class Codegen implements CodegenStrategy {
             if (value.kind() == ValueKind.VOID) {
                 throw new IllegalStateException("Cannot assign void expression to let binding");
             }
+            value = narrow(mv, value, types.bindingType(letStmt));
             int slot = locals.allocate(letStmt.name(), value.kind(), value.structName());
             storeLocal(mv, value.kind(), slot);
             return;
@@ -412,7 +1241,7 @@ public final class Codegen implements CodegenStrategy {
         if (stmt instanceof AstExprStmt exprStmt) {
             ExprValue value = emitExpr(mv, exprStmt.expr(), locals);
             if (value.kind() != ValueKind.VOID) {
-                mv.visitInsn(Opcodes.POP);
+                mv.visitInsn(value.kind().slots() == 2 ? Opcodes.POP2 : Opcodes.POP);
             }
             return;
         }
@@ -438,22 +1267,19 @@ public final class Codegen implements CodegenStrategy {
             return;
         }
 
-        if (local.kind() != ValueKind.INT) {
-            throw new IllegalStateException("Compound assignment requires int variable");
+        if (!local.kind().isNumeric()) {
+            throw new IllegalStateException("Compound assignment requires numeric variable");
         }
-        loadLocal(mv, ValueKind.INT, local.slot());
+        loadLocal(mv, local.kind(), local.slot());
         ExprValue value = emitExpr(mv, assignStmt.value(), locals);
-        if (value.kind() != ValueKind.INT) {
-            throw new IllegalStateException("Compound assignment requires int value");
+        if (value.kind() != local.kind()) {
+            throw new IllegalStateException("Compound assignment requires " + local.kind() + " value");
         }
         switch (op) {
-            case "+=" -> mv.visitInsn(Opcodes.IADD);
-            case "-=" -> mv.visitInsn(Opcodes.ISUB);
-            case "*=" -> mv.visitInsn(Opcodes.IMUL);
-            case "/=" -> mv.visitInsn(Opcodes.IDIV);
+            case "+=", "-=", "*=", "/=" -> emitArithmetic(mv, op.substring(0, 1), local.kind());
             default -> throw new IllegalStateException("Unsupported assignment operator: " + op);
         }
-        storeLocal(mv, ValueKind.INT, local.slot());
+        storeLocal(mv, local.kind(), local.slot());
     }
 
     private void emitIf(MethodVisitor mv, AstIfStmt ifStmt, LocalState locals, ReturnInfo returnInfo) {
@@ -604,9 +1430,15 @@ public final class Codegen implements CodegenStrategy {
         Label startLabel = new Label();
         Label continueLabel = new Label();
         Label endLabel = new Label();
-        int resultSlot = locals.allocateTemp();
+        ExprValue resultType = checkedResult(loopExpr);
+        // Without a checked type the break value's kind is only known later, so reserve room for a wide one.
+        int resultSlot = locals.allocateTemp(resultType == null ? ValueKind.LONG : resultType.kind());
 
         LoopContext context = new LoopContext(null, continueLabel, endLabel, true, resultSlot);
+        if (resultType != null) {
+            context.resultKind = resultType.kind();
+            context.resultStructName = resultType.structName();
+        }
         loopStack.push(context);
 
         mv.visitLabel(startLabel);
@@ -640,8 +1472,11 @@ public final class Codegen implements CodegenStrategy {
             if (context.resultKind == null) {
                 context.resultKind = value.kind();
                 context.resultStructName = value.structName();
-            } else if (!value.matches(new ReturnInfo(context.resultKind, context.resultStructName))) {
-                throw new IllegalStateException("break values must match in loop expression");
+            } else {
+                value = coerceToExpected(mv, value, new ReturnInfo(context.resultKind, context.resultStructName));
+                if (value == null) {
+                    throw new IllegalStateException("break values must match in loop expression");
+                }
             }
             storeLocal(mv, value.kind(), context.resultSlot);
         } else if (context.valueLoop) {
@@ -691,7 +1526,10 @@ public final class Codegen implements CodegenStrategy {
         }
         mv.visitInsn(switch (returnInfo.kind()) {
             case INT, BOOL -> Opcodes.IRETURN;
-            case STRING, STRUCT, ENUM, ANY -> Opcodes.ARETURN;
+            case LONG, ULONG -> Opcodes.LRETURN;
+            case FLOAT -> Opcodes.FRETURN;
+            case DOUBLE -> Opcodes.DRETURN;
+            case STRING, STRUCT, ENUM, ARRAY, ANY -> Opcodes.ARETURN;
             case VOID -> Opcodes.RETURN;
         });
     }
@@ -705,20 +1543,30 @@ public final class Codegen implements CodegenStrategy {
         Label elseLabel = new Label();
         Label endLabel = new Label();
         mv.visitJumpInsn(Opcodes.IFEQ, elseLabel);
-        ExprValue thenValue = emitExpr(mv, ifExpr.thenExpr(), locals);
+        ExprValue resultType = checkedResult(ifExpr);
+        ExprValue thenValue = emitBranchValue(mv, ifExpr.thenExpr(), resultType, locals);
         mv.visitJumpInsn(Opcodes.GOTO, endLabel);
         mv.visitLabel(elseLabel);
-        ExprValue elseValue = emitExpr(mv, ifExpr.elseExpr(), locals);
+        ExprValue elseValue = emitBranchValue(mv, ifExpr.elseExpr(), resultType, locals);
         if (!thenValue.matches(new ReturnInfo(elseValue.kind(), elseValue.structName()))) {
             throw new IllegalStateException("if expression branches must return the same type");
         }
-        if (thenValue.kind() == ValueKind.VOID) {
-            throw new IllegalStateException("if expression cannot be void");
-        }
         mv.visitLabel(endLabel);
         return thenValue;
     }
 
+    private ExprValue emitBranchValue(MethodVisitor mv, AstExpr expr, ExprValue resultType, LocalState locals) {
+        ExprValue value = emitExpr(mv, expr, locals);
+        if (value.kind() == ValueKind.VOID) {
+            throw new IllegalStateException("if expression cannot be void");
+        }
+        if (resultType == null) {
+            return value;
+        }
+        ExprValue coerced = coerceToExpected(mv, value, new ReturnInfo(resultType.kind(), resultType.structName()));
+        return coerced == null ? value : coerced;
+    }
+
     private ExprValue emitBlockExpr(MethodVisitor mv, AstBlockExpr blockExpr, LocalState locals) {
         if (currentReturnInfo == null) {
             throw new IllegalStateException("Missing return context for block expression");
@@ -731,23 +1579,27 @@ public final class Codegen implements CodegenStrategy {
         if (value.kind() == ValueKind.VOID) {
             throw new IllegalStateException("block expression cannot be void");
         }
-        return value;
+        return narrow(mv, value, types.typeOf(blockExpr));
     }
 
     private ExprValue emitMatchExpr(MethodVisitor mv, AstMatchExpr matchExpr, LocalState locals) {
-        ExprValue target = emitExpr(mv, matchExpr.target(), locals);
+        ExprValue target = narrow(mv, emitExpr(mv, matchExpr.target(), locals), types.typeOf(matchExpr.target()));
         if (target.kind() != ValueKind.INT && target.kind() != ValueKind.BOOL && target.kind() != ValueKind.STRING && target.kind() != ValueKind.ENUM) {
             throw new IllegalStateException("match target must be int, bool, String, or enum");
         }
+        List<AstMatchArm> arms = matchExpr.arms();
+        ExprValue checkedResult = checkedResult(matchExpr);
+        ExprValue resultType = checkedResult == null ? ExprValue.of(ValueKind.ANY) : checkedResult;
         int targetSlot = locals.allocateTemp();
-        int resultSlot = locals.allocateTemp();
+        int resultSlot = locals.allocateTemp(resultType.kind());
         storeLocal(mv, target.kind(), targetSlot);
+        if (isSwitchable(target, arms)) {
+            return emitSwitchMatch(mv, target, targetSlot, resultSlot, resultType, arms, locals);
+        }
 
         Label endLabel = new Label();
         Label noMatchLabel = new Label();
-        ExprValue resultType = ExprValue.of(ValueKind.ANY);
         boolean hasWildcard = false;
-        List<AstMatchArm> arms = matchExpr.arms();
         List<Label> checkLabels = new ArrayList<>();
         for (int i = 0; i <= arms.size(); i++) {
             checkLabels.add(new Label());
@@ -768,26 +1620,7 @@ public final class Codegen implements CodegenStrategy {
                 hasWildcard = true;
             }
 
-            LocalState armLocals = locals.fork();
-            bindPattern(mv, pattern, targetSlot, armLocals);
-            if (arm.guard() != null) {
-                ExprValue guard = emitExpr(mv, arm.guard(), armLocals);
-                if (guard.kind() != ValueKind.BOOL) {
-                    throw new IllegalStateException("match guard must be bool");
-                }
-                mv.visitJumpInsn(Opcodes.IFEQ, nextCheck);
-            }
-
-            ExprValue value = emitExpr(mv, arm.expr(), armLocals);
-            if (value.kind() == ValueKind.VOID) {
-                throw new IllegalStateException("match arm cannot be void");
-            }
-            ExprValue coerced = coerceToExpected(mv, value, new ReturnInfo(ValueKind.ANY, null));
-            if (coerced == null) {
-                throw new IllegalStateException("match arms must return a value");
-            }
-            storeLocal(mv, ValueKind.ANY, resultSlot);
-            mv.visitJumpInsn(Opcodes.GOTO, endLabel);
+            emitMatchArm(mv, arm, targetSlot, resultSlot, resultType, locals, nextCheck, endLabel);
             mv.visitLabel(nextCheck);
         }
 
@@ -795,20 +1628,241 @@ public final class Codegen implements CodegenStrategy {
 
         if (!hasWildcard) {
             mv.visitLabel(noMatchLabel);
-            mv.visitTypeInsn(Opcodes.NEW, "java/lang/IllegalStateException");
-            mv.visitInsn(Opcodes.DUP);
-            mv.visitLdcInsn("Non-exhaustive match");
-            mv.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/IllegalStateException", "<init>", "(Ljava/lang/String;)V", false);
-            mv.visitInsn(Opcodes.ATHROW);
+            emitNonExhaustiveMatch(mv);
         } else {
             mv.visitLabel(noMatchLabel);
         }
 
         mv.visitLabel(endLabel);
-        loadLocal(mv, ValueKind.ANY, resultSlot);
+        loadLocal(mv, resultType.kind(), resultSlot);
         return resultType;
     }
 
+    /**
+     * The value a branching expression leaves behind, from the type the checker joined its
+     * branches to; every branch is coerced to it, so an {@code i32} match keeps an {@code int}
+     * slot. Null when there is no representable checked type and branches fall back to {@code Any}.
+     */
+    private ExprValue checkedResult(AstExpr expr) {
+        TypeId checked = types.typeOf(expr);
+        return checked == null ? null : knownValue(runtimeType(TypeUnifier.substitute(checked, typeBindings)));
+    }
+
+    /** Binds the arm's pattern, tests its guard (jumping to {@code guardFailed}), and stores its value. */
+    private void emitMatchArm(MethodVisitor mv, AstMatchArm arm, int targetSlot, int resultSlot, ExprValue resultType, LocalState locals, Label guardFailed, Label endLabel) {
+        LocalState armLocals = locals.fork();
+        bindPattern(mv, arm.pattern(), targetSlot, armLocals);
+        if (arm.guard() != null) {
+            ExprValue guard = emitExpr(mv, arm.guard(), armLocals);
+            if (guard.kind() != ValueKind.BOOL) {
+                throw new IllegalStateException("match guard must be bool");
+            }
+            mv.visitJumpInsn(Opcodes.IFEQ, guardFailed);
+        }
+
+        ExprValue value = emitExpr(mv, arm.expr(), armLocals);
+        if (value.kind() == ValueKind.VOID) {
+            throw new IllegalStateException("match arm cannot be void");
+        }
+        ExprValue coerced = coerceToExpected(mv, value, new ReturnInfo(resultType.kind(), resultType.structName()));
+        if (coerced == null) {
+            throw new IllegalStateException("match arms must return the same type");
+        }
+        storeLocal(mv, resultType.kind(), resultSlot);
+        mv.visitJumpInsn(Opcodes.GOTO, endLabel);
+    }
+
+    private void emitNonExhaustiveMatch(MethodVisitor mv) {
+        mv.visitTypeInsn(Opcodes.NEW, "java/lang/IllegalStateException");
+        mv.visitInsn(Opcodes.DUP);
+        mv.visitLdcInsn("Non-exhaustive match");
+        mv.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/IllegalStateException", "<init>", "(Ljava/lang/String;)V", false);
+        mv.visitInsn(Opcodes.ATHROW);
+    }
+
+    /**
+     * A match whose patterns are all enum variants, {@code i32} literals or {@code String}
+     * literals (plus wildcards) dispatches through one switch instead of a compare chain.
+     */
+    private boolean isSwitchable(ExprValue target, List<AstMatchArm> arms) {
+        AstMatchPattern.Kind literalKind = switch (target.kind()) {
+            case INT -> AstMatchPattern.Kind.INT;
+            case STRING -> AstMatchPattern.Kind.STRING;
+            case ENUM -> AstMatchPattern.Kind.ENUM;
+            default -> null;
+        };
+        boolean hasLiteral = false;
+        for (AstMatchArm arm : arms) {
+            AstMatchPattern.Kind kind = arm.pattern().kind();
+            if (kind == literalKind) {
+                hasLiteral = true;
+            } else if (kind != AstMatchPattern.Kind.WILDCARD) {
+                return false;
+            }
+        }
+        return literalKind != null && hasLiteral;
+    }
+
+    /**
+     * Switch lowering. Each key jumps straight to the first arm that can take it. A failed guard
+     * on a literal arm jumps to the next arm for the same key; a failed guard on a wildcard arm
+     * re-dispatches over the arms after it, since the key is no longer known statically there.
+     */
+    private ExprValue emitSwitchMatch(MethodVisitor mv, ExprValue target, int targetSlot, int resultSlot, ExprValue resultType, List<AstMatchArm> arms, LocalState locals) {
+        Object[] keys = new Object[arms.size()];
+        Label[] armLabels = new Label[arms.size()];
+        for (int i = 0; i < arms.size(); i++) {
+            keys[i] = switchKey(arms.get(i).pattern());
+            armLabels[i] = new Label();
+        }
+        String tagOwner = null;
+        for (AstMatchArm arm : arms) {
+            if (arm.pattern().kind() == AstMatchPattern.Kind.ENUM) {
+                tagOwner = enumLayouts.get(arm.pattern().enumName()).internalName();
+                break;
+            }
+        }
+        Label endLabel = new Label();
+        Label noMatchLabel = new Label();
+        Map<Integer, Label> redispatch = new TreeMap<>();
+
+        emitMatchDispatch(mv, target, targetSlot, tagOwner, keys, armLabels, 0, noMatchLabel);
+        for (int i = 0; i < arms.size(); i++) {
+            mv.visitLabel(armLabels[i]);
+            Label guardFailed;
+            if (keys[i] == null) {
+                guardFailed = redispatch.computeIfAbsent(i + 1, from -> new Label());
+            } else {
+                int next = firstArmFor(keys, keys[i], i + 1);
+                guardFailed = next < 0 ? noMatchLabel : armLabels[next];
+            }
+            emitMatchArm(mv, arms.get(i), targetSlot, resultSlot, resultType, locals, guardFailed, endLabel);
+        }
+        for (Map.Entry<Integer, Label> entry : redispatch.entrySet()) {
+            mv.visitLabel(entry.getValue());
+            emitMatchDispatch(mv, target, targetSlot, tagOwner, keys, armLabels, entry.getKey(), noMatchLabel);
+        }
+        mv.visitLabel(noMatchLabel);
+        emitNonExhaustiveMatch(mv);
+
+        mv.visitLabel(endLabel);
+        loadLocal(mv, resultType.kind(), resultSlot);
+        return resultType;
+    }
+
+    /** The switch key of a pattern: an {@code Integer} tag or literal, a {@code String}, or null for a wildcard. */
+    private Object switchKey(AstMatchPattern pattern) {
+        return switch (pattern.kind()) {
+            case INT -> Integer.parseInt(pattern.value());
+            case STRING -> pattern.value();
+            case ENUM -> {
+                EnumLayout layout = enumLayouts.get(pattern.enumName());
+                if (layout == null) {
+                    throw new IllegalStateException("Unknown enum: " + pattern.enumName());
+                }
+                EnumVariant variant = layout.variant(pattern.variantName());
+                if (variant == null) {
+                    throw new IllegalStateException("Unknown variant: " + pattern.variantName());
+                }
+                yield variant.tag();
+            }
+            default -> null;
+        };
+    }
+
+    /** Index of the first arm at or after {@code from} that takes {@code key}, or -1. */
+    private int firstArmFor(Object[] keys, Object key, int from) {
+        for (int i = from; i < keys.length; i++) {
+            if (keys[i] == null || keys[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void emitMatchDispatch(MethodVisitor mv, ExprValue target, int targetSlot, String tagOwner, Object[] keys, Label[] armLabels, int from, Label noMatchLabel) {
+        int defaultArm = firstArmFor(keys, null, from);
+        Label defaultLabel = defaultArm < 0 ? noMatchLabel : armLabels[defaultArm];
+        Map<Object, Label> cases = new LinkedHashMap<>();
+        for (int i = from; i < keys.length; i++) {
+            if (keys[i] != null && !cases.containsKey(keys[i])) {
+                int arm = firstArmFor(keys, keys[i], from);
+                cases.put(keys[i], armLabels[arm]);
+            }
+        }
+
+        if (target.kind() == ValueKind.STRING) {
+            emitStringSwitch(mv, targetSlot, cases, defaultLabel);
+            return;
+        }
+        TreeMap<Integer, Label> intCases = new TreeMap<>();
+        for (Map.Entry<Object, Label> entry : cases.entrySet()) {
+            intCases.put((Integer) entry.getKey(), entry.getValue());
+        }
+        loadLocal(mv, target.kind(), targetSlot);
+        if (target.kind() == ValueKind.ENUM) {
+            mv.visitFieldInsn(Opcodes.GETFIELD, tagOwner, "tag", "I");
+        }
+        emitIntSwitch(mv, intCases, defaultLabel);
+    }
+
+    /** Picks {@code tableswitch} or {@code lookupswitch} with the same space/time weighting javac uses. */
+    private void emitIntSwitch(MethodVisitor mv, TreeMap<Integer, Label> cases, Label defaultLabel) {
+        if (cases.isEmpty()) {
+            mv.visitInsn(Opcodes.POP);
+            mv.visitJumpInsn(Opcodes.GOTO, defaultLabel);
+            return;
+        }
+        int low = cases.firstKey();
+        int high = cases.lastKey();
+        long tableSpace = 4 + ((long) high - low + 1);
+        long tableTime = 3;
+        long lookupSpace = 3 + 2L * cases.size();
+        long lookupTime = cases.size();
+        if (tableSpace + 3 * tableTime <= lookupSpace + 3 * lookupTime) {
+            Label[] table = new Label[high - low + 1];
+            for (int key = low; key <= high; key++) {
+                table[key - low] = cases.getOrDefault(key, defaultLabel);
+            }
+            mv.visitTableSwitchInsn(low, high, defaultLabel, table);
+            return;
+        }
+        int[] keys = new int[cases.size()];
+        Label[] labels = new Label[cases.size()];
+        int index = 0;
+        for (Map.Entry<Integer, Label> entry : cases.entrySet()) {
+            keys[index] = entry.getKey();
+            labels[index] = entry.getValue();
+            index++;
+        }
+        mv.visitLookupSwitchInsn(defaultLabel, keys, labels);
+    }
+
+    /** A {@code lookupswitch} on {@code hashCode()}, then {@code equals} over the strings sharing each hash. */
+    private void emitStringSwitch(MethodVisitor mv, int targetSlot, Map<Object, Label> cases, Label defaultLabel) {
+        TreeMap<Integer, List<String>> buckets = new TreeMap<>();
+        for (Object key : cases.keySet()) {
+            buckets.computeIfAbsent(key.hashCode(), hash -> new ArrayList<>()).add((String) key);
+        }
+        TreeMap<Integer, Label> bucketLabels = new TreeMap<>();
+        for (Integer hash : buckets.keySet()) {
+            bucketLabels.put(hash, new Label());
+        }
+        loadLocal(mv, ValueKind.STRING, targetSlot);
+        mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/lang/String", "hashCode", "()I", false);
+        emitIntSwitch(mv, bucketLabels, defaultLabel);
+        for (Map.Entry<Integer, List<String>> bucket : buckets.entrySet()) {
+            mv.visitLabel(bucketLabels.get(bucket.getKey()));
+            for (String key : bucket.getValue()) {
+                loadLocal(mv, ValueKind.STRING, targetSlot);
+                mv.visitLdcInsn(key);
+                mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/lang/String", "equals", "(Ljava/lang/Object;)Z", false);
+                mv.visitJumpInsn(Opcodes.IFNE, cases.get(key));
+            }
+            mv.visitJumpInsn(Opcodes.GOTO, defaultLabel);
+        }
+    }
+
     private void emitMatchCompare(MethodVisitor mv, ExprValue target, int targetSlot, AstMatchPattern pattern, Label matchLabel) {
         switch (pattern.kind()) {
             case INT -> {
@@ -894,14 +1948,28 @@ public final class Codegen implements CodegenStrategy {
         if (variant.payloadType() == null) {
             throw new IllegalStateException("Variant '" + variant.name() + "' does not bind a value");
         }
-        String typeName = variant.payloadType().isStruct()
-            ? variant.payloadType().structName()
-            : variant.payloadType().isEnum() ? variant.payloadType().enumName() : null;
-        int slot = locals.allocate(pattern.binding(), toValueKind(variant.payloadType()), typeName);
-        loadLocal(mv, ValueKind.ENUM, targetSlot);
-        mv.visitFieldInsn(Opcodes.GETFIELD, layout.internalName(), "payload", "Ljava/lang/Object;");
-        emitUnboxPayload(mv, variant.payloadType());
-        storeLocal(mv, toValueKind(variant.payloadType()), slot);
+        loadLocal(mv, ValueKind.ENUM, targetSlot);
+        ExprValue payload;
+        if (!variant.specializesPayload()) {
+            mv.visitTypeInsn(Opcodes.CHECKCAST, variant.className());
+            mv.visitFieldInsn(Opcodes.GETFIELD, variant.className(), "value", descriptorFor(variant.payloadType()));
+            payload = new ExprValue(toValueKind(variant.payloadType()), valueClassName(variant.payloadType()));
+        } else {
+            TypeId bound = types.bindingType(pattern);
+            ExprValue known = bound == null ? null : knownValue(runtimeType(TypeUnifier.substitute(bound, typeBindings)));
+            if (known == null) {
+                mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, layout.internalName(), "payload", "()Ljava/lang/Object;", false);
+                payload = ExprValue.of(ValueKind.ANY);
+            } else {
+                String variantClass = variant.className(known.kind());
+                String descriptor = anyPayloadDescriptor(known.kind());
+                mv.visitTypeInsn(Opcodes.CHECKCAST, variantClass);
+                mv.visitFieldInsn(Opcodes.GETFIELD, variantClass, "value", descriptor);
+                payload = narrow(mv, ExprValue.of(kindForDescriptor(descriptor)), bound);
+            }
+        }
+        int slot = locals.allocate(pattern.binding(), payload.kind(), payload.structName());
+        storeLocal(mv, payload.kind(), slot);
     }
 
     private ExprValue emitExpr(MethodVisitor mv, AstExpr expr, LocalState locals) {
@@ -914,9 +1982,7 @@ public final class Codegen implements CodegenStrategy {
             return ExprValue.of(ValueKind.BOOL);
         }
         if (expr instanceof AstNumberExpr numberExpr) {
-            int value = Integer.parseInt(numberExpr.literal());
-            mv.visitLdcInsn(value);
-            return ExprValue.of(ValueKind.INT);
+            return emitNumber(mv, numberExpr);
         }
         if (expr instanceof AstIdentExpr identExpr) {
             Local local = locals.get(identExpr.name());
@@ -932,6 +1998,12 @@ public final class Codegen implements CodegenStrategy {
         if (expr instanceof AstFieldAccessExpr accessExpr) {
             return emitFieldAccess(mv, accessExpr, locals);
         }
+        if (expr instanceof AstArrayExpr arrayExpr) {
+            return emitArray(mv, arrayExpr, locals);
+        }
+        if (expr instanceof AstIndexExpr indexExpr) {
+            return emitIndex(mv, indexExpr, locals);
+        }
         if (expr instanceof AstBinaryExpr binaryExpr) {
             return emitBinary(mv, binaryExpr, locals);
         }
@@ -959,12 +2031,34 @@ public final class Codegen implements CodegenStrategy {
         throw new IllegalStateException("Unsupported expression: " + expr.getClass().getSimpleName());
     }
 
+    private ExprValue emitNumber(MethodVisitor mv, AstNumberExpr numberExpr) {
+        TypeId type = numberExpr.type();
+        String digits = numberExpr.digits();
+        Object constant;
+        if (type == TypeId.I64) {
+            constant = Long.parseLong(digits);
+        } else if (type == TypeId.U64) {
+            constant = Long.parseUnsignedLong(digits);
+        } else if (type == TypeId.F32) {
+            constant = Float.parseFloat(digits);
+        } else if (type == TypeId.F64) {
+            constant = Double.parseDouble(digits);
+        } else {
+            constant = Integer.parseInt(digits);
+        }
+        mv.visitLdcInsn(constant);
+        return ExprValue.of(toValueKind(type));
+    }
+
     private ExprValue emitCall(MethodVisitor mv, AstCallExpr call, LocalState locals) {
         if (!isPrintCall(call)) {
+            HirModule.CallTarget target = hir.callTarget(call);
+            FunctionInfo specialized = specializedFunction(call, target);
+            if (specialized != null) {
+                return emitFunctionCall(mv, call, locals, specialized, String.join("::", call.callee()));
+            }
             if (call.callee().size() >= 2) {
-                String moduleName = String.join("::", call.callee().subList(0, call.callee().size() - 1));
-                String symbolName = call.callee().get(call.callee().size() - 1);
-                FunctionInfo qualified = resolveQualifiedFunction(moduleName, symbolName);
+                FunctionInfo qualified = target.kind() == HirModule.CallKind.QUALIFIED ? functionInfo(target.symbol()) : null;
                 if (qualified != null) {
                     return emitFunctionCall(mv, call, locals, qualified, String.join("::", call.callee()));
                 }
@@ -976,7 +2070,7 @@ public final class Codegen implements CodegenStrategy {
                 throw new IllegalStateException("Only direct function calls are supported");
             }
             String lookup = call.callee().get(0);
-            FunctionInfo info = resolveUnqualifiedFunction(lookup);
+            FunctionInfo info = resolveUnqualifiedFunction(target);
             if (info == null) {
                 throw new IllegalStateException("Unknown function: " + lookup);
             }
@@ -985,32 +2079,55 @@ public final class Codegen implements CodegenStrategy {
         if (call.args().isEmpty()) {
             throw new IllegalStateException("print expects at least one argument");
         }
-        if (call.args().size() > 2) {
-            throw new IllegalStateException("print supports at most a format string and one value");
-        }
-        String methodName = "println";
-        mv.visitFieldInsn(Opcodes.GETSTATIC, "java/lang/System", "out", "Ljava/io/PrintStream;");
+        emitPrintTarget(mv);
         if (call.args().size() == 1) {
             ExprValue arg = emitExpr(mv, call.args().get(0), locals);
             if (arg.kind() == ValueKind.STRING) {
-                mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/io/PrintStream", methodName, "(Ljava/lang/String;)V", false);
+                emitPrintln(mv, "(Ljava/lang/String;)V");
             } else if (arg.kind() == ValueKind.INT) {
-                mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/io/PrintStream", methodName, "(I)V", false);
+                emitPrintln(mv, "(I)V");
             } else if (arg.kind() == ValueKind.BOOL) {
-                mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/io/PrintStream", methodName, "(Z)V", false);
+                emitPrintln(mv, "(Z)V");
+            } else if (arg.kind() == ValueKind.ULONG) {
+                emitUnsignedToString(mv);
+                emitPrintln(mv, "(Ljava/lang/String;)V");
+            } else if (arg.kind().isNumeric()) {
+                emitPrintln(mv, "(" + arg.kind().asmType().getDescriptor() + ")V");
             } else if (arg.kind() == ValueKind.STRUCT || arg.kind() == ValueKind.ENUM || arg.kind() == ValueKind.ANY) {
-                mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/io/PrintStream", methodName, "(Ljava/lang/Object;)V", false);
+                emitPrintln(mv, "(Ljava/lang/Object;)V");
             } else {
                 throw new IllegalStateException("Unsupported print argument type: " + arg.kind());
             }
             return ExprValue.of(ValueKind.VOID);
         }
 
+        if (call.args().get(0) instanceof AstStringExpr format) {
+            List<String> pieces = FormatString.pieces(format.literal());
+            if (pieces.size() != call.args().size()) {
+                throw new IllegalStateException("format string placeholders do not match print values");
+            }
+            StringBuilder descriptors = new StringBuilder();
+            for (AstExpr valueExpr : call.args().subList(1, call.args().size())) {
+                ExprValue value = narrow(mv, emitExpr(mv, valueExpr, locals), types.typeOf(valueExpr));
+                if (value.kind() == ValueKind.ULONG) {
+                    emitUnsignedToString(mv);
+                }
+                descriptors.append(concatDescriptor(value));
+            }
+            emitConcat(mv, pieces, descriptors.toString());
+            emitPrintln(mv, "(Ljava/lang/String;)V");
+            return ExprValue.of(ValueKind.VOID);
+        }
+
+        // A format only known at runtime takes a single value, substituted for every `{}`.
+        if (call.args().size() != 2) {
+            throw new IllegalStateException("print with several values requires a string literal format");
+        }
         ExprValue formatArg = emitExpr(mv, call.args().get(0), locals);
         if (formatArg.kind() != ValueKind.STRING) {
             throw new IllegalStateException("formatted print requires first argument to be String");
         }
-        mv.visitLdcInsn("{}");
+        mv.visitLdcInsn(FormatString.PLACEHOLDER);
         ExprValue valueArg = emitExpr(mv, call.args().get(1), locals);
         emitStringValue(mv, valueArg);
         mv.visitMethodInsn(
@@ -1020,7 +2137,7 @@ public final class Codegen implements CodegenStrategy {
             "(Ljava/lang/CharSequence;Ljava/lang/CharSequence;)Ljava/lang/String;",
             false
         );
-        mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/io/PrintStream", methodName, "(Ljava/lang/String;)V", false);
+        emitPrintln(mv, "(Ljava/lang/String;)V");
         return ExprValue.of(ValueKind.VOID);
     }
 
@@ -1042,42 +2159,42 @@ public final class Codegen implements CodegenStrategy {
                 throw new IllegalStateException("Argument " + (i + 1) + " type mismatch for function " + displayName);
             }
         }
-        mv.visitMethodInsn(Opcodes.INVOKESTATIC, MAIN_INTERNAL_NAME, info.name(), info.descriptor(), false);
+        mv.visitMethodInsn(Opcodes.INVOKESTATIC, info.owner(), info.name(), info.descriptor(), false);
         return new ExprValue(info.returnKind(), info.returnStructName());
     }
 
-    private FunctionInfo resolveQualifiedFunction(String moduleName, String symbolName) {
-        FunctionInfo info = functions.get(symbolName);
-        if (info == null) {
+    private FunctionInfo specializedFunction(AstCallExpr call, HirModule.CallTarget target) {
+        List<TypeId> typeArguments = types.instantiation(call);
+        if (typeArguments == null || target.symbol() == HirModule.UNRESOLVED
+            || !(hir.symbol(target.symbol()).declaration() instanceof AstFunction callee)) {
             return null;
         }
-        String normalizedModule = normalizeModuleName(moduleName);
-        if (!moduleName.equals(info.moduleName()) && !normalizedModule.equals(info.moduleName())) {
-            return null;
+        List<TypeId> bound = new ArrayList<>(typeArguments.size());
+        for (TypeId argument : typeArguments) {
+            bound.add(TypeUnifier.substitute(argument, typeBindings));
+        }
+        String name = Monomorphizer.specializedName(callee.name(), bound);
+        FunctionInfo info = functions.get(name);
+        if (info == null) {
+            throw new IllegalStateException("Missing specialization: " + name);
         }
         return info;
     }
 
-    private FunctionInfo resolveUnqualifiedFunction(String symbolName) {
-        FunctionInfo local = functions.get(symbolName);
-        if (local != null && currentFunctionModule.equals(local.moduleName())) {
-            return local;
-        }
-        if (local != null && currentUseAliases.containsKey(symbolName)) {
-            String aliasTarget = currentUseAliases.get(symbolName);
-            int separator = aliasTarget.lastIndexOf("::");
-            if (separator >= 0) {
-                String aliasModule = normalizeModuleName(aliasTarget.substring(0, separator));
-                String aliasSymbol = aliasTarget.substring(separator + 2);
-                if (aliasSymbol.equals(local.name()) && aliasModule.equals(local.moduleName())) {
-                    return local;
-                }
-            }
-            if (aliasTarget.equals(local.moduleName() + "::" + local.name())) {
-                return local;
-            }
+    private FunctionInfo resolveUnqualifiedFunction(HirModule.CallTarget target) {
+        FunctionInfo info = functionInfo(target.symbol());
+        if (info == null) {
+            return null;
         }
-        return null;
+        return switch (target.kind()) {
+            case LOCAL, ALIAS -> info;
+            case NOT_IMPORTED -> currentFunctionModule.equals(info.moduleName()) ? info : null;
+            default -> null;
+        };
+    }
+
+    private FunctionInfo functionInfo(int symbol) {
+        return symbol >= 0 && symbol < functionsBySymbol.length ? functionsBySymbol[symbol] : null;
     }
 
     private ExprValue emitEnumPath(MethodVisitor mv, AstPathExpr pathExpr, LocalState locals) {
@@ -1098,7 +2215,7 @@ public final class Codegen implements CodegenStrategy {
         if (variant.payloadType() != null) {
             throw new IllegalStateException("Variant '" + variantName + "' requires a value");
         }
-        mv.visitMethodInsn(Opcodes.INVOKESTATIC, layout.internalName(), variantName, "()" + "L" + layout.internalName() + ";", false);
+        loadUnitVariant(mv, layout, variant);
         return new ExprValue(ValueKind.ENUM, layout.name());
     }
 
@@ -1117,7 +2234,7 @@ public final class Codegen implements CodegenStrategy {
             if (!call.args().isEmpty()) {
                 throw new IllegalStateException("Variant '" + variantName + "' does not take a value");
             }
-            mv.visitMethodInsn(Opcodes.INVOKESTATIC, layout.internalName(), variantName, "()" + "L" + layout.internalName() + ";", false);
+            loadUnitVariant(mv, layout, variant);
             return new ExprValue(ValueKind.ENUM, layout.name());
         }
         if (call.args().size() != 1) {
@@ -1127,21 +2244,28 @@ public final class Codegen implements CodegenStrategy {
         if (!arg.matches(new ReturnInfo(toValueKind(variant.payloadType()), variant.payloadType().isStruct() ? variant.payloadType().structName() : variant.payloadType().enumName()))) {
             throw new IllegalStateException("Variant '" + variantName + "' argument type mismatch");
         }
-        if (variant.payloadType() == TypeId.ANY) {
-            boxIfNeeded(mv, arg.kind());
+        String payloadDescriptor = descriptorFor(variant.payloadType());
+        if (variant.specializesPayload()) {
+            arg = narrow(mv, arg, types.typeOf(call.args().get(0)));
+            payloadDescriptor = anyPayloadDescriptor(arg.kind());
+            if (payloadDescriptor.startsWith("L")) {
+                boxIfNeeded(mv, arg.kind());
+            }
         }
         mv.visitMethodInsn(
             Opcodes.INVOKESTATIC,
             layout.internalName(),
             variantName,
-            "(" + descriptorFor(variant.payloadType()) + ")" + "L" + layout.internalName() + ";",
+            "(" + payloadDescriptor + ")" + "L" + layout.internalName() + ";",
             false
         );
         return new ExprValue(ValueKind.ENUM, layout.name());
     }
 
     private ExprValue emitStructInit(MethodVisitor mv, AstStructInitExpr initExpr, LocalState locals) {
-        StructLayout layout = structLayouts.get(initExpr.name());
+        StructLayout layout = genericStructs.containsKey(initExpr.name())
+            ? structLayout(checkedTypeOf(initExpr))
+            : structLayouts.get(initExpr.name());
         if (layout == null) {
             throw new IllegalStateException("Unknown struct: " + initExpr.name());
         }
@@ -1158,7 +2282,7 @@ public final class Codegen implements CodegenStrategy {
             }
         }
         mv.visitMethodInsn(Opcodes.INVOKESPECIAL, layout.internalName(), "<init>", layout.constructorDescriptor(), false);
-        return new ExprValue(ValueKind.STRUCT, layout.name());
+        return new ExprValue(ValueKind.STRUCT, layout.internalName());
     }
 
     private ExprValue emitFieldAccess(MethodVisitor mv, AstFieldAccessExpr accessExpr, LocalState locals) {
@@ -1178,6 +2302,114 @@ public final class Codegen implements CodegenStrategy {
         return new ExprValue(field.kind(), field.structName());
     }
 
+    /**
+     * Allocates the array with {@code NEWARRAY}/{@code ANEWARRAY} and relies on its zeroed
+     * contents: list literals skip zero elements, and {@code [value; N]} is either left as
+     * allocated or filled by one {@code Arrays.fill} call instead of a store per slot.
+     */
+    private ExprValue emitArray(MethodVisitor mv, AstArrayExpr arrayExpr, LocalState locals) {
+        TypeId arrayType = runtimeType(checkedTypeOf(arrayExpr));
+        TypeId elementType = arrayType.arrayElement();
+        ExprValue element = arrayElementValue(elementType);
+        Type elementJvmType = Type.getType(descriptorFor(elementType));
+        mv.visitLdcInsn(arrayExpr.length());
+        emitNewArray(mv, elementJvmType);
+        if (arrayExpr.isRepeat()) {
+            AstExpr value = arrayExpr.elements().get(0);
+            if (!isZeroLiteral(value)) {
+                mv.visitInsn(Opcodes.DUP);
+                emitArrayElement(mv, value, element, locals);
+                String slotDescriptor = elementJvmType.getSort() >= Type.ARRAY ? "Ljava/lang/Object;" : elementJvmType.getDescriptor();
+                mv.visitMethodInsn(Opcodes.INVOKESTATIC, "java/util/Arrays", "fill", "([" + slotDescriptor + slotDescriptor + ")V", false);
+            }
+            return new ExprValue(ValueKind.ARRAY, descriptorFor(arrayType));
+        }
+        List<AstExpr> elements = arrayExpr.elements();
+        for (int i = 0; i < elements.size(); i++) {
+            if (isZeroLiteral(elements.get(i))) {
+                continue;
+            }
+            mv.visitInsn(Opcodes.DUP);
+            mv.visitLdcInsn(i);
+            emitArrayElement(mv, elements.get(i), element, locals);
+            mv.visitInsn(elementJvmType.getOpcode(Opcodes.IASTORE));
+        }
+        return new ExprValue(ValueKind.ARRAY, descriptorFor(arrayType));
+    }
+
+    private void emitNewArray(MethodVisitor mv, Type elementType) {
+        int primitive = switch (elementType.getSort()) {
+            case Type.INT -> Opcodes.T_INT;
+            case Type.BOOLEAN -> Opcodes.T_BOOLEAN;
+            case Type.LONG -> Opcodes.T_LONG;
+            case Type.FLOAT -> Opcodes.T_FLOAT;
+            case Type.DOUBLE -> Opcodes.T_DOUBLE;
+            default -> -1;
+        };
+        if (primitive < 0) {
+            mv.visitTypeInsn(Opcodes.ANEWARRAY, elementType.getInternalName());
+        } else {
+            mv.visitIntInsn(Opcodes.NEWARRAY, primitive);
+        }
+    }
+
+    private boolean isZeroLiteral(AstExpr expr) {
+        if (expr instanceof AstBoolExpr boolExpr) {
+            return !boolExpr.value();
+        }
+        return expr instanceof AstNumberExpr numberExpr && Double.parseDouble(numberExpr.digits()) == 0;
+    }
+
+    private void emitArrayElement(MethodVisitor mv, AstExpr expr, ExprValue element, LocalState locals) {
+        ExprValue value = emitExpr(mv, expr, locals);
+        if (coerceToExpected(mv, value, new ReturnInfo(element.kind(), element.structName())) == null) {
+            throw new IllegalStateException("Array element type mismatch");
+        }
+    }
+
+    private ExprValue arrayElementValue(TypeId elementType) {
+        ExprValue element = knownValue(elementType);
+        if (element == null) {
+            throw new IllegalStateException("Unsupported array element type: " + elementType);
+        }
+        return element;
+    }
+
+    private ExprValue emitIndex(MethodVisitor mv, AstIndexExpr indexExpr, LocalState locals) {
+        TypeId elementType = runtimeType(checkedTypeOf(indexExpr));
+        emitArrayAndIndex(mv, indexExpr, locals);
+        mv.visitInsn(Type.getType(descriptorFor(elementType)).getOpcode(Opcodes.IALOAD));
+        return arrayElementValue(elementType);
+    }
+
+    private void emitIndexAssign(MethodVisitor mv, AstIndexAssignStmt assignStmt, LocalState locals) {
+        TypeId elementType = runtimeType(checkedTypeOf(assignStmt.target()));
+        ExprValue element = arrayElementValue(elementType);
+        Type elementJvmType = Type.getType(descriptorFor(elementType));
+        String op = assignStmt.operator();
+        emitArrayAndIndex(mv, assignStmt.target(), locals);
+        if (!"=".equals(op)) {
+            mv.visitInsn(Opcodes.DUP2);
+            mv.visitInsn(elementJvmType.getOpcode(Opcodes.IALOAD));
+        }
+        emitArrayElement(mv, assignStmt.value(), element, locals);
+        if (!"=".equals(op)) {
+            emitArithmetic(mv, op.substring(0, 1), element.kind());
+        }
+        mv.visitInsn(elementJvmType.getOpcode(Opcodes.IASTORE));
+    }
+
+    private void emitArrayAndIndex(MethodVisitor mv, AstIndexExpr indexExpr, LocalState locals) {
+        ExprValue target = narrow(mv, emitExpr(mv, indexExpr.target(), locals), types.typeOf(indexExpr.target()));
+        if (target.kind() != ValueKind.ARRAY) {
+            throw new IllegalStateException("Indexing requires an array");
+        }
+        ExprValue index = emitExpr(mv, indexExpr.index(), locals);
+        if (coerceToExpected(mv, index, new ReturnInfo(ValueKind.INT, null)) == null) {
+            throw new IllegalStateException("Array index must be i32");
+        }
+    }
+
     private ExprValue emitUnary(MethodVisitor mv, AstUnaryExpr unaryExpr, LocalState locals) {
         if ("&".equals(unaryExpr.operator()) || "&mut".equals(unaryExpr.operator()) || "*".equals(unaryExpr.operator())) {
             // `&`, `&mut`, and `*` only affect compile-time borrow typing in this backend.
@@ -1191,8 +2423,12 @@ public final class Codegen implements CodegenStrategy {
             return ExprValue.of(ValueKind.BOOL);
         }
         if ("-".equals(unaryExpr.operator())) {
-            mv.visitInsn(Opcodes.INEG);
-            return ExprValue.of(ValueKind.INT);
+            ValueKind kind = narrow(mv, right, types.typeOf(unaryExpr.expr())).kind();
+            if (!kind.isNumeric()) {
+                kind = ValueKind.INT;
+            }
+            mv.visitInsn(kind.asmType().getOpcode(Opcodes.INEG));
+            return ExprValue.of(kind);
         }
         throw new IllegalStateException("Unsupported unary operator: " + unaryExpr.operator());
     }
@@ -1205,36 +2441,16 @@ public final class Codegen implements CodegenStrategy {
         if ("||".equals(op)) {
             return emitLogicalOr(mv, binaryExpr.left(), binaryExpr.right(), locals);
         }
-        ExprValue left = emitExpr(mv, binaryExpr.left(), locals);
-        ExprValue right = emitExpr(mv, binaryExpr.right(), locals);
+        ExprValue left = narrow(mv, emitExpr(mv, binaryExpr.left(), locals), types.typeOf(binaryExpr.left()));
+        ExprValue right = narrow(mv, emitExpr(mv, binaryExpr.right(), locals), types.typeOf(binaryExpr.right()));
 
-        if ("+".equals(op)) {
-            if (!coerceBinaryIntOperands(mv, left, right)) {
-                throw new IllegalStateException("Arithmetic requires int operands");
-            }
-            mv.visitInsn(Opcodes.IADD);
-            return ExprValue.of(ValueKind.INT);
-        }
-        if ("-".equals(op)) {
-            if (!coerceBinaryIntOperands(mv, left, right)) {
-                throw new IllegalStateException("Arithmetic requires int operands");
-            }
-            mv.visitInsn(Opcodes.ISUB);
-            return ExprValue.of(ValueKind.INT);
-        }
-        if ("*".equals(op)) {
-            if (!coerceBinaryIntOperands(mv, left, right)) {
-                throw new IllegalStateException("Arithmetic requires int operands");
-            }
-            mv.visitInsn(Opcodes.IMUL);
-            return ExprValue.of(ValueKind.INT);
-        }
-        if ("/".equals(op)) {
-            if (!coerceBinaryIntOperands(mv, left, right)) {
-                throw new IllegalStateException("Arithmetic requires int operands");
+        if ("+".equals(op) || "-".equals(op) || "*".equals(op) || "/".equals(op)) {
+            ValueKind kind = coerceBinaryNumericOperands(mv, left, right);
+            if (kind == null) {
+                throw new IllegalStateException("Arithmetic requires matching numeric operands");
             }
-            mv.visitInsn(Opcodes.IDIV);
-            return ExprValue.of(ValueKind.INT);
+            emitArithmetic(mv, op, kind);
+            return ExprValue.of(kind);
         }
         if ("==".equals(op) || "!=".equals(op)) {
             if (left.kind() == ValueKind.ANY || right.kind() == ValueKind.ANY) {
@@ -1244,10 +2460,11 @@ public final class Codegen implements CodegenStrategy {
             return emitEquality(mv, op, left);
         }
         if ("<".equals(op) || "<=".equals(op) || ">".equals(op) || ">=".equals(op)) {
-            if (!coerceBinaryIntOperands(mv, left, right)) {
-                throw new IllegalStateException("Comparison requires int operands");
+            ValueKind kind = coerceBinaryNumericOperands(mv, left, right);
+            if (kind == null) {
+                throw new IllegalStateException("Comparison requires matching numeric operands");
             }
-            return emitComparison(mv, op);
+            return emitComparison(mv, op, kind);
         }
         throw new IllegalStateException("Unsupported binary operator: " + op);
     }
@@ -1319,6 +2536,10 @@ public final class Codegen implements CodegenStrategy {
         int opcode;
         if (left.kind() == ValueKind.STRUCT || left.kind() == ValueKind.ENUM) {
             opcode = negate ? Opcodes.IF_ACMPNE : Opcodes.IF_ACMPEQ;
+        } else if (left.kind().isNumeric() && left.kind() != ValueKind.INT) {
+            // NaN compares as -1 under the L variants, so it is unequal to everything.
+            emitWideCompare(mv, left.kind(), false);
+            opcode = negate ? Opcodes.IFNE : Opcodes.IFEQ;
         } else {
             opcode = negate ? Opcodes.IF_ICMPNE : Opcodes.IF_ICMPEQ;
         }
@@ -1335,6 +2556,44 @@ public final class Codegen implements CodegenStrategy {
         return ExprValue.of(ValueKind.BOOL);
     }
 
+    /** The kind both operands share once unboxed, or null; only {@code i32} operands are unboxed from Any. */
+    private ValueKind coerceBinaryNumericOperands(MethodVisitor mv, ExprValue left, ExprValue right) {
+        if (left.kind() == right.kind() && left.kind().isNumeric() && left.kind() != ValueKind.INT) {
+            return left.kind();
+        }
+        return coerceBinaryIntOperands(mv, left, right) ? ValueKind.INT : null;
+    }
+
+    private void emitArithmetic(MethodVisitor mv, String op, ValueKind kind) {
+        if ("/".equals(op) && kind == ValueKind.ULONG) {
+            mv.visitMethodInsn(Opcodes.INVOKESTATIC, "java/lang/Long", "divideUnsigned", "(JJ)J", false);
+            return;
+        }
+        int opcode = switch (op) {
+            case "+" -> Opcodes.IADD;
+            case "-" -> Opcodes.ISUB;
+            case "*" -> Opcodes.IMUL;
+            case "/" -> Opcodes.IDIV;
+            default -> throw new IllegalStateException("Unsupported arithmetic: " + op);
+        };
+        mv.visitInsn(kind.asmType().getOpcode(opcode));
+    }
+
+    /**
+     * Reduces two non-{@code int} operands to an {@code int} -1/0/1. Floats use the G variant
+     * for {@code <}/{@code <=} and the L variant otherwise, so a NaN operand makes every ordered
+     * comparison false.
+     */
+    private void emitWideCompare(MethodVisitor mv, ValueKind kind, boolean nanAsGreater) {
+        switch (kind) {
+            case LONG -> mv.visitInsn(Opcodes.LCMP);
+            case ULONG -> mv.visitMethodInsn(Opcodes.INVOKESTATIC, "java/lang/Long", "compareUnsigned", "(JJ)I", false);
+            case FLOAT -> mv.visitInsn(nanAsGreater ? Opcodes.FCMPG : Opcodes.FCMPL);
+            case DOUBLE -> mv.visitInsn(nanAsGreater ? Opcodes.DCMPG : Opcodes.DCMPL);
+            default -> throw new IllegalStateException("Unsupported comparison operand: " + kind);
+        }
+    }
+
     private boolean coerceBinaryIntOperands(MethodVisitor mv, ExprValue left, ExprValue right) {
         if (!isIntLike(left.kind()) || !isIntLike(right.kind())) {
             return false;
@@ -1351,34 +2610,29 @@ public final class Codegen implements CodegenStrategy {
     }
 
     private void coerceBothToObjectsForEquality(MethodVisitor mv, ExprValue left, ExprValue right) {
-        if (right.kind() == ValueKind.INT) {
-            mv.visitMethodInsn(Opcodes.INVOKESTATIC, "java/lang/Integer", "valueOf", "(I)Ljava/lang/Integer;", false);
-        } else if (right.kind() == ValueKind.BOOL) {
-            mv.visitMethodInsn(Opcodes.INVOKESTATIC, "java/lang/Boolean", "valueOf", "(Z)Ljava/lang/Boolean;", false);
-        }
+        boxIfNeeded(mv, right.kind());
 
-        if (left.kind() == ValueKind.INT) {
-            mv.visitInsn(Opcodes.SWAP);
-            mv.visitMethodInsn(Opcodes.INVOKESTATIC, "java/lang/Integer", "valueOf", "(I)Ljava/lang/Integer;", false);
-            mv.visitInsn(Opcodes.SWAP);
-        } else if (left.kind() == ValueKind.BOOL) {
-            mv.visitInsn(Opcodes.SWAP);
-            mv.visitMethodInsn(Opcodes.INVOKESTATIC, "java/lang/Boolean", "valueOf", "(Z)Ljava/lang/Boolean;", false);
+        if (boxClass(left.kind()) == null) {
+            return;
+        }
+        if (left.kind().slots() == 2) {
+            // SWAP cannot move a two-slot value; rotate the boxed right operand under it instead.
+            mv.visitInsn(Opcodes.DUP_X2);
+            mv.visitInsn(Opcodes.POP);
+        } else {
             mv.visitInsn(Opcodes.SWAP);
         }
+        boxIfNeeded(mv, left.kind());
+        mv.visitInsn(Opcodes.SWAP);
     }
 
     private ExprValue coerceToExpected(MethodVisitor mv, ExprValue value, ReturnInfo expected) {
         if (expected.kind() == ValueKind.ANY) {
-            if (value.kind() == ValueKind.INT) {
-                mv.visitMethodInsn(Opcodes.INVOKESTATIC, "java/lang/Integer", "valueOf", "(I)Ljava/lang/Integer;", false);
-                return ExprValue.of(ValueKind.ANY);
-            }
-            if (value.kind() == ValueKind.BOOL) {
-                mv.visitMethodInsn(Opcodes.INVOKESTATIC, "java/lang/Boolean", "valueOf", "(Z)Ljava/lang/Boolean;", false);
+            if (boxClass(value.kind()) != null) {
+                boxIfNeeded(mv, value.kind());
                 return ExprValue.of(ValueKind.ANY);
             }
-            if (value.kind() == ValueKind.STRING || value.kind() == ValueKind.STRUCT || value.kind() == ValueKind.ENUM || value.kind() == ValueKind.ANY) {
+            if (value.kind() == ValueKind.STRING || value.kind() == ValueKind.STRUCT || value.kind() == ValueKind.ENUM || value.kind() == ValueKind.ARRAY || value.kind() == ValueKind.ANY) {
                 return ExprValue.of(ValueKind.ANY);
             }
             return null;
@@ -1397,11 +2651,15 @@ public final class Codegen implements CodegenStrategy {
                 unboxAnyTopToBool(mv);
                 return ExprValue.of(ValueKind.BOOL);
             }
+            if (expected.kind().isNumeric()) {
+                unboxAnyTop(mv, expected.kind());
+                return ExprValue.of(expected.kind());
+            }
             if (expected.kind() == ValueKind.STRING) {
                 mv.visitTypeInsn(Opcodes.CHECKCAST, "java/lang/String");
                 return ExprValue.of(ValueKind.STRING);
             }
-            if (expected.kind() == ValueKind.STRUCT || expected.kind() == ValueKind.ENUM) {
+            if (expected.kind() == ValueKind.STRUCT || expected.kind() == ValueKind.ENUM || expected.kind() == ValueKind.ARRAY) {
                 if (expected.structName() == null) {
                     return null;
                 }
@@ -1417,6 +2675,36 @@ public final class Codegen implements CodegenStrategy {
         return null;
     }
 
+    // Codegen only tracks what the emitted instructions prove, so generic payloads and match
+    // results come back as ANY; when the checker settled on a concrete type, unbox or cast once.
+    private ExprValue narrow(MethodVisitor mv, ExprValue value, TypeId checkedType) {
+        if (value.kind() != ValueKind.ANY || checkedType == null) {
+            return value;
+        }
+        ExprValue known = knownValue(runtimeType(TypeUnifier.substitute(checkedType, typeBindings)));
+        if (known == null) {
+            return value;
+        }
+        return coerceToExpected(mv, value, new ReturnInfo(known.kind(), known.structName()));
+    }
+
+    private ExprValue knownValue(TypeId type) {
+        if (type.isNumeric() || type == TypeId.BOOL || type == TypeId.STRING) {
+            return ExprValue.of(toValueKind(type));
+        }
+        StructLayout structLayout = type.isStruct() ? structLayout(type) : null;
+        if (structLayout != null) {
+            return new ExprValue(ValueKind.STRUCT, structLayout.internalName());
+        }
+        if (type.isEnum() && enumLayouts.containsKey(type.enumName())) {
+            return new ExprValue(ValueKind.ENUM, enumLayouts.get(type.enumName()).name());
+        }
+        if (type.isArray()) {
+            return new ExprValue(ValueKind.ARRAY, descriptorFor(type));
+        }
+        return null;
+    }
+
     private boolean isIntLike(ValueKind kind) {
         return kind == ValueKind.INT || kind == ValueKind.ANY;
     }
@@ -1431,7 +2719,18 @@ public final class Codegen implements CodegenStrategy {
         mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/lang/Boolean", "booleanValue", "()Z", false);
     }
 
-    private ExprValue emitComparison(MethodVisitor mv, String op) {
+    private ExprValue emitComparison(MethodVisitor mv, String op, ValueKind kind) {
+        if (kind != ValueKind.INT) {
+            emitWideCompare(mv, kind, "<".equals(op) || "<=".equals(op));
+            int opcode = switch (op) {
+                case "<" -> Opcodes.IFLT;
+                case "<=" -> Opcodes.IFLE;
+                case ">" -> Opcodes.IFGT;
+                case ">=" -> Opcodes.IFGE;
+                default -> throw new IllegalStateException("Unsupported comparison: " + op);
+            };
+            return emitBooleanJump(mv, opcode);
+        }
         int opcode = switch (op) {
             case "<" -> Opcodes.IF_ICMPLT;
             case "<=" -> Opcodes.IF_ICMPLE;
@@ -1455,11 +2754,11 @@ public final class Codegen implements CodegenStrategy {
     }
 
     private void storeLocal(MethodVisitor mv, ValueKind kind, int slot) {
-        if (kind == ValueKind.INT || kind == ValueKind.BOOL) {
-            mv.visitVarInsn(Opcodes.ISTORE, slot);
+        if (kind == ValueKind.BOOL || kind.isNumeric()) {
+            mv.visitVarInsn(kind.asmType().getOpcode(Opcodes.ISTORE), slot);
             return;
         }
-        if (kind == ValueKind.STRING || kind == ValueKind.STRUCT || kind == ValueKind.ENUM || kind == ValueKind.ANY) {
+        if (kind == ValueKind.STRING || kind == ValueKind.STRUCT || kind == ValueKind.ENUM || kind == ValueKind.ARRAY || kind == ValueKind.ANY) {
             mv.visitVarInsn(Opcodes.ASTORE, slot);
             return;
         }
@@ -1467,11 +2766,11 @@ public final class Codegen implements CodegenStrategy {
     }
 
     private void loadLocal(MethodVisitor mv, ValueKind kind, int slot) {
-        if (kind == ValueKind.INT || kind == ValueKind.BOOL) {
-            mv.visitVarInsn(Opcodes.ILOAD, slot);
+        if (kind == ValueKind.BOOL || kind.isNumeric()) {
+            mv.visitVarInsn(kind.asmType().getOpcode(Opcodes.ILOAD), slot);
             return;
         }
-        if (kind == ValueKind.STRING || kind == ValueKind.STRUCT || kind == ValueKind.ENUM || kind == ValueKind.ANY) {
+        if (kind == ValueKind.STRING || kind == ValueKind.STRUCT || kind == ValueKind.ENUM || kind == ValueKind.ARRAY || kind == ValueKind.ANY) {
             mv.visitVarInsn(Opcodes.ALOAD, slot);
             return;
         }
@@ -1489,6 +2788,20 @@ public final class Codegen implements CodegenStrategy {
             && ("print".equals(callee.get(1)) || "println".equals(callee.get(1)));
     }
 
+    private String concatDescriptor(ExprValue value) {
+        return switch (value.kind()) {
+            case INT, BOOL, LONG, FLOAT, DOUBLE -> value.kind().asmType().getDescriptor();
+            case STRING, ULONG -> "Ljava/lang/String;";
+            case STRUCT, ENUM, ANY -> "Ljava/lang/Object;";
+            default -> throw new IllegalStateException("Unsupported print argument type: " + value.kind());
+        };
+    }
+
+    // The JVM has no unsigned long, so u64 values are formatted through Long's unsigned helpers.
+    private void emitUnsignedToString(MethodVisitor mv) {
+        mv.visitMethodInsn(Opcodes.INVOKESTATIC, "java/lang/Long", "toUnsignedString", "(J)Ljava/lang/String;", false);
+    }
+
     private void emitStringValue(MethodVisitor mv, ExprValue value) {
         if (value.kind() == ValueKind.STRING) {
             return;
@@ -1501,6 +2814,15 @@ public final class Codegen implements CodegenStrategy {
             mv.visitMethodInsn(Opcodes.INVOKESTATIC, "java/lang/String", "valueOf", "(Z)Ljava/lang/String;", false);
             return;
         }
+        if (value.kind() == ValueKind.ULONG) {
+            emitUnsignedToString(mv);
+            return;
+        }
+        if (value.kind().isNumeric()) {
+            String descriptor = "(" + value.kind().asmType().getDescriptor() + ")Ljava/lang/String;";
+            mv.visitMethodInsn(Opcodes.INVOKESTATIC, "java/lang/String", "valueOf", descriptor, false);
+            return;
+        }
         if (value.kind() == ValueKind.STRUCT || value.kind() == ValueKind.ENUM || value.kind() == ValueKind.ANY) {
             mv.visitMethodInsn(
                 Opcodes.INVOKESTATIC,
@@ -1528,30 +2850,33 @@ public final class Codegen implements CodegenStrategy {
     }
 
     private void buildFunctionRegistry(AstModule module) {
+        functionsBySymbol = new FunctionInfo[hir.symbolCount()];
         for (AstItem item : module.items()) {
             if (item instanceof AstFunction fn && !"main".equals(fn.name())) {
-                if (functions.containsKey(fn.name())) {
+                if (functions.containsKey(fn.name()) || genericFunctions.containsKey(fn.name())) {
                     throw new IllegalStateException("Duplicate function: " + fn.name());
                 }
-                TypeId returnType = resolveReturnType(fn.returnType());
-                FunctionInfo info = functionInfoFrom(fn, returnType);
+                if (fn.isGeneric()) {
+                    genericFunctions.put(fn.name(), fn);
+                    continue;
+                }
+                TypeId returnType = resolveReturnType(fn.returnTypeNode());
+                FunctionInfo info = functionInfoFrom(fn, fn.name(), returnType);
                 functions.put(fn.name(), info);
+                int symbol = hir.functionId(fn);
+                if (symbol != HirModule.UNRESOLVED) {
+                    functionsBySymbol[symbol] = info;
+                }
             }
         }
-    }
-
-    private void collectUseAliases(AstModule module) {
-        useAliasesBySource.clear();
-        for (AstItem item : module.items()) {
-            if (!(item instanceof AstUse useItem)) {
-                continue;
-            }
-            Path sourcePath = useItem.sourcePath();
-            if (sourcePath == null) {
-                continue;
-            }
-            Map<String, String> aliases = useAliasesBySource.computeIfAbsent(sourcePath, ignored -> new HashMap<>());
-            aliases.put(useItem.alias(), useItem.moduleName() + "::" + useItem.symbolName());
+        for (MirModule.FunctionInstance instance : mir.functionInstances()) {
+            AstFunction fn = instance.function();
+            FunctionInfo info = inSpecialization(
+                fn.typeParams(),
+                instance.bindings(),
+                () -> functionInfoFrom(fn, instance.name(), resolveReturnType(fn.returnTypeNode()))
+            );
+            functions.put(instance.name(), info);
         }
     }
 
@@ -1589,7 +2914,9 @@ public final class Codegen implements CodegenStrategy {
             enumNames.add(builtin.name());
         }
         for (AstItem item : module.items()) {
-            if (item instanceof AstStruct struct) {
+            if (item instanceof AstStruct struct && struct.isGeneric()) {
+                genericStructs.put(struct.name(), struct);
+            } else if (item instanceof AstStruct struct) {
                 structNames.add(struct.name());
             }
             if (item instanceof AstEnum enumDef) {
@@ -1597,10 +2924,75 @@ public final class Codegen implements CodegenStrategy {
             }
         }
         for (AstItem item : module.items()) {
-            if (item instanceof AstStruct struct) {
-                structLayouts.put(struct.name(), StructLayout.from(struct, structNames, enumNames));
+            if (item instanceof AstStruct struct && !struct.isGeneric()) {
+                structLayouts.put(struct.name(), layoutStruct(struct, struct.name(), structNames, enumNames));
+            }
+        }
+        for (TypeId instance : mir.structInstances()) {
+            structLayout(instance);
+        }
+    }
+
+    /**
+     * The layout for a struct type. Instantiations of a generic struct are laid out on first
+     * request, one class per runtime argument tuple, with each field typed by its substituted
+     * type so that e.g. {@code Pair<i32>} stores {@code int}s.
+     */
+    private StructLayout structLayout(TypeId type) {
+        TypeId runtime = Monomorphizer.runtimeArgument(type);
+        if (runtime.typeArguments().isEmpty()) {
+            return structLayouts.get(runtime.structName());
+        }
+        String internalName = Monomorphizer.className(runtime);
+        StructLayout existing = structLayouts.get(internalName);
+        AstStruct generic = genericStructs.get(runtime.structName());
+        if (existing != null || generic == null) {
+            return existing;
+        }
+        Map<TypeId, TypeId> bindings = new HashMap<>();
+        for (int i = 0; i < generic.typeParams().size(); i++) {
+            bindings.put(TypeId.param(generic.typeParams().get(i)), runtime.typeArguments().get(i));
+        }
+        StructLayout layout = inSpecialization(
+            generic.typeParams(),
+            bindings,
+            () -> layoutStruct(generic, internalName, structLayouts.keySet(), enumLayouts.keySet())
+        );
+        structLayouts.put(internalName, layout);
+        return layout;
+    }
+
+    private StructLayout layoutStruct(AstStruct struct, String internalName, Set<String> knownStructs, Set<String> knownEnums) {
+        List<FieldInfo> fields = new ArrayList<>();
+        for (AstField field : struct.fields()) {
+            TypeId fieldType = resolveType(field.typeNode(), knownStructs, knownEnums);
+            if (fieldType == TypeId.UNKNOWN || fieldType == TypeId.VOID) {
+                throw new IllegalStateException("Unsupported field type: " + field.type());
             }
+            fields.add(new FieldInfo(field.name(), descriptorFor(fieldType), toValueKind(fieldType), valueClassName(fieldType)));
+        }
+        return new StructLayout(struct.name(), internalName, fields);
+    }
+
+    private <T> T inSpecialization(List<String> typeParams, Map<TypeId, TypeId> bindings, Supplier<T> action) {
+        List<String> previousTypeParams = currentTypeParams;
+        Map<TypeId, TypeId> previousBindings = typeBindings;
+        currentTypeParams = typeParams;
+        typeBindings = bindings;
+        try {
+            return action.get();
+        } finally {
+            currentTypeParams = previousTypeParams;
+            typeBindings = previousBindings;
+        }
+    }
+
+    private TypeId checkedTypeOf(AstExpr expr) {
+        TypeId checked = types.typeOf(expr);
+        if (checked == null) {
+            throw new IllegalStateException("Generic code needs checked types");
         }
+        return TypeUnifier.substitute(checked, typeBindings);
     }
 
     private void addEnumLayout(AstEnum enumDef, Set<String> structNames, Set<String> enumNames) {
@@ -1609,12 +3001,12 @@ public final class Codegen implements CodegenStrategy {
         for (AstEnumVariant variant : enumDef.variants()) {
             TypeId payloadType = null;
             if (variant.payloadType() != null) {
-                payloadType = resolveTypeName(variant.payloadType(), structNames, enumNames);
+                payloadType = resolveType(variant.payloadTypeNode(), structNames, enumNames);
                 if (payloadType == TypeId.UNKNOWN || payloadType == TypeId.VOID) {
                     throw new IllegalStateException("Unsupported payload type: " + variant.payloadType());
                 }
             }
-            variants.add(new EnumVariant(variant.name(), tag++, payloadType));
+            variants.add(new EnumVariant(variant.name(), tag++, payloadType, enumDef.name()));
         }
         enumLayouts.put(enumDef.name(), new EnumLayout(enumDef.name(), enumDef.name(), variants));
     }
@@ -1634,169 +3026,88 @@ public final class Codegen implements CodegenStrategy {
         );
     }
 
-    private TypeId resolveReturnType(String name) {
-        if (name == null) {
+    private TypeId resolveReturnType(AstType type) {
+        if (type == null) {
             return TypeId.VOID;
         }
-        TypeId type = resolveTypeName(name);
-        if (type == TypeId.UNKNOWN) {
-            throw new IllegalStateException("Unknown return type: " + name);
-        }
-        return type;
-    }
-
-    private TypeId resolveTypeName(String name) {
-        TypeId reference = parseReferenceType(name);
-        if (reference != null) {
-            return reference;
-        }
-        TypeId generic = parseGenericType(name);
-        if (generic != null) {
-            return generic;
-        }
-        TypeId base = TypeId.fromTypeName(name);
-        if (base != TypeId.UNKNOWN) {
-            return base;
-        }
-        if (structLayouts.containsKey(name)) {
-            return TypeId.struct(name);
-        }
-        if (enumLayouts.containsKey(name)) {
-            return TypeId.enumType(name);
-        }
-        return TypeId.UNKNOWN;
-    }
-
-    private TypeId resolveTypeName(String name, Set<String> knownStructs, Set<String> knownEnums) {
-        TypeId reference = parseReferenceType(name, knownStructs, knownEnums);
-        if (reference != null) {
-            return reference;
-        }
-        TypeId generic = parseGenericType(name, knownStructs, knownEnums);
-        if (generic != null) {
-            return generic;
+        TypeId resolved = resolveType(type, structLayouts.keySet(), enumLayouts.keySet());
+        if (resolved == TypeId.UNKNOWN) {
+            throw new IllegalStateException("Unknown return type: " + type);
         }
-        TypeId base = TypeId.fromTypeName(name);
-        if (base != TypeId.UNKNOWN) {
-            return base;
-        }
-        if (knownStructs.contains(name)) {
-            return TypeId.struct(name);
-        }
-        if (knownEnums.contains(name)) {
-            return TypeId.enumType(name);
-        }
-        return TypeId.UNKNOWN;
-    }
-
-    private TypeId parseReferenceType(String name) {
-        ParsedReferenceType parsedReference = parseReferenceSyntax(name);
-        if (parsedReference == null) {
-            return null;
-        }
-        if (parsedReference.innerTypeText().isEmpty()) {
-            return TypeId.UNKNOWN;
-        }
-        TypeId innerType = resolveTypeName(parsedReference.innerTypeText());
-        if (innerType == TypeId.UNKNOWN || innerType == TypeId.VOID) {
-            return TypeId.UNKNOWN;
-        }
-        return TypeId.reference(innerType, parsedReference.mutable());
-    }
-
-    private TypeId parseReferenceType(String name, Set<String> knownStructs, Set<String> knownEnums) {
-        ParsedReferenceType parsedReference = parseReferenceSyntax(name);
-        if (parsedReference == null) {
-            return null;
-        }
-        if (parsedReference.innerTypeText().isEmpty()) {
-            return TypeId.UNKNOWN;
-        }
-        TypeId innerType = resolveTypeName(parsedReference.innerTypeText(), knownStructs, knownEnums);
-        if (innerType == TypeId.UNKNOWN || innerType == TypeId.VOID) {
-            return TypeId.UNKNOWN;
-        }
-        return TypeId.reference(innerType, parsedReference.mutable());
-    }
-
-    private ParsedReferenceType parseReferenceSyntax(String typeName) {
-        String trimmed = typeName.trim();
-        if (!trimmed.startsWith("&")) {
-            return null;
-        }
-        if (trimmed.startsWith("&mut")) {
-            return new ParsedReferenceType(true, trimmed.substring("&mut".length()).trim());
-        }
-        return new ParsedReferenceType(false, trimmed.substring(1).trim());
+        return resolved;
     }
 
-    private TypeId parseGenericType(String name) {
-        String trimmed = name.trim();
-        if (trimmed.startsWith("Option<") && trimmed.endsWith(">")) {
-            String inner = trimmed.substring("Option<".length(), trimmed.length() - 1).trim();
-            TypeId innerType = resolveTypeName(inner);
-            return innerType == TypeId.UNKNOWN ? TypeId.UNKNOWN : TypeId.option(innerType);
-        }
-        if (trimmed.startsWith("Result<") && trimmed.endsWith(">")) {
-            String inside = trimmed.substring("Result<".length(), trimmed.length() - 1).trim();
-            int split = findTopLevelComma(inside);
-            if (split < 0) {
-                return TypeId.UNKNOWN;
+    private TypeId resolveType(AstType type, Set<String> knownStructs, Set<String> knownEnums) {
+        switch (type.kind()) {
+            case REFERENCE -> {
+                TypeId innerType = resolveType(type.referent(), knownStructs, knownEnums);
+                if (innerType == TypeId.UNKNOWN || innerType == TypeId.VOID) {
+                    return TypeId.UNKNOWN;
+                }
+                return TypeId.reference(innerType, type.mutable());
             }
-            TypeId ok = resolveTypeName(inside.substring(0, split).trim());
-            TypeId err = resolveTypeName(inside.substring(split + 1).trim());
-            if (ok == TypeId.UNKNOWN || err == TypeId.UNKNOWN) {
-                return TypeId.UNKNOWN;
+            case ARRAY -> {
+                TypeId element = resolveType(type.referent(), knownStructs, knownEnums);
+                if (element == TypeId.UNKNOWN || element == TypeId.VOID) {
+                    return TypeId.UNKNOWN;
+                }
+                return TypeId.array(element, type.length());
             }
-            return TypeId.result(ok, err);
-        }
-        return null;
-    }
-
-    private TypeId parseGenericType(String name, Set<String> knownStructs, Set<String> knownEnums) {
-        String trimmed = name.trim();
-        if (trimmed.startsWith("Option<") && trimmed.endsWith(">")) {
-            String inner = trimmed.substring("Option<".length(), trimmed.length() - 1).trim();
-            TypeId innerType = resolveTypeName(inner, knownStructs, knownEnums);
-            return innerType == TypeId.UNKNOWN ? TypeId.UNKNOWN : TypeId.option(innerType);
-        }
-        if (trimmed.startsWith("Result<") && trimmed.endsWith(">")) {
-            String inside = trimmed.substring("Result<".length(), trimmed.length() - 1).trim();
-            int split = findTopLevelComma(inside);
-            if (split < 0) {
+            case GENERIC -> {
+                List<AstType> arguments = type.arguments();
+                if ("Option".equals(type.name()) && arguments.size() == 1) {
+                    TypeId innerType = resolveType(arguments.get(0), knownStructs, knownEnums);
+                    return innerType == TypeId.UNKNOWN ? TypeId.UNKNOWN : TypeId.option(innerType);
+                }
+                if ("Result".equals(type.name()) && arguments.size() == 2) {
+                    TypeId ok = resolveType(arguments.get(0), knownStructs, knownEnums);
+                    TypeId err = resolveType(arguments.get(1), knownStructs, knownEnums);
+                    if (ok == TypeId.UNKNOWN || err == TypeId.UNKNOWN) {
+                        return TypeId.UNKNOWN;
+                    }
+                    return TypeId.result(ok, err);
+                }
+                AstStruct generic = genericStructs.get(type.name());
+                if (generic != null && generic.typeParams().size() == arguments.size()) {
+                    List<TypeId> typeArguments = new ArrayList<>(arguments.size());
+                    for (AstType argument : arguments) {
+                        TypeId argumentType = resolveType(argument, knownStructs, knownEnums);
+                        if (argumentType == TypeId.UNKNOWN || argumentType == TypeId.VOID) {
+                            return TypeId.UNKNOWN;
+                        }
+                        typeArguments.add(argumentType);
+                    }
+                    return TypeId.struct(generic.name(), typeArguments);
+                }
                 return TypeId.UNKNOWN;
             }
-            TypeId ok = resolveTypeName(inside.substring(0, split).trim(), knownStructs, knownEnums);
-            TypeId err = resolveTypeName(inside.substring(split + 1).trim(), knownStructs, knownEnums);
-            if (ok == TypeId.UNKNOWN || err == TypeId.UNKNOWN) {
+            default -> {
+                String name = type.name();
+                if (currentTypeParams.contains(name)) {
+                    TypeId param = TypeId.param(name);
+                    return typeBindings.getOrDefault(param, param);
+                }
+                TypeId base = TypeId.fromTypeName(name);
+                if (base != TypeId.UNKNOWN) {
+                    return base;
+                }
+                if (knownStructs.contains(name)) {
+                    return TypeId.struct(name);
+                }
+                if (knownEnums.contains(name)) {
+                    return TypeId.enumType(name);
+                }
                 return TypeId.UNKNOWN;
             }
-            return TypeId.result(ok, err);
-        }
-        return null;
-    }
-
-    private int findTopLevelComma(String text) {
-        int depth = 0;
-        for (int i = 0; i < text.length(); i++) {
-            char ch = text.charAt(i);
-            if (ch == '<') {
-                depth++;
-            } else if (ch == '>') {
-                depth--;
-            } else if (ch == ',' && depth == 0) {
-                return i;
-            }
         }
-        return -1;
     }
 
-    private FunctionInfo functionInfoFrom(AstFunction fn, TypeId returnType) {
+    private FunctionInfo functionInfoFrom(AstFunction fn, String name, TypeId returnType) {
         List<ParamInfo> params = new ArrayList<>();
         StringBuilder descriptor = new StringBuilder();
         descriptor.append('(');
         for (AstParam param : fn.params()) {
-            TypeId paramType = resolveTypeName(param.type());
+            TypeId paramType = resolveType(param.typeNode(), structLayouts.keySet(), enumLayouts.keySet());
             if (paramType == TypeId.UNKNOWN) {
                 throw new IllegalStateException("Unknown parameter type: " + param.type());
             }
@@ -1804,55 +3115,43 @@ public final class Codegen implements CodegenStrategy {
                 throw new IllegalStateException("Parameter type cannot be void");
             }
             ValueKind paramKind = toValueKind(paramType);
-            TypeId erasedParamType = runtimeType(paramType);
-            String paramStruct = erasedParamType.isStruct() ? erasedParamType.structName() : erasedParamType.isEnum() ? erasedParamType.enumName() : null;
+            String paramStruct = valueClassName(paramType);
             String paramDesc = descriptorFor(paramType);
             params.add(new ParamInfo(param.name(), paramKind, paramStruct, paramDesc));
             descriptor.append(paramDesc);
         }
         descriptor.append(')').append(descriptorFor(returnType));
         ValueKind kind = toValueKind(returnType);
-        TypeId erasedReturnType = runtimeType(returnType);
-        String structName = erasedReturnType.isStruct() ? erasedReturnType.structName() : erasedReturnType.isEnum() ? erasedReturnType.enumName() : null;
-        return new FunctionInfo(fn.name(), moduleNameFor(fn.sourcePath()), kind, structName, descriptor.toString(), params);
-    }
-
-    private String moduleNameFor(Path sourcePath) {
-        if (sourcePath == null || sourcePath.getFileName() == null) {
-            return "main";
-        }
-        String fileName = sourcePath.getFileName().toString();
-        int dot = fileName.lastIndexOf('.');
-        String base = dot > 0 ? fileName.substring(0, dot) : fileName;
-        return base.replace('-', '_');
-    }
-
-    private String normalizeModuleName(String moduleName) {
-        String normalized = moduleName;
-        if (normalized.startsWith("crate::")) {
-            normalized = normalized.substring("crate::".length());
-        } else if (normalized.startsWith("self::")) {
-            normalized = normalized.substring("self::".length());
-        } else if (normalized.startsWith("super::")) {
-            normalized = normalized.substring("super::".length());
-        }
-        int lastSeparator = normalized.lastIndexOf("::");
-        if (lastSeparator >= 0 && lastSeparator + 2 < normalized.length()) {
-            return normalized.substring(lastSeparator + 2);
-        }
-        return normalized;
+        String structName = valueClassName(returnType);
+        String moduleName = hir.moduleName(fn.sourcePath());
+        return new FunctionInfo(name, moduleName, moduleClassName(moduleName), kind, structName, descriptor.toString(), params);
     }
 
     private ValueKind toValueKind(TypeId type) {
         if (type.isReference()) {
             return toValueKind(type.referenceInner());
         }
+        if (type.isArray()) {
+            return ValueKind.ARRAY;
+        }
         if (type == TypeId.INT) {
             return ValueKind.INT;
         }
         if (type == TypeId.BOOL) {
             return ValueKind.BOOL;
         }
+        if (type == TypeId.I64) {
+            return ValueKind.LONG;
+        }
+        if (type == TypeId.U64) {
+            return ValueKind.ULONG;
+        }
+        if (type == TypeId.F32) {
+            return ValueKind.FLOAT;
+        }
+        if (type == TypeId.F64) {
+            return ValueKind.DOUBLE;
+        }
         if (type == TypeId.STRING) {
             return ValueKind.STRING;
         }
@@ -1875,12 +3174,24 @@ public final class Codegen implements CodegenStrategy {
         if (type.isReference()) {
             return descriptorFor(type.referenceInner());
         }
+        if (type.isArray()) {
+            return "[" + descriptorFor(type.arrayElement());
+        }
         if (type == TypeId.INT) {
             return "I";
         }
         if (type == TypeId.BOOL) {
             return "Z";
         }
+        if (type == TypeId.I64 || type == TypeId.U64) {
+            return "J";
+        }
+        if (type == TypeId.F32) {
+            return "F";
+        }
+        if (type == TypeId.F64) {
+            return "D";
+        }
         if (type == TypeId.STRING) {
             return "Ljava/lang/String;";
         }
@@ -1890,15 +3201,21 @@ public final class Codegen implements CodegenStrategy {
         if (type == TypeId.VOID) {
             return "V";
         }
-        if (type.isStruct()) {
-            return "L" + type.structName() + ";";
-        }
-        if (type.isEnum()) {
-            return "L" + type.enumName() + ";";
+        if (type.isStruct() || type.isEnum()) {
+            return "L" + Monomorphizer.className(type) + ";";
         }
         throw new IllegalStateException("Unsupported type: " + type);
     }
 
+    // Array values carry their descriptor, which is also what CHECKCAST takes for an array class.
+    private String valueClassName(TypeId type) {
+        TypeId runtime = runtimeType(type);
+        if (runtime.isArray()) {
+            return descriptorFor(runtime);
+        }
+        return runtime.isStruct() || runtime.isEnum() ? Monomorphizer.className(runtime) : null;
+    }
+
     private TypeId runtimeType(TypeId type) {
         TypeId current = type;
         while (current.isReference()) {
@@ -1907,23 +3224,62 @@ public final class Codegen implements CodegenStrategy {
         return current;
     }
 
-    private record ParsedReferenceType(boolean mutable, String innerTypeText) {}
-
     private enum ValueKind {
         STRING,
         INT,
         BOOL,
+        LONG,
+        ULONG,
+        FLOAT,
+        DOUBLE,
         ANY,
         ENUM,
         STRUCT,
-        VOID
+        ARRAY,
+        VOID;
+
+        /** Local-variable slots a value takes; {@code long} and {@code double} take two. */
+        int slots() {
+            return this == LONG || this == ULONG || this == DOUBLE ? 2 : 1;
+        }
+
+        boolean isNumeric() {
+            return this == INT || this == LONG || this == ULONG || this == FLOAT || this == DOUBLE;
+        }
+
+        /** The ASM type whose {@code getOpcode} picks the typed form of an {@code int} instruction. */
+        Type asmType() {
+            return switch (this) {
+                case INT -> Type.INT_TYPE;
+                case BOOL -> Type.BOOLEAN_TYPE;
+                case LONG, ULONG -> Type.LONG_TYPE;
+                case FLOAT -> Type.FLOAT_TYPE;
+                case DOUBLE -> Type.DOUBLE_TYPE;
+                case VOID -> Type.VOID_TYPE;
+                default -> Type.getType(Object.class);
+            };
+        }
+    }
+
+    /** JVM value kind and first slot of each MIR local, by local index. */
+    private record MirFrame(ValueKind[] kinds, int[] slots) {
+        ValueKind kind(int local) {
+            return kinds[local];
+        }
+
+        int slot(int local) {
+            return slots[local];
+        }
     }
 
+    private record ClassMethod(AstFunction function, String specialization, Consumer<ClassWriter> emitter) {}
+
     private record ParamInfo(String name, ValueKind kind, String structName, String descriptor) {}
 
     private record FunctionInfo(
         String name,
         String moduleName,
+        String owner,
         ValueKind returnKind,
         String returnStructName,
         String descriptor,
@@ -1948,7 +3304,7 @@ public final class Codegen implements CodegenStrategy {
             if (kind != returnInfo.kind()) {
                 return false;
             }
-            if (kind == ValueKind.STRUCT || kind == ValueKind.ENUM) {
+            if (kind == ValueKind.STRUCT || kind == ValueKind.ENUM || kind == ValueKind.ARRAY) {
                 return structName != null && structName.equals(returnInfo.structName());
             }
             return true;
@@ -1996,7 +3352,7 @@ public final class Codegen implements CodegenStrategy {
         }
 
         int allocate(String name, ValueKind kind, String structName) {
-            int slot = nextSlot.getAndIncrement();
+            int slot = nextSlot.getAndAdd(kind.slots());
             locals.put(name, new Local(kind, slot, structName));
             return slot;
         }
@@ -2005,9 +3361,13 @@ public final class Codegen implements CodegenStrategy {
             return nextSlot.getAndIncrement();
         }
 
+        int allocateTemp(ValueKind kind) {
+            return nextSlot.getAndAdd(kind.slots());
+        }
+
         void define(String name, ValueKind kind, String structName, int slot) {
             locals.put(name, new Local(kind, slot, structName));
-            nextSlot.updateAndGet(current -> Math.max(current, slot + 1));
+            nextSlot.updateAndGet(current -> Math.max(current, slot + kind.slots()));
         }
 
         Local get(String name) {
@@ -2016,14 +3376,6 @@ public final class Codegen implements CodegenStrategy {
     }
 
     private record StructLayout(String name, String internalName, List<FieldInfo> fields) {
-        static StructLayout from(AstStruct struct, Set<String> knownStructs, Set<String> knownEnums) {
-            List<FieldInfo> fieldInfos = new ArrayList<>();
-            for (AstField field : struct.fields()) {
-                fieldInfos.add(FieldInfo.from(field, knownStructs, knownEnums));
-            }
-            return new StructLayout(struct.name(), struct.name(), fieldInfos);
-        }
-
         String constructorDescriptor() {
             StringBuilder desc = new StringBuilder();
             desc.append('(');
@@ -2047,7 +3399,7 @@ public final class Codegen implements CodegenStrategy {
             if (field.kind() != kind) {
                 return false;
             }
-            if (kind == ValueKind.STRUCT || kind == ValueKind.ENUM) {
+            if (kind == ValueKind.STRUCT || kind == ValueKind.ENUM || kind == ValueKind.ARRAY) {
                 return field.structName().equals(structName);
             }
             return true;
@@ -2065,36 +3417,27 @@ public final class Codegen implements CodegenStrategy {
         }
     }
 
-    private record EnumVariant(String name, int tag, TypeId payloadType) {}
-
-    private record FieldInfo(String name, String descriptor, ValueKind kind, String structName) {
-        static FieldInfo from(AstField field, Set<String> knownStructs, Set<String> knownEnums) {
-            String type = field.type();
-            return switch (type) {
-                case "String", "std::String" -> new FieldInfo(field.name(), "Ljava/lang/String;", ValueKind.STRING, null);
-                case "i32", "int" -> new FieldInfo(field.name(), "I", ValueKind.INT, null);
-                case "bool" -> new FieldInfo(field.name(), "Z", ValueKind.BOOL, null);
-                case "Any", "std::Any" -> new FieldInfo(field.name(), "Ljava/lang/Object;", ValueKind.ANY, null);
-                default -> {
-                    if (knownStructs.contains(type)) {
-                        yield new FieldInfo(field.name(), "L" + type + ";", ValueKind.STRUCT, type);
-                    }
-                    if (knownEnums.contains(type)) {
-                        yield new FieldInfo(field.name(), "L" + type + ";", ValueKind.ENUM, type);
-                    }
-                    throw new IllegalStateException("Unsupported field type: " + type);
-                }
-            };
+    private record EnumVariant(String name, int tag, TypeId payloadType, String owner) {
+        String className() {
+            return owner + "$" + name;
         }
 
-        String appendDescriptor() {
+        /** The subclass a payload of {@code kind} is stored in; only {@code Any} payloads specialize. */
+        String className(ValueKind kind) {
+            if (!specializesPayload()) {
+                return className();
+            }
             return switch (kind) {
-                case STRING -> "(Ljava/lang/String;)Ljava/lang/StringBuilder;";
-                case INT -> "(I)Ljava/lang/StringBuilder;";
-                case BOOL -> "(Z)Ljava/lang/StringBuilder;";
-                case STRUCT -> "(Ljava/lang/Object;)Ljava/lang/StringBuilder;";
-                default -> "(Ljava/lang/Object;)Ljava/lang/StringBuilder;";
+                case INT -> className() + "$i32";
+                case BOOL -> className() + "$bool";
+                default -> className();
             };
         }
+
+        boolean specializesPayload() {
+            return payloadType == TypeId.ANY;
+        }
     }
+
+    private record FieldInfo(String name, String descriptor, ValueKind kind, String structName) {}
 }
@@ -5,5 +5,22 @@ import java.util.List;
 public interface CodegenStrategy {
     List<ClassFile> emit(AstModule module);
 
+    default List<ClassFile> emit(AstModule module, TypedModule types) {
+        return emit(module);
+    }
+
+    default List<ClassFile> emit(MirModule module) {
+        return emit(module.source(), module.types());
+    }
+
     String mainClassName();
+
+    default CodegenStrategy withMethodCache(java.nio.file.Path cacheDirectory) {
+        return this;
+    }
+
+    // Prints straight to System.out, flushing every line, instead of through the buffered runtime writer.
+    default CodegenStrategy withLineFlushedOutput() {
+        return this;
+    }
 }
@@ -0,0 +1,72 @@
+package org.justlang.compiler;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Local value numbering: within a block, a unary or binary instruction that recomputes an
+ * expression already held in a local becomes a copy of that local. Entries die as soon as the
+ * holder or any input is rewritten. Commutative operators match either operand order.
+ */
+final class CommonSubexpressionPass implements MirPass {
+    private record Expression(String op, MirOperand left, MirOperand right) {
+        static Expression of(MirInstr instruction) {
+            if (instruction instanceof MirInstr.Unary unary) {
+                return new Expression(unary.op(), unary.operand(), null);
+            }
+            if (instruction instanceof MirInstr.Binary binary) {
+                if (isCommutative(binary.op()) && order(binary.right()) < order(binary.left())) {
+                    return new Expression(binary.op(), binary.right(), binary.left());
+                }
+                return new Expression(binary.op(), binary.left(), binary.right());
+            }
+            return null;
+        }
+
+        boolean reads(int local) {
+            return left.local() == local || right != null && right.local() == local;
+        }
+
+        private static boolean isCommutative(String op) {
+            return "+".equals(op) || "*".equals(op) || "==".equals(op) || "!=".equals(op);
+        }
+
+        // Constants sort after locals; locals by index.
+        private static long order(MirOperand operand) {
+            return operand instanceof MirOperand.Constant ? Long.MAX_VALUE : operand.local();
+        }
+    }
+
+    @Override
+    public String name() {
+        return "common-subexpression-elimination";
+    }
+
+    @Override
+    public boolean run(MirFunction function) {
+        boolean changed = false;
+        for (MirBlock block : function.blocks()) {
+            Map<Expression, Integer> available = new HashMap<>();
+            List<MirInstr> instructions = block.instructions();
+            for (int i = 0; i < instructions.size(); i++) {
+                MirInstr instruction = instructions.get(i);
+                Expression expression = Expression.of(instruction);
+                Integer holder = expression != null ? available.get(expression) : null;
+                if (holder != null && holder != instruction.target()) {
+                    instruction = new MirInstr.Move(instruction.target(), new MirOperand.Copy(holder));
+                    instructions.set(i, instruction);
+                    changed = true;
+                }
+                int target = instruction.target();
+                if (target != MirInstr.NO_TARGET) {
+                    available.entrySet().removeIf(entry -> entry.getValue() == target || entry.getKey().reads(target));
+                }
+                if (expression != null && !(instruction instanceof MirInstr.Move) && !expression.reads(target)) {
+                    available.put(expression, target);
+                }
+            }
+        }
+        return changed;
+    }
+}
@@ -8,12 +8,30 @@ public final class CompileRequest {
     private final Path outputJar;
     private final boolean emitJar;
     private final Map<String, Path> dependencyRoots;
+    private final boolean parallelFrontEnd;
+    private final Path cacheDirectory;
+    private final boolean lineFlushedOutput;
 
     public CompileRequest(Path inputPath, Path outputJar, boolean emitJar, Map<String, Path> dependencyRoots) {
+        this(inputPath, outputJar, emitJar, dependencyRoots, true, null, false);
+    }
+
+    private CompileRequest(
+        Path inputPath,
+        Path outputJar,
+        boolean emitJar,
+        Map<String, Path> dependencyRoots,
+        boolean parallelFrontEnd,
+        Path cacheDirectory,
+        boolean lineFlushedOutput
+    ) {
         this.inputPath = inputPath;
         this.outputJar = outputJar;
         this.emitJar = emitJar;
         this.dependencyRoots = Map.copyOf(dependencyRoots);
+        this.parallelFrontEnd = parallelFrontEnd;
+        this.cacheDirectory = cacheDirectory;
+        this.lineFlushedOutput = lineFlushedOutput;
     }
 
     public Path inputPath() {
@@ -32,6 +50,30 @@ public final class CompileRequest {
         return dependencyRoots;
     }
 
+    public boolean parallelFrontEnd() {
+        return parallelFrontEnd;
+    }
+
+    public Path cacheDirectory() {
+        return cacheDirectory;
+    }
+
+    public boolean lineFlushedOutput() {
+        return lineFlushedOutput;
+    }
+
+    public CompileRequest withParallelFrontEnd(boolean enabled) {
+        return new CompileRequest(inputPath, outputJar, emitJar, dependencyRoots, enabled, cacheDirectory, lineFlushedOutput);
+    }
+
+    public CompileRequest withCacheDirectory(Path directory) {
+        return new CompileRequest(inputPath, outputJar, emitJar, dependencyRoots, parallelFrontEnd, directory, lineFlushedOutput);
+    }
+
+    public CompileRequest withLineFlushedOutput(boolean enabled) {
+        return new CompileRequest(inputPath, outputJar, emitJar, dependencyRoots, parallelFrontEnd, cacheDirectory, enabled);
+    }
+
     public static CompileRequest forBuild(Path inputPath, Path outputJar) {
         return forBuild(inputPath, outputJar, Map.of());
     }
@@ -40,6 +82,11 @@ public final class CompileRequest {
         return new CompileRequest(inputPath, outputJar, true, dependencyRoots);
     }
 
+    // Emits class files for in-memory execution; outputJar may be null to skip writing a jar.
+    public static CompileRequest forRun(Path inputPath, Path outputJar, Map<String, Path> dependencyRoots) {
+        return new CompileRequest(inputPath, outputJar, true, dependencyRoots);
+    }
+
     public static CompileRequest forCheck(Path inputPath) {
         return forCheck(inputPath, Map.of());
     }
@@ -5,10 +5,18 @@ import java.util.List;
 public final class CompileResult {
     private final boolean success;
     private final List<Diagnostic> diagnostics;
+    private final List<ClassFile> classFiles;
+    private final String mainClassName;
 
     public CompileResult(boolean success, List<Diagnostic> diagnostics) {
+        this(success, diagnostics, List.of(), null);
+    }
+
+    public CompileResult(boolean success, List<Diagnostic> diagnostics, List<ClassFile> classFiles, String mainClassName) {
         this.success = success;
         this.diagnostics = diagnostics;
+        this.classFiles = List.copyOf(classFiles);
+        this.mainClassName = mainClassName;
     }
 
     public boolean success() {
@@ -18,4 +26,12 @@ public final class CompileResult {
     public List<Diagnostic> diagnostics() {
         return diagnostics;
     }
+
+    public List<ClassFile> classFiles() {
+        return classFiles;
+    }
+
+    public String mainClassName() {
+        return mainClassName;
+    }
 }
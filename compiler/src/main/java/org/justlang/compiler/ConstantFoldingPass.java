@@ -0,0 +1,129 @@
+package org.justlang.compiler;
+
+import java.util.List;
+
+/**
+ * Evaluates instructions whose operands are all constants, applies the identities that need
+ * only one (`x + 0`, `x * 1`, `x * 0`, `x / 1`) to integers, and turns branches on a constant
+ * into jumps. Integer division by a constant zero is left alone so it still throws at run time.
+ */
+final class ConstantFoldingPass implements MirPass {
+    @Override
+    public String name() {
+        return "constant-folding";
+    }
+
+    @Override
+    public boolean run(MirFunction function) {
+        boolean changed = false;
+        for (MirBlock block : function.blocks()) {
+            List<MirInstr> instructions = block.instructions();
+            for (int i = 0; i < instructions.size(); i++) {
+                MirInstr folded = fold(instructions.get(i));
+                if (folded != null) {
+                    instructions.set(i, folded);
+                    changed = true;
+                }
+            }
+            if (block.terminator() instanceof MirTerminator.Branch branch) {
+                if (branch.condition() instanceof MirOperand.Constant constant) {
+                    block.setTerminator(new MirTerminator.Goto(constant.value() != 0 ? branch.ifTrue() : branch.ifFalse()));
+                    changed = true;
+                } else if (branch.ifTrue() == branch.ifFalse()) {
+                    block.setTerminator(new MirTerminator.Goto(branch.ifTrue()));
+                    changed = true;
+                }
+            }
+        }
+        return changed;
+    }
+
+    private static MirInstr fold(MirInstr instruction) {
+        if (instruction instanceof MirInstr.Unary unary && unary.operand() instanceof MirOperand.Constant constant) {
+            return new MirInstr.Move(unary.target(), negate(unary.op(), constant));
+        }
+        if (!(instruction instanceof MirInstr.Binary binary)) {
+            return null;
+        }
+        if (binary.left() instanceof MirOperand.Constant left && binary.right() instanceof MirOperand.Constant right) {
+            if ("/".equals(binary.op()) && !right.isFloat() && right.bits() == 0) {
+                return null;
+            }
+            return new MirInstr.Move(binary.target(), evaluate(binary.op(), left, right));
+        }
+        MirOperand simplified = simplify(binary);
+        return simplified != null ? new MirInstr.Move(binary.target(), simplified) : null;
+    }
+
+    // Integer identities only: with floats, `x + 0` turns -0.0 into 0.0 and `x * 0` keeps NaN.
+    private static MirOperand simplify(MirInstr.Binary binary) {
+        long left = constantValue(binary.left());
+        long right = constantValue(binary.right());
+        return switch (binary.op()) {
+            case "+" -> right == 0 ? binary.left() : left == 0 ? binary.right() : null;
+            case "-" -> right == 0 ? binary.left() : null;
+            case "*" -> right == 1 ? binary.left() : left == 1 ? binary.right() : right == 0 ? binary.right() : left == 0 ? binary.left() : null;
+            case "/" -> right == 1 ? binary.left() : null;
+            default -> null;
+        };
+    }
+
+    // Only integer 0 and 1 matter to simplify(); anything else reads as "not a useful constant".
+    private static long constantValue(MirOperand operand) {
+        return operand instanceof MirOperand.Constant constant && !constant.isFloat() && (constant.bits() == 0 || constant.bits() == 1)
+            ? constant.bits()
+            : -1;
+    }
+
+    private static MirOperand.Constant negate(String op, MirOperand.Constant constant) {
+        if ("!".equals(op)) {
+            return new MirOperand.Constant(TypeId.BOOL, constant.bits() ^ 1);
+        }
+        return constant.isFloat()
+            ? MirOperand.ofFloat(constant.type(), -constant.doubleValue())
+            : MirOperand.ofInteger(constant.type(), -constant.bits());
+    }
+
+    /** Evaluates with JVM semantics for the operands' type: `i32` wraps at 32 bits, `u64` divides and compares unsigned. */
+    static MirOperand.Constant evaluate(String op, MirOperand.Constant left, MirOperand.Constant right) {
+        TypeId type = left.type();
+        if (left.isFloat()) {
+            double a = left.doubleValue();
+            double b = right.doubleValue();
+            return switch (op) {
+                case "+" -> MirOperand.ofFloat(type, a + b);
+                case "-" -> MirOperand.ofFloat(type, a - b);
+                case "*" -> MirOperand.ofFloat(type, a * b);
+                case "/" -> MirOperand.ofFloat(type, a / b);
+                case "<" -> bool(a < b);
+                case "<=" -> bool(a <= b);
+                case ">" -> bool(a > b);
+                case ">=" -> bool(a >= b);
+                case "==" -> bool(a == b);
+                case "!=" -> bool(a != b);
+                default -> throw new IllegalStateException("Unsupported MIR operator: " + op);
+            };
+        }
+        long a = left.bits();
+        long b = right.bits();
+        boolean unsigned = type == TypeId.U64;
+        int order = unsigned ? Long.compareUnsigned(a, b) : Long.compare(a, b);
+        return switch (op) {
+            case "+" -> MirOperand.ofInteger(type, a + b);
+            case "-" -> MirOperand.ofInteger(type, a - b);
+            case "*" -> MirOperand.ofInteger(type, a * b);
+            case "/" -> MirOperand.ofInteger(type, unsigned ? Long.divideUnsigned(a, b) : a / b);
+            case "<" -> bool(order < 0);
+            case "<=" -> bool(order <= 0);
+            case ">" -> bool(order > 0);
+            case ">=" -> bool(order >= 0);
+            case "==" -> bool(a == b);
+            case "!=" -> bool(a != b);
+            default -> throw new IllegalStateException("Unsupported MIR operator: " + op);
+        };
+    }
+
+    private static MirOperand.Constant bool(boolean value) {
+        return (MirOperand.Constant) MirOperand.of(value);
+    }
+}
@@ -0,0 +1,154 @@
+package org.justlang.compiler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces reads of a local with what it was last copied from. Within a block this follows
+ * every `x = y` / `x = 5` until either side is rewritten; across blocks it substitutes locals
+ * defined once by a constant wherever that definition dominates the read. It also coalesces
+ * `t = a op b; x = t` into `x = a op b` when the temporary has no other reader.
+ */
+final class CopyPropagationPass implements MirPass {
+    @Override
+    public String name() {
+        return "copy-propagation";
+    }
+
+    @Override
+    public boolean run(MirFunction function) {
+        boolean changed = false;
+        for (MirBlock block : function.blocks()) {
+            changed |= propagateInBlock(block);
+        }
+        changed |= propagateConstants(function);
+        changed |= coalesceMoves(function);
+        return changed;
+    }
+
+    private static boolean propagateInBlock(MirBlock block) {
+        boolean changed = false;
+        Map<Integer, MirOperand> copies = new HashMap<>();
+        List<MirInstr> instructions = block.instructions();
+        for (int i = 0; i < instructions.size(); i++) {
+            MirInstr instruction = instructions.get(i);
+            MirInstr rewritten = rewrite(instruction, copies);
+            if (rewritten != instruction) {
+                instructions.set(i, rewritten);
+                changed = true;
+            }
+            int target = rewritten.target();
+            if (target == MirInstr.NO_TARGET) {
+                continue;
+            }
+            copies.remove(target);
+            copies.values().removeIf(source -> source.local() == target);
+            if (rewritten instanceof MirInstr.Move move && move.source().local() != target) {
+                copies.put(target, move.source());
+            }
+        }
+        for (MirOperand operand : MirCfg.terminatorOperands(block.terminator())) {
+            MirOperand replacement = copies.get(operand.local());
+            if (replacement != null) {
+                block.setTerminator(MirCfg.withTerminatorOperand(block.terminator(), replacement));
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    private static MirInstr rewrite(MirInstr instruction, Map<Integer, MirOperand> copies) {
+        List<MirOperand> operands = instruction.operands();
+        List<MirOperand> replaced = null;
+        for (int i = 0; i < operands.size(); i++) {
+            MirOperand replacement = copies.get(operands.get(i).local());
+            if (replacement != null) {
+                if (replaced == null) {
+                    replaced = new ArrayList<>(operands);
+                }
+                replaced.set(i, replacement);
+            }
+        }
+        return replaced == null ? instruction : instruction.withOperands(replaced);
+    }
+
+    private static boolean propagateConstants(MirFunction function) {
+        int[] defs = MirCfg.defCounts(function);
+        Map<Integer, MirOperand> constants = new HashMap<>();
+        Map<Integer, int[]> sites = new HashMap<>();
+        for (MirBlock block : function.blocks()) {
+            for (int i = 0; i < block.instructions().size(); i++) {
+                if (block.instructions().get(i) instanceof MirInstr.Move move
+                    && move.source() instanceof MirOperand.Constant
+                    && defs[move.target()] == 1) {
+                    constants.put(move.target(), move.source());
+                    sites.put(move.target(), new int[] {block.id(), i});
+                }
+            }
+        }
+        if (constants.isEmpty()) {
+            return false;
+        }
+
+        MirCfg cfg = MirCfg.of(function);
+        boolean changed = false;
+        for (MirBlock block : function.blocks()) {
+            List<MirInstr> instructions = block.instructions();
+            for (int i = 0; i < instructions.size(); i++) {
+                MirInstr instruction = instructions.get(i);
+                List<MirOperand> operands = new ArrayList<>(instruction.operands());
+                boolean replaced = false;
+                for (int j = 0; j < operands.size(); j++) {
+                    MirOperand constant = constants.get(operands.get(j).local());
+                    if (constant != null && dominates(cfg, sites.get(operands.get(j).local()), block.id(), i)) {
+                        operands.set(j, constant);
+                        replaced = true;
+                    }
+                }
+                if (replaced) {
+                    instructions.set(i, instruction.withOperands(operands));
+                    changed = true;
+                }
+            }
+            for (MirOperand operand : MirCfg.terminatorOperands(block.terminator())) {
+                MirOperand constant = constants.get(operand.local());
+                if (constant != null && dominates(cfg, sites.get(operand.local()), block.id(), instructions.size())) {
+                    block.setTerminator(MirCfg.withTerminatorOperand(block.terminator(), constant));
+                    changed = true;
+                }
+            }
+        }
+        return changed;
+    }
+
+    private static boolean dominates(MirCfg cfg, int[] site, int block, int index) {
+        if (site[0] == block) {
+            return site[1] < index;
+        }
+        return cfg.isReachable(block) && cfg.dominates(site[0], block);
+    }
+
+    private static boolean coalesceMoves(MirFunction function) {
+        int[] uses = MirCfg.useCounts(function);
+        boolean changed = false;
+        for (MirBlock block : function.blocks()) {
+            List<MirInstr> instructions = block.instructions();
+            for (int i = 1; i < instructions.size(); i++) {
+                if (!(instructions.get(i) instanceof MirInstr.Move move) || !(move.source() instanceof MirOperand.Copy copy)) {
+                    continue;
+                }
+                MirInstr producer = instructions.get(i - 1);
+                int temp = copy.local();
+                if (producer.target() == temp && function.local(temp).isTemp() && uses[temp] == 1) {
+                    instructions.set(i - 1, producer.withTarget(move.target()));
+                    instructions.remove(i);
+                    i--;
+                    changed = true;
+                }
+            }
+        }
+        return changed;
+    }
+}
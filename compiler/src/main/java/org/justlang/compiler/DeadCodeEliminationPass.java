@@ -0,0 +1,125 @@
+package org.justlang.compiler;
+
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Deletes side-effect-free instructions whose result is never read, then tidies the CFG:
+ * jumps through empty blocks are threaded, a block whose only predecessor jumps straight to it
+ * is merged into that predecessor, and unreachable blocks are dropped.
+ */
+final class DeadCodeEliminationPass implements MirPass {
+    @Override
+    public String name() {
+        return "dead-code-elimination";
+    }
+
+    @Override
+    public boolean run(MirFunction function) {
+        boolean changed = removeUnreachable(function);
+        changed |= removeDeadInstructions(function);
+        changed |= threadJumps(function);
+        changed |= mergeStraightLines(function);
+        changed |= removeUnreachable(function);
+        return changed;
+    }
+
+    private static boolean removeDeadInstructions(MirFunction function) {
+        Map<Integer, BitSet> liveOut = MirCfg.of(function).liveOut();
+        boolean changed = false;
+        for (MirBlock block : function.blocks()) {
+            BitSet live = (BitSet) liveOut.get(block.id()).clone();
+            for (MirOperand operand : MirCfg.terminatorOperands(block.terminator())) {
+                if (operand.local() >= 0) {
+                    live.set(operand.local());
+                }
+            }
+            List<MirInstr> instructions = block.instructions();
+            for (int i = instructions.size() - 1; i >= 0; i--) {
+                MirInstr instruction = instructions.get(i);
+                int target = instruction.target();
+                boolean dead = target != MirInstr.NO_TARGET && !live.get(target)
+                    || instruction instanceof MirInstr.Move move && move.source().local() == target;
+                if (dead && !instruction.hasSideEffects()) {
+                    instructions.remove(i);
+                    changed = true;
+                    continue;
+                }
+                if (dead && instruction instanceof MirInstr.Call && target != MirInstr.NO_TARGET) {
+                    instruction = instruction.withTarget(MirInstr.NO_TARGET);
+                    instructions.set(i, instruction);
+                    changed = true;
+                }
+                if (instruction.target() != MirInstr.NO_TARGET) {
+                    live.clear(instruction.target());
+                }
+                for (MirOperand operand : instruction.operands()) {
+                    if (operand.local() >= 0) {
+                        live.set(operand.local());
+                    }
+                }
+            }
+        }
+        return changed;
+    }
+
+    private static boolean threadJumps(MirFunction function) {
+        boolean changed = false;
+        for (MirBlock block : function.blocks()) {
+            MirTerminator threaded = block.terminator().withSuccessors(target -> finalTarget(function, target));
+            if (!threaded.equals(block.terminator())) {
+                block.setTerminator(threaded);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    private static int finalTarget(MirFunction function, int target) {
+        Set<Integer> seen = new HashSet<>();
+        int current = target;
+        while (seen.add(current)) {
+            MirBlock block = function.block(current);
+            if (!block.instructions().isEmpty() || !(block.terminator() instanceof MirTerminator.Goto jump)) {
+                return current;
+            }
+            current = jump.target();
+        }
+        return target;
+    }
+
+    private static boolean mergeStraightLines(MirFunction function) {
+        boolean changed = false;
+        boolean merged = true;
+        while (merged) {
+            merged = false;
+            MirCfg cfg = MirCfg.of(function);
+            for (MirBlock block : function.blocks()) {
+                if (!(block.terminator() instanceof MirTerminator.Goto jump)) {
+                    continue;
+                }
+                MirBlock successor = function.block(jump.target());
+                if (successor == block || successor.id() == function.entry() || cfg.predecessors(successor.id()).size() != 1) {
+                    continue;
+                }
+                block.instructions().addAll(successor.instructions());
+                block.setTerminator(successor.terminator());
+                function.removeBlock(successor);
+                merged = true;
+                changed = true;
+                break;
+            }
+        }
+        return changed;
+    }
+
+    private static boolean removeUnreachable(MirFunction function) {
+        MirCfg cfg = MirCfg.of(function);
+        List<MirBlock> unreachable = function.blocks().stream().filter(block -> !cfg.isReachable(block.id())).toList();
+        unreachable.forEach(function::removeBlock);
+        return !unreachable.isEmpty();
+    }
+}
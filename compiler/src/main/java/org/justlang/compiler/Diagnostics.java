@@ -7,11 +7,18 @@ import java.util.List;
 public final class Diagnostics {
     private final List<Diagnostic> items = new ArrayList<>();
 
-    public void report(Diagnostic diagnostic) {
+    public synchronized void report(Diagnostic diagnostic) {
         items.add(diagnostic);
     }
 
-    public List<Diagnostic> all() {
-        return Collections.unmodifiableList(items);
+    public void reportAll(Diagnostics other) {
+        List<Diagnostic> snapshot = other.all();
+        synchronized (this) {
+            items.addAll(snapshot);
+        }
+    }
+
+    public synchronized List<Diagnostic> all() {
+        return Collections.unmodifiableList(new ArrayList<>(items));
     }
 }
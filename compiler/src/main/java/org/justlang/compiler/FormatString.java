@@ -0,0 +1,63 @@
+package org.justlang.compiler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compile-time view of a {@code print} format string and of the
+ * {@code StringConcatFactory.makeConcatWithConstants} recipe it lowers to.
+ *
+ * <p>A format is the literal text around its {@code {}} placeholders; the placeholders are
+ * filled by the remaining {@code print} arguments, in order.
+ */
+final class FormatString {
+    static final String PLACEHOLDER = "{}";
+
+    private static final char ARGUMENT_TAG = '\u0001';
+    private static final char CONSTANT_TAG = '\u0002';
+
+    private FormatString() {}
+
+    /** The literal pieces of {@code format}; there is one more piece than there are placeholders. */
+    static List<String> pieces(String format) {
+        List<String> pieces = new ArrayList<>();
+        int start = 0;
+        int hole = format.indexOf(PLACEHOLDER);
+        while (hole >= 0) {
+            pieces.add(format.substring(start, hole));
+            start = hole + PLACEHOLDER.length();
+            hole = format.indexOf(PLACEHOLDER, start);
+        }
+        pieces.add(format.substring(start));
+        return pieces;
+    }
+
+    static int placeholders(String format) {
+        return pieces(format).size() - 1;
+    }
+
+    /**
+     * The concat recipe joining {@code pieces} with one argument between each pair. The recipe's
+     * own tag characters cannot appear literally, so any in the text are passed as constants,
+     * which are appended to {@code constants}.
+     */
+    static String recipe(List<String> pieces, List<Object> constants) {
+        StringBuilder recipe = new StringBuilder();
+        for (int i = 0; i < pieces.size(); i++) {
+            if (i > 0) {
+                recipe.append(ARGUMENT_TAG);
+            }
+            String piece = pieces.get(i);
+            for (int j = 0; j < piece.length(); j++) {
+                char c = piece.charAt(j);
+                if (c == ARGUMENT_TAG || c == CONSTANT_TAG) {
+                    recipe.append(CONSTANT_TAG);
+                    constants.add(String.valueOf(c));
+                } else {
+                    recipe.append(c);
+                }
+            }
+        }
+        return recipe.toString();
+    }
+}
@@ -1,21 +1,38 @@
 package org.justlang.compiler;
 
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 public final class FunctionRegistry {
     private final Map<String, FunctionSig> functions = new HashMap<>();
+    private FunctionSig[] bySymbol = new FunctionSig[0];
 
     public void register(String name, FunctionSig sig) {
         functions.put(name, sig);
     }
 
+    public void register(int symbol, String name, FunctionSig sig) {
+        register(name, sig);
+        if (symbol == HirModule.UNRESOLVED) {
+            return;
+        }
+        if (symbol >= bySymbol.length) {
+            bySymbol = Arrays.copyOf(bySymbol, Math.max(symbol + 1, bySymbol.length * 2));
+        }
+        bySymbol[symbol] = sig;
+    }
+
     public FunctionSig find(String name) {
         return functions.get(name);
     }
 
+    public FunctionSig find(int symbol) {
+        return symbol >= 0 && symbol < bySymbol.length ? bySymbol[symbol] : null;
+    }
+
     public boolean contains(String name) {
         return functions.containsKey(name);
     }
@@ -26,10 +43,15 @@ public final class FunctionRegistry {
         List<TypeId> paramTypes,
         String moduleName,
         Path sourcePath,
-        boolean publicItem
+        boolean publicItem,
+        List<TypeId> typeParams
     ) {
         public int paramCount() {
             return paramTypes.size();
         }
+
+        public boolean isGeneric() {
+            return !typeParams.isEmpty();
+        }
     }
 }
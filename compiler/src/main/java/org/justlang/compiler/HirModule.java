@@ -1,4 +1,134 @@
 package org.justlang.compiler;
 
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An {@link AstModule} with every name resolved once. Functions, structs and enums get dense
+ * integer symbol IDs; calls, enum paths, struct literals and named type annotations map to the
+ * symbol they refer to, so later stages index arrays by ID instead of re-joining and re-probing
+ * name strings. Module names and `use` aliases are computed here and nowhere else.
+ */
 public final class HirModule {
+    public static final int UNRESOLVED = -1;
+
+    public enum SymbolKind {
+        FUNCTION,
+        STRUCT,
+        ENUM
+    }
+
+    /** How a call's callee was resolved, from the point of view of the calling function. */
+    public enum CallKind {
+        /** Declared in the caller's own source file. */
+        LOCAL,
+        /** Written as `module::name` and the module matches. */
+        QUALIFIED,
+        /** Reached through a `use` alias in the caller's source file. */
+        ALIAS,
+        /** Declared in another module and not imported; {@code symbol} is that function. */
+        NOT_IMPORTED,
+        /** The alias target has no `::` separator. */
+        INVALID_ALIAS,
+        /** The alias target names a function that does not exist in that module. */
+        UNKNOWN_ALIAS_TARGET,
+        /** No function by that name. */
+        UNKNOWN,
+        /** Not a function call at all (print, enum variant constructors, bad paths). */
+        NONE
+    }
+
+    public record Symbol(int id, SymbolKind kind, String name, String moduleName, Path sourcePath, boolean publicItem, AstItem declaration) {}
+
+    public record CallTarget(int symbol, CallKind kind, String aliasTarget) {
+        static final CallTarget NONE = new CallTarget(UNRESOLVED, CallKind.NONE, null);
+    }
+
+    private final AstModule module;
+    private final List<Symbol> symbols;
+    private final Map<String, Integer> functionIds;
+    private final Map<AstCallExpr, CallTarget> calls;
+    private final Map<Object, Integer> references;
+    private final Map<Path, String> moduleNames;
+    private final Map<Path, Map<String, String>> useAliases;
+    private final List<String> errors;
+
+    HirModule(
+        AstModule module,
+        List<Symbol> symbols,
+        Map<String, Integer> functionIds,
+        Map<AstCallExpr, CallTarget> calls,
+        Map<Object, Integer> references,
+        Map<Path, String> moduleNames,
+        Map<Path, Map<String, String>> useAliases,
+        List<String> errors
+    ) {
+        this.module = module;
+        this.symbols = symbols;
+        this.functionIds = functionIds;
+        this.calls = calls;
+        this.references = references;
+        this.moduleNames = moduleNames;
+        this.useAliases = useAliases;
+        this.errors = errors;
+    }
+
+    public AstModule module() {
+        return module;
+    }
+
+    public int symbolCount() {
+        return symbols.size();
+    }
+
+    public Symbol symbol(int id) {
+        return symbols.get(id);
+    }
+
+    /** The symbol a function declaration registered, or {@link #UNRESOLVED} for duplicates. */
+    public int functionId(AstFunction fn) {
+        Integer id = functionIds.get(fn.name());
+        return id != null && symbols.get(id).declaration() == fn ? id : UNRESOLVED;
+    }
+
+    public CallTarget callTarget(AstCallExpr call) {
+        CallTarget target = calls.get(call);
+        return target != null ? target : CallTarget.NONE;
+    }
+
+    /** The enum an `Enum::Variant` path names, or {@link #UNRESOLVED}. */
+    public int pathTarget(AstPathExpr path) {
+        return reference(path);
+    }
+
+    /** The struct a struct literal builds, or {@link #UNRESOLVED}. */
+    public int structTarget(AstStructInitExpr init) {
+        return reference(init);
+    }
+
+    /** The struct or enum a named type annotation refers to, or {@link #UNRESOLVED} for primitives and unknown names. */
+    public int typeTarget(AstType type) {
+        return reference(type);
+    }
+
+    public String moduleName(Path sourcePath) {
+        String name = sourcePath != null ? moduleNames.get(sourcePath) : null;
+        return name != null ? name : NameResolver.moduleNameFor(sourcePath);
+    }
+
+    /** Alias name to `module::symbol` for the `use` items of one source file. */
+    public Map<String, String> useAliases(Path sourcePath) {
+        return sourcePath != null ? useAliases.getOrDefault(sourcePath, Map.of()) : Map.of();
+    }
+
+    /** Duplicate `use` aliases found while collecting imports. */
+    public List<String> errors() {
+        return errors;
+    }
+
+    private int reference(Object node) {
+        Integer id = references.get(node);
+        return id != null ? id : UNRESOLVED;
+    }
 }
@@ -1,14 +1,33 @@
 package org.justlang.compiler;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
 public final class JustCompiler {
-    private final LexerStrategy lexer;
-    private final ParserStrategy parser;
+    private static final String DEVELOPMENT_VERSION = "dev";
+    private static final String METHOD_CACHE_DIRECTORY = "methods";
+
+    private final Supplier<? extends LexerStrategy> lexers;
+    private final Supplier<? extends ParserStrategy> parsers;
+    private final boolean perTaskFrontEnd;
     private final TypeCheckerStrategy typeChecker;
     private final CodegenStrategy codegen;
     private final JarEmitter jarEmitter;
 
     public JustCompiler() {
-        this(new Lexer(), new Parser(), new TypeChecker(), new Codegen(), new JarEmitter());
+        this(Lexer::new, Parser::new, new TypeChecker(), new Codegen(), new JarEmitter());
     }
 
     public JustCompiler(
@@ -18,13 +37,85 @@ public final class JustCompiler {
         CodegenStrategy codegen,
         JarEmitter jarEmitter
     ) {
-        this.lexer = lexer;
-        this.parser = parser;
+        // Shared strategy instances may keep per-parse state, so they always run serially.
+        this(() -> lexer, () -> parser, false, typeChecker, codegen, jarEmitter);
+    }
+
+    public JustCompiler(
+        Supplier<? extends LexerStrategy> lexers,
+        Supplier<? extends ParserStrategy> parsers,
+        TypeCheckerStrategy typeChecker,
+        CodegenStrategy codegen,
+        JarEmitter jarEmitter
+    ) {
+        this(lexers, parsers, true, typeChecker, codegen, jarEmitter);
+    }
+
+    private JustCompiler(
+        Supplier<? extends LexerStrategy> lexers,
+        Supplier<? extends ParserStrategy> parsers,
+        boolean perTaskFrontEnd,
+        TypeCheckerStrategy typeChecker,
+        CodegenStrategy codegen,
+        JarEmitter jarEmitter
+    ) {
+        this.lexers = lexers;
+        this.parsers = parsers;
+        this.perTaskFrontEnd = perTaskFrontEnd;
         this.typeChecker = typeChecker;
         this.codegen = codegen;
         this.jarEmitter = jarEmitter;
     }
 
+    public static String version() {
+        String version = JustCompiler.class.getPackage().getImplementationVersion();
+        return version == null ? DEVELOPMENT_VERSION : version;
+    }
+
+    /**
+     * Identifies this exact compiler build: {@link #version()} plus a hash of the compiler's own
+     * class files and the runtime classes it copies into every output. Caches and the daemon
+     * handshake key on it, so a rebuilt compiler never reuses what another build produced, even
+     * when both report the same version.
+     */
+    public static String buildId() {
+        return BuildIdHolder.BUILD_ID;
+    }
+
+    private static String hashCompilerClasses() {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            CodeSource source = JustCompiler.class.getProtectionDomain().getCodeSource();
+            if (source == null) {
+                return UUID.randomUUID().toString();
+            }
+            Path location = Path.of(source.getLocation().toURI());
+            if (Files.isDirectory(location)) {
+                List<Path> classFiles;
+                try (Stream<Path> files = Files.walk(location)) {
+                    classFiles = files.filter(file -> file.toString().endsWith(".class")).sorted().toList();
+                }
+                for (Path file : classFiles) {
+                    digest.update(location.relativize(file).toString().getBytes(StandardCharsets.UTF_8));
+                    digest.update(Files.readAllBytes(file));
+                }
+            } else {
+                digest.update(Files.readAllBytes(location));
+            }
+            digest.update(RuntimeClasses.stdout());
+            return HexFormat.of().formatHex(digest.digest(), 0, 16);
+        } catch (IOException | UncheckedIOException | URISyntaxException | IllegalArgumentException error) {
+            // An unidentifiable build matches nothing, so it never reuses another build's output.
+            return UUID.randomUUID().toString();
+        } catch (NoSuchAlgorithmException error) {
+            throw new IllegalStateException("SHA-256 is not available", error);
+        }
+    }
+
+    private static final class BuildIdHolder {
+        private static final String BUILD_ID = version() + "+" + hashCompilerClasses();
+    }
+
     public CompileResult compile(CompileRequest request) {
         Diagnostics diagnostics = new Diagnostics();
         SourceLoader loader = new SourceLoader();
@@ -48,25 +139,29 @@ public final class JustCompiler {
             return new CompileResult(false, diagnostics.all());
         }
 
+        AstCache cache = request.cacheDirectory() == null ? null : new AstCache(request.cacheDirectory());
+        java.util.List<FrontEndResult> parsed = request.parallelFrontEnd() && perTaskFrontEnd && sources.size() > 1
+            ? parseParallel(sources, cache)
+            : parseSerial(sources, cache);
+
+        // Results are merged in source order, so diagnostics and items match a serial compile.
         java.util.List<AstItem> items = new java.util.ArrayList<>();
         boolean success = true;
-
-        for (SourceFile source : sources) {
-            try {
-                java.util.List<Token> tokens = lexer.lex(source, diagnostics);
-                AstModule module = parser.parse(source, tokens, diagnostics);
-                items.addAll(module.items());
-            } catch (LexException | ParseException error) {
-                success = false;
-            } catch (RuntimeException error) {
-                diagnostics.report(new Diagnostic(error.getMessage(), source.path()));
+        for (FrontEndResult result : parsed) {
+            diagnostics.reportAll(result.diagnostics());
+            if (result.module() == null) {
                 success = false;
+            } else {
+                items.addAll(result.module().items());
             }
         }
 
         if (!success) {
             return new CompileResult(false, diagnostics.all());
         }
+        if (cache != null) {
+            cache.prune();
+        }
 
         AstModule mergedModule = new AstModule(items);
         TypeResult typeResult = typeChecker.typeCheck(mergedModule);
@@ -88,21 +183,37 @@ public final class JustCompiler {
             return new CompileResult(true, diagnostics.all());
         }
 
+        CodegenStrategy requestCodegen = request.lineFlushedOutput() ? codegen.withLineFlushedOutput() : codegen;
+        CodegenStrategy activeCodegen = request.cacheDirectory() == null
+            ? requestCodegen
+            : requestCodegen.withMethodCache(request.cacheDirectory().resolve(METHOD_CACHE_DIRECTORY));
         java.util.List<ClassFile> classFiles;
         try {
-            classFiles = codegen.emit(mergedModule);
+            MirModule mir = new Monomorphizer().specialize(
+                MirPassManager.standard().run(new MirBuilder().lower(mergedModule, typeResult.typedModule()))
+            );
+            classFiles = activeCodegen.emit(mir);
         } catch (RuntimeException error) {
             diagnostics.report(new Diagnostic("Codegen error: " + error.getMessage(), inputPath));
             return new CompileResult(false, diagnostics.all());
         }
 
+        String mainClassName = activeCodegen.mainClassName();
+        if (request.outputJar() == null) {
+            diagnostics.report(new Diagnostic(
+                "Compiled " + sources.size() + " source file(s).",
+                inputPath
+            ));
+            return new CompileResult(true, diagnostics.all(), classFiles, mainClassName);
+        }
+
         try {
-            jarEmitter.writeJar(classFiles, request.outputJar(), codegen.mainClassName());
+            jarEmitter.writeJar(classFiles, request.outputJar(), mainClassName);
             diagnostics.report(new Diagnostic(
                 "Compiled " + sources.size() + " source file(s).",
                 request.outputJar()
             ));
-            return new CompileResult(true, diagnostics.all());
+            return new CompileResult(true, diagnostics.all(), classFiles, mainClassName);
         } catch (java.io.IOException error) {
             diagnostics.report(new Diagnostic(
                 "Failed to write jar: " + error.getMessage(),
@@ -111,4 +222,57 @@ public final class JustCompiler {
             return new CompileResult(false, diagnostics.all());
         }
     }
+
+    private java.util.List<FrontEndResult> parseSerial(java.util.List<SourceFile> sources, AstCache cache) {
+        LexerStrategy lexer = lexers.get();
+        ParserStrategy parser = parsers.get();
+        java.util.List<FrontEndResult> results = new java.util.ArrayList<>(sources.size());
+        for (SourceFile source : sources) {
+            results.add(parseSource(source, lexer, parser, cache));
+        }
+        return results;
+    }
+
+    private java.util.List<FrontEndResult> parseParallel(java.util.List<SourceFile> sources, AstCache cache) {
+        java.util.List<java.util.concurrent.ForkJoinTask<FrontEndResult>> tasks = new java.util.ArrayList<>(sources.size());
+        java.util.concurrent.ForkJoinPool pool = java.util.concurrent.ForkJoinPool.commonPool();
+        for (SourceFile source : sources) {
+            tasks.add(pool.submit(() -> parseSource(source, lexers.get(), parsers.get(), cache)));
+        }
+        java.util.List<FrontEndResult> results = new java.util.ArrayList<>(sources.size());
+        for (java.util.concurrent.ForkJoinTask<FrontEndResult> task : tasks) {
+            results.add(task.join());
+        }
+        return results;
+    }
+
+    private static FrontEndResult parseSource(
+        SourceFile source,
+        LexerStrategy lexer,
+        ParserStrategy parser,
+        AstCache cache
+    ) {
+        Diagnostics diagnostics = new Diagnostics();
+        if (cache != null) {
+            AstModule cached = cache.load(source);
+            if (cached != null) {
+                return new FrontEndResult(cached, diagnostics);
+            }
+        }
+        try {
+            AstModule module = parser.parseStream(source, lexer.stream(source, diagnostics), diagnostics);
+            if (cache != null && diagnostics.all().isEmpty()) {
+                cache.store(source, module);
+            }
+            return new FrontEndResult(module, diagnostics);
+        } catch (LexException | ParseException error) {
+            return new FrontEndResult(null, diagnostics);
+        } catch (RuntimeException error) {
+            diagnostics.report(new Diagnostic(error.getMessage(), source.path()));
+            return new FrontEndResult(null, diagnostics);
+        }
+    }
+
+    private record FrontEndResult(AstModule module, Diagnostics diagnostics) {
+    }
 }
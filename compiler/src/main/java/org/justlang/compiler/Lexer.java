@@ -1,11 +1,10 @@
 package org.justlang.compiler;
 
-import java.util.ArrayList;
+import java.nio.ByteBuffer;
 import java.util.List;
-import java.util.Set;
 
 public final class Lexer implements LexerStrategy {
-    private static final Set<String> KEYWORDS = Set.of(
+    private static final List<String> KEYWORDS = List.of(
         "fn",
         "let",
         "mut",
@@ -29,161 +28,308 @@ public final class Lexer implements LexerStrategy {
         "pub",
         "as"
     );
+    // Perfect hash over (first char, last char): every keyword lands in its own slot, so
+    // classification is one table probe plus a region compare.
+    private static final int KEYWORD_TABLE_MASK = 63;
+    private static final String[] KEYWORD_TABLE = buildKeywordTable();
 
     @Override
     public List<Token> lex(SourceFile sourceFile, Diagnostics diagnostics) {
-        String source = sourceFile.contents();
-        List<Token> tokens = new ArrayList<>();
-        int index = 0;
-        int line = 1;
-        int column = 1;
+        ByteBuffer source = sourceFile.bytes();
+        TokenBuffer tokens = new TokenBuffer(source, source.limit() / 4 + 1);
+        Scanner scanner = new Scanner(sourceFile, source, diagnostics);
+        while (scanner.scan(tokens)) {
+            // Each call appends one token; the final call appends EOF.
+        }
+        return tokens;
+    }
 
-        while (index < source.length()) {
-            char c = source.charAt(index);
+    @Override
+    public TokenStream stream(SourceFile sourceFile, Diagnostics diagnostics) {
+        ByteBuffer source = sourceFile.bytes();
+        Scanner scanner = new Scanner(sourceFile, source, diagnostics);
+        return new TokenWindow(source, scanner::scan);
+    }
 
-            if (c == '\n') {
-                index++;
-                line++;
-                column = 1;
-                continue;
+    static String keyword(ByteBuffer source, int start, int length) {
+        if (length < 2 || length > 8) {
+            return null;
+        }
+        byte first = source.get(start);
+        byte last = source.get(start + length - 1);
+        if (first < 0 || last < 0) {
+            return null;
+        }
+        String candidate = KEYWORD_TABLE[keywordSlot((char) first, (char) last)];
+        if (candidate == null || candidate.length() != length) {
+            return null;
+        }
+        for (int i = 0; i < length; i++) {
+            if (source.get(start + i) != candidate.charAt(i)) {
+                return null;
             }
+        }
+        return candidate;
+    }
 
-            if (Character.isWhitespace(c)) {
-                index++;
-                column++;
-                continue;
+    private static int keywordSlot(char first, char last) {
+        return (first + 15 * last) & KEYWORD_TABLE_MASK;
+    }
+
+    private static String[] buildKeywordTable() {
+        String[] table = new String[KEYWORD_TABLE_MASK + 1];
+        for (String keyword : KEYWORDS) {
+            int slot = keywordSlot(keyword.charAt(0), keyword.charAt(keyword.length() - 1));
+            if (table[slot] != null) {
+                throw new IllegalStateException("Keyword hash collision: " + keyword + " and " + table[slot]);
             }
+            table[slot] = keyword;
+        }
+        return table;
+    }
 
-            if (c == '/' && index + 1 < source.length() && source.charAt(index + 1) == '/') {
-                index += 2;
-                column += 2;
-                while (index < source.length() && source.charAt(index) != '\n') {
-                    index++;
-                    column++;
-                }
-                continue;
+    private static boolean isIdentStart(int c) {
+        return Character.isLetter(c) || c == '_';
+    }
+
+    private static boolean isIdentPart(int c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    private static boolean isSymbolStart(char c) {
+        return "(){}[],;=:+-*/&<>.!|'#?".indexOf(c) >= 0;
+    }
+
+    /**
+     * Scans UTF-8 bytes in place. ASCII bytes are classified directly; only non-ASCII input is
+     * decoded to a code point, and columns count code points rather than bytes.
+     */
+    private static final class Scanner {
+        private final SourceFile sourceFile;
+        private final ByteBuffer source;
+        private final int limit;
+        private final Diagnostics diagnostics;
+        private int index;
+        private int line = 1;
+        private int column = 1;
+        private boolean finished;
+
+        private Scanner(SourceFile sourceFile, ByteBuffer source, Diagnostics diagnostics) {
+            this.sourceFile = sourceFile;
+            this.source = source;
+            this.limit = source.limit();
+            this.diagnostics = diagnostics;
+        }
+
+        boolean scan(TokenSink tokens) {
+            if (finished) {
+                return false;
             }
+            while (index < limit) {
+                byte b = source.get(index);
+                if (b < 0) {
+                    int codePoint = Utf8.codePointAt(source, index);
+                    if (Character.isWhitespace(codePoint)) {
+                        index += Utf8.sequenceLength(b);
+                        column++;
+                        continue;
+                    }
+                    if (isIdentStart(codePoint)) {
+                        scanIdentifier(tokens);
+                        return true;
+                    }
+                    throw unexpected(codePoint);
+                }
+                char c = (char) b;
 
-            if (isIdentStart(c)) {
-                int start = index;
-                int startColumn = column;
-                index++;
-                column++;
-                while (index < source.length() && isIdentPart(source.charAt(index))) {
+                if (c == '\n') {
                     index++;
-                    column++;
+                    line++;
+                    column = 1;
+                    continue;
                 }
-                String text = source.substring(start, index);
-                Token.TokenKind kind = KEYWORDS.contains(text) ? Token.TokenKind.KEYWORD : Token.TokenKind.IDENT;
-                tokens.add(new Token(kind, text, line, startColumn));
-                continue;
-            }
 
-            if (Character.isDigit(c)) {
-                int start = index;
-                int startColumn = column;
-                index++;
-                column++;
-                while (index < source.length() && Character.isDigit(source.charAt(index))) {
+                if (Character.isWhitespace(c)) {
                     index++;
                     column++;
+                    continue;
                 }
-                String text = source.substring(start, index);
-                tokens.add(new Token(Token.TokenKind.NUMBER, text, line, startColumn));
-                continue;
-            }
 
-            if (c == '"') {
-                int startColumn = column;
-                index++;
-                column++;
-                StringBuilder value = new StringBuilder();
-                while (index < source.length()) {
-                    char ch = source.charAt(index);
-                    if (ch == '"') {
+                if (c == '/' && index + 1 < limit && source.get(index + 1) == '/') {
+                    index += 2;
+                    column += 2;
+                    while (index < limit && source.get(index) != '\n') {
+                        index++;
+                        column++;
+                    }
+                    continue;
+                }
+
+                if (isIdentStart(c)) {
+                    scanIdentifier(tokens);
+                    return true;
+                }
+
+                if (c >= '0' && c <= '9') {
+                    int start = index;
+                    int startColumn = column;
+                    index++;
+                    column++;
+                    while (index < limit && isAsciiDigit(source.get(index))) {
                         index++;
                         column++;
-                        break;
                     }
-                    if (ch == '\\' && index + 1 < source.length()) {
-                        char next = source.charAt(index + 1);
-                        if (next == 'n') {
-                            value.append('\n');
-                            index += 2;
-                            column += 2;
-                            continue;
+                    // A fraction needs a digit after the dot, so `0..n` still lexes as a range.
+                    if (index + 1 < limit && source.get(index) == '.' && isAsciiDigit(source.get(index + 1))) {
+                        index++;
+                        column++;
+                        while (index < limit && isAsciiDigit(source.get(index))) {
+                            index++;
+                            column++;
                         }
-                        if (next == '"' || next == '\\') {
-                            value.append(next);
-                            index += 2;
-                            column += 2;
-                            continue;
+                    }
+                    int suffix = numberSuffixLength();
+                    index += suffix;
+                    column += suffix;
+                    tokens.add(Token.TokenKind.NUMBER, start, index - start, line, startColumn);
+                    return true;
+                }
+
+                if (c == '"') {
+                    scanString(tokens);
+                    return true;
+                }
+
+                if (isSymbolStart(c)) {
+                    int length = 1;
+                    if (index + 1 < limit) {
+                        byte next = source.get(index + 1);
+                        if (c == '=' && next == '>') {
+                            length = 2;
+                        } else if (c == '.' && next == '.') {
+                            length = index + 2 < limit && source.get(index + 2) == '=' ? 3 : 2;
+                        } else if ((c == '=' || c == '!' || c == '<' || c == '>') && next == '=') {
+                            length = 2;
+                        } else if ((c == '+' || c == '-' || c == '*' || c == '/') && next == '=') {
+                            length = 2;
+                        } else if (c == '-' && next == '>') {
+                            length = 2;
+                        } else if (c == '&' && next == '&') {
+                            length = 2;
+                        } else if (c == '|' && next == '|') {
+                            length = 2;
                         }
                     }
-                    value.append(ch);
+                    tokens.add(Token.TokenKind.SYMBOL, index, length, line, column);
+                    index += length;
+                    column += length;
+                    return true;
+                }
+
+                throw unexpected(c);
+            }
+
+            tokens.add(Token.TokenKind.EOF, index, 0, line, column);
+            finished = true;
+            return false;
+        }
+
+        /** Length of a type suffix ({@code i32}, {@code i64}, {@code u64}, {@code f32}, {@code f64}) at the cursor, or 0. */
+        private int numberSuffixLength() {
+            if (index + 2 >= limit) {
+                return 0;
+            }
+            byte kind = source.get(index);
+            byte high = source.get(index + 1);
+            byte low = source.get(index + 2);
+            boolean bits32 = high == '3' && low == '2';
+            boolean bits64 = high == '6' && low == '4';
+            boolean known = (kind == 'i' && (bits32 || bits64)) || (kind == 'u' && bits64) || (kind == 'f' && (bits32 || bits64));
+            if (!known || index + 3 < limit && isIdentPart(source.get(index + 3))) {
+                return 0;
+            }
+            return 3;
+        }
+
+        private void scanIdentifier(TokenSink tokens) {
+            int start = index;
+            int startColumn = column;
+            while (index < limit) {
+                byte b = source.get(index);
+                if (b >= 0) {
+                    if (!isIdentPart((char) b)) {
+                        break;
+                    }
                     index++;
-                    column++;
+                } else {
+                    if (!isIdentPart(Utf8.codePointAt(source, index))) {
+                        break;
+                    }
+                    index += Utf8.sequenceLength(b);
                 }
-                tokens.add(new Token(Token.TokenKind.STRING, value.toString(), line, startColumn));
-                continue;
+                column++;
             }
+            int length = index - start;
+            Token.TokenKind kind = keyword(source, start, length) != null ? Token.TokenKind.KEYWORD : Token.TokenKind.IDENT;
+            tokens.add(kind, start, length, line, startColumn);
+        }
 
-            if (isSymbolStart(c)) {
-                int startColumn = column;
-                String symbol = null;
-                if (index + 1 < source.length()) {
-                    char next = source.charAt(index + 1);
-                    if (c == '=' && next == '>') {
-                        symbol = "=>";
-                    } else if (c == '.' && next == '.') {
-                        if (index + 2 < source.length() && source.charAt(index + 2) == '=') {
-                            symbol = "..=";
-                        } else {
-                            symbol = "..";
+        private void scanString(TokenSink tokens) {
+            int startColumn = column;
+            index++;
+            column++;
+            int contentStart = index;
+            int contentEnd = -1;
+            // Literals without escapes stay a slice of the source; a builder is only created
+            // once the first escape shows up, and then only the raw runs between escapes are decoded.
+            StringBuilder value = null;
+            int segmentStart = contentStart;
+            while (index < limit) {
+                byte b = source.get(index);
+                if (b == '"') {
+                    contentEnd = index;
+                    index++;
+                    column++;
+                    break;
+                }
+                if (b == '\\' && index + 1 < limit) {
+                    byte next = source.get(index + 1);
+                    if (next == 'n' || next == '"' || next == '\\') {
+                        if (value == null) {
+                            value = new StringBuilder(index - contentStart + 16);
                         }
-                    } else if ((c == '=' || c == '!' || c == '<' || c == '>') && next == '=') {
-                        symbol = "" + c + next;
-                    } else if ((c == '+' || c == '-' || c == '*' || c == '/') && next == '=') {
-                        symbol = "" + c + next;
-                    } else if (c == '-' && next == '>') {
-                        symbol = "->";
-                    } else if (c == '&' && next == '&') {
-                        symbol = "&&";
-                    } else if (c == '|' && next == '|') {
-                        symbol = "||";
+                        value.append(Utf8.decode(source, segmentStart, index - segmentStart));
+                        value.append(next == 'n' ? '\n' : (char) next);
+                        index += 2;
+                        column += 2;
+                        segmentStart = index;
+                        continue;
                     }
                 }
-                if (symbol != null) {
-                    tokens.add(new Token(Token.TokenKind.SYMBOL, symbol, line, startColumn));
-                    int advance = symbol.length();
-                    index += advance;
-                    column += advance;
-                } else {
-                    tokens.add(new Token(Token.TokenKind.SYMBOL, java.lang.String.valueOf(c), line, startColumn));
-                    index++;
+                if (!Utf8.isContinuation(b)) {
                     column++;
                 }
-                continue;
+                index++;
             }
+            if (contentEnd < 0) {
+                contentEnd = index;
+            }
+            if (value == null) {
+                tokens.add(Token.TokenKind.STRING, contentStart, contentEnd - contentStart, line, startColumn);
+            } else {
+                value.append(Utf8.decode(source, segmentStart, contentEnd - segmentStart));
+                tokens.addDecoded(Token.TokenKind.STRING, value.toString(), line, startColumn);
+            }
+        }
 
-            String message = "Unexpected character '" + c + "' at " + line + ":" + column;
+        private LexException unexpected(int codePoint) {
+            String message = "Unexpected character '" + Character.toString(codePoint) + "' at " + line + ":" + column;
             diagnostics.report(new Diagnostic(message, sourceFile.path()));
-            throw new LexException(message);
+            return new LexException(message);
         }
 
-        tokens.add(new Token(Token.TokenKind.EOF, "", line, column));
-        return tokens;
-    }
-
-    private static boolean isIdentStart(char c) {
-        return Character.isLetter(c) || c == '_';
-    }
-
-    private static boolean isIdentPart(char c) {
-        return Character.isLetterOrDigit(c) || c == '_';
-    }
-
-    private static boolean isSymbolStart(char c) {
-        return "(){}[],;=:+-*/&<>.!|'#?".indexOf(c) >= 0;
+        private static boolean isAsciiDigit(byte b) {
+            return b >= '0' && b <= '9';
+        }
     }
 }
@@ -4,4 +4,8 @@ import java.util.List;
 
 public interface LexerStrategy {
     List<Token> lex(SourceFile sourceFile, Diagnostics diagnostics);
+
+    default TokenStream stream(SourceFile sourceFile, Diagnostics diagnostics) {
+        return TokenBuffer.of(lex(sourceFile, diagnostics));
+    }
 }
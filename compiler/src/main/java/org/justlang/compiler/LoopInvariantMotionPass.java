@@ -0,0 +1,139 @@
+package org.justlang.compiler;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Hoists loop-invariant computations into a preheader. Loops are the natural loops of back
+ * edges (a jump to a block that dominates its source). An instruction moves when it cannot
+ * trap or have effects, writes a temporary defined nowhere else, and reads only constants and
+ * locals that the loop never writes; hoisting repeats so chains of invariants move together.
+ */
+final class LoopInvariantMotionPass implements MirPass {
+    @Override
+    public String name() {
+        return "loop-invariant-code-motion";
+    }
+
+    @Override
+    public boolean run(MirFunction function) {
+        boolean changed = false;
+        for (int header : loopHeaders(function)) {
+            changed |= hoist(function, header);
+        }
+        return changed;
+    }
+
+    private static List<Integer> loopHeaders(MirFunction function) {
+        MirCfg cfg = MirCfg.of(function);
+        List<Integer> headers = new ArrayList<>();
+        for (MirBlock block : function.blocks()) {
+            for (int successor : block.terminator().successors()) {
+                if (cfg.isReachable(block.id()) && cfg.dominates(successor, block.id()) && !headers.contains(successor)) {
+                    headers.add(successor);
+                }
+            }
+        }
+        return headers;
+    }
+
+    private static boolean hoist(MirFunction function, int header) {
+        MirCfg cfg = MirCfg.of(function);
+        BitSet body = loopBody(function, cfg, header);
+        int[] defs = MirCfg.defCounts(function);
+        int[] defsInLoop = new int[function.locals().size()];
+        for (MirBlock block : function.blocks()) {
+            if (body.get(block.id())) {
+                for (MirInstr instruction : block.instructions()) {
+                    if (instruction.target() != MirInstr.NO_TARGET) {
+                        defsInLoop[instruction.target()]++;
+                    }
+                }
+            }
+        }
+
+        List<MirInstr> hoisted = new ArrayList<>();
+        boolean moved = true;
+        while (moved) {
+            moved = false;
+            for (MirBlock block : function.blocks()) {
+                if (!body.get(block.id())) {
+                    continue;
+                }
+                List<MirInstr> instructions = block.instructions();
+                for (int i = 0; i < instructions.size(); i++) {
+                    MirInstr instruction = instructions.get(i);
+                    if (isInvariant(function, instruction, defs, defsInLoop)) {
+                        hoisted.add(instruction);
+                        instructions.remove(i);
+                        i--;
+                        defsInLoop[instruction.target()]--;
+                        moved = true;
+                    }
+                }
+            }
+        }
+        if (hoisted.isEmpty()) {
+            return false;
+        }
+        preheader(function, cfg, header, body).instructions().addAll(hoisted);
+        return true;
+    }
+
+    private static boolean isInvariant(MirFunction function, MirInstr instruction, int[] defs, int[] defsInLoop) {
+        if (instruction instanceof MirInstr.Call || instruction instanceof MirInstr.Print || instruction.hasSideEffects()) {
+            return false;
+        }
+        int target = instruction.target();
+        if (!function.local(target).isTemp() || defs[target] != 1) {
+            return false;
+        }
+        for (MirOperand operand : instruction.operands()) {
+            if (operand.local() >= 0 && defsInLoop[operand.local()] > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static BitSet loopBody(MirFunction function, MirCfg cfg, int header) {
+        BitSet body = new BitSet();
+        body.set(header);
+        Deque<Integer> pending = new ArrayDeque<>();
+        for (int predecessor : cfg.predecessors(header)) {
+            if (cfg.isReachable(predecessor) && cfg.dominates(header, predecessor)) {
+                pending.push(predecessor);
+            }
+        }
+        while (!pending.isEmpty()) {
+            int id = pending.pop();
+            if (!body.get(id)) {
+                body.set(id);
+                cfg.predecessors(id).forEach(pending::push);
+            }
+        }
+        return body;
+    }
+
+    // Reuses the single outside predecessor when it only jumps to the header, else inserts one.
+    private static MirBlock preheader(MirFunction function, MirCfg cfg, int header, BitSet body) {
+        List<Integer> outside = cfg.predecessors(header).stream().filter(id -> !body.get(id)).toList();
+        if (outside.size() == 1 && function.block(outside.get(0)).terminator() instanceof MirTerminator.Goto) {
+            return function.block(outside.get(0));
+        }
+        MirBlock headerBlock = function.block(header);
+        MirBlock preheader = function.newBlockBefore(headerBlock);
+        preheader.setTerminator(new MirTerminator.Goto(header));
+        for (int id : outside) {
+            MirBlock predecessor = function.block(id);
+            predecessor.setTerminator(predecessor.terminator().withSuccessors(target -> target == header ? preheader.id() : target));
+        }
+        if (function.entry() == header) {
+            function.setEntry(preheader.id());
+        }
+        return preheader;
+    }
+}
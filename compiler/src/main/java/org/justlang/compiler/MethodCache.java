@@ -0,0 +1,125 @@
+package org.justlang.compiler;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Emitted method bytecode keyed by {@link Codegen}'s per-function fingerprint. Each entry is a
+ * one-method class fragment with frames already computed, so a hit can be spliced into the
+ * output class without re-running codegen. Entries live in memory and, when a directory is
+ * given, on disk so they survive across builds. {@link #prune()} keeps only what the latest
+ * build used, so fragments of edited or deleted functions do not accumulate.
+ */
+public final class MethodCache {
+    private final Path directory;
+    private final Map<String, byte[]> entries = new ConcurrentHashMap<>();
+    private final Set<String> used = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    public MethodCache() {
+        this(null);
+    }
+
+    public MethodCache(Path directory) {
+        this.directory = directory;
+    }
+
+    byte[] get(String key) {
+        byte[] fragment = entries.get(key);
+        if (fragment == null && directory != null) {
+            fragment = readEntry(key);
+            if (fragment != null) {
+                entries.put(key, fragment);
+            }
+        }
+        if (fragment == null) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+            used.add(key);
+        }
+        return fragment;
+    }
+
+    void put(String key, byte[] fragment) {
+        entries.put(key, fragment);
+        used.add(key);
+        if (directory != null) {
+            writeEntry(key, fragment);
+        }
+    }
+
+    /** Drops every entry, in memory and on disk, that was not read or written since the last prune. */
+    void prune() {
+        entries.keySet().retainAll(used);
+        if (directory != null && Files.isDirectory(directory)) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.class")) {
+                for (Path entry : stream) {
+                    String name = entry.getFileName().toString();
+                    if (!used.contains(name.substring(0, name.length() - ".class".length()))) {
+                        deleteQuietly(entry);
+                    }
+                }
+            } catch (IOException error) {
+                // Whatever is left is pruned by a later build.
+            }
+        }
+        used.clear();
+    }
+
+    int hits() {
+        return hits.get();
+    }
+
+    int misses() {
+        return misses.get();
+    }
+
+    private byte[] readEntry(String key) {
+        Path entry = directory.resolve(key + ".class");
+        try {
+            return Files.isRegularFile(entry) ? Files.readAllBytes(entry) : null;
+        } catch (IOException error) {
+            return null;
+        }
+    }
+
+    private void writeEntry(String key, byte[] fragment) {
+        Path entry = directory.resolve(key + ".class");
+        Path temp = null;
+        try {
+            Files.createDirectories(directory);
+            temp = Files.createTempFile(directory, key, ".tmp");
+            Files.write(temp, fragment);
+            try {
+                Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException error) {
+                Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING);
+            }
+            temp = null;
+        } catch (IOException error) {
+            // The in-memory entry still serves this process; disk is only a warm start.
+        } finally {
+            if (temp != null) {
+                deleteQuietly(temp);
+            }
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // Leftover files are harmless.
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package org.justlang.compiler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** A basic block: straight-line instructions followed by exactly one terminator. */
+public final class MirBlock {
+    private final int id;
+    private final List<MirInstr> instructions = new ArrayList<>();
+    private MirTerminator terminator;
+
+    MirBlock(int id) {
+        this.id = id;
+    }
+
+    public int id() {
+        return id;
+    }
+
+    /** Mutable; passes edit instructions in place. */
+    public List<MirInstr> instructions() {
+        return instructions;
+    }
+
+    public MirTerminator terminator() {
+        return terminator;
+    }
+
+    public void setTerminator(MirTerminator terminator) {
+        this.terminator = terminator;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("bb").append(id).append(":\n");
+        for (MirInstr instruction : instructions) {
+            text.append("    ").append(instruction).append('\n');
+        }
+        return text.append("    ").append(terminator).append('\n').toString();
+    }
+}
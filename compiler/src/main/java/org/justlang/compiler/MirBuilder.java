@@ -1,7 +1,603 @@
 package org.justlang.compiler;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lowers checked functions to MIR. The subset covered is numeric code: parameters, locals and
+ * returns of the scalar types (`i32`, `i64`, `u64`, `f32`, `f64`, `bool`) and of fixed-size arrays
+ * of them (also behind `&`/`&mut`), arithmetic and comparisons, array literals, indexing and
+ * element assignment, `if`/`while`/`for`/`loop` (statement and expression forms), calls between
+ * such functions and `print`. A function that uses anything else (strings, structs, enums,
+ * `match`, references to scalars, generics) is left out of the {@link MirModule}.
+ */
 public final class MirBuilder {
     public MirModule lower(TypedModule module) {
-        throw new UnsupportedOperationException("MIR builder not implemented yet");
+        if (module.hir() == null) {
+            throw new IllegalArgumentException("MIR lowering needs a checked module");
+        }
+        return lower(module.hir().module(), module);
+    }
+
+    public MirModule lower(AstModule module, TypedModule types) {
+        Map<AstFunction, MirFunction> functions = new LinkedHashMap<>();
+        HirModule hir = types.hir();
+        if (hir != null && hir.module() == module) {
+            for (AstItem item : module.items()) {
+                if (item instanceof AstFunction fn) {
+                    MirFunction lowered = new FunctionLowering(hir, types, fn).lower();
+                    if (lowered != null) {
+                        functions.put(fn, lowered);
+                    }
+                }
+            }
+        }
+        return new MirModule(module, types, functions);
+    }
+
+    static boolean isScalar(TypeId type) {
+        return type == TypeId.BOOL || type.isNumeric();
+    }
+
+    /**
+     * The type a value of {@code type} has in MIR, or null outside the subset: scalars, and arrays
+     * of scalars; a reference to an array is the array itself, since borrows leave no trace at run time.
+     */
+    static TypeId valueType(TypeId type) {
+        if (type == null) {
+            return null;
+        }
+        TypeId value = type.isReference() && type.referenceInner().isArray() ? type.referenceInner() : type;
+        if (isScalar(value) || value.isArray() && isScalar(value.arrayElement())) {
+            return value;
+        }
+        return null;
+    }
+
+    /** Thrown inside lowering when a construct is outside the MIR subset; never escapes. */
+    private static final class Unsupported extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private Unsupported() {
+            super(null, null, false, false);
+        }
+    }
+
+    private record LoopTarget(String label, MirBlock continueBlock, MirBlock breakBlock, int resultLocal) {}
+
+    private static final class FunctionLowering {
+        private final HirModule hir;
+        private final TypedModule types;
+        private final AstFunction source;
+        private final String moduleName;
+        private final Deque<LoopTarget> loops = new ArrayDeque<>();
+        private MirFunction function;
+        private MirBlock current;
+
+        private FunctionLowering(HirModule hir, TypedModule types, AstFunction source) {
+            this.hir = hir;
+            this.types = types;
+            this.source = source;
+            this.moduleName = hir.moduleName(source.sourcePath());
+        }
+
+        MirFunction lower() {
+            try {
+                boolean main = "main".equals(source.name());
+                if (main && !source.params().isEmpty() || source.isGeneric()) {
+                    throw new Unsupported();
+                }
+                TypeId returnType = main ? TypeId.VOID : declaredReturnType(source);
+                function = new MirFunction(source, main ? HirModule.UNRESOLVED : hir.functionId(source), returnType);
+                Map<String, Integer> scope = new HashMap<>();
+                for (AstParam param : source.params()) {
+                    scope.put(param.name(), function.newParam(param.name(), declaredType(param.typeNode())).index());
+                }
+                current = function.newBlock();
+                function.setEntry(current.id());
+                lowerBlock(source.body(), scope);
+                current.setTerminator(new MirTerminator.Return(null));
+                return function;
+            } catch (Unsupported unsupported) {
+                return null;
+            }
+        }
+
+        private static TypeId declaredReturnType(AstFunction fn) {
+            return fn.returnTypeNode() == null ? TypeId.VOID : declaredType(fn.returnTypeNode());
+        }
+
+        private static TypeId declaredType(AstType type) {
+            if (type == null) {
+                throw new Unsupported();
+            }
+            return lowered(switch (type.kind()) {
+                case NAMED -> TypeId.fromTypeName(type.name());
+                case ARRAY -> TypeId.array(declaredType(type.referent()), type.length());
+                case REFERENCE -> type.referent().kind() == AstType.Kind.ARRAY ? declaredType(type.referent()) : TypeId.UNKNOWN;
+                default -> TypeId.UNKNOWN;
+            });
+        }
+
+        private void lowerBlock(List<AstStmt> statements, Map<String, Integer> scope) {
+            for (AstStmt stmt : statements) {
+                lowerStatement(stmt, scope);
+            }
+        }
+
+        private void lowerStatement(AstStmt stmt, Map<String, Integer> scope) {
+            if (stmt instanceof AstLetStmt letStmt) {
+                if (letStmt.initializer() == null) {
+                    throw new Unsupported();
+                }
+                TypeId type = lowered(types.bindingType(letStmt));
+                MirOperand value = lowerExpr(letStmt.initializer(), scope);
+                int local = function.newLocal(letStmt.name(), type).index();
+                emit(new MirInstr.Move(local, value));
+                scope.put(letStmt.name(), local);
+            } else if (stmt instanceof AstAssignStmt assignStmt) {
+                int local = lookup(assignStmt.name(), scope);
+                String op = assignStmt.operator();
+                if ("=".equals(op)) {
+                    emit(new MirInstr.Move(local, lowerExpr(assignStmt.value(), scope)));
+                } else if ("+=".equals(op) || "-=".equals(op) || "*=".equals(op) || "/=".equals(op)) {
+                    MirOperand previous = snapshotIfReassigned(new MirOperand.Copy(local), assignStmt.value());
+                    MirOperand value = lowerExpr(assignStmt.value(), scope);
+                    emit(new MirInstr.Binary(local, op.substring(0, 1), previous, value));
+                } else {
+                    throw new Unsupported();
+                }
+            } else if (stmt instanceof AstIndexAssignStmt indexAssignStmt) {
+                lowerIndexAssign(indexAssignStmt, scope);
+            } else if (stmt instanceof AstExprStmt exprStmt) {
+                lowerForEffect(exprStmt.expr(), scope);
+            } else if (stmt instanceof AstReturnStmt returnStmt) {
+                if ((returnStmt.expr() == null) != (function.returnType() == TypeId.VOID)) {
+                    throw new Unsupported();
+                }
+                MirOperand value = returnStmt.expr() == null ? null : lowerExpr(returnStmt.expr(), scope);
+                terminate(new MirTerminator.Return(value));
+            } else if (stmt instanceof AstIfStmt ifStmt) {
+                lowerIf(ifStmt, scope);
+            } else if (stmt instanceof AstWhileStmt whileStmt) {
+                lowerWhile(whileStmt, scope);
+            } else if (stmt instanceof AstForStmt forStmt) {
+                lowerFor(forStmt, scope);
+            } else if (stmt instanceof AstLoopStmt loopStmt) {
+                lowerLoop(loopStmt.label(), loopStmt.body(), scope, MirInstr.NO_TARGET);
+            } else if (stmt instanceof AstBreakStmt breakStmt) {
+                LoopTarget loop = resolveLoop(breakStmt.label());
+                boolean valueLoop = loop.resultLocal() != MirInstr.NO_TARGET;
+                if ((breakStmt.expr() != null) != valueLoop) {
+                    throw new Unsupported();
+                }
+                if (valueLoop) {
+                    emit(new MirInstr.Move(loop.resultLocal(), lowerExpr(breakStmt.expr(), scope)));
+                }
+                terminate(new MirTerminator.Goto(loop.breakBlock().id()));
+            } else if (stmt instanceof AstContinueStmt continueStmt) {
+                terminate(new MirTerminator.Goto(resolveLoop(continueStmt.label()).continueBlock().id()));
+            } else {
+                throw new Unsupported();
+            }
+        }
+
+        private void lowerIf(AstIfStmt ifStmt, Map<String, Integer> scope) {
+            MirOperand condition = lowerExpr(ifStmt.condition(), scope);
+            MirBlock thenBlock = function.newBlock();
+            MirBlock elseBlock = ifStmt.elseBranch() != null ? function.newBlock() : null;
+            MirBlock join = function.newBlock();
+            current.setTerminator(new MirTerminator.Branch(condition, thenBlock.id(), (elseBlock != null ? elseBlock : join).id()));
+            current = thenBlock;
+            lowerBlock(ifStmt.thenBranch(), new HashMap<>(scope));
+            current.setTerminator(new MirTerminator.Goto(join.id()));
+            if (elseBlock != null) {
+                current = elseBlock;
+                lowerBlock(ifStmt.elseBranch(), new HashMap<>(scope));
+                current.setTerminator(new MirTerminator.Goto(join.id()));
+            }
+            current = join;
+        }
+
+        private void lowerWhile(AstWhileStmt whileStmt, Map<String, Integer> scope) {
+            MirBlock header = function.newBlock();
+            current.setTerminator(new MirTerminator.Goto(header.id()));
+            current = header;
+            MirOperand condition = lowerExpr(whileStmt.condition(), scope);
+            MirBlock body = function.newBlock();
+            MirBlock exit = function.newBlock();
+            current.setTerminator(new MirTerminator.Branch(condition, body.id(), exit.id()));
+            current = body;
+            loops.push(new LoopTarget(whileStmt.label(), header, exit, MirInstr.NO_TARGET));
+            lowerBlock(whileStmt.body(), new HashMap<>(scope));
+            loops.pop();
+            current.setTerminator(new MirTerminator.Goto(header.id()));
+            current = exit;
+        }
+
+        private void lowerFor(AstForStmt forStmt, Map<String, Integer> scope) {
+            MirOperand start = lowerExpr(forStmt.start(), scope);
+            int index = function.newLocal(forStmt.name(), TypeId.INT).index();
+            emit(new MirInstr.Move(index, start));
+            int end = function.newLocal(null, TypeId.INT).index();
+            emit(new MirInstr.Move(end, lowerExpr(forStmt.end(), scope)));
+
+            MirBlock header = function.newBlock();
+            MirBlock body = function.newBlock();
+            MirBlock latch = function.newBlock();
+            MirBlock exit = function.newBlock();
+            current.setTerminator(new MirTerminator.Goto(header.id()));
+            current = header;
+            int inRange = function.newLocal(null, TypeId.BOOL).index();
+            emit(new MirInstr.Binary(inRange, forStmt.inclusive() ? "<=" : "<", new MirOperand.Copy(index), new MirOperand.Copy(end)));
+            current.setTerminator(new MirTerminator.Branch(new MirOperand.Copy(inRange), body.id(), exit.id()));
+
+            current = body;
+            Map<String, Integer> bodyScope = new HashMap<>(scope);
+            bodyScope.put(forStmt.name(), index);
+            loops.push(new LoopTarget(forStmt.label(), latch, exit, MirInstr.NO_TARGET));
+            lowerBlock(forStmt.body(), bodyScope);
+            loops.pop();
+            current.setTerminator(new MirTerminator.Goto(latch.id()));
+
+            current = latch;
+            emit(new MirInstr.Binary(index, "+", new MirOperand.Copy(index), MirOperand.of(1)));
+            current.setTerminator(new MirTerminator.Goto(header.id()));
+            current = exit;
+        }
+
+        private void lowerLoop(String label, List<AstStmt> statements, Map<String, Integer> scope, int resultLocal) {
+            MirBlock body = function.newBlock();
+            MirBlock exit = function.newBlock();
+            current.setTerminator(new MirTerminator.Goto(body.id()));
+            current = body;
+            loops.push(new LoopTarget(label, body, exit, resultLocal));
+            lowerBlock(statements, new HashMap<>(scope));
+            loops.pop();
+            current.setTerminator(new MirTerminator.Goto(body.id()));
+            current = exit;
+        }
+
+        private LoopTarget resolveLoop(String label) {
+            if (loops.isEmpty()) {
+                throw new Unsupported();
+            }
+            if (label == null) {
+                return loops.peek();
+            }
+            for (LoopTarget loop : loops) {
+                if (label.equals(loop.label())) {
+                    return loop;
+                }
+            }
+            throw new Unsupported();
+        }
+
+        private void lowerForEffect(AstExpr expr, Map<String, Integer> scope) {
+            if (expr instanceof AstCallExpr call) {
+                if (isPrintCall(call)) {
+                    lowerPrint(call, scope);
+                } else {
+                    lowerCall(call, scope, false);
+                }
+                return;
+            }
+            lowerExpr(expr, scope);
+        }
+
+        private MirOperand lowerExpr(AstExpr expr, Map<String, Integer> scope) {
+            if (expr instanceof AstIdentExpr identExpr) {
+                return new MirOperand.Copy(lookup(identExpr.name(), scope));
+            }
+            TypeId type = lowered(types.typeOf(expr));
+            if (expr instanceof AstNumberExpr numberExpr) {
+                return constant(numberExpr, type);
+            }
+            if (expr instanceof AstBoolExpr boolExpr) {
+                return MirOperand.of(boolExpr.value());
+            }
+            if (expr instanceof AstUnaryExpr unaryExpr) {
+                String op = unaryExpr.operator();
+                if (type.isArray() && ("&".equals(op) || "&mut".equals(op) || "*".equals(op))) {
+                    return lowerExpr(unaryExpr.expr(), scope);
+                }
+                if (!"-".equals(op) && !"!".equals(op)) {
+                    throw new Unsupported();
+                }
+                MirOperand operand = lowerExpr(unaryExpr.expr(), scope);
+                int result = temp(type);
+                emit(new MirInstr.Unary(result, op, operand));
+                return new MirOperand.Copy(result);
+            }
+            if (expr instanceof AstBinaryExpr binaryExpr) {
+                return lowerBinary(binaryExpr, type, scope);
+            }
+            if (expr instanceof AstArrayExpr arrayExpr) {
+                return new MirOperand.Copy(lowerArray(arrayExpr, type, scope));
+            }
+            if (expr instanceof AstIndexExpr indexExpr) {
+                MirOperand array = snapshotIfReassigned(lowerExpr(indexExpr.target(), scope), indexExpr.index());
+                MirOperand index = lowerExpr(indexExpr.index(), scope);
+                int result = temp(type);
+                emit(new MirInstr.ArrayLoad(result, array, index));
+                return new MirOperand.Copy(result);
+            }
+            if (expr instanceof AstCallExpr call) {
+                if (isPrintCall(call)) {
+                    throw new Unsupported();
+                }
+                return new MirOperand.Copy(lowerCall(call, scope, true));
+            }
+            if (expr instanceof AstIfExpr ifExpr) {
+                int result = temp(type);
+                MirOperand condition = lowerExpr(ifExpr.condition(), scope);
+                MirBlock thenBlock = function.newBlock();
+                MirBlock elseBlock = function.newBlock();
+                MirBlock join = function.newBlock();
+                current.setTerminator(new MirTerminator.Branch(condition, thenBlock.id(), elseBlock.id()));
+                current = thenBlock;
+                emit(new MirInstr.Move(result, lowerExpr(ifExpr.thenExpr(), scope)));
+                current.setTerminator(new MirTerminator.Goto(join.id()));
+                current = elseBlock;
+                emit(new MirInstr.Move(result, lowerExpr(ifExpr.elseExpr(), scope)));
+                current.setTerminator(new MirTerminator.Goto(join.id()));
+                current = join;
+                return new MirOperand.Copy(result);
+            }
+            if (expr instanceof AstBlockExpr blockExpr) {
+                Map<String, Integer> blockScope = new HashMap<>(scope);
+                lowerBlock(blockExpr.statements(), blockScope);
+                return lowerExpr(blockExpr.value(), blockScope);
+            }
+            if (expr instanceof AstLoopExpr loopExpr) {
+                int result = temp(type);
+                lowerLoop(null, loopExpr.body(), scope, result);
+                return new MirOperand.Copy(result);
+            }
+            throw new Unsupported();
+        }
+
+        private MirOperand lowerBinary(AstBinaryExpr binaryExpr, TypeId type, Map<String, Integer> scope) {
+            String op = binaryExpr.operator();
+            if ("&&".equals(op) || "||".equals(op)) {
+                // Short-circuit: the right operand runs only when the left does not decide.
+                int result = temp(TypeId.BOOL);
+                MirOperand left = lowerExpr(binaryExpr.left(), scope);
+                MirBlock right = function.newBlock();
+                MirBlock decided = function.newBlock();
+                MirBlock join = function.newBlock();
+                boolean and = "&&".equals(op);
+                current.setTerminator(new MirTerminator.Branch(left, (and ? right : decided).id(), (and ? decided : right).id()));
+                current = decided;
+                emit(new MirInstr.Move(result, MirOperand.of(!and)));
+                current.setTerminator(new MirTerminator.Goto(join.id()));
+                current = right;
+                emit(new MirInstr.Move(result, lowerExpr(binaryExpr.right(), scope)));
+                current.setTerminator(new MirTerminator.Goto(join.id()));
+                current = join;
+                return new MirOperand.Copy(result);
+            }
+            switch (op) {
+                case "+", "-", "*", "/", "<", "<=", ">", ">=", "==", "!=" -> {
+                }
+                default -> throw new Unsupported();
+            }
+            MirOperand left = snapshotIfReassigned(lowerExpr(binaryExpr.left(), scope), binaryExpr.right());
+            if (left instanceof MirOperand.Copy copy && !isScalar(function.local(copy.local()).type())) {
+                throw new Unsupported();
+            }
+            MirOperand right = lowerExpr(binaryExpr.right(), scope);
+            int result = temp(type);
+            emit(new MirInstr.Binary(result, op, left, right));
+            return new MirOperand.Copy(result);
+        }
+
+        // Like the AST emitter, the new array is already zeroed, so zero elements are not stored.
+        private int lowerArray(AstArrayExpr arrayExpr, TypeId type, Map<String, Integer> scope) {
+            int result = temp(type);
+            if (arrayExpr.isRepeat()) {
+                emit(new MirInstr.NewArray(result, type, lowerExpr(arrayExpr.elements().get(0), scope)));
+                return result;
+            }
+            emit(new MirInstr.NewArray(result, type, zero(type.arrayElement())));
+            List<AstExpr> elements = arrayExpr.elements();
+            for (int i = 0; i < elements.size(); i++) {
+                MirOperand value = lowerExpr(elements.get(i), scope);
+                if (!(value instanceof MirOperand.Constant constant && constant.bits() == 0)) {
+                    emit(new MirInstr.ArrayStore(new MirOperand.Copy(result), MirOperand.of(i), value));
+                }
+            }
+            return result;
+        }
+
+        private void lowerIndexAssign(AstIndexAssignStmt assignStmt, Map<String, Integer> scope) {
+            AstIndexExpr target = assignStmt.target();
+            MirOperand array = snapshotIfReassigned(lowerExpr(target.target(), scope), target.index());
+            array = snapshotIfReassigned(array, assignStmt.value());
+            MirOperand index = snapshotIfReassigned(lowerExpr(target.index(), scope), assignStmt.value());
+            String op = assignStmt.operator();
+            if ("=".equals(op)) {
+                emit(new MirInstr.ArrayStore(array, index, lowerExpr(assignStmt.value(), scope)));
+                return;
+            }
+            if (!"+=".equals(op) && !"-=".equals(op) && !"*=".equals(op) && !"/=".equals(op)) {
+                throw new Unsupported();
+            }
+            TypeId element = lowered(types.typeOf(target));
+            int previous = temp(element);
+            emit(new MirInstr.ArrayLoad(previous, array, index));
+            MirOperand value = lowerExpr(assignStmt.value(), scope);
+            int result = temp(element);
+            emit(new MirInstr.Binary(result, op.substring(0, 1), new MirOperand.Copy(previous), value));
+            emit(new MirInstr.ArrayStore(array, index, new MirOperand.Copy(result)));
+        }
+
+        private static MirOperand constant(AstNumberExpr numberExpr, TypeId type) {
+            if (numberExpr.type() != type) {
+                throw new Unsupported();
+            }
+            String digits = numberExpr.digits();
+            try {
+                if (type == TypeId.F32) {
+                    return MirOperand.ofFloat(type, Float.parseFloat(digits));
+                }
+                if (type == TypeId.F64) {
+                    return MirOperand.ofFloat(type, Double.parseDouble(digits));
+                }
+                if (type == TypeId.I64) {
+                    return MirOperand.ofInteger(type, Long.parseLong(digits));
+                }
+                if (type == TypeId.U64) {
+                    return MirOperand.ofInteger(type, Long.parseUnsignedLong(digits));
+                }
+                return MirOperand.of(Integer.parseInt(digits));
+            } catch (NumberFormatException error) {
+                throw new Unsupported();
+            }
+        }
+
+        private static MirOperand zero(TypeId type) {
+            if (type == TypeId.BOOL) {
+                return MirOperand.of(false);
+            }
+            return type == TypeId.F32 || type == TypeId.F64 ? MirOperand.ofFloat(type, 0) : MirOperand.ofInteger(type, 0);
+        }
+
+        private int lowerCall(AstCallExpr call, Map<String, Integer> scope, boolean needsResult) {
+            HirModule.CallTarget target = hir.callTarget(call);
+            boolean resolved = switch (target.kind()) {
+                case QUALIFIED, LOCAL, ALIAS -> true;
+                case NOT_IMPORTED -> moduleName.equals(hir.symbol(target.symbol()).moduleName());
+                default -> false;
+            };
+            if (!resolved || !(hir.symbol(target.symbol()).declaration() instanceof AstFunction callee)
+                || "main".equals(callee.name()) || callee.isGeneric() || callee.params().size() != call.args().size()) {
+                throw new Unsupported();
+            }
+            for (AstParam param : callee.params()) {
+                declaredType(param.typeNode());
+            }
+            TypeId returnType = declaredReturnType(callee);
+            if (needsResult && returnType == TypeId.VOID) {
+                throw new Unsupported();
+            }
+
+            List<MirOperand> args = new ArrayList<>();
+            List<AstExpr> argExprs = call.args();
+            for (int i = 0; i < argExprs.size(); i++) {
+                MirOperand arg = lowerExpr(argExprs.get(i), scope);
+                for (AstExpr later : argExprs.subList(i + 1, argExprs.size())) {
+                    arg = snapshotIfReassigned(arg, later);
+                }
+                args.add(arg);
+            }
+            int result = returnType == TypeId.VOID || !needsResult ? MirInstr.NO_TARGET : temp(returnType);
+            emit(new MirInstr.Call(result, target.symbol(), List.copyOf(args)));
+            return result;
+        }
+
+        private void lowerPrint(AstCallExpr call, Map<String, Integer> scope) {
+            List<AstExpr> args = call.args();
+            if (args.size() == 1 && args.get(0) instanceof AstStringExpr literal) {
+                emit(new MirInstr.Print(literal.literal(), List.of(), List.of()));
+            } else if (args.size() == 1) {
+                emit(new MirInstr.Print(null, List.of(lowerExpr(args.get(0), scope)), List.of(types.typeOf(args.get(0)))));
+            } else if (args.get(0) instanceof AstStringExpr format) {
+                List<MirOperand> values = new ArrayList<>();
+                List<TypeId> valueTypes = new ArrayList<>();
+                for (int i = 1; i < args.size(); i++) {
+                    MirOperand value = lowerExpr(args.get(i), scope);
+                    for (AstExpr later : args.subList(i + 1, args.size())) {
+                        value = snapshotIfReassigned(value, later);
+                    }
+                    values.add(value);
+                    valueTypes.add(types.typeOf(args.get(i)));
+                }
+                emit(new MirInstr.Print(format.literal(), List.copyOf(values), valueTypes));
+            } else {
+                throw new Unsupported();
+            }
+        }
+
+        // A bare local read is only an operand; if a later sibling expression can assign locals
+        // (blocks and loops contain statements), read it into a temp first to keep its old value.
+        private MirOperand snapshotIfReassigned(MirOperand operand, AstExpr later) {
+            if (!(operand instanceof MirOperand.Copy copy) || function.local(copy.local()).isTemp() || !mayAssign(later)) {
+                return operand;
+            }
+            int snapshot = temp(function.local(copy.local()).type());
+            emit(new MirInstr.Move(snapshot, operand));
+            return new MirOperand.Copy(snapshot);
+        }
+
+        private static boolean mayAssign(AstExpr expr) {
+            if (expr instanceof AstBlockExpr || expr instanceof AstLoopExpr) {
+                return true;
+            }
+            if (expr instanceof AstBinaryExpr binaryExpr) {
+                return mayAssign(binaryExpr.left()) || mayAssign(binaryExpr.right());
+            }
+            if (expr instanceof AstUnaryExpr unaryExpr) {
+                return mayAssign(unaryExpr.expr());
+            }
+            if (expr instanceof AstIfExpr ifExpr) {
+                return mayAssign(ifExpr.condition()) || mayAssign(ifExpr.thenExpr()) || mayAssign(ifExpr.elseExpr());
+            }
+            if (expr instanceof AstCallExpr call) {
+                return call.args().stream().anyMatch(FunctionLowering::mayAssign);
+            }
+            if (expr instanceof AstArrayExpr arrayExpr) {
+                return arrayExpr.elements().stream().anyMatch(FunctionLowering::mayAssign);
+            }
+            if (expr instanceof AstIndexExpr indexExpr) {
+                return mayAssign(indexExpr.target()) || mayAssign(indexExpr.index());
+            }
+            return false;
+        }
+
+        private static boolean isPrintCall(AstCallExpr call) {
+            List<String> callee = call.callee();
+            if (callee.size() == 1) {
+                return "print".equals(callee.get(0)) || "println".equals(callee.get(0));
+            }
+            return callee.size() == 2
+                && "std".equals(callee.get(0))
+                && ("print".equals(callee.get(1)) || "println".equals(callee.get(1)));
+        }
+
+        private static TypeId lowered(TypeId type) {
+            TypeId value = valueType(type);
+            if (value == null) {
+                throw new Unsupported();
+            }
+            return value;
+        }
+
+        private static int lookup(String name, Map<String, Integer> scope) {
+            Integer local = scope.get(name);
+            if (local == null) {
+                throw new Unsupported();
+            }
+            return local;
+        }
+
+        private int temp(TypeId type) {
+            return function.newLocal(null, type).index();
+        }
+
+        private void emit(MirInstr instruction) {
+            current.instructions().add(instruction);
+        }
+
+        // Code after return/break/continue lands in a fresh block with no predecessors.
+        private void terminate(MirTerminator terminator) {
+            current.setTerminator(terminator);
+            current = function.newBlock();
+        }
     }
 }
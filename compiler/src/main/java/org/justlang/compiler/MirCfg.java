@@ -0,0 +1,210 @@
+package org.justlang.compiler;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Control-flow facts about a {@link MirFunction} snapshot: predecessors, reachability,
+ * dominators and per-block liveness. Block and local IDs index the bit sets directly.
+ * Rebuild after any pass that edits edges or instructions.
+ */
+final class MirCfg {
+    private final MirFunction function;
+    private final Map<Integer, List<Integer>> predecessors = new HashMap<>();
+    private final BitSet reachable = new BitSet();
+    private Map<Integer, BitSet> dominators;
+
+    private MirCfg(MirFunction function) {
+        this.function = function;
+        for (MirBlock block : function.blocks()) {
+            predecessors.putIfAbsent(block.id(), new ArrayList<>());
+            for (int successor : block.terminator().successors()) {
+                predecessors.computeIfAbsent(successor, ignored -> new ArrayList<>()).add(block.id());
+            }
+        }
+        Deque<Integer> pending = new ArrayDeque<>();
+        pending.push(function.entry());
+        while (!pending.isEmpty()) {
+            int id = pending.pop();
+            if (!reachable.get(id)) {
+                reachable.set(id);
+                function.block(id).terminator().successors().forEach(pending::push);
+            }
+        }
+    }
+
+    static MirCfg of(MirFunction function) {
+        return new MirCfg(function);
+    }
+
+    List<Integer> predecessors(int block) {
+        return predecessors.getOrDefault(block, List.of());
+    }
+
+    boolean isReachable(int block) {
+        return reachable.get(block);
+    }
+
+    boolean dominates(int dominator, int block) {
+        if (dominators == null) {
+            dominators = computeDominators();
+        }
+        BitSet set = dominators.get(block);
+        return set != null && set.get(dominator);
+    }
+
+    private Map<Integer, BitSet> computeDominators() {
+        Map<Integer, BitSet> result = new HashMap<>();
+        for (MirBlock block : function.blocks()) {
+            if (reachable.get(block.id())) {
+                BitSet all = (BitSet) reachable.clone();
+                result.put(block.id(), all);
+            }
+        }
+        BitSet entry = new BitSet();
+        entry.set(function.entry());
+        result.put(function.entry(), entry);
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (MirBlock block : function.blocks()) {
+                if (block.id() == function.entry() || !reachable.get(block.id())) {
+                    continue;
+                }
+                BitSet next = null;
+                for (int predecessor : predecessors(block.id())) {
+                    if (!reachable.get(predecessor)) {
+                        continue;
+                    }
+                    if (next == null) {
+                        next = (BitSet) result.get(predecessor).clone();
+                    } else {
+                        next.and(result.get(predecessor));
+                    }
+                }
+                next = next == null ? new BitSet() : next;
+                next.set(block.id());
+                if (!next.equals(result.get(block.id()))) {
+                    result.put(block.id(), next);
+                    changed = true;
+                }
+            }
+        }
+        return result;
+    }
+
+    /** Locals live on exit from each block. */
+    Map<Integer, BitSet> liveOut() {
+        Map<Integer, BitSet> uses = new HashMap<>();
+        Map<Integer, BitSet> defs = new HashMap<>();
+        for (MirBlock block : function.blocks()) {
+            BitSet use = new BitSet();
+            BitSet def = new BitSet();
+            for (MirInstr instruction : block.instructions()) {
+                for (MirOperand operand : instruction.operands()) {
+                    if (operand.local() >= 0 && !def.get(operand.local())) {
+                        use.set(operand.local());
+                    }
+                }
+                if (instruction.target() != MirInstr.NO_TARGET) {
+                    def.set(instruction.target());
+                }
+            }
+            for (MirOperand operand : terminatorOperands(block.terminator())) {
+                if (operand.local() >= 0 && !def.get(operand.local())) {
+                    use.set(operand.local());
+                }
+            }
+            uses.put(block.id(), use);
+            defs.put(block.id(), def);
+        }
+
+        Map<Integer, BitSet> liveIn = new HashMap<>();
+        Map<Integer, BitSet> liveOut = new HashMap<>();
+        for (MirBlock block : function.blocks()) {
+            liveIn.put(block.id(), new BitSet());
+            liveOut.put(block.id(), new BitSet());
+        }
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int i = function.blocks().size() - 1; i >= 0; i--) {
+                MirBlock block = function.blocks().get(i);
+                BitSet out = new BitSet();
+                for (int successor : block.terminator().successors()) {
+                    out.or(liveIn.get(successor));
+                }
+                BitSet in = (BitSet) out.clone();
+                in.andNot(defs.get(block.id()));
+                in.or(uses.get(block.id()));
+                if (!out.equals(liveOut.get(block.id())) || !in.equals(liveIn.get(block.id()))) {
+                    liveOut.put(block.id(), out);
+                    liveIn.put(block.id(), in);
+                    changed = true;
+                }
+            }
+        }
+        return liveOut;
+    }
+
+    static List<MirOperand> terminatorOperands(MirTerminator terminator) {
+        if (terminator instanceof MirTerminator.Branch branch) {
+            return List.of(branch.condition());
+        }
+        if (terminator instanceof MirTerminator.Return ret && ret.value() != null) {
+            return List.of(ret.value());
+        }
+        return List.of();
+    }
+
+    static MirTerminator withTerminatorOperand(MirTerminator terminator, MirOperand operand) {
+        if (terminator instanceof MirTerminator.Branch branch) {
+            return new MirTerminator.Branch(operand, branch.ifTrue(), branch.ifFalse());
+        }
+        if (terminator instanceof MirTerminator.Return ret && ret.value() != null) {
+            return new MirTerminator.Return(operand);
+        }
+        return terminator;
+    }
+
+    /** How many instructions and terminators read each local. */
+    static int[] useCounts(MirFunction function) {
+        int[] counts = new int[function.locals().size()];
+        for (MirBlock block : function.blocks()) {
+            for (MirInstr instruction : block.instructions()) {
+                for (MirOperand operand : instruction.operands()) {
+                    if (operand.local() >= 0) {
+                        counts[operand.local()]++;
+                    }
+                }
+            }
+            for (MirOperand operand : terminatorOperands(block.terminator())) {
+                if (operand.local() >= 0) {
+                    counts[operand.local()]++;
+                }
+            }
+        }
+        return counts;
+    }
+
+    /** How many instructions write each local; parameters start with one implicit definition. */
+    static int[] defCounts(MirFunction function) {
+        int[] counts = new int[function.locals().size()];
+        for (int i = 0; i < function.paramCount(); i++) {
+            counts[i] = 1;
+        }
+        for (MirBlock block : function.blocks()) {
+            for (MirInstr instruction : block.instructions()) {
+                if (instruction.target() != MirInstr.NO_TARGET) {
+                    counts[instruction.target()]++;
+                }
+            }
+        }
+        return counts;
+    }
+}
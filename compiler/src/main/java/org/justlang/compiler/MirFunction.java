@@ -0,0 +1,132 @@
+package org.justlang.compiler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One function in MIR form: explicit locals (parameters first) and a list of basic blocks in
+ * emission order. Block IDs are stable across passes; removed blocks leave gaps.
+ */
+public final class MirFunction {
+    private final AstFunction source;
+    private final int symbol;
+    private final TypeId returnType;
+    private final List<MirLocal> locals = new ArrayList<>();
+    private final List<MirBlock> blocks = new ArrayList<>();
+    private final Map<Integer, MirBlock> blocksById = new HashMap<>();
+    private int paramCount;
+    private int entry;
+    private int nextBlockId;
+
+    MirFunction(AstFunction source, int symbol, TypeId returnType) {
+        this.source = source;
+        this.symbol = symbol;
+        this.returnType = returnType;
+    }
+
+    public AstFunction source() {
+        return source;
+    }
+
+    public String name() {
+        return source.name();
+    }
+
+    /** The HIR symbol, or {@link HirModule#UNRESOLVED} for `main`. */
+    public int symbol() {
+        return symbol;
+    }
+
+    public TypeId returnType() {
+        return returnType;
+    }
+
+    public boolean isEntryPoint() {
+        return "main".equals(source.name());
+    }
+
+    public List<MirLocal> locals() {
+        return locals;
+    }
+
+    public MirLocal local(int index) {
+        return locals.get(index);
+    }
+
+    public int paramCount() {
+        return paramCount;
+    }
+
+    /** Blocks in emission order; the list is mutable so passes can insert and reorder. */
+    public List<MirBlock> blocks() {
+        return blocks;
+    }
+
+    public MirBlock block(int id) {
+        return blocksById.get(id);
+    }
+
+    public int entry() {
+        return entry;
+    }
+
+    void setEntry(int entry) {
+        this.entry = entry;
+    }
+
+    MirLocal newParam(String name, TypeId type) {
+        MirLocal local = newLocal(name, type);
+        paramCount++;
+        return local;
+    }
+
+    MirLocal newLocal(String name, TypeId type) {
+        MirLocal local = new MirLocal(locals.size(), name, type);
+        locals.add(local);
+        return local;
+    }
+
+    MirBlock newBlock() {
+        MirBlock block = new MirBlock(nextBlockId++);
+        blocks.add(block);
+        blocksById.put(block.id(), block);
+        return block;
+    }
+
+    /** Creates a block placed immediately before {@code successor} in emission order. */
+    MirBlock newBlockBefore(MirBlock successor) {
+        MirBlock block = new MirBlock(nextBlockId++);
+        blocks.add(blocks.indexOf(successor), block);
+        blocksById.put(block.id(), block);
+        return block;
+    }
+
+    void removeBlock(MirBlock block) {
+        blocks.remove(block);
+        blocksById.remove(block.id());
+    }
+
+    /** False when a non-`void` function can fall off its end, which only the AST emitter reports. */
+    public boolean isComplete() {
+        if (returnType == TypeId.VOID) {
+            return true;
+        }
+        for (MirBlock block : blocks) {
+            if (block.terminator() instanceof MirTerminator.Return ret && ret.value() == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("fn ").append(name()).append(locals).append(" entry bb").append(entry).append('\n');
+        for (MirBlock block : blocks) {
+            text.append(block);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,233 @@
+package org.justlang.compiler;
+
+import java.util.List;
+
+/**
+ * A three-address MIR instruction. Every instruction writes at most one local ({@link #target()})
+ * and reads only {@link MirOperand}s, so passes can rewrite inputs and targets uniformly.
+ */
+public sealed interface MirInstr {
+    int NO_TARGET = -1;
+
+    int target();
+
+    List<MirOperand> operands();
+
+    MirInstr withOperands(List<MirOperand> operands);
+
+    MirInstr withTarget(int target);
+
+    /** True when removing, duplicating or reordering the instruction could change behaviour. */
+    boolean hasSideEffects();
+
+    record Move(int target, MirOperand source) implements MirInstr {
+        @Override
+        public List<MirOperand> operands() {
+            return List.of(source);
+        }
+
+        @Override
+        public MirInstr withOperands(List<MirOperand> operands) {
+            return new Move(target, operands.get(0));
+        }
+
+        @Override
+        public MirInstr withTarget(int newTarget) {
+            return new Move(newTarget, source);
+        }
+
+        @Override
+        public boolean hasSideEffects() {
+            return false;
+        }
+    }
+
+    /** `-` or `!`. */
+    record Unary(int target, String op, MirOperand operand) implements MirInstr {
+        @Override
+        public List<MirOperand> operands() {
+            return List.of(operand);
+        }
+
+        @Override
+        public MirInstr withOperands(List<MirOperand> operands) {
+            return new Unary(target, op, operands.get(0));
+        }
+
+        @Override
+        public MirInstr withTarget(int newTarget) {
+            return new Unary(newTarget, op, operand);
+        }
+
+        @Override
+        public boolean hasSideEffects() {
+            return false;
+        }
+    }
+
+    /**
+     * Arithmetic (`+ - * /`), comparison (`< <= > >=`) or equality (`== !=`). Both operands have
+     * the same scalar type, which is also the result type of arithmetic.
+     */
+    record Binary(int target, String op, MirOperand left, MirOperand right) implements MirInstr {
+        @Override
+        public List<MirOperand> operands() {
+            return List.of(left, right);
+        }
+
+        @Override
+        public MirInstr withOperands(List<MirOperand> operands) {
+            return new Binary(target, op, operands.get(0), operands.get(1));
+        }
+
+        @Override
+        public MirInstr withTarget(int newTarget) {
+            return new Binary(newTarget, op, left, right);
+        }
+
+        /** Integer division may throw unless the divisor is a known non-zero constant; float division never does. */
+        @Override
+        public boolean hasSideEffects() {
+            return "/".equals(op) && !(right instanceof MirOperand.Constant constant && (constant.isFloat() || constant.bits() != 0));
+        }
+
+        public boolean isComparison() {
+            return switch (op) {
+                case "<", "<=", ">", ">=", "==", "!=" -> true;
+                default -> false;
+            };
+        }
+    }
+
+    /**
+     * Allocates an array of {@code type} with every element set to {@code fill}. Allocation counts
+     * as an effect so a loop never shares one array across iterations.
+     */
+    record NewArray(int target, TypeId type, MirOperand fill) implements MirInstr {
+        @Override
+        public List<MirOperand> operands() {
+            return List.of(fill);
+        }
+
+        @Override
+        public MirInstr withOperands(List<MirOperand> operands) {
+            return new NewArray(target, type, operands.get(0));
+        }
+
+        @Override
+        public MirInstr withTarget(int newTarget) {
+            return new NewArray(newTarget, type, fill);
+        }
+
+        @Override
+        public boolean hasSideEffects() {
+            return true;
+        }
+    }
+
+    /** `array[index]`. It may throw, and stores can change what it reads, so it is never moved or dropped. */
+    record ArrayLoad(int target, MirOperand array, MirOperand index) implements MirInstr {
+        @Override
+        public List<MirOperand> operands() {
+            return List.of(array, index);
+        }
+
+        @Override
+        public MirInstr withOperands(List<MirOperand> operands) {
+            return new ArrayLoad(target, operands.get(0), operands.get(1));
+        }
+
+        @Override
+        public MirInstr withTarget(int newTarget) {
+            return new ArrayLoad(newTarget, array, index);
+        }
+
+        @Override
+        public boolean hasSideEffects() {
+            return true;
+        }
+    }
+
+    /** `array[index] = value`. */
+    record ArrayStore(MirOperand array, MirOperand index, MirOperand value) implements MirInstr {
+        @Override
+        public int target() {
+            return NO_TARGET;
+        }
+
+        @Override
+        public List<MirOperand> operands() {
+            return List.of(array, index, value);
+        }
+
+        @Override
+        public MirInstr withOperands(List<MirOperand> operands) {
+            return new ArrayStore(operands.get(0), operands.get(1), operands.get(2));
+        }
+
+        @Override
+        public MirInstr withTarget(int newTarget) {
+            return this;
+        }
+
+        @Override
+        public boolean hasSideEffects() {
+            return true;
+        }
+    }
+
+    /** A static call to the function with HIR symbol {@code symbol}; {@code target} is NO_TARGET when the result is unused. */
+    record Call(int target, int symbol, List<MirOperand> args) implements MirInstr {
+        @Override
+        public List<MirOperand> operands() {
+            return args;
+        }
+
+        @Override
+        public MirInstr withOperands(List<MirOperand> operands) {
+            return new Call(target, symbol, List.copyOf(operands));
+        }
+
+        @Override
+        public MirInstr withTarget(int newTarget) {
+            return new Call(newTarget, symbol, args);
+        }
+
+        @Override
+        public boolean hasSideEffects() {
+            return true;
+        }
+    }
+
+    /**
+     * `print`/`println`. With only {@code format}, prints the literal; with no {@code format},
+     * prints its single value; with both, fills the format's `{}` placeholders with the values
+     * in order.
+     */
+    record Print(String format, List<MirOperand> values, List<TypeId> valueTypes) implements MirInstr {
+        @Override
+        public int target() {
+            return NO_TARGET;
+        }
+
+        @Override
+        public List<MirOperand> operands() {
+            return values;
+        }
+
+        @Override
+        public MirInstr withOperands(List<MirOperand> operands) {
+            return new Print(format, List.copyOf(operands), valueTypes);
+        }
+
+        @Override
+        public MirInstr withTarget(int newTarget) {
+            return this;
+        }
+
+        @Override
+        public boolean hasSideEffects() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package org.justlang.compiler;
+
+/** A MIR local slot. {@code name} is the source binding, or null for compiler temporaries. */
+public record MirLocal(int index, String name, TypeId type) {
+    public boolean isTemp() {
+        return name == null;
+    }
+}
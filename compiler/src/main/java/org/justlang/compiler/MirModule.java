@@ -1,4 +1,87 @@
 package org.justlang.compiler;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The MIR for a module. Only functions whose bodies fit MIR's scalar subset are lowered; the
+ * rest are absent and {@link Codegen} emits them from the AST, so {@link #source()} and
+ * {@link #types()} travel with the MIR. Once {@link Monomorphizer} has run it also lists the
+ * specializations of generic functions and structs the program needs.
+ */
 public final class MirModule {
+    private final AstModule source;
+    private final TypedModule types;
+    private final Map<AstFunction, MirFunction> functions;
+    private final List<FunctionInstance> functionInstances;
+    private final List<TypeId> structInstances;
+
+    MirModule(AstModule source, TypedModule types, Map<AstFunction, MirFunction> functions) {
+        this(source, types, functions, null, null);
+    }
+
+    private MirModule(
+        AstModule source,
+        TypedModule types,
+        Map<AstFunction, MirFunction> functions,
+        List<FunctionInstance> functionInstances,
+        List<TypeId> structInstances
+    ) {
+        this.source = source;
+        this.types = types;
+        this.functions = functions;
+        this.functionInstances = functionInstances;
+        this.structInstances = structInstances;
+    }
+
+    public AstModule source() {
+        return source;
+    }
+
+    public TypedModule types() {
+        return types;
+    }
+
+    /** The lowered form of {@code fn}, or null if it stays on the AST path. */
+    public MirFunction function(AstFunction fn) {
+        return functions.get(fn);
+    }
+
+    public Collection<MirFunction> functions() {
+        return functions.values();
+    }
+
+    public boolean isSpecialized() {
+        return functionInstances != null;
+    }
+
+    /** Every specialization of a generic function, in discovery order; empty until specialized. */
+    public List<FunctionInstance> functionInstances() {
+        return functionInstances == null ? List.of() : functionInstances;
+    }
+
+    /** Every generic struct instantiation with runtime type arguments; empty until specialized. */
+    public List<TypeId> structInstances() {
+        return structInstances == null ? List.of() : structInstances;
+    }
+
+    MirModule specialized(List<FunctionInstance> functionInstances, List<TypeId> structInstances) {
+        return new MirModule(source, types, functions, List.copyOf(functionInstances), List.copyOf(structInstances));
+    }
+
+    /**
+     * One generic function specialized for runtime type arguments; {@code name} is the method
+     * it is emitted as.
+     */
+    public record FunctionInstance(AstFunction function, List<TypeId> typeArguments, String name) {
+        public Map<TypeId, TypeId> bindings() {
+            Map<TypeId, TypeId> bindings = new HashMap<>();
+            for (int i = 0; i < typeArguments.size(); i++) {
+                bindings.put(TypeId.param(function.typeParams().get(i)), typeArguments.get(i));
+            }
+            return bindings;
+        }
+    }
 }
@@ -0,0 +1,49 @@
+package org.justlang.compiler;
+
+/** An instruction input: either a read of a MIR local or an immediate scalar constant. */
+public sealed interface MirOperand {
+    record Copy(int local) implements MirOperand {}
+
+    /**
+     * A constant of scalar {@code type}. Integers are held in {@code bits} sign-extended (`u64`
+     * as its two's-complement bits, booleans as 0/1, as on the JVM); `f32`/`f64` as the bits of
+     * the {@code double} value.
+     */
+    record Constant(TypeId type, long bits) implements MirOperand {
+        /** The value of an `i32` or `bool` constant. */
+        public int value() {
+            return (int) bits;
+        }
+
+        public double doubleValue() {
+            return Double.longBitsToDouble(bits);
+        }
+
+        public boolean isFloat() {
+            return type == TypeId.F32 || type == TypeId.F64;
+        }
+    }
+
+    static MirOperand of(int value) {
+        return new Constant(TypeId.INT, value);
+    }
+
+    static MirOperand of(boolean value) {
+        return new Constant(TypeId.BOOL, value ? 1 : 0);
+    }
+
+    /** An `i32`, `i64` or `u64` constant; an `i32` value is truncated to 32 bits first. */
+    static Constant ofInteger(TypeId type, long value) {
+        return new Constant(type, type == TypeId.INT ? (int) value : value);
+    }
+
+    /** An `f32` or `f64` constant; an `f32` value is rounded to float precision first. */
+    static Constant ofFloat(TypeId type, double value) {
+        return new Constant(type, Double.doubleToLongBits(type == TypeId.F32 ? (float) value : value));
+    }
+
+    /** The local this operand reads, or -1 for a constant. */
+    default int local() {
+        return this instanceof Copy copy ? copy.local() : -1;
+    }
+}
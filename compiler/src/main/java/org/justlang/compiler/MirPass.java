@@ -0,0 +1,9 @@
+package org.justlang.compiler;
+
+/** One MIR-to-MIR rewrite run by {@link MirPassManager}. */
+public interface MirPass {
+    String name();
+
+    /** Rewrites {@code function} in place and reports whether anything changed. */
+    boolean run(MirFunction function);
+}
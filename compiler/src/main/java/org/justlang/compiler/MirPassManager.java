@@ -0,0 +1,51 @@
+package org.justlang.compiler;
+
+import java.util.List;
+
+/**
+ * Runs a fixed pipeline of {@link MirPass}es over every function, repeating the whole pipeline
+ * until a round changes nothing (bounded by {@link #MAX_ROUNDS}), since each pass tends to
+ * expose work for the others.
+ */
+public final class MirPassManager {
+    static final int MAX_ROUNDS = 8;
+
+    private final List<MirPass> passes;
+
+    public MirPassManager(List<MirPass> passes) {
+        this.passes = List.copyOf(passes);
+    }
+
+    public static MirPassManager standard() {
+        return new MirPassManager(List.of(
+            new ConstantFoldingPass(),
+            new CopyPropagationPass(),
+            new CommonSubexpressionPass(),
+            new LoopInvariantMotionPass(),
+            new DeadCodeEliminationPass()
+        ));
+    }
+
+    public List<MirPass> passes() {
+        return passes;
+    }
+
+    public MirModule run(MirModule module) {
+        for (MirFunction function : module.functions()) {
+            run(function);
+        }
+        return module;
+    }
+
+    public void run(MirFunction function) {
+        for (int round = 0; round < MAX_ROUNDS; round++) {
+            boolean changed = false;
+            for (MirPass pass : passes) {
+                changed |= pass.run(function);
+            }
+            if (!changed) {
+                return;
+            }
+        }
+    }
+}
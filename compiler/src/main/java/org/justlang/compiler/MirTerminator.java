@@ -0,0 +1,48 @@
+package org.justlang.compiler;
+
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+
+/** The control transfer that ends every {@link MirBlock}. */
+public sealed interface MirTerminator {
+    List<Integer> successors();
+
+    MirTerminator withSuccessors(IntUnaryOperator retarget);
+
+    record Goto(int target) implements MirTerminator {
+        @Override
+        public List<Integer> successors() {
+            return List.of(target);
+        }
+
+        @Override
+        public MirTerminator withSuccessors(IntUnaryOperator retarget) {
+            return new Goto(retarget.applyAsInt(target));
+        }
+    }
+
+    record Branch(MirOperand condition, int ifTrue, int ifFalse) implements MirTerminator {
+        @Override
+        public List<Integer> successors() {
+            return List.of(ifTrue, ifFalse);
+        }
+
+        @Override
+        public MirTerminator withSuccessors(IntUnaryOperator retarget) {
+            return new Branch(condition, retarget.applyAsInt(ifTrue), retarget.applyAsInt(ifFalse));
+        }
+    }
+
+    /** {@code value} is null for `void` functions, and for a non-`void` function's fall-through end. */
+    record Return(MirOperand value) implements MirTerminator {
+        @Override
+        public List<Integer> successors() {
+            return List.of();
+        }
+
+        @Override
+        public MirTerminator withSuccessors(IntUnaryOperator retarget) {
+            return this;
+        }
+    }
+}
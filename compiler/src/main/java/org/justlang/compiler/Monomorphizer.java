@@ -1,7 +1,288 @@
 package org.justlang.compiler;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Expands generic functions and structs into one specialization per distinct tuple of runtime
+ * type arguments. Discovery starts at every non-generic function and follows the instantiations
+ * the checker recorded, substituting the caller's own arguments inside generic bodies. The
+ * per-instantiation cache means a generic used with the same arguments from many call sites —
+ * or many modules of the merged program — is specialized and emitted exactly once.
+ */
 public final class Monomorphizer {
+    private final Map<AstFunction, Map<List<TypeId>, MirModule.FunctionInstance>> cache = new IdentityHashMap<>();
+    private final List<MirModule.FunctionInstance> functionInstances = new ArrayList<>();
+    private final Set<TypeId> structInstances = new LinkedHashSet<>();
+    private final Deque<MirModule.FunctionInstance> worklist = new ArrayDeque<>();
+    private TypedModule types;
+    private HirModule hir;
+
     public MirModule specialize(MirModule module) {
-        throw new UnsupportedOperationException("Monomorphizer not implemented yet");
+        cache.clear();
+        functionInstances.clear();
+        structInstances.clear();
+        worklist.clear();
+        types = module.types();
+        hir = types.hir();
+        try {
+            if (hir == null || hir.module() != module.source()) {
+                return module.specialized(List.of(), List.of());
+            }
+            for (AstItem item : module.source().items()) {
+                if (item instanceof AstFunction fn && !fn.isGeneric()) {
+                    visitBlock(fn.body(), Map.of());
+                }
+            }
+            while (!worklist.isEmpty()) {
+                MirModule.FunctionInstance instance = worklist.poll();
+                visitBlock(instance.function().body(), instance.bindings());
+            }
+            return module.specialized(functionInstances, List.copyOf(structInstances));
+        } finally {
+            types = null;
+            hir = null;
+        }
+    }
+
+    /**
+     * The form a type argument takes at runtime: references are erased (they share their
+     * referent's representation) and placeholders the checker left open widen to {@code Any}.
+     */
+    static TypeId runtimeArgument(TypeId type) {
+        if (type.isReference()) {
+            return runtimeArgument(type.referenceInner());
+        }
+        if (type == TypeId.INFER) {
+            return TypeId.ANY;
+        }
+        if (type.isOption()) {
+            return TypeId.option(runtimeArgument(type.optionInner()));
+        }
+        if (type.isResult()) {
+            return TypeId.result(runtimeArgument(type.resultOk()), runtimeArgument(type.resultErr()));
+        }
+        if (type.isStruct() && !type.typeArguments().isEmpty()) {
+            return TypeId.struct(type.structName(), runtimeArguments(type.typeArguments()));
+        }
+        if (type.isArray()) {
+            return TypeId.array(runtimeArgument(type.arrayElement()), type.arrayLength());
+        }
+        return type;
+    }
+
+    static List<TypeId> runtimeArguments(List<TypeId> types) {
+        List<TypeId> erased = new ArrayList<>(types.size());
+        for (TypeId type : types) {
+            erased.add(runtimeArgument(type));
+        }
+        return erased;
+    }
+
+    /**
+     * Name of the method or class a specialization is emitted as: {@code identity$i32},
+     * {@code Pair$String$Option$bool}. Every type constructor has a fixed arity, so the prefix
+     * spelling cannot collide, and {@code $} never appears in source identifiers.
+     */
+    static String specializedName(String name, List<TypeId> typeArguments) {
+        StringBuilder mangled = new StringBuilder(name);
+        for (TypeId argument : typeArguments) {
+            mangled.append('$');
+            appendMangled(mangled, runtimeArgument(argument));
+        }
+        return mangled.toString();
+    }
+
+    /** The JVM class a struct or enum value of {@code type} is an instance of. */
+    static String className(TypeId type) {
+        TypeId runtime = runtimeArgument(type);
+        if (runtime.isStruct()) {
+            return specializedName(runtime.structName(), runtime.typeArguments());
+        }
+        return runtime.isEnum() ? runtime.enumName() : null;
+    }
+
+    private static void appendMangled(StringBuilder mangled, TypeId type) {
+        if (type == TypeId.INT) {
+            mangled.append("i32");
+        } else if (type == TypeId.BOOL) {
+            mangled.append("bool");
+        } else if (type == TypeId.I64) {
+            mangled.append("i64");
+        } else if (type == TypeId.U64) {
+            mangled.append("u64");
+        } else if (type == TypeId.F32) {
+            mangled.append("f32");
+        } else if (type == TypeId.F64) {
+            mangled.append("f64");
+        } else if (type == TypeId.STRING) {
+            mangled.append("String");
+        } else if (type == TypeId.ANY) {
+            mangled.append("Any");
+        } else if (type.isOption()) {
+            mangled.append("Option$");
+            appendMangled(mangled, type.optionInner());
+        } else if (type.isResult()) {
+            mangled.append("Result$");
+            appendMangled(mangled, type.resultOk());
+            mangled.append('$');
+            appendMangled(mangled, type.resultErr());
+        } else if (type.isArray()) {
+            mangled.append("Array$");
+            appendMangled(mangled, type.arrayElement());
+            mangled.append('$').append(type.arrayLength());
+        } else if (type.isStruct()) {
+            mangled.append(specializedName(type.structName(), type.typeArguments()));
+        } else if (type.isEnum()) {
+            mangled.append(type.enumName());
+        } else {
+            throw new IllegalStateException("Cannot specialize for type: " + type);
+        }
+    }
+
+    private void instantiate(AstFunction function, List<TypeId> typeArguments) {
+        Map<List<TypeId>, MirModule.FunctionInstance> byArguments = cache.computeIfAbsent(function, key -> new LinkedHashMap<>());
+        if (byArguments.containsKey(typeArguments)) {
+            return;
+        }
+        MirModule.FunctionInstance instance = new MirModule.FunctionInstance(
+            function,
+            typeArguments,
+            specializedName(function.name(), typeArguments)
+        );
+        byArguments.put(typeArguments, instance);
+        functionInstances.add(instance);
+        worklist.add(instance);
+    }
+
+    private void noteType(TypeId type, Map<TypeId, TypeId> bindings) {
+        if (type != null) {
+            collectStructs(runtimeArgument(TypeUnifier.substitute(type, bindings)));
+        }
+    }
+
+    private void collectStructs(TypeId type) {
+        if (type.isOption()) {
+            collectStructs(type.optionInner());
+        } else if (type.isResult()) {
+            collectStructs(type.resultOk());
+            collectStructs(type.resultErr());
+        } else if (type.isArray()) {
+            collectStructs(type.arrayElement());
+        } else if (type.isStruct() && !type.typeArguments().isEmpty() && !type.mentionsTypeParam()
+            && structInstances.add(type)) {
+            for (TypeId argument : type.typeArguments()) {
+                collectStructs(argument);
+            }
+        }
+    }
+
+    private void visitBlock(List<AstStmt> statements, Map<TypeId, TypeId> bindings) {
+        if (statements == null) {
+            return;
+        }
+        for (AstStmt stmt : statements) {
+            visitStmt(stmt, bindings);
+        }
+    }
+
+    private void visitStmt(AstStmt stmt, Map<TypeId, TypeId> bindings) {
+        if (stmt instanceof AstLetStmt letStmt) {
+            noteType(types.bindingType(letStmt), bindings);
+            visitExpr(letStmt.initializer(), bindings);
+        } else if (stmt instanceof AstAssignStmt assignStmt) {
+            visitExpr(assignStmt.value(), bindings);
+        } else if (stmt instanceof AstIndexAssignStmt indexAssignStmt) {
+            visitExpr(indexAssignStmt.target(), bindings);
+            visitExpr(indexAssignStmt.value(), bindings);
+        } else if (stmt instanceof AstExprStmt exprStmt) {
+            visitExpr(exprStmt.expr(), bindings);
+        } else if (stmt instanceof AstReturnStmt returnStmt) {
+            visitExpr(returnStmt.expr(), bindings);
+        } else if (stmt instanceof AstBreakStmt breakStmt) {
+            visitExpr(breakStmt.expr(), bindings);
+        } else if (stmt instanceof AstIfStmt ifStmt) {
+            visitExpr(ifStmt.condition(), bindings);
+            visitBlock(ifStmt.thenBranch(), bindings);
+            visitBlock(ifStmt.elseBranch(), bindings);
+        } else if (stmt instanceof AstIfLetStmt ifLetStmt) {
+            visitExpr(ifLetStmt.target(), bindings);
+            visitBlock(ifLetStmt.thenBranch(), bindings);
+            visitBlock(ifLetStmt.elseBranch(), bindings);
+        } else if (stmt instanceof AstWhileStmt whileStmt) {
+            visitExpr(whileStmt.condition(), bindings);
+            visitBlock(whileStmt.body(), bindings);
+        } else if (stmt instanceof AstWhileLetStmt whileLetStmt) {
+            visitExpr(whileLetStmt.target(), bindings);
+            visitBlock(whileLetStmt.body(), bindings);
+        } else if (stmt instanceof AstForStmt forStmt) {
+            visitExpr(forStmt.start(), bindings);
+            visitExpr(forStmt.end(), bindings);
+            visitBlock(forStmt.body(), bindings);
+        } else if (stmt instanceof AstLoopStmt loopStmt) {
+            visitBlock(loopStmt.body(), bindings);
+        }
+    }
+
+    private void visitExpr(AstExpr expr, Map<TypeId, TypeId> bindings) {
+        if (expr == null) {
+            return;
+        }
+        noteType(types.typeOf(expr), bindings);
+        if (expr instanceof AstCallExpr callExpr) {
+            List<TypeId> typeArguments = types.instantiation(callExpr);
+            int symbol = hir.callTarget(callExpr).symbol();
+            if (typeArguments != null && symbol != HirModule.UNRESOLVED
+                && hir.symbol(symbol).declaration() instanceof AstFunction callee) {
+                List<TypeId> concrete = new ArrayList<>(typeArguments.size());
+                for (TypeId argument : typeArguments) {
+                    concrete.add(runtimeArgument(TypeUnifier.substitute(argument, bindings)));
+                }
+                instantiate(callee, List.copyOf(concrete));
+            }
+            for (AstExpr arg : callExpr.args()) {
+                visitExpr(arg, bindings);
+            }
+        } else if (expr instanceof AstStructInitExpr initExpr) {
+            for (AstFieldInit field : initExpr.fields()) {
+                visitExpr(field.value(), bindings);
+            }
+        } else if (expr instanceof AstFieldAccessExpr accessExpr) {
+            visitExpr(accessExpr.target(), bindings);
+        } else if (expr instanceof AstArrayExpr arrayExpr) {
+            for (AstExpr element : arrayExpr.elements()) {
+                visitExpr(element, bindings);
+            }
+        } else if (expr instanceof AstIndexExpr indexExpr) {
+            visitExpr(indexExpr.target(), bindings);
+            visitExpr(indexExpr.index(), bindings);
+        } else if (expr instanceof AstBinaryExpr binaryExpr) {
+            visitExpr(binaryExpr.left(), bindings);
+            visitExpr(binaryExpr.right(), bindings);
+        } else if (expr instanceof AstUnaryExpr unaryExpr) {
+            visitExpr(unaryExpr.expr(), bindings);
+        } else if (expr instanceof AstIfExpr ifExpr) {
+            visitExpr(ifExpr.condition(), bindings);
+            visitExpr(ifExpr.thenExpr(), bindings);
+            visitExpr(ifExpr.elseExpr(), bindings);
+        } else if (expr instanceof AstBlockExpr blockExpr) {
+            visitBlock(blockExpr.statements(), bindings);
+            visitExpr(blockExpr.value(), bindings);
+        } else if (expr instanceof AstMatchExpr matchExpr) {
+            visitExpr(matchExpr.target(), bindings);
+            for (AstMatchArm arm : matchExpr.arms()) {
+                visitExpr(arm.guard(), bindings);
+                visitExpr(arm.expr(), bindings);
+            }
+        } else if (expr instanceof AstLoopExpr loopExpr) {
+            visitBlock(loopExpr.body(), bindings);
+        }
     }
 }
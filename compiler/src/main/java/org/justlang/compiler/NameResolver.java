@@ -1,7 +1,306 @@
 package org.justlang.compiler;
 
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
 public final class NameResolver {
+    private static final List<String> BUILTIN_ENUMS = List.of("Option", "Result");
+
+    private final List<HirModule.Symbol> symbols = new ArrayList<>();
+    private final Map<String, Integer> functionIds = new HashMap<>();
+    private final Map<String, Integer> typeIds = new HashMap<>();
+    private final Map<AstCallExpr, HirModule.CallTarget> calls = new IdentityHashMap<>();
+    private final Map<Object, Integer> references = new IdentityHashMap<>();
+    private final Map<Path, String> moduleNames = new HashMap<>();
+    private final Map<Path, Map<String, String>> useAliases = new HashMap<>();
+    private final List<String> errors = new ArrayList<>();
+    private Path currentSource;
+    private Map<String, String> currentAliases = Map.of();
+    private List<String> currentTypeParams = List.of();
+
     public HirModule resolve(AstModule module) {
-        throw new UnsupportedOperationException("Name resolver not implemented yet");
+        symbols.clear();
+        functionIds.clear();
+        typeIds.clear();
+        calls.clear();
+        references.clear();
+        moduleNames.clear();
+        useAliases.clear();
+        errors.clear();
+
+        for (String name : BUILTIN_ENUMS) {
+            typeIds.put(name, addSymbol(HirModule.SymbolKind.ENUM, name, null, false, null));
+        }
+        for (AstItem item : module.items()) {
+            if (item instanceof AstFunction fn && !functionIds.containsKey(fn.name())) {
+                functionIds.put(fn.name(), addSymbol(HirModule.SymbolKind.FUNCTION, fn.name(), fn.sourcePath(), fn.isPublicItem(), fn));
+            } else if (item instanceof AstStruct struct && !typeIds.containsKey(struct.name())) {
+                typeIds.put(struct.name(), addSymbol(HirModule.SymbolKind.STRUCT, struct.name(), null, false, struct));
+            } else if (item instanceof AstUse useItem) {
+                collectUseAlias(useItem);
+            }
+        }
+        // Structs win name clashes with enums, matching registry lookup order.
+        for (AstItem item : module.items()) {
+            if (item instanceof AstEnum enumDef && !typeIds.containsKey(enumDef.name())) {
+                typeIds.put(enumDef.name(), addSymbol(HirModule.SymbolKind.ENUM, enumDef.name(), null, false, enumDef));
+            }
+        }
+
+        for (AstItem item : module.items()) {
+            if (item instanceof AstFunction fn) {
+                currentSource = fn.sourcePath();
+                currentAliases = useAliases.getOrDefault(currentSource, Map.of());
+                currentTypeParams = fn.typeParams();
+                for (AstParam param : fn.params()) {
+                    resolveType(param.typeNode());
+                }
+                resolveType(fn.returnTypeNode());
+                resolveBlock(fn.body());
+            } else if (item instanceof AstStruct struct) {
+                currentTypeParams = struct.typeParams();
+                for (AstField field : struct.fields()) {
+                    resolveType(field.typeNode());
+                }
+            } else if (item instanceof AstEnum enumDef) {
+                currentTypeParams = List.of();
+                for (AstEnumVariant variant : enumDef.variants()) {
+                    resolveType(variant.payloadTypeNode());
+                }
+            }
+        }
+        currentSource = null;
+        currentAliases = Map.of();
+        currentTypeParams = List.of();
+
+        return new HirModule(
+            module,
+            List.copyOf(symbols),
+            new HashMap<>(functionIds),
+            new IdentityHashMap<>(calls),
+            new IdentityHashMap<>(references),
+            new HashMap<>(moduleNames),
+            new HashMap<>(useAliases),
+            List.copyOf(errors)
+        );
+    }
+
+    static String moduleNameFor(Path sourcePath) {
+        if (sourcePath == null || sourcePath.getFileName() == null) {
+            return "main";
+        }
+        String fileName = sourcePath.getFileName().toString();
+        int dot = fileName.lastIndexOf('.');
+        String base = dot > 0 ? fileName.substring(0, dot) : fileName;
+        return base.replace('-', '_');
+    }
+
+    static String normalizeModuleName(String moduleName) {
+        String normalized = moduleName;
+        if (normalized.startsWith("crate::")) {
+            normalized = normalized.substring("crate::".length());
+        } else if (normalized.startsWith("self::")) {
+            normalized = normalized.substring("self::".length());
+        } else if (normalized.startsWith("super::")) {
+            normalized = normalized.substring("super::".length());
+        }
+        int lastSeparator = normalized.lastIndexOf("::");
+        if (lastSeparator >= 0 && lastSeparator + 2 < normalized.length()) {
+            return normalized.substring(lastSeparator + 2);
+        }
+        return normalized;
+    }
+
+    private int addSymbol(HirModule.SymbolKind kind, String name, Path sourcePath, boolean publicItem, AstItem declaration) {
+        int id = symbols.size();
+        symbols.add(new HirModule.Symbol(id, kind, name, moduleName(sourcePath), sourcePath, publicItem, declaration));
+        return id;
+    }
+
+    private String moduleName(Path sourcePath) {
+        if (sourcePath == null) {
+            return moduleNameFor(null);
+        }
+        return moduleNames.computeIfAbsent(sourcePath, NameResolver::moduleNameFor);
+    }
+
+    private void collectUseAlias(AstUse useItem) {
+        Path source = useItem.sourcePath();
+        if (source == null) {
+            return;
+        }
+        Map<String, String> aliases = useAliases.computeIfAbsent(source, ignored -> new HashMap<>());
+        String target = useItem.moduleName() + "::" + useItem.symbolName();
+        String previous = aliases.putIfAbsent(useItem.alias(), target);
+        if (previous != null && !previous.equals(target)) {
+            errors.add("Duplicate use alias '" + useItem.alias() + "' in module " + moduleName(source));
+        }
+    }
+
+    private void resolveBlock(List<AstStmt> statements) {
+        if (statements == null) {
+            return;
+        }
+        for (AstStmt stmt : statements) {
+            resolveStmt(stmt);
+        }
+    }
+
+    private void resolveStmt(AstStmt stmt) {
+        if (stmt instanceof AstLetStmt letStmt) {
+            resolveType(letStmt.typeNode());
+            resolveExpr(letStmt.initializer());
+        } else if (stmt instanceof AstAssignStmt assignStmt) {
+            resolveExpr(assignStmt.value());
+        } else if (stmt instanceof AstIndexAssignStmt indexAssignStmt) {
+            resolveExpr(indexAssignStmt.target());
+            resolveExpr(indexAssignStmt.value());
+        } else if (stmt instanceof AstExprStmt exprStmt) {
+            resolveExpr(exprStmt.expr());
+        } else if (stmt instanceof AstReturnStmt returnStmt) {
+            resolveExpr(returnStmt.expr());
+        } else if (stmt instanceof AstBreakStmt breakStmt) {
+            resolveExpr(breakStmt.expr());
+        } else if (stmt instanceof AstIfStmt ifStmt) {
+            resolveExpr(ifStmt.condition());
+            resolveBlock(ifStmt.thenBranch());
+            resolveBlock(ifStmt.elseBranch());
+        } else if (stmt instanceof AstIfLetStmt ifLetStmt) {
+            resolveExpr(ifLetStmt.target());
+            resolveBlock(ifLetStmt.thenBranch());
+            resolveBlock(ifLetStmt.elseBranch());
+        } else if (stmt instanceof AstWhileStmt whileStmt) {
+            resolveExpr(whileStmt.condition());
+            resolveBlock(whileStmt.body());
+        } else if (stmt instanceof AstWhileLetStmt whileLetStmt) {
+            resolveExpr(whileLetStmt.target());
+            resolveBlock(whileLetStmt.body());
+        } else if (stmt instanceof AstForStmt forStmt) {
+            resolveExpr(forStmt.start());
+            resolveExpr(forStmt.end());
+            resolveBlock(forStmt.body());
+        } else if (stmt instanceof AstLoopStmt loopStmt) {
+            resolveBlock(loopStmt.body());
+        }
+    }
+
+    private void resolveExpr(AstExpr expr) {
+        if (expr instanceof AstCallExpr callExpr) {
+            calls.put(callExpr, resolveCall(callExpr.callee()));
+            for (AstExpr arg : callExpr.args()) {
+                resolveExpr(arg);
+            }
+        } else if (expr instanceof AstPathExpr pathExpr) {
+            List<String> segments = pathExpr.segments();
+            if (segments.size() == 2) {
+                addReference(pathExpr, typeIds.get(segments.get(0)));
+            }
+        } else if (expr instanceof AstStructInitExpr initExpr) {
+            addReference(initExpr, typeIds.get(initExpr.name()));
+            for (AstFieldInit field : initExpr.fields()) {
+                resolveExpr(field.value());
+            }
+        } else if (expr instanceof AstFieldAccessExpr accessExpr) {
+            resolveExpr(accessExpr.target());
+        } else if (expr instanceof AstArrayExpr arrayExpr) {
+            for (AstExpr element : arrayExpr.elements()) {
+                resolveExpr(element);
+            }
+        } else if (expr instanceof AstIndexExpr indexExpr) {
+            resolveExpr(indexExpr.target());
+            resolveExpr(indexExpr.index());
+        } else if (expr instanceof AstBinaryExpr binaryExpr) {
+            resolveExpr(binaryExpr.left());
+            resolveExpr(binaryExpr.right());
+        } else if (expr instanceof AstUnaryExpr unaryExpr) {
+            resolveExpr(unaryExpr.expr());
+        } else if (expr instanceof AstIfExpr ifExpr) {
+            resolveExpr(ifExpr.condition());
+            resolveExpr(ifExpr.thenExpr());
+            resolveExpr(ifExpr.elseExpr());
+        } else if (expr instanceof AstBlockExpr blockExpr) {
+            resolveBlock(blockExpr.statements());
+            resolveExpr(blockExpr.value());
+        } else if (expr instanceof AstMatchExpr matchExpr) {
+            resolveExpr(matchExpr.target());
+            for (AstMatchArm arm : matchExpr.arms()) {
+                resolveExpr(arm.guard());
+                resolveExpr(arm.expr());
+            }
+        } else if (expr instanceof AstLoopExpr loopExpr) {
+            resolveBlock(loopExpr.body());
+        }
+    }
+
+    private HirModule.CallTarget resolveCall(List<String> callee) {
+        if (callee.size() >= 2) {
+            String symbolName = callee.get(callee.size() - 1);
+            Integer id = functionIds.get(symbolName);
+            if (id == null) {
+                return HirModule.CallTarget.NONE;
+            }
+            String moduleName = String.join("::", callee.subList(0, callee.size() - 1));
+            String declaredModule = symbols.get(id).moduleName();
+            if (!moduleName.equals(declaredModule) && !normalizeModuleName(moduleName).equals(declaredModule)) {
+                return HirModule.CallTarget.NONE;
+            }
+            return new HirModule.CallTarget(id, HirModule.CallKind.QUALIFIED, null);
+        }
+        if (callee.size() != 1) {
+            return HirModule.CallTarget.NONE;
+        }
+
+        String name = callee.get(0);
+        Integer local = functionIds.get(name);
+        if (local != null && currentSource != null && currentSource.equals(symbols.get(local).sourcePath())) {
+            return new HirModule.CallTarget(local, HirModule.CallKind.LOCAL, null);
+        }
+        String aliasTarget = currentAliases.get(name);
+        if (aliasTarget != null) {
+            int separator = aliasTarget.lastIndexOf("::");
+            if (separator < 0) {
+                return new HirModule.CallTarget(HirModule.UNRESOLVED, HirModule.CallKind.INVALID_ALIAS, aliasTarget);
+            }
+            String moduleName = normalizeModuleName(aliasTarget.substring(0, separator));
+            Integer aliased = functionIds.get(aliasTarget.substring(separator + 2));
+            if (aliased == null || !moduleName.equals(symbols.get(aliased).moduleName())) {
+                return new HirModule.CallTarget(HirModule.UNRESOLVED, HirModule.CallKind.UNKNOWN_ALIAS_TARGET, aliasTarget);
+            }
+            return new HirModule.CallTarget(aliased, HirModule.CallKind.ALIAS, aliasTarget);
+        }
+        if (local == null) {
+            return new HirModule.CallTarget(HirModule.UNRESOLVED, HirModule.CallKind.UNKNOWN, null);
+        }
+        return new HirModule.CallTarget(local, HirModule.CallKind.NOT_IMPORTED, null);
+    }
+
+    private void resolveType(AstType type) {
+        if (type == null) {
+            return;
+        }
+        switch (type.kind()) {
+            case REFERENCE, ARRAY -> resolveType(type.referent());
+            case GENERIC -> {
+                for (AstType argument : type.arguments()) {
+                    resolveType(argument);
+                }
+            }
+            default -> {
+                // A type parameter shadows any item of the same name.
+                if (!currentTypeParams.contains(type.name())) {
+                    addReference(type, typeIds.get(type.name()));
+                }
+            }
+        }
+    }
+
+    private void addReference(Object node, Integer id) {
+        if (id != null) {
+            references.put(node, id);
+        }
     }
 }
@@ -4,7 +4,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 public final class Parser implements ParserStrategy {
-    private List<Token> tokens;
+    private static final List<String> ASSIGNMENT_OPERATORS = List.of("=", "+=", "-=", "*=", "/=");
+
+    private TokenStream tokens;
     private int current;
     private boolean allowStructInit = true;
     private Diagnostics diagnostics;
@@ -13,6 +15,11 @@ public final class Parser implements ParserStrategy {
 
     @Override
     public AstModule parse(SourceFile sourceFile, List<Token> tokens, Diagnostics diagnostics) {
+        return parseStream(sourceFile, TokenBuffer.of(tokens), diagnostics);
+    }
+
+    @Override
+    public AstModule parseStream(SourceFile sourceFile, TokenStream tokens, Diagnostics diagnostics) {
         this.sourceFile = sourceFile;
         this.diagnostics = diagnostics;
         this.tokens = tokens;
@@ -44,7 +51,7 @@ public final class Parser implements ParserStrategy {
             if (matchKeyword("enum")) {
                 return parseEnum();
             }
-            throw error(peek(), "Expected 'fn', 'struct', or 'enum' after 'pub'");
+            throw error(current, "Expected 'fn', 'struct', or 'enum' after 'pub'");
         }
         if (matchKeyword("fn")) {
             return parseFunction(false);
@@ -61,7 +68,7 @@ public final class Parser implements ParserStrategy {
         if (matchKeyword("use")) {
             List<AstUse> useItems = parseUseItems();
             if (useItems.isEmpty()) {
-                throw error(previous(), "Expected at least one use target");
+                throw error(current - 1, "Expected at least one use target");
             }
             for (int i = 1; i < useItems.size(); i++) {
                 pendingItems.add(useItems.get(i));
@@ -71,26 +78,27 @@ public final class Parser implements ParserStrategy {
         if (matchKeyword("import")) {
             return parseImport();
         }
-        throw error(peek(), "Expected item (e.g., 'fn' or 'struct')");
+        throw error(current, "Expected item (e.g., 'fn' or 'struct')");
     }
 
     private AstImport parseImport() {
-        Token path = expect(Token.TokenKind.STRING, "Expected string literal import path");
+        String path = expect(Token.TokenKind.STRING, "Expected string literal import path");
         expectSymbol(";");
-        return new AstImport(path.lexeme());
+        return new AstImport(path);
     }
 
     private AstFunction parseFunction(boolean publicItem) {
-        Token name = expect(Token.TokenKind.IDENT, "Expected function name");
+        String name = expect(Token.TokenKind.IDENT, "Expected function name");
+        List<String> typeParams = parseTypeParams();
         expectSymbol("(");
         List<AstParam> params = new ArrayList<>();
         if (!checkSymbol(")")) {
             while (true) {
                 boolean mutable = matchKeyword("mut");
-                Token paramName = expect(Token.TokenKind.IDENT, "Expected parameter name");
+                String paramName = expect(Token.TokenKind.IDENT, "Expected parameter name");
                 expectSymbol(":");
-                String paramType = parseTypeName();
-                params.add(new AstParam(paramName.lexeme(), paramType, mutable));
+                AstType paramType = parseType();
+                params.add(AstParam.of(paramName, paramType, mutable));
                 if (!matchSymbol(",")) {
                     break;
                 }
@@ -100,12 +108,35 @@ public final class Parser implements ParserStrategy {
             }
         }
         expectSymbol(")");
-        String returnType = null;
+        AstType returnType = null;
         if (matchSymbol("->")) {
-            returnType = parseTypeName();
+            returnType = parseType();
         }
         List<AstStmt> body = parseBlock();
-        return new AstFunction(name.lexeme(), params, returnType, body, publicItem, sourceFile.path());
+        return AstFunction.of(name, typeParams, params, returnType, body, publicItem, sourceFile.path());
+    }
+
+    private List<String> parseTypeParams() {
+        List<String> typeParams = new ArrayList<>();
+        if (!matchSymbol("<")) {
+            return typeParams;
+        }
+        while (!checkSymbol(">")) {
+            int position = current;
+            String typeParam = expect(Token.TokenKind.IDENT, "Expected type parameter name");
+            if (typeParams.contains(typeParam)) {
+                throw error(position, "Duplicate type parameter: " + typeParam);
+            }
+            typeParams.add(typeParam);
+            if (!matchSymbol(",")) {
+                break;
+            }
+        }
+        expectSymbol(">");
+        if (typeParams.isEmpty()) {
+            throw error(current - 1, "Expected at least one type parameter");
+        }
+        return typeParams;
     }
 
     private AstImport parseMod() {
@@ -118,23 +149,23 @@ public final class Parser implements ParserStrategy {
         List<String> basePath = parsePath();
         List<AstUse> items = new ArrayList<>();
 
-        if (checkSymbol(":") && current + 2 < tokens.size()
-            && ":".equals(tokens.get(current + 1).lexeme())
-            && "{".equals(tokens.get(current + 2).lexeme())) {
+        if (checkSymbol(":")
+            && tokens.lexemeEquals(current + 1, ":")
+            && tokens.lexemeEquals(current + 2, "{")) {
             advance();
             advance();
             expectSymbol("{");
             String module = String.join("::", basePath);
             if (module.isBlank()) {
-                throw error(previous(), "use group requires a module path");
+                throw error(current - 1, "use group requires a module path");
             }
             do {
-                Token symbolToken = expect(Token.TokenKind.IDENT, "Expected symbol name in grouped use");
-                String symbol = symbolToken.lexeme();
+                String symbolToken = expect(Token.TokenKind.IDENT, "Expected symbol name in grouped use");
+                String symbol = symbolToken;
                 String alias = symbol;
                 if (matchKeyword("as")) {
-                    Token aliasToken = expect(Token.TokenKind.IDENT, "Expected alias after 'as'");
-                    alias = aliasToken.lexeme();
+                    String aliasToken = expect(Token.TokenKind.IDENT, "Expected alias after 'as'");
+                    alias = aliasToken;
                 }
                 items.add(new AstUse(module, symbol, alias, sourceFile.path()));
                 if (!matchSymbol(",")) {
@@ -150,14 +181,14 @@ public final class Parser implements ParserStrategy {
         }
 
         if (basePath.size() < 2) {
-            throw error(previous(), "use requires a module and symbol (e.g., use util::helper;)");
+            throw error(current - 1, "use requires a module and symbol (e.g., use util::helper;)");
         }
         String symbol = basePath.get(basePath.size() - 1);
         String module = String.join("::", basePath.subList(0, basePath.size() - 1));
         String alias = symbol;
         if (matchKeyword("as")) {
-            Token aliasToken = expect(Token.TokenKind.IDENT, "Expected alias after 'as'");
-            alias = aliasToken.lexeme();
+            String aliasToken = expect(Token.TokenKind.IDENT, "Expected alias after 'as'");
+            alias = aliasToken;
         }
         expectSymbol(";");
         items.add(new AstUse(module, symbol, alias, sourceFile.path()));
@@ -180,7 +211,7 @@ public final class Parser implements ParserStrategy {
             if (matchKeyword("loop")) {
                 return parseLoopStmt(label);
             }
-            throw error(peek(), "Labels can only be applied to loops");
+            throw error(current, "Labels can only be applied to loops");
         }
         if (matchKeyword("if")) {
             if (matchKeyword("let")) {
@@ -216,24 +247,32 @@ public final class Parser implements ParserStrategy {
             return parseAssign();
         }
         AstExpr expr = parseExpr();
+        if (expr instanceof AstIndexExpr indexExpr) {
+            String operator = matchAssignmentOperator();
+            if (operator != null) {
+                AstExpr value = parseExpr();
+                expectSymbol(";");
+                return new AstIndexAssignStmt(indexExpr, operator, value);
+            }
+        }
         expectSymbol(";");
         return new AstExprStmt(expr);
     }
 
     private AstStmt parseLet() {
         boolean mutable = matchKeyword("mut");
-        Token name = expect(Token.TokenKind.IDENT, "Expected identifier after 'let'");
-        String type = null;
+        String name = expect(Token.TokenKind.IDENT, "Expected identifier after 'let'");
+        AstType type = null;
         if (matchSymbol(":")) {
-            type = parseTypeName();
+            type = parseType();
         }
         AstExpr initializer = null;
         if (!matchSymbol("=")) {
-            throw error(peek(), "Expected '=' after let binding");
+            throw error(current, "Expected '=' after let binding");
         }
         initializer = parseExpr();
         expectSymbol(";");
-        return new AstLetStmt(name.lexeme(), mutable, type, initializer);
+        return AstLetStmt.of(name, mutable, type, initializer);
     }
 
     private AstExpr parseExpr() {
@@ -361,12 +400,20 @@ public final class Parser implements ParserStrategy {
             return new AstUnaryExpr("*", right);
         }
         AstExpr expr = parsePrimary();
-        while (matchSymbol(".")) {
-            Token field = expect(Token.TokenKind.IDENT, "Expected field name after '.'");
-            expr = new AstFieldAccessExpr(expr, field.lexeme());
+        while (true) {
+            if (matchSymbol(".")) {
+                String field = expect(Token.TokenKind.IDENT, "Expected field name after '.'");
+                expr = new AstFieldAccessExpr(expr, field);
+            } else if (matchSymbol("[")) {
+                AstExpr index = parseExpr();
+                expectSymbol("]");
+                expr = new AstIndexExpr(expr, index);
+            } else {
+                break;
+            }
         }
         if (matchSymbol("?")) {
-            throw error(previous(), "Try operator '?' is not supported yet");
+            throw error(current - 1, "Try operator '?' is not supported yet");
         }
         return expr;
     }
@@ -388,10 +435,10 @@ public final class Parser implements ParserStrategy {
             return new AstBoolExpr(false);
         }
         if (match(Token.TokenKind.NUMBER)) {
-            return new AstNumberExpr(previous().lexeme());
+            return new AstNumberExpr(tokens.lexeme(current - 1));
         }
         if (match(Token.TokenKind.STRING)) {
-            return new AstStringExpr(previous().lexeme());
+            return new AstStringExpr(tokens.lexeme(current - 1));
         }
         if (check(Token.TokenKind.IDENT)) {
             List<String> path = parsePath();
@@ -416,10 +463,10 @@ public final class Parser implements ParserStrategy {
                 List<AstFieldInit> fields = new ArrayList<>();
                 if (!checkSymbol("}")) {
                     while (true) {
-                        Token fieldName = expect(Token.TokenKind.IDENT, "Expected field name");
+                        String fieldName = expect(Token.TokenKind.IDENT, "Expected field name");
                         expectSymbol(":");
                         AstExpr value = parseExpr();
-                        fields.add(new AstFieldInit(fieldName.lexeme(), value));
+                        fields.add(new AstFieldInit(fieldName, value));
                         if (!matchSymbol(",")) {
                             break;
                         }
@@ -457,7 +504,42 @@ public final class Parser implements ParserStrategy {
             expectSymbol(")");
             return expr;
         }
-        throw error(peek(), "Expected expression");
+        if (matchSymbol("[")) {
+            return parseArrayLiteral();
+        }
+        throw error(current, "Expected expression");
+    }
+
+    private AstExpr parseArrayLiteral() {
+        if (checkSymbol("]")) {
+            throw error(current, "Array literal needs at least one element");
+        }
+        AstExpr first = parseExpr();
+        if (matchSymbol(";")) {
+            int count = arrayLength();
+            expectSymbol("]");
+            return AstArrayExpr.repeat(first, count);
+        }
+        List<AstExpr> elements = new ArrayList<>();
+        elements.add(first);
+        while (matchSymbol(",")) {
+            if (checkSymbol("]")) {
+                break;
+            }
+            elements.add(parseExpr());
+        }
+        expectSymbol("]");
+        return AstArrayExpr.list(elements);
+    }
+
+    // Array lengths are part of the type, so they must be plain i32 literals.
+    private int arrayLength() {
+        String literal = expect(Token.TokenKind.NUMBER, "Expected array length");
+        try {
+            return Integer.parseInt(literal);
+        } catch (NumberFormatException error) {
+            throw error(current - 1, "Array length must be an i32 literal");
+        }
     }
 
     private void skipOuterAttributes() {
@@ -466,7 +548,7 @@ public final class Parser implements ParserStrategy {
             int depth = 1;
             while (depth > 0) {
                 if (isAtEnd()) {
-                    throw error(previous(), "Unterminated attribute");
+                    throw error(current - 1, "Unterminated attribute");
                 }
                 if (matchSymbol("[")) {
                     depth++;
@@ -531,9 +613,9 @@ public final class Parser implements ParserStrategy {
     }
 
     private AstStmt parseFor(String label) {
-        Token name = expect(Token.TokenKind.IDENT, "Expected loop variable name");
+        String name = expect(Token.TokenKind.IDENT, "Expected loop variable name");
         if (!matchKeyword("in")) {
-            throw error(peek(), "Expected 'in' after loop variable");
+            throw error(current, "Expected 'in' after loop variable");
         }
         AstExpr start = parseExpr();
         boolean inclusive;
@@ -545,7 +627,7 @@ public final class Parser implements ParserStrategy {
         }
         AstExpr end = parseExpr();
         List<AstStmt> body = parseBlock();
-        return new AstForStmt(label, name.lexeme(), start, end, inclusive, body);
+        return new AstForStmt(label, name, start, end, inclusive, body);
     }
 
     private AstExpr parseIfExpr() {
@@ -555,7 +637,7 @@ public final class Parser implements ParserStrategy {
         allowStructInit = previous;
         AstExpr thenExpr = parseBlockExpr();
         if (!matchKeyword("else")) {
-            throw error(peek(), "if expression requires else");
+            throw error(current, "if expression requires else");
         }
         AstExpr elseExpr;
         if (matchKeyword("if")) {
@@ -611,7 +693,7 @@ public final class Parser implements ParserStrategy {
                     statements.add(parseLoopStmt(label));
                     continue;
                 }
-                throw error(peek(), "Labels can only be applied to loops");
+                throw error(current, "Labels can only be applied to loops");
             }
             if (matchKeyword("let")) {
                 statements.add(parseLet());
@@ -674,37 +756,36 @@ public final class Parser implements ParserStrategy {
         }
         expectSymbol("}");
         if (value == null) {
-            throw error(previous(), "Block expression must end with a value");
+            throw error(current - 1, "Block expression must end with a value");
         }
         return new AstBlockExpr(statements, value);
     }
 
     private AstStmt parseAssign() {
-        Token name = expect(Token.TokenKind.IDENT, "Expected identifier");
-        String operator;
-        if (matchSymbol("=")) {
-            operator = "=";
-        } else if (matchSymbol("+=")) {
-            operator = "+=";
-        } else if (matchSymbol("-=")) {
-            operator = "-=";
-        } else if (matchSymbol("*=")) {
-            operator = "*=";
-        } else if (matchSymbol("/=")) {
-            operator = "/=";
-        } else {
-            throw error(peek(), "Expected assignment operator");
+        String name = expect(Token.TokenKind.IDENT, "Expected identifier");
+        String operator = matchAssignmentOperator();
+        if (operator == null) {
+            throw error(current, "Expected assignment operator");
         }
         AstExpr value = parseExpr();
         expectSymbol(";");
-        return new AstAssignStmt(name.lexeme(), operator, value);
+        return new AstAssignStmt(name, operator, value);
+    }
+
+    private String matchAssignmentOperator() {
+        for (String operator : ASSIGNMENT_OPERATORS) {
+            if (matchSymbol(operator)) {
+                return operator;
+            }
+        }
+        return null;
     }
 
     private AstStmt parseBreak() {
         String label = null;
         if (matchSymbol("'")) {
-            Token labelToken = expect(Token.TokenKind.IDENT, "Expected label after '''");
-            label = labelToken.lexeme();
+            String labelToken = expect(Token.TokenKind.IDENT, "Expected label after '''");
+            label = labelToken;
         }
         AstExpr expr = null;
         if (!checkSymbol(";")) {
@@ -717,8 +798,8 @@ public final class Parser implements ParserStrategy {
     private AstStmt parseContinue() {
         String label = null;
         if (matchSymbol("'")) {
-            Token labelToken = expect(Token.TokenKind.IDENT, "Expected label after '''");
-            label = labelToken.lexeme();
+            String labelToken = expect(Token.TokenKind.IDENT, "Expected label after '''");
+            label = labelToken;
         }
         expectSymbol(";");
         return new AstContinueStmt(label);
@@ -745,67 +826,74 @@ public final class Parser implements ParserStrategy {
     }
 
     private AstStruct parseStruct() {
-        Token name = expect(Token.TokenKind.IDENT, "Expected struct name");
+        String name = expect(Token.TokenKind.IDENT, "Expected struct name");
+        List<String> typeParams = parseTypeParams();
         expectSymbol("{");
         List<AstField> fields = new ArrayList<>();
         while (!checkSymbol("}") && !isAtEnd()) {
             matchKeyword("pub");
-            Token fieldName = expect(Token.TokenKind.IDENT, "Expected field name");
+            String fieldName = expect(Token.TokenKind.IDENT, "Expected field name");
             expectSymbol(":");
-            String fieldType = parseTypeName();
-            fields.add(new AstField(fieldName.lexeme(), fieldType));
+            AstType fieldType = parseType();
+            fields.add(AstField.of(fieldName, fieldType));
             if (!matchSymbol(",")) {
                 break;
             }
         }
         expectSymbol("}");
-        return new AstStruct(name.lexeme(), fields);
+        return new AstStruct(name, typeParams, fields);
     }
 
     private AstEnum parseEnum() {
-        Token name = expect(Token.TokenKind.IDENT, "Expected enum name");
+        String name = expect(Token.TokenKind.IDENT, "Expected enum name");
         expectSymbol("{");
         List<AstEnumVariant> variants = new ArrayList<>();
         while (!checkSymbol("}") && !isAtEnd()) {
-            Token variantName = expect(Token.TokenKind.IDENT, "Expected variant name");
-            String payloadType = null;
+            String variantName = expect(Token.TokenKind.IDENT, "Expected variant name");
+            AstType payloadType = null;
             if (matchSymbol("(")) {
-                payloadType = parseTypeName();
+                payloadType = parseType();
                 expectSymbol(")");
             }
-            variants.add(new AstEnumVariant(variantName.lexeme(), payloadType));
+            variants.add(AstEnumVariant.of(variantName, payloadType));
             if (!matchSymbol(",")) {
                 break;
             }
         }
         expectSymbol("}");
-        return new AstEnum(name.lexeme(), variants);
+        return new AstEnum(name, variants);
     }
 
     private List<String> parsePath() {
         List<String> segments = new ArrayList<>();
-        Token first = expect(Token.TokenKind.IDENT, "Expected identifier");
-        segments.add(first.lexeme());
+        String first = expect(Token.TokenKind.IDENT, "Expected identifier");
+        segments.add(first);
         while (matchDoubleColonPath()) {
-            Token segment = expect(Token.TokenKind.IDENT, "Expected identifier after '::'");
-            segments.add(segment.lexeme());
+            String segment = expect(Token.TokenKind.IDENT, "Expected identifier after '::'");
+            segments.add(segment);
         }
         return segments;
     }
 
-    private String parseTypeName() {
+    private AstType parseType() {
         if (matchSymbol("&")) {
             boolean mutable = matchKeyword("mut");
-            String inner = parseTypeName();
-            return mutable ? "&mut " + inner : "&" + inner;
+            return AstType.reference(parseType(), mutable);
+        }
+        if (matchSymbol("[")) {
+            AstType element = parseType();
+            expectSymbol(";");
+            int length = arrayLength();
+            expectSymbol("]");
+            return AstType.array(element, length);
         }
         if (check(Token.TokenKind.IDENT)) {
             List<String> path = parsePath();
             String base = String.join("::", path);
             if (matchSymbol("<")) {
-                List<String> typeArgs = new ArrayList<>();
+                List<AstType> typeArgs = new ArrayList<>();
                 while (true) {
-                    typeArgs.add(parseTypeName());
+                    typeArgs.add(parseType());
                     if (!matchSymbol(",")) {
                         break;
                     }
@@ -814,11 +902,11 @@ public final class Parser implements ParserStrategy {
                     }
                 }
                 expectSymbol(">");
-                return base + "<" + String.join(", ", typeArgs) + ">";
+                return AstType.generic(base, typeArgs);
             }
-            return base;
+            return AstType.named(base);
         }
-        throw error(peek(), "Expected type name");
+        throw error(current, "Expected type name");
     }
 
     private boolean match(Token.TokenKind kind) {
@@ -830,7 +918,7 @@ public final class Parser implements ParserStrategy {
     }
 
     private boolean matchKeyword(String keyword) {
-        if (check(Token.TokenKind.KEYWORD) && peek().lexeme().equals(keyword)) {
+        if (check(Token.TokenKind.KEYWORD) && tokens.lexemeEquals(current, keyword)) {
             advance();
             return true;
         }
@@ -838,23 +926,24 @@ public final class Parser implements ParserStrategy {
     }
 
     private boolean matchSymbol(String symbol) {
-        if (check(Token.TokenKind.SYMBOL) && peek().lexeme().equals(symbol)) {
+        if (check(Token.TokenKind.SYMBOL) && tokens.lexemeEquals(current, symbol)) {
             advance();
             return true;
         }
         return false;
     }
 
-    private Token expect(Token.TokenKind kind, String message) {
+    private String expect(Token.TokenKind kind, String message) {
         if (check(kind)) {
-            return advance();
+            advance();
+            return tokens.lexeme(current - 1);
         }
-        throw error(peek(), message);
+        throw error(current, message);
     }
 
     private void expectSymbol(String symbol) {
         if (!matchSymbol(symbol)) {
-            throw error(peek(), "Expected '" + symbol + "'");
+            throw error(current, "Expected '" + symbol + "'");
         }
     }
 
@@ -862,20 +951,17 @@ public final class Parser implements ParserStrategy {
         if (isAtEnd()) {
             return false;
         }
-        return peek().kind() == kind;
+        return tokens.kind(current) == kind;
     }
 
     private boolean matchDoubleColonPath() {
         if (!checkSymbol(":")) {
             return false;
         }
-        if (current + 2 >= tokens.size()) {
-            return false;
-        }
-        if (!tokens.get(current + 1).lexeme().equals(":")) {
+        if (!tokens.lexemeEquals(current + 1, ":")) {
             return false;
         }
-        if (tokens.get(current + 2).kind() != Token.TokenKind.IDENT) {
+        if (tokens.kind(current + 2) != Token.TokenKind.IDENT) {
             return false;
         }
         advance();
@@ -885,7 +971,7 @@ public final class Parser implements ParserStrategy {
 
     private boolean checkSymbol(String symbol) {
         if (check(Token.TokenKind.SYMBOL)) {
-            return peek().lexeme().equals(symbol);
+            return tokens.lexemeEquals(current, symbol);
         }
         return false;
     }
@@ -894,22 +980,22 @@ public final class Parser implements ParserStrategy {
         if (!check(Token.TokenKind.IDENT)) {
             return false;
         }
-        if (current + 1 >= tokens.size()) {
+        int next = current + 1;
+        if (tokens.kind(next) != Token.TokenKind.SYMBOL) {
             return false;
         }
-        Token next = tokens.get(current + 1);
-        return next.kind() == Token.TokenKind.SYMBOL
-            && ("=".equals(next.lexeme())
-                || "+=".equals(next.lexeme())
-                || "-=".equals(next.lexeme())
-                || "*=".equals(next.lexeme())
-                || "/=".equals(next.lexeme()));
+        for (String operator : ASSIGNMENT_OPERATORS) {
+            if (tokens.lexemeEquals(next, operator)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     private String parseLabel() {
         expectSymbol("'");
-        Token label = expect(Token.TokenKind.IDENT, "Expected label name");
-        return label.lexeme();
+        String label = expect(Token.TokenKind.IDENT, "Expected label name");
+        return label;
     }
 
     private AstExpr parseMatchExpr() {
@@ -937,7 +1023,7 @@ public final class Parser implements ParserStrategy {
                 continue;
             }
             if (!checkSymbol("}")) {
-                throw error(peek(), "Expected ',' or '}' after match arm");
+                throw error(current, "Expected ',' or '}' after match arm");
             }
         }
         expectSymbol("}");
@@ -955,13 +1041,13 @@ public final class Parser implements ParserStrategy {
                 String variantName = path.get(1);
                 String binding = null;
                 if (matchSymbol("(")) {
-                    Token bind = expect(Token.TokenKind.IDENT, "Expected binding name");
-                    binding = bind.lexeme();
+                    String bind = expect(Token.TokenKind.IDENT, "Expected binding name");
+                    binding = bind;
                     expectSymbol(")");
                 }
                 return AstMatchPattern.enumVariant(enumName, variantName, binding);
             }
-            throw error(peek(), "Unsupported match pattern");
+            throw error(current, "Unsupported match pattern");
         }
         if (matchKeyword("true")) {
             return AstMatchPattern.boolLiteral("true");
@@ -970,44 +1056,46 @@ public final class Parser implements ParserStrategy {
             return AstMatchPattern.boolLiteral("false");
         }
         if (match(Token.TokenKind.NUMBER)) {
-            String start = previous().lexeme();
+            String start = intPatternLiteral(current - 1);
             if (matchSymbol("..=")) {
-                Token end = expect(Token.TokenKind.NUMBER, "Expected range end");
-                return AstMatchPattern.range(start, end.lexeme(), true);
+                expect(Token.TokenKind.NUMBER, "Expected range end");
+                return AstMatchPattern.range(start, intPatternLiteral(current - 1), true);
             }
             if (matchSymbol("..")) {
-                Token end = expect(Token.TokenKind.NUMBER, "Expected range end");
-                return AstMatchPattern.range(start, end.lexeme(), false);
+                expect(Token.TokenKind.NUMBER, "Expected range end");
+                return AstMatchPattern.range(start, intPatternLiteral(current - 1), false);
             }
             return AstMatchPattern.intLiteral(start);
         }
         if (match(Token.TokenKind.STRING)) {
-            return AstMatchPattern.stringLiteral(previous().lexeme());
+            return AstMatchPattern.stringLiteral(tokens.lexeme(current - 1));
         }
-        throw error(peek(), "Unsupported match pattern");
+        throw error(current, "Unsupported match pattern");
     }
 
-    private Token advance() {
+    private void advance() {
         if (!isAtEnd()) {
             current++;
         }
-        return previous();
     }
 
     private boolean isAtEnd() {
-        return peek().kind() == Token.TokenKind.EOF;
-    }
-
-    private Token peek() {
-        return tokens.get(current);
+        return tokens.kind(current) == Token.TokenKind.EOF;
     }
 
-    private Token previous() {
-        return tokens.get(current - 1);
+    // Literal patterns compare against i32 targets, so typed literals (`5i64`, `1.5`) are rejected.
+    private String intPatternLiteral(int index) {
+        String literal = tokens.lexeme(index);
+        for (int i = 0; i < literal.length(); i++) {
+            if (!Character.isDigit(literal.charAt(i))) {
+                throw error(index, "Match patterns only support i32 literals");
+            }
+        }
+        return literal;
     }
 
-    private ParseException error(Token token, String message) {
-        String full = message + " at " + token.line() + ":" + token.column();
+    private ParseException error(int index, String message) {
+        String full = message + " at " + tokens.line(index) + ":" + tokens.column(index);
         if (diagnostics != null && sourceFile != null) {
             diagnostics.report(new Diagnostic(full, sourceFile.path()));
         }
@@ -2,4 +2,8 @@ package org.justlang.compiler;
 
 public interface ParserStrategy {
     AstModule parse(SourceFile sourceFile, java.util.List<Token> tokens, Diagnostics diagnostics);
+
+    default AstModule parseStream(SourceFile sourceFile, TokenStream tokens, Diagnostics diagnostics) {
+        return parse(sourceFile, TokenBuffer.drain(tokens), diagnostics);
+    }
 }
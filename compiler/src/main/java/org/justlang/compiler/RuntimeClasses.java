@@ -0,0 +1,31 @@
+package org.justlang.compiler;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Runtime support classes that generated programs call into. Their class files are copied from
+ * the compiler's own classpath into every output, so an emitted jar still runs on its own.
+ */
+final class RuntimeClasses {
+    private RuntimeClasses() {}
+
+    static byte[] stdout() {
+        return StdoutHolder.BYTES;
+    }
+
+    private static byte[] load(String internalName) {
+        try (InputStream in = RuntimeClasses.class.getResourceAsStream("/" + internalName + ".class")) {
+            if (in == null) {
+                throw new IllegalStateException("Missing runtime class: " + internalName);
+            }
+            return in.readAllBytes();
+        } catch (IOException error) {
+            throw new IllegalStateException("Cannot read runtime class: " + internalName, error);
+        }
+    }
+
+    private static final class StdoutHolder {
+        private static final byte[] BYTES = load("org/justlang/runtime/Stdout");
+    }
+}
@@ -1,21 +1,68 @@
 package org.justlang.compiler;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
+/**
+ * A source file's path and text. Files read from disk keep their raw UTF-8 bytes (memory-mapped
+ * when large) and only decode to a {@code String} when {@link #contents()} is first called; the
+ * lexer works on {@link #bytes()} directly.
+ */
 public final class SourceFile {
+    // Below this size a heap read is cheaper than setting up a mapping.
+    private static final long MAP_THRESHOLD = 16 * 1024;
+
     private final Path path;
-    private final String contents;
+    private volatile ByteBuffer bytes;
+    private volatile String contents;
 
     public SourceFile(Path path, String contents) {
         this.path = path;
         this.contents = contents;
     }
 
+    public SourceFile(Path path, ByteBuffer utf8) {
+        this.path = path;
+        this.bytes = utf8.slice().asReadOnlyBuffer();
+    }
+
+    public static SourceFile read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < MAP_THRESHOLD) {
+                return new SourceFile(path, ByteBuffer.wrap(Files.readAllBytes(path)));
+            }
+            // The mapping stays valid after the channel is closed.
+            return new SourceFile(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
     public Path path() {
         return path;
     }
 
+    /** UTF-8 bytes of the file as a read-only buffer indexed from 0. */
+    public ByteBuffer bytes() {
+        ByteBuffer current = bytes;
+        if (current == null) {
+            current = ByteBuffer.wrap(contents.getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer();
+            bytes = current;
+        }
+        return current.duplicate();
+    }
+
     public String contents() {
-        return contents;
+        String current = contents;
+        if (current == null) {
+            ByteBuffer source = bytes;
+            current = Utf8.decode(source, 0, source.limit());
+            contents = current;
+        }
+        return current;
     }
 }
@@ -1,7 +1,7 @@
 package org.justlang.compiler;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayDeque;
@@ -12,6 +12,11 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
@@ -49,6 +54,11 @@ public final class SourceLoader {
      *   <li>{@code stack} is used only to format a user-facing cycle path in diagnostics.</li>
      * </ul>
      *
+     * <p>Reading is decoupled from the walk: every newly discovered file is read and prescanned
+     * for imports on its own virtual thread, and that task immediately schedules the files it
+     * imports. The DFS itself stays sequential and only waits on the file it is visiting, so
+     * output order and error reporting match a serial walk while the I/O overlaps.
+     *
      * <p>Imports are resolved relative to the importing file's parent directory.
      *
      * <p>Complexity: {@code O(V + E)} file visits + import edges (ignoring IO).
@@ -58,65 +68,145 @@ public final class SourceLoader {
     }
 
     public List<SourceFile> loadFileGraph(Path entryPath, Map<String, Path> dependencyRoots) {
-        Map<Path, SourceFile> ordered = new LinkedHashMap<>();
-        Set<Path> onStack = new HashSet<>();
-        Deque<Path> stack = new ArrayDeque<>();
-        loadRecursive(entryPath.toAbsolutePath().normalize(), ordered, onStack, stack, dependencyRoots);
-        return new ArrayList<>(ordered.values());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            GraphWalk walk = new GraphWalk(executor, dependencyRoots);
+            walk.visit(walk.schedule(entryPath.toAbsolutePath().normalize()));
+            return new ArrayList<>(walk.ordered.values());
+        }
     }
 
     public SourceFile loadFile(Path path) {
         return read(path);
     }
 
-    /**
-     * DFS step for {@link #loadFileGraph(Path)}.
-     *
-     * <p>This is a standard "visited + recursion stack" graph walk:
-     * <ul>
-     *   <li>If {@code ordered} already contains {@code path}, it was fully processed and is skipped.</li>
-     *   <li>If {@code onStack} already contains {@code path}, a cycle exists and compilation fails.</li>
-     *   <li>Otherwise we read the file, recursively load its imports, and then insert it into {@code ordered}
-     *       (postorder) so that dependencies appear before dependents.</li>
-     * </ul>
-     */
-    private void loadRecursive(
+    /** A prefetched file: its source, resolved imports in order, and any deferred failure. */
+    private record GraphNode(
         Path path,
-        Map<Path, SourceFile> ordered,
-        Set<Path> onStack,
-        Deque<Path> stack,
-        Map<String, Path> dependencyRoots
+        boolean missing,
+        SourceFile source,
+        List<Path> imports,
+        RuntimeException readError,
+        RuntimeException importError
     ) {
-        if (ordered.containsKey(path)) {
-            return;
+    }
+
+    private final class GraphWalk {
+        private final ExecutorService executor;
+        private final Map<String, Path> dependencyRoots;
+        private final Map<Path, CompletableFuture<GraphNode>> nodes = new ConcurrentHashMap<>();
+        private final Map<Path, SourceFile> ordered = new LinkedHashMap<>();
+        private final Set<Path> onStack = new HashSet<>();
+        private final Deque<Path> stack = new ArrayDeque<>();
+
+        private GraphWalk(ExecutorService executor, Map<String, Path> dependencyRoots) {
+            this.executor = executor;
+            this.dependencyRoots = dependencyRoots;
+        }
+
+        private Path schedule(Path path) {
+            nodes.computeIfAbsent(path, key -> CompletableFuture.supplyAsync(() -> prefetch(key), executor));
+            return path;
         }
-        if (!Files.exists(path)) {
-            throw new RuntimeException("Missing imported source file: " + path);
+
+        /**
+         * Reads one file and schedules its imports. Failures are recorded on the node rather
+         * than thrown, so they surface at the point the serial walk would have hit them.
+         */
+        private GraphNode prefetch(Path path) {
+            if (!Files.exists(path)) {
+                return new GraphNode(path, true, null, List.of(), null, null);
+            }
+            SourceFile source;
+            try {
+                source = read(path);
+            } catch (RuntimeException error) {
+                return new GraphNode(path, false, null, List.of(), error, null);
+            }
+            List<Path> imports = new ArrayList<>();
+            RuntimeException importError = null;
+            for (String importPath : parseImports(source.bytes())) {
+                try {
+                    imports.add(schedule(resolveImportPath(path, importPath, dependencyRoots)));
+                } catch (RuntimeException error) {
+                    importError = error;
+                    break;
+                }
+            }
+            return new GraphNode(path, false, source, imports, null, importError);
         }
-        if (onStack.contains(path)) {
-            throw new RuntimeException("Import cycle detected: " + formatCycle(path, stack));
+
+        /**
+         * DFS step for {@link #loadFileGraph(Path)}.
+         *
+         * <p>This is a standard "visited + recursion stack" graph walk:
+         * <ul>
+         *   <li>If {@code ordered} already contains {@code path}, it was fully processed and is skipped.</li>
+         *   <li>If {@code onStack} already contains {@code path}, a cycle exists and compilation fails.</li>
+         *   <li>Otherwise we wait for the prefetched file, recursively load its imports, and then insert it
+         *       into {@code ordered} (postorder) so that dependencies appear before dependents.</li>
+         * </ul>
+         */
+        private void visit(Path path) {
+            if (ordered.containsKey(path)) {
+                return;
+            }
+            GraphNode node = await(path);
+            if (node.missing()) {
+                throw new RuntimeException("Missing imported source file: " + path);
+            }
+            if (onStack.contains(path)) {
+                throw new RuntimeException("Import cycle detected: " + formatCycle(path, stack));
+            }
+            if (node.readError() != null) {
+                throw node.readError();
+            }
+
+            onStack.add(path);
+            stack.push(path);
+            for (Path imported : node.imports()) {
+                visit(imported);
+            }
+            if (node.importError() != null) {
+                throw node.importError();
+            }
+            stack.pop();
+            onStack.remove(path);
+            ordered.put(path, node.source());
         }
 
-        onStack.add(path);
-        stack.push(path);
-        SourceFile source = read(path);
-        for (String importPath : parseImports(source.contents())) {
-            Path resolved = resolveImportPath(path, importPath, dependencyRoots);
-            loadRecursive(resolved, ordered, onStack, stack, dependencyRoots);
+        private GraphNode await(Path path) {
+            try {
+                return nodes.get(path).join();
+            } catch (CompletionException error) {
+                if (error.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw error;
+            }
         }
-        stack.pop();
-        onStack.remove(path);
-        ordered.put(path, source);
     }
 
-    private List<String> parseImports(String contents) {
+    // Imports may appear anywhere the parser accepts an item, so every line is checked; only
+    // lines starting with `import`/`mod` are decoded and matched.
+    private List<String> parseImports(ByteBuffer contents) {
         List<String> imports = new ArrayList<>();
-        String[] lines = contents.split("\\R");
-        for (String line : lines) {
-            String trimmed = line.trim();
-            if (trimmed.isEmpty() || trimmed.startsWith("//")) {
+        int limit = contents.limit();
+        int lineStart = 0;
+        while (lineStart < limit) {
+            int lineEnd = lineStart;
+            while (lineEnd < limit && contents.get(lineEnd) != '\n' && contents.get(lineEnd) != '\r') {
+                lineEnd++;
+            }
+            int first = lineStart;
+            while (first < lineEnd && contents.get(first) >= 0 && contents.get(first) <= ' ') {
+                first++;
+            }
+            int end = lineEnd;
+            lineStart = lineEnd + 1;
+            if (!startsWith(contents, first, end, "import") && !startsWith(contents, first, end, "mod")) {
                 continue;
             }
+            String trimmed = Utf8.decode(contents, first, end - first).trim();
             Matcher matcher = IMPORT_PATTERN.matcher(trimmed);
             if (matcher.matches()) {
                 imports.add(matcher.group(1));
@@ -130,6 +220,18 @@ public final class SourceLoader {
         return imports;
     }
 
+    private static boolean startsWith(ByteBuffer contents, int start, int end, String prefix) {
+        if (end - start < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (contents.get(start + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private Path resolveImportPath(Path currentFile, String importPath, Map<String, Path> dependencyRoots) {
         if (importPath.startsWith("mod:")) {
             String modulePath = importPath.substring("mod:".length());
@@ -206,7 +308,7 @@ public final class SourceLoader {
 
     private SourceFile read(Path path) {
         try {
-            return new SourceFile(path, Files.readString(path, StandardCharsets.UTF_8));
+            return SourceFile.read(path);
         } catch (IOException error) {
             throw new RuntimeException("Failed to read source file " + path, error);
         }
@@ -8,14 +8,18 @@ public final class StructRegistry {
     private final Map<String, StructDef> structs = new HashMap<>();
 
     public void register(AstStruct struct) {
-        structs.put(struct.name(), new StructDef(struct.name(), struct.fields()));
+        structs.put(struct.name(), new StructDef(struct.name(), struct.typeParams(), struct.fields()));
     }
 
     public StructDef find(String name) {
         return structs.get(name);
     }
 
-    public record StructDef(String name, List<AstField> fields) {
+    public record StructDef(String name, List<String> typeParams, List<AstField> fields) {
+        public boolean isGeneric() {
+            return !typeParams.isEmpty();
+        }
+
         public AstField field(String fieldName) {
             for (AstField field : fields) {
                 if (field.name().equals(fieldName)) {
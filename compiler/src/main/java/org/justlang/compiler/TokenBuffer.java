@@ -0,0 +1,176 @@
+package org.justlang.compiler;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Token stream stored as parallel primitive arrays over the UTF-8 source bytes. A token is its
+ * kind, byte offset, byte length and packed line/column; lexemes are only materialized on
+ * request, and {@link #lexemeEquals} compares in place. {@link #get} builds a {@link Token} view
+ * for callers that still want objects; the {@link TokenStream} accessors read past the end as EOF.
+ */
+public final class TokenBuffer extends AbstractList<Token> implements RandomAccess, TokenStream, TokenSink {
+    private static final Token.TokenKind[] KINDS = Token.TokenKind.values();
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final ByteBuffer source;
+    private byte[] kinds;
+    private int[] starts;
+    private int[] lengths;
+    private long[] positions;
+    // Only escaped string literals and tokens copied from a List<Token> carry a decoded value.
+    private String[] decoded;
+    private int size;
+
+    TokenBuffer(ByteBuffer source) {
+        this(source, INITIAL_CAPACITY);
+    }
+
+    TokenBuffer(ByteBuffer source, int capacity) {
+        this.source = source;
+        int initial = Math.max(capacity, 1);
+        this.kinds = new byte[initial];
+        this.starts = new int[initial];
+        this.lengths = new int[initial];
+        this.positions = new long[initial];
+    }
+
+    public static TokenBuffer of(List<Token> tokens) {
+        if (tokens instanceof TokenBuffer buffer) {
+            return buffer;
+        }
+        TokenBuffer buffer = new TokenBuffer(Utf8.EMPTY, tokens.size());
+        for (Token token : tokens) {
+            buffer.addDecoded(token.kind(), token.lexeme(), token.line(), token.column());
+        }
+        return buffer;
+    }
+
+    public static TokenBuffer drain(TokenStream tokens) {
+        if (tokens instanceof TokenBuffer buffer) {
+            return buffer;
+        }
+        TokenBuffer buffer = new TokenBuffer(Utf8.EMPTY);
+        for (int index = 0; ; index++) {
+            Token.TokenKind kind = tokens.kind(index);
+            buffer.addDecoded(kind, tokens.lexeme(index), tokens.line(index), tokens.column(index));
+            if (kind == Token.TokenKind.EOF) {
+                return buffer;
+            }
+        }
+    }
+
+    @Override
+    public void add(Token.TokenKind kind, int start, int length, int line, int column) {
+        ensureCapacity();
+        kinds[size] = (byte) kind.ordinal();
+        starts[size] = start;
+        lengths[size] = length;
+        positions[size] = pack(line, column);
+        size++;
+    }
+
+    @Override
+    public void addDecoded(Token.TokenKind kind, String value, int line, int column) {
+        ensureCapacity();
+        if (decoded == null) {
+            decoded = new String[kinds.length];
+        }
+        decoded[size] = value;
+        add(kind, 0, value.length(), line, column);
+    }
+
+    @Override
+    public Token.TokenKind kind(int index) {
+        index = slot(index);
+        return KINDS[kinds[index]];
+    }
+
+    @Override
+    public int line(int index) {
+        index = slot(index);
+        return (int) (positions[index] >>> 32);
+    }
+
+    @Override
+    public int column(int index) {
+        index = slot(index);
+        return (int) positions[index];
+    }
+
+    @Override
+    public String lexeme(int index) {
+        index = slot(index);
+        String value = decodedAt(index);
+        if (value != null) {
+            return value;
+        }
+        if (KINDS[kinds[index]] == Token.TokenKind.KEYWORD) {
+            String keyword = Lexer.keyword(source, starts[index], lengths[index]);
+            if (keyword != null) {
+                return keyword;
+            }
+        }
+        return Utf8.decode(source, starts[index], lengths[index]);
+    }
+
+    @Override
+    public boolean lexemeEquals(int index, String text) {
+        index = slot(index);
+        String value = decodedAt(index);
+        if (value != null) {
+            return value.equals(text);
+        }
+        return Utf8.regionEquals(source, starts[index], lengths[index], text);
+    }
+
+    @Override
+    public Token get(int index) {
+        checkIndex(index);
+        return new Token(kind(index), lexeme(index), line(index), column(index));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private String decodedAt(int index) {
+        return decoded == null ? null : decoded[index];
+    }
+
+    private void ensureCapacity() {
+        if (size < kinds.length) {
+            return;
+        }
+        int capacity = kinds.length * 2;
+        kinds = Arrays.copyOf(kinds, capacity);
+        starts = Arrays.copyOf(starts, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        positions = Arrays.copyOf(positions, capacity);
+        if (decoded != null) {
+            decoded = Arrays.copyOf(decoded, capacity);
+        }
+    }
+
+    private int slot(int index) {
+        if (index >= size && size > 0) {
+            return size - 1;
+        }
+        checkIndex(index);
+        return index;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Token index " + index + " out of bounds for length " + size);
+        }
+    }
+
+    private static long pack(int line, int column) {
+        return ((long) line << 32) | (column & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,7 @@
+package org.justlang.compiler;
+
+interface TokenSink {
+    void add(Token.TokenKind kind, int start, int length, int line, int column);
+
+    void addDecoded(Token.TokenKind kind, String value, int line, int column);
+}
@@ -0,0 +1,18 @@
+package org.justlang.compiler;
+
+/**
+ * Token access by absolute index. Implementations may lex lazily and only retain a small
+ * window around the furthest token read, so callers should look at most a few tokens behind
+ * or ahead of their position. Indices past the end read as the trailing EOF token.
+ */
+public interface TokenStream {
+    Token.TokenKind kind(int index);
+
+    String lexeme(int index);
+
+    boolean lexemeEquals(int index, String text);
+
+    int line(int index);
+
+    int column(int index);
+}
@@ -0,0 +1,111 @@
+package org.justlang.compiler;
+
+import java.nio.ByteBuffer;
+
+/**
+ * {@link TokenStream} that pulls tokens from a producer on demand and keeps them in a fixed
+ * ring, so a file is lexed and parsed in one pass with constant token memory. The ring covers
+ * the parser's lookbehind of one token and lookahead of two with room to spare; reading a
+ * token that has already been overwritten is a parser bug and fails fast.
+ */
+public final class TokenWindow implements TokenStream, TokenSink {
+    private static final Token.TokenKind[] KINDS = Token.TokenKind.values();
+    private static final int CAPACITY = 8;
+    private static final int MASK = CAPACITY - 1;
+
+    @FunctionalInterface
+    interface Producer {
+        /** Appends the next token to the sink; returns false once EOF has been appended. */
+        boolean next(TokenSink sink);
+    }
+
+    private final ByteBuffer source;
+    private final Producer producer;
+    private final byte[] kinds = new byte[CAPACITY];
+    private final int[] starts = new int[CAPACITY];
+    private final int[] lengths = new int[CAPACITY];
+    private final long[] positions = new long[CAPACITY];
+    private final String[] decoded = new String[CAPACITY];
+    private int produced;
+    private boolean exhausted;
+
+    TokenWindow(ByteBuffer source, Producer producer) {
+        this.source = source;
+        this.producer = producer;
+    }
+
+    @Override
+    public Token.TokenKind kind(int index) {
+        return KINDS[kinds[slot(index)]];
+    }
+
+    @Override
+    public String lexeme(int index) {
+        int slot = slot(index);
+        if (decoded[slot] != null) {
+            return decoded[slot];
+        }
+        if (KINDS[kinds[slot]] == Token.TokenKind.KEYWORD) {
+            String keyword = Lexer.keyword(source, starts[slot], lengths[slot]);
+            if (keyword != null) {
+                return keyword;
+            }
+        }
+        return Utf8.decode(source, starts[slot], lengths[slot]);
+    }
+
+    @Override
+    public boolean lexemeEquals(int index, String text) {
+        int slot = slot(index);
+        if (decoded[slot] != null) {
+            return decoded[slot].equals(text);
+        }
+        return Utf8.regionEquals(source, starts[slot], lengths[slot], text);
+    }
+
+    @Override
+    public int line(int index) {
+        return (int) (positions[slot(index)] >>> 32);
+    }
+
+    @Override
+    public int column(int index) {
+        return (int) positions[slot(index)];
+    }
+
+    @Override
+    public void add(Token.TokenKind kind, int start, int length, int line, int column) {
+        int slot = produced & MASK;
+        kinds[slot] = (byte) kind.ordinal();
+        starts[slot] = start;
+        lengths[slot] = length;
+        positions[slot] = ((long) line << 32) | (column & 0xFFFFFFFFL);
+        decoded[slot] = null;
+        produced++;
+    }
+
+    @Override
+    public void addDecoded(Token.TokenKind kind, String value, int line, int column) {
+        add(kind, 0, value.length(), line, column);
+        decoded[(produced - 1) & MASK] = value;
+    }
+
+    private int slot(int index) {
+        if (index < 0) {
+            throw new IndexOutOfBoundsException("Token index " + index + " is negative");
+        }
+        while (index >= produced && !exhausted) {
+            if (!producer.next(this)) {
+                exhausted = true;
+            }
+        }
+        if (produced == 0) {
+            throw new IllegalStateException("Token producer finished without emitting EOF");
+        }
+        int resolved = Math.min(index, produced - 1);
+        if (resolved < produced - CAPACITY) {
+            throw new IllegalStateException("Token " + index + " is outside the lookahead window");
+        }
+        return resolved & MASK;
+    }
+}
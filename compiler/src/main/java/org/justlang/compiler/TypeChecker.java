@@ -6,6 +6,7 @@ import java.util.ArrayList;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -18,19 +19,37 @@ public final class TypeChecker implements TypeCheckerStrategy {
     private BorrowFlowAnalyzer borrowFlow;
     private Path currentFunctionSourcePath;
     private String currentFunctionModule = "main";
-    private Map<String, String> currentUseAliases = Map.of();
-
-    public TypedModule typeCheck(HirModule module) {
-        throw new UnsupportedOperationException("Type checker not implemented yet");
-    }
+    private List<String> currentTypeParams = List.of();
+    private Map<AstType, TypeId> resolvedTypes;
+    private TypedModule typed;
+    private HirModule hir;
 
     @Override
     public TypeResult typeCheck(AstModule module) {
+        return typeCheck(new NameResolver().resolve(module));
+    }
+
+    public TypeResult typeCheck(HirModule module) {
+        resolvedTypes = new IdentityHashMap<>();
+        typed = new TypedModule(module);
+        hir = module;
+        try {
+            return typeCheckModule(module.module());
+        } finally {
+            resolvedTypes = null;
+            typed = null;
+            hir = null;
+        }
+    }
+
+    private TypeResult typeCheckModule(AstModule module) {
         TypeEnvironment diagnostics = new TypeEnvironment();
         StructRegistry structs = new StructRegistry();
         EnumRegistry enums = new EnumRegistry();
         FunctionRegistry functions = new FunctionRegistry();
-        Map<Path, Map<String, String>> useAliasesBySource = collectUseAliases(module, diagnostics);
+        for (String error : hir.errors()) {
+            diagnostics.addError(error);
+        }
         boolean success = true;
 
         registerBuiltinEnums(enums);
@@ -61,10 +80,15 @@ public final class TypeChecker implements TypeCheckerStrategy {
                     diagnostics.addError("main does not accept parameters");
                     success = false;
                 }
+                if ("main".equals(fn.name()) && fn.isGeneric()) {
+                    diagnostics.addError("main cannot be generic");
+                    success = false;
+                }
 
+                currentTypeParams = fn.typeParams();
                 List<TypeId> paramTypes = new ArrayList<>();
                 for (AstParam param : fn.params()) {
-                    TypeId paramType = resolveTypeName(param.type(), structs, enums);
+                    TypeId paramType = resolveType(param.typeNode(), structs, enums);
                     if (paramType == TypeId.UNKNOWN) {
                         diagnostics.addError("Unknown parameter type: " + param.type());
                         success = false;
@@ -80,7 +104,8 @@ public final class TypeChecker implements TypeCheckerStrategy {
                     paramTypes.add(paramType);
                 }
 
-                TypeId returnType = resolveReturnType(fn.returnType(), structs, enums, diagnostics);
+                TypeId returnType = resolveReturnType(fn.returnTypeNode(), structs, enums, diagnostics);
+                currentTypeParams = List.of();
                 if (returnType == TypeId.UNKNOWN) {
                     success = false;
                 }
@@ -89,8 +114,9 @@ public final class TypeChecker implements TypeCheckerStrategy {
                     success = false;
                 }
 
-                String moduleName = moduleNameFor(fn.sourcePath());
+                String moduleName = hir.moduleName(fn.sourcePath());
                 functions.register(
+                    hir.functionId(fn),
                     fn.name(),
                     new FunctionRegistry.FunctionSig(
                         fn.name(),
@@ -98,7 +124,8 @@ public final class TypeChecker implements TypeCheckerStrategy {
                         paramTypes,
                         moduleName,
                         fn.sourcePath(),
-                        fn.isPublicItem()
+                        fn.isPublicItem(),
+                        fn.typeParams().stream().map(TypeId::param).toList()
                     )
                 );
             }
@@ -106,7 +133,7 @@ public final class TypeChecker implements TypeCheckerStrategy {
 
         for (AstItem item : module.items()) {
             if (item instanceof AstFunction fn) {
-                if (!checkFunction(fn, structs, enums, functions, diagnostics, useAliasesBySource)) {
+                if (!checkFunction(fn, structs, enums, functions, diagnostics)) {
                     success = false;
                 }
                 continue;
@@ -117,7 +144,7 @@ public final class TypeChecker implements TypeCheckerStrategy {
             }
         }
 
-        return new TypeResult(success, diagnostics);
+        return new TypeResult(success, diagnostics, typed);
     }
 
     private boolean checkFunction(
@@ -125,11 +152,26 @@ public final class TypeChecker implements TypeCheckerStrategy {
         StructRegistry structs,
         EnumRegistry enums,
         FunctionRegistry functions,
-        TypeEnvironment diagnostics,
-        Map<Path, Map<String, String>> useAliasesBySource
+        TypeEnvironment diagnostics
+    ) {
+        List<String> previousTypeParams = currentTypeParams;
+        currentTypeParams = fn.typeParams();
+        try {
+            return checkFunctionBody(fn, structs, enums, functions, diagnostics);
+        } finally {
+            currentTypeParams = previousTypeParams;
+        }
+    }
+
+    private boolean checkFunctionBody(
+        AstFunction fn,
+        StructRegistry structs,
+        EnumRegistry enums,
+        FunctionRegistry functions,
+        TypeEnvironment diagnostics
     ) {
         boolean success = true;
-        TypeId expectedReturn = resolveReturnType(fn.returnType(), structs, enums, diagnostics);
+        TypeId expectedReturn = resolveReturnType(fn.returnTypeNode(), structs, enums, diagnostics);
         if (expectedReturn == TypeId.UNKNOWN) {
             return false;
         }
@@ -151,12 +193,10 @@ public final class TypeChecker implements TypeCheckerStrategy {
         BorrowFlowAnalyzer previousBorrowFlow = borrowFlow;
         Path previousSource = currentFunctionSourcePath;
         String previousModule = currentFunctionModule;
-        Map<String, String> previousUseAliases = currentUseAliases;
         currentReturnType = expectedReturn;
         borrowFlow = BorrowFlowAnalyzer.lexical();
         currentFunctionSourcePath = fn.sourcePath();
-        currentFunctionModule = moduleNameFor(fn.sourcePath());
-        currentUseAliases = useAliasesBySource.getOrDefault(fn.sourcePath(), Map.of());
+        currentFunctionModule = hir.moduleName(fn.sourcePath());
         if (!checkBlock(fn.body(), locals, structs, enums, functions, expectedReturn, diagnostics)) {
             success = false;
         }
@@ -164,7 +204,6 @@ public final class TypeChecker implements TypeCheckerStrategy {
         borrowFlow = previousBorrowFlow;
         currentFunctionSourcePath = previousSource;
         currentFunctionModule = previousModule;
-        currentUseAliases = previousUseAliases;
 
         if (expectedReturn != TypeId.VOID && !endsWithReturnValue(fn.body())) {
             diagnostics.addError("Non-void functions must return on all paths");
@@ -197,7 +236,7 @@ public final class TypeChecker implements TypeCheckerStrategy {
                     }
                     TypeId declaredType = null;
                     if (letStmt.type() != null) {
-                        declaredType = resolveTypeName(letStmt.type(), structs, enums);
+                        declaredType = resolveType(letStmt.typeNode(), structs, enums);
                         if (declaredType == TypeId.UNKNOWN) {
                             diagnostics.addError("Unknown type: " + letStmt.type());
                             success = false;
@@ -231,6 +270,9 @@ public final class TypeChecker implements TypeCheckerStrategy {
                         borrowFlow.onBindingWrite(letStmt.name());
                     }
                     locals.define(letStmt.name(), finalType, letStmt.mutable());
+                    if (typed != null) {
+                        typed.recordBinding(letStmt, finalType);
+                    }
                     if (!registerPersistentBorrow(letStmt.name(), letStmt.initializer(), locals, diagnostics)) {
                         success = false;
                     }
@@ -276,7 +318,13 @@ public final class TypeChecker implements TypeCheckerStrategy {
                             success = false;
                         }
                     } else {
-                        if (binding.type() != TypeId.INT || valueType != TypeId.INT) {
+                        if (binding.type().isNumeric() && valueType.isNumeric()) {
+                            if (valueType != binding.type()) {
+                                diagnostics.addError("Compound assignment requires matching numeric operands: "
+                                    + binding.type() + " and " + valueType);
+                                success = false;
+                            }
+                        } else {
                             diagnostics.addError("Compound assignment requires int operands");
                             success = false;
                         }
@@ -295,6 +343,12 @@ public final class TypeChecker implements TypeCheckerStrategy {
                     }
                     continue;
                 }
+                if (stmt instanceof AstIndexAssignStmt indexAssignStmt) {
+                    if (!checkIndexAssign(indexAssignStmt, locals, structs, enums, functions, diagnostics)) {
+                        success = false;
+                    }
+                    continue;
+                }
             if (stmt instanceof AstExprStmt exprStmt) {
                 TypeId exprType = inferExpr(exprStmt.expr(), locals, structs, enums, functions, diagnostics);
                 if (exprType == TypeId.UNKNOWN) {
@@ -537,8 +591,123 @@ public final class TypeChecker implements TypeCheckerStrategy {
         return true;
     }
 
+    private boolean checkIndexAssign(
+        AstIndexAssignStmt stmt,
+        TypeEnvironment locals,
+        StructRegistry structs,
+        EnumRegistry enums,
+        FunctionRegistry functions,
+        TypeEnvironment diagnostics
+    ) {
+        AstExpr root = stmt.target();
+        while (root instanceof AstIndexExpr indexExpr) {
+            root = indexExpr.target();
+        }
+        if (!(root instanceof AstIdentExpr identExpr)) {
+            diagnostics.addError("Indexed assignment requires a named array");
+            return false;
+        }
+        TypeEnvironment.Binding binding = locals.lookup(identExpr.name());
+        if (binding == null) {
+            diagnostics.addError("Unknown identifier: " + identExpr.name());
+            return false;
+        }
+        // Writing through `&mut [T; N]` needs no `mut` on the reference binding itself.
+        if (!binding.mutable() && !binding.type().referenceMutable()) {
+            diagnostics.addError("Cannot assign to element of immutable array: " + identExpr.name());
+            return false;
+        }
+        if (borrowFlow != null && !borrowFlow.requireAssignable(identExpr.name(), diagnostics::addError)) {
+            return false;
+        }
+        TypeId elementType = inferExpr(stmt.target(), locals, structs, enums, functions, diagnostics);
+        TypeId valueType = inferExpr(stmt.value(), locals, structs, enums, functions, diagnostics);
+        if (elementType == TypeId.UNKNOWN || valueType == TypeId.UNKNOWN) {
+            return false;
+        }
+        if (!"=".equals(stmt.operator())) {
+            if (elementType.isNumeric() && valueType == elementType) {
+                return true;
+            }
+            diagnostics.addError(elementType.isNumeric() && valueType.isNumeric()
+                ? "Compound assignment requires matching numeric operands: " + elementType + " and " + valueType
+                : "Compound assignment requires int operands");
+            return false;
+        }
+        if (!isAssignable(elementType, valueType)) {
+            diagnostics.addError("Type mismatch in assignment to element of " + identExpr.name() + ": expected " + elementType + " got " + valueType);
+            return false;
+        }
+        return consumeMoveCandidate(stmt.value(), valueType, locals, diagnostics);
+    }
+
+    private TypeId inferArray(AstArrayExpr arrayExpr, TypeEnvironment locals, StructRegistry structs, EnumRegistry enums, FunctionRegistry functions, TypeEnvironment diagnostics) {
+        TypeId elementType = null;
+        for (AstExpr element : arrayExpr.elements()) {
+            TypeId type = inferExpr(element, locals, structs, enums, functions, diagnostics);
+            if (type == TypeId.UNKNOWN) {
+                return TypeId.UNKNOWN;
+            }
+            if (type == TypeId.VOID) {
+                diagnostics.addError("Array element cannot be void");
+                return TypeId.UNKNOWN;
+            }
+            if (elementType == null) {
+                elementType = type;
+            } else if (!isAssignable(elementType, type)) {
+                diagnostics.addError("Array elements must share one type: " + elementType + " and " + type);
+                return TypeId.UNKNOWN;
+            }
+            if (!consumeMoveCandidate(element, type, locals, diagnostics)) {
+                return TypeId.UNKNOWN;
+            }
+        }
+        // Every slot of `[value; N]` holds the same value, which is only sound when it is copied.
+        if (arrayExpr.isRepeat() && !isCopyType(elementType)) {
+            diagnostics.addError("Array repeat value must be a copy type: " + elementType);
+            return TypeId.UNKNOWN;
+        }
+        return TypeId.array(elementType, arrayExpr.length());
+    }
+
+    private TypeId inferIndex(AstIndexExpr indexExpr, TypeEnvironment locals, StructRegistry structs, EnumRegistry enums, FunctionRegistry functions, TypeEnvironment diagnostics) {
+        TypeId targetType = inferExpr(indexExpr.target(), locals, structs, enums, functions, diagnostics);
+        TypeId indexType = inferExpr(indexExpr.index(), locals, structs, enums, functions, diagnostics);
+        if (targetType == TypeId.UNKNOWN || indexType == TypeId.UNKNOWN) {
+            return TypeId.UNKNOWN;
+        }
+        TypeId arrayType = targetType;
+        while (arrayType.isReference()) {
+            arrayType = arrayType.referenceInner();
+        }
+        if (!arrayType.isArray()) {
+            diagnostics.addError("Indexing requires an array, got " + targetType);
+            return TypeId.UNKNOWN;
+        }
+        if (indexType != TypeId.INT) {
+            diagnostics.addError("Array index must be i32, got " + indexType);
+            return TypeId.UNKNOWN;
+        }
+        Integer constant = constantIndex(indexExpr.index());
+        if (constant != null && (constant < 0 || constant >= arrayType.arrayLength())) {
+            diagnostics.addError("Index " + constant + " is out of bounds for " + arrayType);
+            return TypeId.UNKNOWN;
+        }
+        return arrayType.arrayElement();
+    }
+
+    private static Integer constantIndex(AstExpr index) {
+        if (index instanceof AstNumberExpr numberExpr) {
+            return Integer.parseInt(numberExpr.digits());
+        }
+        if (index instanceof AstUnaryExpr unaryExpr && "-".equals(unaryExpr.operator()) && unaryExpr.expr() instanceof AstNumberExpr numberExpr) {
+            return -Integer.parseInt(numberExpr.digits());
+        }
+        return null;
+    }
+
     private boolean isCopyType(TypeId type) {
-        return type == TypeId.INT || type == TypeId.BOOL || type.isReference();
+        return type == TypeId.BOOL || type.isNumeric() || type.isReference();
     }
 
     private boolean checkIfLet(
@@ -625,11 +794,19 @@ public final class TypeChecker implements TypeCheckerStrategy {
     }
 
     private TypeId inferExpr(AstExpr expr, TypeEnvironment locals, StructRegistry structs, EnumRegistry enums, FunctionRegistry functions, TypeEnvironment diagnostics) {
+        TypeId type = inferExprType(expr, locals, structs, enums, functions, diagnostics);
+        if (typed != null) {
+            typed.recordExpr(expr, type);
+        }
+        return type;
+    }
+
+    private TypeId inferExprType(AstExpr expr, TypeEnvironment locals, StructRegistry structs, EnumRegistry enums, FunctionRegistry functions, TypeEnvironment diagnostics) {
         if (expr instanceof AstStringExpr) {
             return TypeId.STRING;
         }
-        if (expr instanceof AstNumberExpr) {
-            return TypeId.INT;
+        if (expr instanceof AstNumberExpr numberExpr) {
+            return inferNumber(numberExpr, diagnostics);
         }
         if (expr instanceof AstBoolExpr) {
             return TypeId.BOOL;
@@ -659,6 +836,7 @@ public final class TypeChecker implements TypeCheckerStrategy {
                     return TypeId.UNKNOWN;
                 }
             }
+            Map<TypeId, TypeId> bindings = def.isGeneric() ? new HashMap<>() : Map.of();
             for (AstFieldInit field : initExpr.fields()) {
                 AstField target = def.field(field.name());
                 if (target == null) {
@@ -666,11 +844,19 @@ public final class TypeChecker implements TypeCheckerStrategy {
                     return TypeId.UNKNOWN;
                 }
                 TypeId valueType = inferExpr(field.value(), locals, structs, enums, functions, diagnostics);
-                TypeId fieldType = resolveTypeName(target.type(), structs, enums);
+                TypeId fieldType = resolveFieldType(def, target, structs, enums);
                 if (fieldType == TypeId.UNKNOWN) {
                     diagnostics.addError("Unsupported field type: " + target.type());
                     return TypeId.UNKNOWN;
                 }
+                if (def.isGeneric()) {
+                    if (!TypeUnifier.bind(fieldType, valueType, bindings)) {
+                        TypeId expected = TypeUnifier.substitute(fieldType, bindings);
+                        diagnostics.addError("Type mismatch for field '" + field.name() + "': expected " + expected + " got " + valueType);
+                        return TypeId.UNKNOWN;
+                    }
+                    fieldType = TypeUnifier.substitute(fieldType, bindings);
+                }
                 if (!isAssignable(fieldType, valueType)) {
                     diagnostics.addError("Type mismatch for field '" + field.name() + "': expected " + fieldType + " got " + valueType);
                     return TypeId.UNKNOWN;
@@ -679,7 +865,10 @@ public final class TypeChecker implements TypeCheckerStrategy {
                     return TypeId.UNKNOWN;
                 }
             }
-            return TypeId.struct(def.name());
+            List<TypeId> typeArguments = inferredTypeArguments(
+                def.typeParams(), bindings, "struct " + def.name(), diagnostics
+            );
+            return typeArguments == null ? TypeId.UNKNOWN : TypeId.struct(def.name(), typeArguments);
         }
         if (expr instanceof AstFieldAccessExpr accessExpr) {
             TypeId targetType = inferExpr(accessExpr.target(), locals, structs, enums, functions, diagnostics);
@@ -697,7 +886,21 @@ public final class TypeChecker implements TypeCheckerStrategy {
                 diagnostics.addError("Unknown field '" + accessExpr.field() + "' on struct " + def.name());
                 return TypeId.UNKNOWN;
             }
-            return resolveTypeName(field.type(), structs, enums);
+            TypeId fieldType = resolveFieldType(def, field, structs, enums);
+            if (!def.isGeneric()) {
+                return fieldType;
+            }
+            Map<TypeId, TypeId> bindings = new HashMap<>();
+            for (int i = 0; i < def.typeParams().size(); i++) {
+                bindings.put(TypeId.param(def.typeParams().get(i)), targetType.typeArguments().get(i));
+            }
+            return TypeUnifier.substitute(fieldType, bindings);
+        }
+        if (expr instanceof AstArrayExpr arrayExpr) {
+            return inferArray(arrayExpr, locals, structs, enums, functions, diagnostics);
+        }
+        if (expr instanceof AstIndexExpr indexExpr) {
+            return inferIndex(indexExpr, locals, structs, enums, functions, diagnostics);
         }
         if (expr instanceof AstBinaryExpr binaryExpr) {
             return inferBinary(binaryExpr, locals, structs, enums, functions, diagnostics);
@@ -925,11 +1128,6 @@ public final class TypeChecker implements TypeCheckerStrategy {
                 diagnostics.addError("print expects at least one argument");
                 return TypeId.UNKNOWN;
             }
-            if (callExpr.args().size() > 2) {
-                diagnostics.addError("print supports at most a format string and one value");
-                return TypeId.UNKNOWN;
-            }
-
             TypeId firstType = inferExpr(callExpr.args().get(0), locals, structs, enums, functions, diagnostics);
             if (callExpr.args().size() == 1) {
                 if (!firstType.isPrintable()) {
@@ -943,20 +1141,32 @@ public final class TypeChecker implements TypeCheckerStrategy {
                 diagnostics.addError("formatted print requires first argument to be String");
                 return TypeId.UNKNOWN;
             }
-
-            TypeId valueType = inferExpr(callExpr.args().get(1), locals, structs, enums, functions, diagnostics);
-            if (!valueType.isPrintable()) {
-                diagnostics.addError("print does not support type: " + valueType);
+            int values = callExpr.args().size() - 1;
+            if (callExpr.args().get(0) instanceof AstStringExpr format) {
+                int placeholders = FormatString.placeholders(format.literal());
+                if (placeholders != values) {
+                    diagnostics.addError("format string has " + placeholders + " placeholder(s) but " + values + " value(s)");
+                    return TypeId.UNKNOWN;
+                }
+            } else if (values > 1) {
+                diagnostics.addError("print with several values requires a string literal format");
                 return TypeId.UNKNOWN;
             }
+
+            for (AstExpr valueExpr : callExpr.args().subList(1, callExpr.args().size())) {
+                TypeId valueType = inferExpr(valueExpr, locals, structs, enums, functions, diagnostics);
+                if (!valueType.isPrintable()) {
+                    diagnostics.addError("print does not support type: " + valueType);
+                    return TypeId.UNKNOWN;
+                }
+            }
             return TypeId.VOID;
         }
 
-        if (callExpr.callee().size() >= 2) {
-            String moduleName = String.join("::", callExpr.callee().subList(0, callExpr.callee().size() - 1));
-            String symbolName = callExpr.callee().get(callExpr.callee().size() - 1);
-            FunctionRegistry.FunctionSig qualifiedFunction = resolveQualifiedFunction(moduleName, symbolName, functions, diagnostics);
-            if (qualifiedFunction != null) {
+        HirModule.CallTarget target = hir.callTarget(callExpr);
+        if (target.kind() == HirModule.CallKind.QUALIFIED) {
+            FunctionRegistry.FunctionSig qualifiedFunction = functions.find(target.symbol());
+            if (qualifiedFunction != null && isFunctionVisible(qualifiedFunction, true, diagnostics)) {
                 return inferFunctionCallArgs(callExpr, qualifiedFunction, locals, structs, enums, functions, diagnostics);
             }
         }
@@ -1039,7 +1249,7 @@ public final class TypeChecker implements TypeCheckerStrategy {
                 return TypeId.UNKNOWN;
             }
             TypeId argType = inferExpr(callExpr.args().get(0), locals, structs, enums, functions, diagnostics);
-            TypeId payloadType = resolveTypeName(variant.payloadType(), structs, enums);
+            TypeId payloadType = resolveType(variant.payloadTypeNode(), structs, enums);
             if (payloadType == TypeId.UNKNOWN) {
                 diagnostics.addError("Unknown payload type: " + variant.payloadType());
                 return TypeId.UNKNOWN;
@@ -1064,7 +1274,7 @@ public final class TypeChecker implements TypeCheckerStrategy {
         }
 
         String name = callExpr.callee().get(0);
-        FunctionRegistry.FunctionSig sig = resolveUnqualifiedFunction(name, functions, diagnostics);
+        FunctionRegistry.FunctionSig sig = resolveUnqualifiedFunction(name, target, functions, diagnostics);
         if (sig == null) {
             return TypeId.UNKNOWN;
         }
@@ -1088,87 +1298,110 @@ public final class TypeChecker implements TypeCheckerStrategy {
             return TypeId.UNKNOWN;
         }
 
-        List<TypeId> paramTypes = sig.paramTypes();
+        Map<TypeId, TypeId> bindings = sig.isGeneric() ? new HashMap<>() : Map.of();
         for (int i = 0; i < callExpr.args().size(); i++) {
             TypeId argType = inferExpr(callExpr.args().get(i), locals, structs, enums, functions, diagnostics);
-            if (!isAssignable(paramTypes.get(i), argType)) {
-                diagnostics.addError("Argument " + (i + 1) + " of '" + name + "' expected " + paramTypes.get(i) + " got " + argType);
+            TypeId paramType = sig.paramTypes().get(i);
+            if (sig.isGeneric()) {
+                if (!TypeUnifier.bind(paramType, argType, bindings)) {
+                    TypeId expected = TypeUnifier.substitute(paramType, bindings);
+                    diagnostics.addError("Argument " + (i + 1) + " of '" + name + "' expected " + expected + " got " + argType);
+                    return TypeId.UNKNOWN;
+                }
+                paramType = TypeUnifier.substitute(paramType, bindings);
+            }
+            if (!isAssignable(paramType, argType)) {
+                diagnostics.addError("Argument " + (i + 1) + " of '" + name + "' expected " + paramType + " got " + argType);
                 return TypeId.UNKNOWN;
             }
             if (callExpr.args().get(i) instanceof AstIdentExpr identExpr) {
-                locals.refineType(identExpr.name(), paramTypes.get(i));
+                locals.refineType(identExpr.name(), paramType);
             }
-            if (!paramTypes.get(i).isReference() && !consumeMoveCandidate(callExpr.args().get(i), argType, locals, diagnostics)) {
+            if (!paramType.isReference() && !consumeMoveCandidate(callExpr.args().get(i), argType, locals, diagnostics)) {
                 return TypeId.UNKNOWN;
             }
         }
 
-        return sig.returnType();
+        if (!sig.isGeneric()) {
+            return sig.returnType();
+        }
+        List<String> typeParamNames = sig.typeParams().stream().map(TypeId::typeParamName).toList();
+        List<TypeId> typeArguments = inferredTypeArguments(typeParamNames, bindings, "'" + name + "'", diagnostics);
+        if (typeArguments == null) {
+            return TypeId.UNKNOWN;
+        }
+        typed.recordInstantiation(callExpr, typeArguments);
+        return TypeUnifier.substitute(sig.returnType(), bindings);
     }
 
-    private FunctionRegistry.FunctionSig resolveQualifiedFunction(
-        String moduleName,
-        String symbolName,
-        FunctionRegistry functions,
+    /**
+     * Reads the inferred argument for each declared parameter, or reports the first one the
+     * arguments left undetermined and returns null.
+     */
+    private List<TypeId> inferredTypeArguments(
+        List<String> typeParams,
+        Map<TypeId, TypeId> bindings,
+        String owner,
         TypeEnvironment diagnostics
     ) {
-        FunctionRegistry.FunctionSig sig = functions.find(symbolName);
-        if (sig == null) {
-            return null;
-        }
-        String normalizedModule = normalizeModuleName(moduleName);
-        if (!moduleName.equals(sig.moduleName()) && !normalizedModule.equals(sig.moduleName())) {
-            return null;
-        }
-        if (!isFunctionVisible(sig, true, diagnostics)) {
-            return null;
+        List<TypeId> typeArguments = new ArrayList<>(typeParams.size());
+        for (String typeParam : typeParams) {
+            TypeId bound = bindings.get(TypeId.param(typeParam));
+            if (bound == null) {
+                diagnostics.addError("Cannot infer type parameter '" + typeParam + "' of " + owner);
+                return null;
+            }
+            if (bound == TypeId.VOID) {
+                diagnostics.addError("Type parameter '" + typeParam + "' of " + owner + " cannot be void");
+                return null;
+            }
+            typeArguments.add(bound);
         }
-        return sig;
+        return typeArguments;
     }
 
     private FunctionRegistry.FunctionSig resolveUnqualifiedFunction(
         String functionName,
+        HirModule.CallTarget target,
         FunctionRegistry functions,
         TypeEnvironment diagnostics
     ) {
-        FunctionRegistry.FunctionSig local = functions.find(functionName);
-        if (local != null && isSameSource(local)) {
-            return local;
-        }
-
-        String aliasTarget = currentUseAliases.get(functionName);
-        if (aliasTarget != null) {
-            int separator = aliasTarget.lastIndexOf("::");
-            if (separator < 0) {
-                diagnostics.addError("Invalid use target for alias '" + functionName + "': " + aliasTarget);
+        switch (target.kind()) {
+            case LOCAL -> {
+                return functions.find(target.symbol());
+            }
+            case ALIAS -> {
+                FunctionRegistry.FunctionSig aliased = functions.find(target.symbol());
+                if (aliased == null || !isFunctionVisible(aliased, false, diagnostics)) {
+                    return null;
+                }
+                return aliased;
+            }
+            case INVALID_ALIAS -> {
+                diagnostics.addError("Invalid use target for alias '" + functionName + "': " + target.aliasTarget());
                 return null;
             }
-            String moduleName = normalizeModuleName(aliasTarget.substring(0, separator));
-            String symbolName = aliasTarget.substring(separator + 2);
-            FunctionRegistry.FunctionSig aliased = functions.find(symbolName);
-            if (aliased == null || !moduleName.equals(aliased.moduleName())) {
-                diagnostics.addError("Unknown use target: " + aliasTarget);
+            case UNKNOWN_ALIAS_TARGET -> {
+                diagnostics.addError("Unknown use target: " + target.aliasTarget());
                 return null;
             }
-            if (!isFunctionVisible(aliased, false, diagnostics)) {
+            case NOT_IMPORTED -> {
+                FunctionRegistry.FunctionSig local = functions.find(target.symbol());
+                if (local.publicItem()) {
+                    diagnostics.addError(
+                        "Function '" + functionName + "' from module '" + local.moduleName()
+                            + "' requires 'use " + local.moduleName() + "::" + local.name() + ";'"
+                    );
+                    return null;
+                }
+                diagnostics.addError("Function '" + functionName + "' is private to module '" + local.moduleName() + "'");
+                return null;
+            }
+            default -> {
+                diagnostics.addError("Unknown function: " + functionName);
                 return null;
             }
-            return aliased;
-        }
-
-        if (local == null) {
-            diagnostics.addError("Unknown function: " + functionName);
-            return null;
-        }
-        if (local.publicItem()) {
-            diagnostics.addError(
-                "Function '" + functionName + "' from module '" + local.moduleName()
-                    + "' requires 'use " + local.moduleName() + "::" + local.name() + ";'"
-            );
-            return null;
         }
-        diagnostics.addError("Function '" + functionName + "' is private to module '" + local.moduleName() + "'");
-        return null;
     }
 
     private boolean isFunctionVisible(FunctionRegistry.FunctionSig sig, boolean qualifiedCall, TypeEnvironment diagnostics) {
@@ -1190,30 +1423,56 @@ public final class TypeChecker implements TypeCheckerStrategy {
         return currentFunctionSourcePath.equals(sig.sourcePath());
     }
 
+    // The lexer only keeps known suffixes, so the literal's type is settled; its digits still
+    // have to fit that type (a leading `-` is a separate unary operator).
+    private TypeId inferNumber(AstNumberExpr number, TypeEnvironment diagnostics) {
+        TypeId type = number.type();
+        try {
+            if (type == TypeId.INT) {
+                Integer.parseInt(number.digits());
+            } else if (type == TypeId.I64) {
+                Long.parseLong(number.digits());
+            } else if (type == TypeId.U64) {
+                Long.parseUnsignedLong(number.digits());
+            } else if (!Double.isFinite(Double.parseDouble(number.digits()))
+                || type == TypeId.F32 && !Float.isFinite(Float.parseFloat(number.digits()))) {
+                throw new NumberFormatException();
+            }
+        } catch (NumberFormatException error) {
+            diagnostics.addError("Number literal " + number.literal() + " does not fit " + type);
+            return TypeId.UNKNOWN;
+        }
+        return type;
+    }
+
     private TypeId inferBinary(AstBinaryExpr expr, TypeEnvironment locals, StructRegistry structs, EnumRegistry enums, FunctionRegistry functions, TypeEnvironment diagnostics) {
         TypeId left = inferExpr(expr.left(), locals, structs, enums, functions, diagnostics);
         TypeId right = inferExpr(expr.right(), locals, structs, enums, functions, diagnostics);
         String op = expr.operator();
 
         if ("+".equals(op) || "-".equals(op) || "*".equals(op) || "/".equals(op)) {
-            if (left == TypeId.INT && right == TypeId.INT) {
-                return TypeId.INT;
+            if (left.isNumeric() && left == right) {
+                return left;
             }
-            diagnostics.addError("Arithmetic operator requires int operands");
+            diagnostics.addError(left.isNumeric() && right.isNumeric()
+                ? "Arithmetic operator requires matching numeric operands: " + left + " and " + right
+                : "Arithmetic operator requires int operands");
             return TypeId.UNKNOWN;
         }
 
         if ("<".equals(op) || "<=".equals(op) || ">".equals(op) || ">=".equals(op)) {
-            if (left == TypeId.INT && right == TypeId.INT) {
+            if (left.isNumeric() && left == right) {
                 return TypeId.BOOL;
             }
-            diagnostics.addError("Comparison operator requires int operands");
+            diagnostics.addError(left.isNumeric() && right.isNumeric()
+                ? "Comparison operator requires matching numeric operands: " + left + " and " + right
+                : "Comparison operator requires int operands");
             return TypeId.UNKNOWN;
         }
 
         if ("==".equals(op) || "!=".equals(op)) {
             if (left.equals(right)
-                && (left == TypeId.INT || left == TypeId.BOOL || left == TypeId.STRING || left == TypeId.ANY || left.isStruct() || left.isEnum())) {
+                && (left.isNumeric() || left == TypeId.BOOL || left == TypeId.STRING || left == TypeId.ANY || left.isStruct() || left.isEnum())) {
                 return TypeId.BOOL;
             }
             diagnostics.addError("Equality requires matching operand types");
@@ -1271,93 +1530,125 @@ public final class TypeChecker implements TypeCheckerStrategy {
             return TypeId.UNKNOWN;
         }
         if ("-".equals(expr.operator())) {
-            if (right == TypeId.INT) {
-                return TypeId.INT;
+            if (right.isSigned()) {
+                return right;
             }
-            diagnostics.addError("Unary - requires int operand");
+            diagnostics.addError(right == TypeId.U64 ? "Unary - cannot negate unsigned operand" : "Unary - requires int operand");
             return TypeId.UNKNOWN;
         }
         diagnostics.addError("Unsupported unary operator: " + expr.operator());
         return TypeId.UNKNOWN;
     }
 
-    private TypeId resolveReturnType(String name, StructRegistry structs, EnumRegistry enums, TypeEnvironment diagnostics) {
-        if (name == null) {
+    private TypeId resolveReturnType(AstType type, StructRegistry structs, EnumRegistry enums, TypeEnvironment diagnostics) {
+        if (type == null) {
             return TypeId.VOID;
         }
-        TypeId type = resolveTypeName(name, structs, enums);
-        if (type == TypeId.UNKNOWN) {
-            diagnostics.addError("Unknown type: " + name);
+        TypeId resolved = resolveType(type, structs, enums);
+        if (resolved == TypeId.UNKNOWN) {
+            diagnostics.addError("Unknown type: " + type);
         }
-        return type;
+        return resolved;
     }
 
-    private TypeId resolveTypeName(String name, StructRegistry structs, EnumRegistry enums) {
-        TypeId referenceType = parseReferenceType(name, structs, enums);
-        if (referenceType != null) {
-            return referenceType;
-        }
-        TypeId genericType = parseGenericType(name, structs, enums);
-        if (genericType != null) {
-            return genericType;
-        }
-        TypeId base = TypeId.fromTypeName(name);
-        if (base != TypeId.UNKNOWN) {
-            return base;
+    /** Resolves a struct field's declared type with the struct's own type parameters in scope. */
+    private TypeId resolveFieldType(StructRegistry.StructDef def, AstField field, StructRegistry structs, EnumRegistry enums) {
+        List<String> previousTypeParams = currentTypeParams;
+        currentTypeParams = def.typeParams();
+        try {
+            return resolveType(field.typeNode(), structs, enums);
+        } finally {
+            currentTypeParams = previousTypeParams;
         }
-        if (structs.find(name) != null) {
-            return TypeId.struct(name);
+    }
+
+    /**
+     * Resolves a declared type. During {@link #typeCheck(AstModule)} the registries are complete
+     * before the first lookup, so each declaration's node is resolved once and memoized by identity.
+     */
+    private TypeId resolveType(AstType type, StructRegistry structs, EnumRegistry enums) {
+        if (resolvedTypes == null) {
+            return resolveTypeUncached(type, structs, enums);
         }
-        if (enums.find(name) != null) {
-            return TypeId.enumType(name);
+        TypeId cached = resolvedTypes.get(type);
+        if (cached == null) {
+            cached = resolveTypeUncached(type, structs, enums);
+            resolvedTypes.put(type, cached);
         }
-        return TypeId.UNKNOWN;
+        return cached;
     }
 
-    private Map<Path, Map<String, String>> collectUseAliases(AstModule module, TypeEnvironment diagnostics) {
-        Map<Path, Map<String, String>> aliasesBySource = new HashMap<>();
-        for (AstItem item : module.items()) {
-            if (!(item instanceof AstUse useItem)) {
-                continue;
+    private TypeId resolveTypeUncached(AstType type, StructRegistry structs, EnumRegistry enums) {
+        switch (type.kind()) {
+            case REFERENCE -> {
+                TypeId innerType = resolveTypeUncached(type.referent(), structs, enums);
+                if (innerType == TypeId.UNKNOWN || innerType == TypeId.VOID) {
+                    return TypeId.UNKNOWN;
+                }
+                return TypeId.reference(innerType, type.mutable());
             }
-            Path source = useItem.sourcePath();
-            if (source == null) {
-                continue;
+            case ARRAY -> {
+                TypeId element = resolveTypeUncached(type.referent(), structs, enums);
+                if (element == TypeId.UNKNOWN || element == TypeId.VOID) {
+                    return TypeId.UNKNOWN;
+                }
+                return TypeId.array(element, type.length());
             }
-            Map<String, String> aliases = aliasesBySource.computeIfAbsent(source, ignored -> new HashMap<>());
-            String target = useItem.moduleName() + "::" + useItem.symbolName();
-            String previous = aliases.putIfAbsent(useItem.alias(), target);
-            if (previous != null && !previous.equals(target)) {
-                diagnostics.addError("Duplicate use alias '" + useItem.alias() + "' in module " + moduleNameFor(source));
+            case GENERIC -> {
+                List<AstType> arguments = type.arguments();
+                if ("Option".equals(type.name()) && arguments.size() == 1) {
+                    TypeId innerType = resolveTypeUncached(arguments.get(0), structs, enums);
+                    return innerType == TypeId.UNKNOWN ? TypeId.UNKNOWN : TypeId.option(innerType);
+                }
+                if ("Result".equals(type.name()) && arguments.size() == 2) {
+                    TypeId okType = resolveTypeUncached(arguments.get(0), structs, enums);
+                    TypeId errType = resolveTypeUncached(arguments.get(1), structs, enums);
+                    if (okType == TypeId.UNKNOWN || errType == TypeId.UNKNOWN) {
+                        return TypeId.UNKNOWN;
+                    }
+                    return TypeId.result(okType, errType);
+                }
+                StructRegistry.StructDef def = structs.find(type.name());
+                if (def != null && def.typeParams().size() == arguments.size()) {
+                    List<TypeId> typeArguments = new ArrayList<>(arguments.size());
+                    for (AstType argument : arguments) {
+                        TypeId argumentType = resolveTypeUncached(argument, structs, enums);
+                        if (argumentType == TypeId.UNKNOWN || argumentType == TypeId.VOID) {
+                            return TypeId.UNKNOWN;
+                        }
+                        typeArguments.add(argumentType);
+                    }
+                    return TypeId.struct(def.name(), typeArguments);
+                }
+                return TypeId.UNKNOWN;
+            }
+            default -> {
+                String name = type.name();
+                if (currentTypeParams.contains(name)) {
+                    return TypeId.param(name);
+                }
+                TypeId base = TypeId.fromTypeName(name);
+                if (base != TypeId.UNKNOWN) {
+                    return base;
+                }
+                // A generic struct is only a type once it has its arguments.
+                StructRegistry.StructDef def = structs.find(name);
+                if (def != null && def.isGeneric()) {
+                    return TypeId.UNKNOWN;
+                }
+                int symbol = hir != null ? hir.typeTarget(type) : HirModule.UNRESOLVED;
+                if (symbol != HirModule.UNRESOLVED) {
+                    return hir.symbol(symbol).kind() == HirModule.SymbolKind.STRUCT ? TypeId.struct(name) : TypeId.enumType(name);
+                }
+                if (def != null) {
+                    return TypeId.struct(name);
+                }
+                if (enums.find(name) != null) {
+                    return TypeId.enumType(name);
+                }
+                return TypeId.UNKNOWN;
             }
         }
-        return aliasesBySource;
-    }
-
-    private String moduleNameFor(Path sourcePath) {
-        if (sourcePath == null || sourcePath.getFileName() == null) {
-            return "main";
-        }
-        String fileName = sourcePath.getFileName().toString();
-        int dot = fileName.lastIndexOf('.');
-        String base = dot > 0 ? fileName.substring(0, dot) : fileName;
-        return base.replace('-', '_');
-    }
-
-    private String normalizeModuleName(String moduleName) {
-        String normalized = moduleName;
-        if (normalized.startsWith("crate::")) {
-            normalized = normalized.substring("crate::".length());
-        } else if (normalized.startsWith("self::")) {
-            normalized = normalized.substring("self::".length());
-        } else if (normalized.startsWith("super::")) {
-            normalized = normalized.substring("super::".length());
-        }
-        int lastSeparator = normalized.lastIndexOf("::");
-        if (lastSeparator >= 0 && lastSeparator + 2 < normalized.length()) {
-            return normalized.substring(lastSeparator + 2);
-        }
-        return normalized;
     }
 
     private void registerBuiltinEnums(EnumRegistry enums) {
@@ -1400,73 +1691,6 @@ public final class TypeChecker implements TypeCheckerStrategy {
         return expected.equals(actual);
     }
 
-    private TypeId parseReferenceType(String name, StructRegistry structs, EnumRegistry enums) {
-        String trimmed = name.trim();
-        if (!trimmed.startsWith("&")) {
-            return null;
-        }
-        boolean mutable = false;
-        String innerText;
-        if (trimmed.startsWith("&mut")) {
-            mutable = true;
-            innerText = trimmed.substring("&mut".length()).trim();
-        } else {
-            innerText = trimmed.substring(1).trim();
-        }
-        if (innerText.isEmpty()) {
-            return TypeId.UNKNOWN;
-        }
-        TypeId innerType = resolveTypeName(innerText, structs, enums);
-        if (innerType == TypeId.UNKNOWN || innerType == TypeId.VOID) {
-            return TypeId.UNKNOWN;
-        }
-        return TypeId.reference(innerType, mutable);
-    }
-
-    private TypeId parseGenericType(String name, StructRegistry structs, EnumRegistry enums) {
-        String trimmed = name.trim();
-        if (trimmed.startsWith("Option<") && trimmed.endsWith(">")) {
-            String innerText = trimmed.substring("Option<".length(), trimmed.length() - 1).trim();
-            TypeId innerType = resolveTypeName(innerText, structs, enums);
-            return innerType == TypeId.UNKNOWN ? TypeId.UNKNOWN : TypeId.option(innerType);
-        }
-        if (trimmed.startsWith("Result<") && trimmed.endsWith(">")) {
-            String innerText = trimmed.substring("Result<".length(), trimmed.length() - 1).trim();
-            int split = findTopLevelComma(innerText);
-            if (split < 0) {
-                return TypeId.UNKNOWN;
-            }
-            String okText = innerText.substring(0, split).trim();
-            String errText = innerText.substring(split + 1).trim();
-            TypeId okType = resolveTypeName(okText, structs, enums);
-            TypeId errType = resolveTypeName(errText, structs, enums);
-            if (okType == TypeId.UNKNOWN || errType == TypeId.UNKNOWN) {
-                return TypeId.UNKNOWN;
-            }
-            return TypeId.result(okType, errType);
-        }
-        return null;
-    }
-
-    private int findTopLevelComma(String text) {
-        int depth = 0;
-        for (int i = 0; i < text.length(); i++) {
-            char ch = text.charAt(i);
-            if (ch == '<') {
-                depth++;
-                continue;
-            }
-            if (ch == '>') {
-                depth--;
-                continue;
-            }
-            if (ch == ',' && depth == 0) {
-                return i;
-            }
-        }
-        return -1;
-    }
-
     private boolean isPrintCall(AstCallExpr callExpr) {
         if (callExpr.callee().size() == 1) {
             String name = callExpr.callee().get(0);
@@ -1580,7 +1804,7 @@ public final class TypeChecker implements TypeCheckerStrategy {
                 return false;
             }
             if (pattern.binding() != null) {
-                locals.define(pattern.binding(), targetType.optionInner(), false);
+                definePatternBinding(pattern, targetType.optionInner(), locals);
             }
             return true;
         }
@@ -1591,13 +1815,13 @@ public final class TypeChecker implements TypeCheckerStrategy {
             }
             if ("Ok".equals(pattern.variantName())) {
                 if (pattern.binding() != null) {
-                    locals.define(pattern.binding(), targetType.resultOk(), false);
+                    definePatternBinding(pattern, targetType.resultOk(), locals);
                 }
                 return true;
             }
             if ("Err".equals(pattern.variantName())) {
                 if (pattern.binding() != null) {
-                    locals.define(pattern.binding(), targetType.resultErr(), false);
+                    definePatternBinding(pattern, targetType.resultErr(), locals);
                 }
                 return true;
             }
@@ -1629,15 +1853,22 @@ public final class TypeChecker implements TypeCheckerStrategy {
             diagnostics.addError("Variant '" + variant.name() + "' does not bind a value");
             return false;
         }
-        TypeId payloadType = resolveTypeName(variant.payloadType(), structs, enums);
+        TypeId payloadType = resolveType(variant.payloadTypeNode(), structs, enums);
         if (payloadType == TypeId.UNKNOWN) {
             diagnostics.addError("Unknown payload type: " + variant.payloadType());
             return false;
         }
-        locals.define(pattern.binding(), payloadType, false);
+        definePatternBinding(pattern, payloadType, locals);
         return true;
     }
 
+    private void definePatternBinding(AstMatchPattern pattern, TypeId type, TypeEnvironment locals) {
+        locals.define(pattern.binding(), type, false);
+        if (typed != null) {
+            typed.recordBinding(pattern, type);
+        }
+    }
+
     private static final class LoopContext {
         private final String label;
         private final boolean allowsValue;
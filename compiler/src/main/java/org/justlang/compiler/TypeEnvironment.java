@@ -2,146 +2,161 @@ package org.justlang.compiler;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+/**
+ * Local bindings as a chain of frozen scopes plus a private overlay. {@link #fork()} freezes the
+ * overlay into a scope shared by both environments, so forking never copies bindings; updates
+ * only touch the overlay. Merges walk just the names either side rebound since the scope they
+ * last shared, which is exactly the set the old full-map merges could change.
+ */
 public final class TypeEnvironment {
-    private final Map<String, Binding> locals = new HashMap<>();
+    // Chains deeper than this are flattened on the next freeze to keep lookups short.
+    private static final int MAX_DEPTH = 32;
+
+    private Scope scope;
+    private Map<String, Binding> overlay = new HashMap<>();
     private final List<String> errors = new ArrayList<>();
     private final List<String> warnings = new ArrayList<>();
 
     public void define(String name, TypeId type, boolean mutable) {
-        locals.put(name, new Binding(type, mutable, false));
+        overlay.put(name, new Binding(type, mutable, false));
     }
 
     public TypeEnvironment fork() {
+        freeze();
         TypeEnvironment forked = new TypeEnvironment();
-        forked.locals.putAll(this.locals);
+        forked.scope = scope;
         return forked;
     }
 
     public Binding lookup(String name) {
-        return locals.get(name);
+        Binding binding = overlay.get(name);
+        if (binding != null) {
+            return binding;
+        }
+        for (Scope current = scope; current != null; current = current.parent()) {
+            binding = current.bindings().get(name);
+            if (binding != null) {
+                return binding;
+            }
+        }
+        return null;
     }
 
     public void markMoved(String name) {
-        Binding binding = locals.get(name);
+        Binding binding = lookup(name);
         if (binding == null) {
             return;
         }
-        locals.put(name, new Binding(binding.type(), binding.mutable(), true));
+        update(name, binding, binding.type(), true);
     }
 
     public void clearMoved(String name) {
-        Binding binding = locals.get(name);
+        Binding binding = lookup(name);
         if (binding == null) {
             return;
         }
-        locals.put(name, new Binding(binding.type(), binding.mutable(), false));
+        update(name, binding, binding.type(), false);
     }
 
     public void setType(String name, TypeId type) {
-        Binding binding = locals.get(name);
+        Binding binding = lookup(name);
         if (binding == null) {
             return;
         }
-        locals.put(name, new Binding(type, binding.mutable(), binding.moved()));
+        update(name, binding, type, binding.moved());
     }
 
     public void refineType(String name, TypeId constraint) {
-        Binding binding = locals.get(name);
+        Binding binding = lookup(name);
         if (binding == null) {
             return;
         }
-        TypeId refined = TypeUnifier.refine(binding.type(), constraint);
-        if (!refined.equals(binding.type())) {
-            locals.put(name, new Binding(refined, binding.mutable(), binding.moved()));
-        }
+        update(name, binding, TypeUnifier.refine(binding.type(), constraint), binding.moved());
     }
 
     public void joinType(String name, TypeId other) {
-        Binding binding = locals.get(name);
+        Binding binding = lookup(name);
         if (binding == null) {
             return;
         }
-        TypeId joined = TypeUnifier.join(binding.type(), other);
-        if (!joined.equals(binding.type())) {
-            locals.put(name, new Binding(joined, binding.mutable(), binding.moved()));
-        }
+        update(name, binding, TypeUnifier.join(binding.type(), other), binding.moved());
     }
 
     public void mergeMovedFrom(TypeEnvironment other) {
-        for (String name : new ArrayList<>(locals.keySet())) {
-            Binding current = locals.get(name);
-            Binding branch = other.locals.get(name);
+        for (String name : changedNames(List.of(other))) {
+            Binding current = lookup(name);
+            Binding branch = other.lookup(name);
             boolean moved = current.moved() || (branch != null && branch.moved());
-            locals.put(name, new Binding(current.type(), current.mutable(), moved));
+            update(name, current, current.type(), moved);
         }
     }
 
     public void mergeTypesFrom(TypeEnvironment other) {
-        for (String name : new ArrayList<>(locals.keySet())) {
-            Binding current = locals.get(name);
-            Binding branch = other.locals.get(name);
+        for (String name : changedNames(List.of(other))) {
+            Binding current = lookup(name);
+            Binding branch = other.lookup(name);
             if (branch == null) {
                 continue;
             }
-            TypeId type = TypeUnifier.join(current.type(), branch.type());
-            locals.put(name, new Binding(type, current.mutable(), current.moved()));
+            update(name, current, TypeUnifier.join(current.type(), branch.type()), current.moved());
         }
     }
 
     public void adoptMovedFrom(TypeEnvironment other) {
-        for (String name : new ArrayList<>(locals.keySet())) {
-            Binding current = locals.get(name);
-            Binding branch = other.locals.get(name);
+        for (String name : changedNames(List.of(other))) {
+            Binding current = lookup(name);
+            Binding branch = other.lookup(name);
             if (branch == null) {
                 continue;
             }
-            locals.put(name, new Binding(current.type(), current.mutable(), branch.moved()));
+            update(name, current, current.type(), branch.moved());
         }
     }
 
     public void adoptTypesFrom(TypeEnvironment other) {
-        for (String name : new ArrayList<>(locals.keySet())) {
-            Binding current = locals.get(name);
-            Binding branch = other.locals.get(name);
+        for (String name : changedNames(List.of(other))) {
+            Binding current = lookup(name);
+            Binding branch = other.lookup(name);
             if (branch == null) {
                 continue;
             }
-            locals.put(name, new Binding(branch.type(), current.mutable(), current.moved()));
+            update(name, current, branch.type(), current.moved());
         }
     }
 
     public void joinMovedFrom(TypeEnvironment left, TypeEnvironment right) {
-        for (String name : new ArrayList<>(locals.keySet())) {
-            Binding current = locals.get(name);
-            Binding leftBinding = left.locals.get(name);
-            Binding rightBinding = right.locals.get(name);
+        for (String name : changedNames(List.of(left, right))) {
+            Binding current = lookup(name);
+            Binding leftBinding = left.lookup(name);
+            Binding rightBinding = right.lookup(name);
             boolean moved = (leftBinding != null && leftBinding.moved())
                 || (rightBinding != null && rightBinding.moved());
-            locals.put(name, new Binding(current.type(), current.mutable(), moved));
+            update(name, current, current.type(), moved);
         }
     }
 
     public void joinTypesFrom(TypeEnvironment left, TypeEnvironment right) {
-        for (String name : new ArrayList<>(locals.keySet())) {
-            Binding current = locals.get(name);
-            Binding leftBinding = left.locals.get(name);
-            Binding rightBinding = right.locals.get(name);
+        for (String name : changedNames(List.of(left, right))) {
+            Binding current = lookup(name);
+            Binding leftBinding = left.lookup(name);
+            Binding rightBinding = right.lookup(name);
             TypeId leftType = leftBinding != null ? leftBinding.type() : current.type();
             TypeId rightType = rightBinding != null ? rightBinding.type() : current.type();
-            TypeId type = TypeUnifier.join(leftType, rightType);
-            locals.put(name, new Binding(type, current.mutable(), current.moved()));
+            update(name, current, TypeUnifier.join(leftType, rightType), current.moved());
         }
     }
 
     public boolean joinTypesFromStrict(TypeEnvironment left, TypeEnvironment right, java.util.function.Consumer<String> reportError) {
         boolean ok = true;
-        for (String name : new ArrayList<>(locals.keySet())) {
-            Binding current = locals.get(name);
-            Binding leftBinding = left.locals.get(name);
-            Binding rightBinding = right.locals.get(name);
+        for (String name : changedNames(List.of(left, right))) {
+            Binding current = lookup(name);
+            Binding leftBinding = left.lookup(name);
+            Binding rightBinding = right.lookup(name);
             TypeId leftType = leftBinding != null ? leftBinding.type() : current.type();
             TypeId rightType = rightBinding != null ? rightBinding.type() : current.type();
             TypeId joined = TypeUnifier.tryJoin(leftType, rightType);
@@ -150,32 +165,32 @@ public final class TypeEnvironment {
                 joined = TypeId.UNKNOWN;
                 ok = false;
             }
-            locals.put(name, new Binding(joined, current.mutable(), current.moved()));
+            update(name, current, joined, current.moved());
         }
         return ok;
     }
 
     public void joinMovedFromAll(List<TypeEnvironment> branches, boolean includeCurrentState) {
-        for (String name : new ArrayList<>(locals.keySet())) {
-            Binding current = locals.get(name);
+        for (String name : changedNames(branches)) {
+            Binding current = lookup(name);
             boolean moved = includeCurrentState && current.moved();
             for (TypeEnvironment branch : branches) {
-                Binding branchBinding = branch.locals.get(name);
+                Binding branchBinding = branch.lookup(name);
                 if (branchBinding != null && branchBinding.moved()) {
                     moved = true;
                     break;
                 }
             }
-            locals.put(name, new Binding(current.type(), current.mutable(), moved));
+            update(name, current, current.type(), moved);
         }
     }
 
     public void joinTypesFromAll(List<TypeEnvironment> branches, boolean includeCurrentState) {
-        for (String name : new ArrayList<>(locals.keySet())) {
-            Binding current = locals.get(name);
+        for (String name : changedNames(branches)) {
+            Binding current = lookup(name);
             TypeId type = includeCurrentState ? current.type() : null;
             for (TypeEnvironment branch : branches) {
-                Binding branchBinding = branch.locals.get(name);
+                Binding branchBinding = branch.lookup(name);
                 if (branchBinding == null) {
                     continue;
                 }
@@ -184,7 +199,7 @@ public final class TypeEnvironment {
             if (type == null) {
                 type = current.type();
             }
-            locals.put(name, new Binding(type, current.mutable(), current.moved()));
+            update(name, current, type, current.moved());
         }
     }
 
@@ -194,11 +209,11 @@ public final class TypeEnvironment {
         java.util.function.Consumer<String> reportError
     ) {
         boolean ok = true;
-        for (String name : new ArrayList<>(locals.keySet())) {
-            Binding current = locals.get(name);
+        for (String name : changedNames(branches)) {
+            Binding current = lookup(name);
             TypeId type = includeCurrentState ? current.type() : null;
             for (TypeEnvironment branch : branches) {
-                Binding branchBinding = branch.locals.get(name);
+                Binding branchBinding = branch.lookup(name);
                 if (branchBinding == null) {
                     continue;
                 }
@@ -220,7 +235,7 @@ public final class TypeEnvironment {
             if (type == null) {
                 type = current.type();
             }
-            locals.put(name, new Binding(type, current.mutable(), current.moved()));
+            update(name, current, type, current.moved());
         }
         return ok;
     }
@@ -241,5 +256,78 @@ public final class TypeEnvironment {
         return warnings;
     }
 
+    private void update(String name, Binding current, TypeId type, boolean moved) {
+        if (current.type() == type && current.moved() == moved) {
+            return;
+        }
+        overlay.put(name, new Binding(type, current.mutable(), moved));
+    }
+
+    private void freeze() {
+        if (overlay.isEmpty()) {
+            return;
+        }
+        if (scope != null && scope.depth() >= MAX_DEPTH) {
+            Map<String, Binding> flattened = new HashMap<>();
+            collectBindings(scope, flattened);
+            flattened.putAll(overlay);
+            scope = new Scope(null, flattened, 1);
+        } else {
+            scope = new Scope(scope, overlay, depth(scope) + 1);
+        }
+        overlay = new HashMap<>();
+    }
+
+    // Names bound in this environment that it or any branch rebound since they last shared a scope.
+    // Every other name holds the same binding on all sides, so merging it would be a no-op.
+    private Set<String> changedNames(List<TypeEnvironment> branches) {
+        Set<String> names = new HashSet<>(overlay.keySet());
+        if (branches.isEmpty()) {
+            collectNames(scope, null, names);
+        }
+        for (TypeEnvironment branch : branches) {
+            Scope shared = commonScope(scope, branch.scope);
+            collectNames(scope, shared, names);
+            names.addAll(branch.overlay.keySet());
+            collectNames(branch.scope, shared, names);
+        }
+        names.removeIf(name -> lookup(name) == null);
+        return names;
+    }
+
+    private static Scope commonScope(Scope left, Scope right) {
+        while (left != right) {
+            int leftDepth = depth(left);
+            int rightDepth = depth(right);
+            if (leftDepth >= rightDepth) {
+                left = left.parent();
+            }
+            if (rightDepth >= leftDepth) {
+                right = right.parent();
+            }
+        }
+        return left;
+    }
+
+    private static void collectNames(Scope from, Scope until, Set<String> names) {
+        for (Scope current = from; current != until; current = current.parent()) {
+            names.addAll(current.bindings().keySet());
+        }
+    }
+
+    private static void collectBindings(Scope scope, Map<String, Binding> into) {
+        if (scope == null) {
+            return;
+        }
+        collectBindings(scope.parent(), into);
+        into.putAll(scope.bindings());
+    }
+
+    private static int depth(Scope scope) {
+        return scope == null ? 0 : scope.depth();
+    }
+
     public record Binding(TypeId type, boolean mutable, boolean moved) {}
+
+    private record Scope(Scope parent, Map<String, Binding> bindings, int depth) {}
 }
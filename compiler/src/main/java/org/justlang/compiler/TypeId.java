@@ -1,46 +1,116 @@
 package org.justlang.compiler;
 
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * A hash-consed type: the factories return one canonical instance per structure, so equality is
+ * identity and the hash code is computed once at construction. Composite types are interned
+ * bottom-up, which keeps every child canonical as well. The intern tables hold their types
+ * weakly, so a long-lived process such as the compiler daemon drops the instantiations of past
+ * compiles once nothing refers to them.
+ */
 public final class TypeId {
+    private static final Interner<String> STRUCTS = new Interner<>();
+    private static final Interner<StructKey> STRUCT_INSTANCES = new Interner<>();
+    private static final Interner<String> PARAMS = new Interner<>();
+    private static final Interner<String> ENUMS = new Interner<>();
+    private static final Interner<TypeId> OPTIONS = new Interner<>();
+    private static final Interner<PairKey> RESULTS = new Interner<>();
+    private static final Interner<TypeId> SHARED_REFERENCES = new Interner<>();
+    private static final Interner<TypeId> MUTABLE_REFERENCES = new Interner<>();
+    private static final Interner<ArrayKey> ARRAYS = new Interner<>();
+
     private final Kind kind;
     private final String name;
     private final TypeId first;
     private final TypeId second;
     private final boolean mutableReference;
+    private final List<TypeId> arguments;
+    private final int length;
+    private final int hash;
 
-    public static final TypeId STRING = new TypeId(Kind.STRING, null, null, null, false);
-    public static final TypeId INT = new TypeId(Kind.INT, null, null, null, false);
-    public static final TypeId BOOL = new TypeId(Kind.BOOL, null, null, null, false);
-    public static final TypeId ANY = new TypeId(Kind.ANY, null, null, null, false);
-    public static final TypeId INFER = new TypeId(Kind.INFER, null, null, null, false);
-    public static final TypeId VOID = new TypeId(Kind.VOID, null, null, null, false);
-    public static final TypeId UNKNOWN = new TypeId(Kind.UNKNOWN, null, null, null, false);
+    public static final TypeId STRING = new TypeId(Kind.STRING, null, null, null, false, List.of());
+    public static final TypeId INT = new TypeId(Kind.INT, null, null, null, false, List.of());
+    public static final TypeId BOOL = new TypeId(Kind.BOOL, null, null, null, false, List.of());
+    public static final TypeId I64 = new TypeId(Kind.I64, null, null, null, false, List.of());
+    public static final TypeId U64 = new TypeId(Kind.U64, null, null, null, false, List.of());
+    public static final TypeId F32 = new TypeId(Kind.F32, null, null, null, false, List.of());
+    public static final TypeId F64 = new TypeId(Kind.F64, null, null, null, false, List.of());
+    public static final TypeId ANY = new TypeId(Kind.ANY, null, null, null, false, List.of());
+    public static final TypeId INFER = new TypeId(Kind.INFER, null, null, null, false, List.of());
+    public static final TypeId VOID = new TypeId(Kind.VOID, null, null, null, false, List.of());
+    public static final TypeId UNKNOWN = new TypeId(Kind.UNKNOWN, null, null, null, false, List.of());
+
+    private TypeId(Kind kind, String name, TypeId first, TypeId second, boolean mutableReference, List<TypeId> arguments) {
+        this(kind, name, first, second, mutableReference, arguments, 0);
+    }
 
-    private TypeId(Kind kind, String name, TypeId first, TypeId second, boolean mutableReference) {
+    private TypeId(Kind kind, String name, TypeId first, TypeId second, boolean mutableReference, List<TypeId> arguments, int length) {
         this.kind = kind;
         this.name = name;
         this.first = first;
         this.second = second;
         this.mutableReference = mutableReference;
+        this.arguments = arguments;
+        this.length = length;
+        // Structural rather than identity-based so hash iteration order is stable across runs.
+        int value = kind.ordinal();
+        value = 31 * value + Objects.hashCode(name);
+        value = 31 * value + (first == null ? 0 : first.hash);
+        value = 31 * value + (second == null ? 0 : second.hash);
+        value = 31 * value + arguments.hashCode();
+        value = 31 * value + length;
+        this.hash = 31 * value + (mutableReference ? 1 : 0);
     }
 
     public static TypeId struct(String name) {
-        return new TypeId(Kind.STRUCT, name, null, null, false);
+        return STRUCTS.intern(name, key -> new TypeId(Kind.STRUCT, key, null, null, false, List.of()));
+    }
+
+    /** An instantiation of a generic struct; with no arguments this is the plain struct type. */
+    public static TypeId struct(String name, List<TypeId> arguments) {
+        if (arguments.isEmpty()) {
+            return struct(name);
+        }
+        return STRUCT_INSTANCES.intern(
+            new StructKey(name, List.copyOf(arguments)),
+            key -> new TypeId(Kind.STRUCT, key.name(), null, null, false, key.arguments())
+        );
+    }
+
+    /** A declared type parameter, opaque until a specialization substitutes it. */
+    public static TypeId param(String name) {
+        return PARAMS.intern(name, key -> new TypeId(Kind.PARAM, key, null, null, false, List.of()));
     }
 
     public static TypeId enumType(String name) {
-        return new TypeId(Kind.ENUM, name, null, null, false);
+        return ENUMS.intern(name, key -> new TypeId(Kind.ENUM, key, null, null, false, List.of()));
     }
 
     public static TypeId option(TypeId inner) {
-        return new TypeId(Kind.OPTION, "Option", inner, null, false);
+        return OPTIONS.intern(inner, key -> new TypeId(Kind.OPTION, "Option", key, null, false, List.of()));
     }
 
     public static TypeId result(TypeId ok, TypeId err) {
-        return new TypeId(Kind.RESULT, "Result", ok, err, false);
+        return RESULTS.intern(new PairKey(ok, err), key -> new TypeId(Kind.RESULT, "Result", key.first(), key.second(), false, List.of()));
     }
 
     public static TypeId reference(TypeId inner, boolean mutable) {
-        return new TypeId(Kind.REF, null, inner, null, mutable);
+        Interner<TypeId> table = mutable ? MUTABLE_REFERENCES : SHARED_REFERENCES;
+        return table.intern(inner, key -> new TypeId(Kind.REF, null, key, null, mutable, List.of()));
+    }
+
+    /** A fixed-size array; the length is part of the type, so {@code [i32; 3]} and {@code [i32; 4]} differ. */
+    public static TypeId array(TypeId element, int length) {
+        return ARRAYS.intern(
+            new ArrayKey(element, length),
+            key -> new TypeId(Kind.ARRAY, null, key.element(), null, false, List.of(), key.length())
+        );
     }
 
     public static TypeId fromTypeName(String name) {
@@ -48,6 +118,10 @@ public final class TypeId {
             case "String", "std::String" -> STRING;
             case "i32", "int" -> INT;
             case "bool" -> BOOL;
+            case "i64" -> I64;
+            case "u64" -> U64;
+            case "f32" -> F32;
+            case "f64" -> F64;
             case "Any", "std::Any" -> ANY;
             case "void" -> VOID;
             default -> UNKNOWN;
@@ -55,7 +129,16 @@ public final class TypeId {
     }
 
     public boolean isPrintable() {
-        return this == STRING || this == INT || this == BOOL || this == ANY || isEnumLike();
+        return this == STRING || this == BOOL || this == ANY || isNumeric() || isEnumLike();
+    }
+
+    /** {@code i32}, {@code i64}, {@code u64}, {@code f32} or {@code f64}. */
+    public boolean isNumeric() {
+        return kind == Kind.INT || kind == Kind.I64 || kind == Kind.U64 || kind == Kind.F32 || kind == Kind.F64;
+    }
+
+    public boolean isSigned() {
+        return isNumeric() && kind != Kind.U64;
     }
 
     public boolean isStruct() {
@@ -74,6 +157,18 @@ public final class TypeId {
         return kind == Kind.REF;
     }
 
+    public boolean isArray() {
+        return kind == Kind.ARRAY;
+    }
+
+    public TypeId arrayElement() {
+        return kind == Kind.ARRAY ? first : null;
+    }
+
+    public int arrayLength() {
+        return kind == Kind.ARRAY ? length : -1;
+    }
+
     public TypeId referenceInner() {
         return kind == Kind.REF ? first : null;
     }
@@ -82,6 +177,34 @@ public final class TypeId {
         return kind == Kind.REF && mutableReference;
     }
 
+    public List<TypeId> typeArguments() {
+        return arguments;
+    }
+
+    public boolean isTypeParam() {
+        return kind == Kind.PARAM;
+    }
+
+    public String typeParamName() {
+        return kind == Kind.PARAM ? name : null;
+    }
+
+    /** Whether a type parameter occurs anywhere inside this type. */
+    public boolean mentionsTypeParam() {
+        if (kind == Kind.PARAM) {
+            return true;
+        }
+        if ((first != null && first.mentionsTypeParam()) || (second != null && second.mentionsTypeParam())) {
+            return true;
+        }
+        for (TypeId argument : arguments) {
+            if (argument.mentionsTypeParam()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public String structName() {
         return kind == Kind.STRUCT ? name : null;
     }
@@ -116,41 +239,94 @@ public final class TypeId {
             case STRING -> "String";
             case INT -> "Int";
             case BOOL -> "Bool";
+            case I64 -> "I64";
+            case U64 -> "U64";
+            case F32 -> "F32";
+            case F64 -> "F64";
             case ANY -> "Any";
             case INFER -> "_";
             case VOID -> "Void";
-            case STRUCT, ENUM -> name;
+            case STRUCT -> arguments.isEmpty() ? name : name + "<" + String.join(", ", arguments.stream().map(TypeId::toString).toList()) + ">";
+            case ENUM, PARAM -> name;
             case OPTION -> "Option<" + first + ">";
             case RESULT -> "Result<" + first + ", " + second + ">";
             case REF -> "&" + (mutableReference ? "mut " : "") + first;
+            case ARRAY -> "[" + first + "; " + length + "]";
             case UNKNOWN -> "Unknown";
         };
     }
 
     @Override
     public boolean equals(Object other) {
-        if (this == other) {
-            return true;
-        }
-        if (!(other instanceof TypeId that)) {
-            return false;
-        }
-        return this.kind == that.kind
-            && java.util.Objects.equals(this.name, that.name)
-            && java.util.Objects.equals(this.first, that.first)
-            && java.util.Objects.equals(this.second, that.second)
-            && this.mutableReference == that.mutableReference;
+        return this == other;
     }
 
     @Override
     public int hashCode() {
-        return java.util.Objects.hash(kind, name, first, second, mutableReference);
+        return hash;
+    }
+
+    private record StructKey(String name, List<TypeId> arguments) {}
+
+    private record PairKey(TypeId first, TypeId second) {}
+
+    private record ArrayKey(TypeId element, int length) {}
+
+    /**
+     * A canonicalizing table with weakly held values. While a type is reachable its entry stays,
+     * so the factories keep returning that instance; once it is collected, the next lookup finds
+     * the cleared entry on the queue and removes it.
+     */
+    private static final class Interner<K> {
+        private final ConcurrentHashMap<K, Entry<K>> table = new ConcurrentHashMap<>();
+        private final ReferenceQueue<TypeId> cleared = new ReferenceQueue<>();
+
+        TypeId intern(K key, Function<K, TypeId> factory) {
+            expunge();
+            Entry<K> entry = table.get(key);
+            TypeId existing = entry == null ? null : entry.get();
+            if (existing != null) {
+                return existing;
+            }
+            TypeId[] interned = new TypeId[1];
+            table.compute(key, (ignored, current) -> {
+                TypeId live = current == null ? null : current.get();
+                if (live != null) {
+                    interned[0] = live;
+                    return current;
+                }
+                interned[0] = factory.apply(key);
+                return new Entry<>(key, interned[0], cleared);
+            });
+            return interned[0];
+        }
+
+        @SuppressWarnings("unchecked")
+        private void expunge() {
+            for (Object reference = cleared.poll(); reference != null; reference = cleared.poll()) {
+                Entry<K> entry = (Entry<K>) reference;
+                table.remove(entry.key, entry);
+            }
+        }
+    }
+
+    private static final class Entry<K> extends WeakReference<TypeId> {
+        private final K key;
+
+        Entry(K key, TypeId value, ReferenceQueue<TypeId> queue) {
+            super(value, queue);
+            this.key = key;
+        }
     }
 
     private enum Kind {
         STRING,
         INT,
         BOOL,
+        I64,
+        U64,
+        F32,
+        F64,
         ANY,
         INFER,
         VOID,
@@ -159,6 +335,8 @@ public final class TypeId {
         OPTION,
         RESULT,
         REF,
+        ARRAY,
+        PARAM,
         UNKNOWN
     }
 }
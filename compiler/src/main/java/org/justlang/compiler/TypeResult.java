@@ -3,10 +3,16 @@ package org.justlang.compiler;
 public final class TypeResult {
     private final boolean success;
     private final TypeEnvironment environment;
+    private final TypedModule typedModule;
 
     public TypeResult(boolean success, TypeEnvironment environment) {
+        this(success, environment, TypedModule.empty());
+    }
+
+    public TypeResult(boolean success, TypeEnvironment environment, TypedModule typedModule) {
         this.success = success;
         this.environment = environment;
+        this.typedModule = typedModule;
     }
 
     public boolean success() {
@@ -16,4 +22,8 @@ public final class TypeResult {
     public TypeEnvironment environment() {
         return environment;
     }
+
+    public TypedModule typedModule() {
+        return typedModule;
+    }
 }
@@ -1,19 +1,26 @@
 package org.justlang.compiler;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Small helper for v1 type inference/unification.
  *
  * <p>This is not a full HM-style inference engine; it only supports:
  * <ul>
  *   <li>joining types that contain {@link TypeId#INFER} placeholders (primarily for {@code Option}/{@code Result}),</li>
- *   <li>propagating constraints into placeholder types.</li>
+ *   <li>propagating constraints into placeholder types,</li>
+ *   <li>binding and substituting the type parameters of generic functions and structs.</li>
  * </ul>
+ *
+ * <p>{@link TypeId}s are interned, so equality checks here are identity comparisons.
  */
 final class TypeUnifier {
     private TypeUnifier() {}
 
     static TypeId join(TypeId left, TypeId right) {
-        if (left.equals(right)) {
+        if (left == right) {
             return left;
         }
         if (left == TypeId.INFER) {
@@ -49,7 +56,7 @@ final class TypeUnifier {
      * <p>Unlike {@link #join(TypeId, TypeId)}, this does not widen mismatches to {@link TypeId#ANY}.
      */
     static TypeId tryJoin(TypeId left, TypeId right) {
-        if (left.equals(right)) {
+        if (left == right) {
             return left;
         }
         if (left == TypeId.INFER) {
@@ -88,7 +95,7 @@ final class TypeUnifier {
     }
 
     static TypeId refine(TypeId current, TypeId constraint) {
-        if (constraint == null || constraint == TypeId.UNKNOWN || constraint == TypeId.VOID) {
+        if (current == constraint || constraint == null || constraint == TypeId.UNKNOWN || constraint == TypeId.VOID) {
             return current;
         }
         if (current == TypeId.UNKNOWN || current == TypeId.VOID) {
@@ -118,4 +125,79 @@ final class TypeUnifier {
         }
         return current;
     }
+
+    /**
+     * Matches {@code pattern} (which may mention type parameters) against {@code actual}, adding
+     * the parameter bindings it implies. Returns false when a parameter would be bound to two
+     * different types; shapes that do not line up are left for the assignability check.
+     */
+    static boolean bind(TypeId pattern, TypeId actual, Map<TypeId, TypeId> bindings) {
+        if (pattern == null || actual == null || actual == TypeId.INFER || actual == TypeId.UNKNOWN) {
+            return true;
+        }
+        if (pattern.isTypeParam()) {
+            TypeId bound = bindings.get(pattern);
+            if (bound == null) {
+                bindings.put(pattern, actual);
+                return true;
+            }
+            TypeId joined = tryJoin(bound, actual);
+            if (joined == null || joined == TypeId.ANY && bound != TypeId.ANY) {
+                return false;
+            }
+            bindings.put(pattern, joined);
+            return true;
+        }
+        if (pattern.isReference()) {
+            return bind(pattern.referenceInner(), actual.isReference() ? actual.referenceInner() : actual, bindings);
+        }
+        if (pattern.isOption() && actual.isOption()) {
+            return bind(pattern.optionInner(), actual.optionInner(), bindings);
+        }
+        if (pattern.isResult() && actual.isResult()) {
+            return bind(pattern.resultOk(), actual.resultOk(), bindings)
+                && bind(pattern.resultErr(), actual.resultErr(), bindings);
+        }
+        if (pattern.isArray() && actual.isArray()) {
+            return bind(pattern.arrayElement(), actual.arrayElement(), bindings);
+        }
+        if (pattern.isStruct() && actual.isStruct()
+            && pattern.structName().equals(actual.structName())
+            && pattern.typeArguments().size() == actual.typeArguments().size()) {
+            for (int i = 0; i < pattern.typeArguments().size(); i++) {
+                if (!bind(pattern.typeArguments().get(i), actual.typeArguments().get(i), bindings)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /** Replaces every bound type parameter in {@code type}; unbound parameters are kept. */
+    static TypeId substitute(TypeId type, Map<TypeId, TypeId> bindings) {
+        if (type == null || bindings.isEmpty() || !type.mentionsTypeParam()) {
+            return type;
+        }
+        if (type.isTypeParam()) {
+            TypeId bound = bindings.get(type);
+            return bound != null ? bound : type;
+        }
+        if (type.isReference()) {
+            return TypeId.reference(substitute(type.referenceInner(), bindings), type.referenceMutable());
+        }
+        if (type.isOption()) {
+            return TypeId.option(substitute(type.optionInner(), bindings));
+        }
+        if (type.isResult()) {
+            return TypeId.result(substitute(type.resultOk(), bindings), substitute(type.resultErr(), bindings));
+        }
+        if (type.isArray()) {
+            return TypeId.array(substitute(type.arrayElement(), bindings), type.arrayLength());
+        }
+        List<TypeId> arguments = new ArrayList<>(type.typeArguments().size());
+        for (TypeId argument : type.typeArguments()) {
+            arguments.add(substitute(argument, bindings));
+        }
+        return TypeId.struct(type.structName(), arguments);
+    }
 }
@@ -1,4 +1,71 @@
 package org.justlang.compiler;
 
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Types the checker settled on, keyed by AST node identity: one entry per inferred expression,
+ * per `let` binding and per enum pattern binding, plus the type arguments inferred for each call
+ * to a generic function. Codegen consults it wherever its own value
+ * tracking would otherwise fall back to {@code Object}.
+ */
 public final class TypedModule {
+    private final Map<AstExpr, TypeId> expressions = new IdentityHashMap<>();
+    private final Map<Object, TypeId> bindings = new IdentityHashMap<>();
+    private final Map<AstCallExpr, List<TypeId>> instantiations = new IdentityHashMap<>();
+    private final HirModule hir;
+
+    TypedModule(HirModule hir) {
+        this.hir = hir;
+    }
+
+    public static TypedModule empty() {
+        return new TypedModule(null);
+    }
+
+    /** The resolved names the types were checked against, or null for an empty module. */
+    public HirModule hir() {
+        return hir;
+    }
+
+    public TypeId typeOf(AstExpr expr) {
+        return expressions.get(expr);
+    }
+
+    public TypeId bindingType(AstLetStmt letStmt) {
+        return bindings.get(letStmt);
+    }
+
+    public TypeId bindingType(AstMatchPattern pattern) {
+        return bindings.get(pattern);
+    }
+
+    /**
+     * Type arguments of a call to a generic function, in declaration order, or null for an
+     * ordinary call. Inside a generic body they may still mention the caller's own parameters.
+     */
+    public List<TypeId> instantiation(AstCallExpr call) {
+        return instantiations.get(call);
+    }
+
+    public boolean isEmpty() {
+        return expressions.isEmpty() && bindings.isEmpty() && instantiations.isEmpty();
+    }
+
+    void recordExpr(AstExpr expr, TypeId type) {
+        expressions.put(expr, type);
+    }
+
+    void recordBinding(AstLetStmt letStmt, TypeId type) {
+        bindings.put(letStmt, type);
+    }
+
+    void recordBinding(AstMatchPattern pattern, TypeId type) {
+        bindings.put(pattern, type);
+    }
+
+    void recordInstantiation(AstCallExpr call, List<TypeId> typeArguments) {
+        instantiations.put(call, List.copyOf(typeArguments));
+    }
 }
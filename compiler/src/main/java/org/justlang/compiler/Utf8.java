@@ -0,0 +1,72 @@
+package org.justlang.compiler;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/** Helpers for reading UTF-8 source bytes in place, with ASCII handled without decoding. */
+final class Utf8 {
+    static final ByteBuffer EMPTY = ByteBuffer.allocate(0).asReadOnlyBuffer();
+
+    private Utf8() {
+    }
+
+    static String decode(ByteBuffer bytes, int start, int length) {
+        if (bytes.hasArray()) {
+            return new String(bytes.array(), bytes.arrayOffset() + start, length, StandardCharsets.UTF_8);
+        }
+        byte[] copy = new byte[length];
+        bytes.get(start, copy);
+        return new String(copy, StandardCharsets.UTF_8);
+    }
+
+    static boolean regionEquals(ByteBuffer bytes, int start, int length, String text) {
+        int count = text.length();
+        for (int i = 0; i < count; i++) {
+            char c = text.charAt(i);
+            if (c >= 0x80) {
+                return decode(bytes, start, length).equals(text);
+            }
+            if (i >= length || bytes.get(start + i) != c) {
+                return false;
+            }
+        }
+        return length == count;
+    }
+
+    /** Byte length of the sequence starting with {@code lead}, or 1 for a malformed lead byte. */
+    static int sequenceLength(byte lead) {
+        int value = lead & 0xFF;
+        if (value >= 0xF0 && value < 0xF8) {
+            return 4;
+        }
+        if (value >= 0xE0) {
+            return value < 0xF0 ? 3 : 1;
+        }
+        return value >= 0xC0 ? 2 : 1;
+    }
+
+    /** Decodes the code point at {@code index}; malformed input yields U+FFFD. */
+    static int codePointAt(ByteBuffer bytes, int index) {
+        int lead = bytes.get(index) & 0xFF;
+        if (lead < 0x80) {
+            return lead;
+        }
+        int length = sequenceLength((byte) lead);
+        if (length == 1 || index + length > bytes.limit()) {
+            return 0xFFFD;
+        }
+        int codePoint = lead & (0xFF >> (length + 1));
+        for (int i = 1; i < length; i++) {
+            int next = bytes.get(index + i) & 0xFF;
+            if ((next & 0xC0) != 0x80) {
+                return 0xFFFD;
+            }
+            codePoint = (codePoint << 6) | (next & 0x3F);
+        }
+        return codePoint;
+    }
+
+    static boolean isContinuation(byte value) {
+        return (value & 0xC0) == 0x80;
+    }
+}
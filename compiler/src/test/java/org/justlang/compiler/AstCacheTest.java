@@ -0,0 +1,173 @@
+package org.justlang.compiler;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class AstCacheTest {
+    private static final String PROGRAM = """
+        use util::helper as h;
+
+        enum Shape {
+            Circle(i32),
+            Empty,
+        }
+
+        struct Point {
+            x: i32,
+            y: i32,
+        }
+
+        pub fn area(shape: Shape) -> i32 {
+            return match shape {
+                Shape::Circle(r) if r > 0 => r * r * 3,
+                _ => 0,
+            };
+        }
+
+        fn main() {
+            let mut total: i32 = 0;
+            let p = Point { x: 1, y: 2 };
+            'outer: for i in 0..=3 {
+                if i == 2 { continue 'outer; } else { total += p.x; }
+            }
+            while let Option::Some(v) = Option::None { break; }
+            let label = if total > 1 { "big" } else { "small" };
+            let n = loop { break 7; };
+            println!("{} {}", label, -n);
+            return;
+        }
+        """;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void roundTripPreservesModuleAndRebindsSourcePath() {
+        SourceFile original = new SourceFile(tempDir.resolve("a.just"), PROGRAM);
+        AstModule parsed = parse(original);
+        AstCache cache = new AstCache(tempDir.resolve("cache"), "test");
+        cache.store(original, parsed);
+
+        SourceFile moved = new SourceFile(tempDir.resolve("moved/b.just"), PROGRAM);
+        AstModule loaded = cache.load(moved);
+
+        assertNotNull(loaded);
+        assertEquals(parsed.items().size(), loaded.items().size());
+        AstFunction main = (AstFunction) loaded.items().get(loaded.items().size() - 1);
+        assertEquals("main", main.name());
+        assertEquals(moved.path(), main.sourcePath());
+
+        // Re-encoding the loaded module must produce the same bytes as the original entry.
+        AstCache copy = new AstCache(tempDir.resolve("copy"), "test");
+        copy.store(original, loaded);
+        assertArrayEquals(read(cache.entryPath(original)), read(copy.entryPath(original)));
+    }
+
+    @Test
+    void compilerVersionChangeMissesCache() {
+        SourceFile source = new SourceFile(tempDir.resolve("a.just"), PROGRAM);
+        new AstCache(tempDir, "1.0").store(source, parse(source));
+
+        assertNotNull(new AstCache(tempDir, "1.0").load(source));
+        assertNull(new AstCache(tempDir, "1.1").load(source));
+        assertNull(new AstCache(tempDir, "1.0").load(new SourceFile(source.path(), PROGRAM + "\n// edit\n")));
+    }
+
+    @Test
+    void defaultCacheIsKeyedOnCompilerBuild() {
+        SourceFile source = new SourceFile(tempDir.resolve("a.just"), PROGRAM);
+        new AstCache(tempDir).store(source, parse(source));
+
+        assertNotNull(new AstCache(tempDir, JustCompiler.buildId()).load(source));
+        assertNull(new AstCache(tempDir, JustCompiler.version()).load(source));
+    }
+
+    @Test
+    void pruneKeepsOnlyEntriesUsedSinceTheLastPrune() {
+        SourceFile kept = new SourceFile(tempDir.resolve("a.just"), PROGRAM);
+        SourceFile edited = new SourceFile(tempDir.resolve("b.just"), PROGRAM + "\n// before\n");
+        new AstCache(tempDir, "test").store(kept, parse(kept));
+        new AstCache(tempDir, "test").store(edited, parse(edited));
+
+        AstCache cache = new AstCache(tempDir, "test");
+        SourceFile current = new SourceFile(edited.path(), PROGRAM + "\n// after\n");
+        assertNotNull(cache.load(kept));
+        cache.store(current, parse(current));
+        cache.prune();
+
+        assertTrue(Files.isRegularFile(cache.entryPath(kept)));
+        assertTrue(Files.isRegularFile(cache.entryPath(current)));
+        assertFalse(Files.exists(cache.entryPath(edited)));
+    }
+
+    @Test
+    void corruptEntryIsTreatedAsMiss() throws IOException {
+        SourceFile source = new SourceFile(tempDir.resolve("a.just"), PROGRAM);
+        AstCache cache = new AstCache(tempDir, "test");
+        cache.store(source, parse(source));
+        Files.write(cache.entryPath(source), new byte[] {1, 2, 3});
+
+        assertNull(cache.load(source));
+    }
+
+    @Test
+    void compilerOnlyReparsesEditedFiles() throws IOException {
+        Path main = tempDir.resolve("main.just");
+        Path util = tempDir.resolve("util.just");
+        Files.writeString(main, """
+            import "util.just";
+
+            fn main() { print(util::twice(21)); }
+            """);
+        Files.writeString(util, "pub fn twice(value: i32) -> i32 { return value * 2; }\n");
+
+        AtomicInteger parses = new AtomicInteger();
+        JustCompiler compiler = new JustCompiler(
+            Lexer::new,
+            () -> (sourceFile, tokens, diagnostics) -> {
+                parses.incrementAndGet();
+                return new Parser().parse(sourceFile, tokens, diagnostics);
+            },
+            new TypeChecker(),
+            new Codegen(),
+            new JarEmitter()
+        );
+        CompileRequest request = CompileRequest.forCheck(main).withCacheDirectory(tempDir.resolve("build/.just-cache"));
+
+        assertTrue(compiler.compile(request).success());
+        assertEquals(2, parses.get());
+
+        assertTrue(compiler.compile(request).success());
+        assertEquals(2, parses.get());
+
+        Files.writeString(util, "pub fn twice(value: i32) -> i32 { return value + value; }\n");
+        assertTrue(compiler.compile(request).success());
+        assertEquals(3, parses.get());
+    }
+
+    private static AstModule parse(SourceFile source) {
+        Diagnostics diagnostics = new Diagnostics();
+        List<Token> tokens = new Lexer().lex(source, diagnostics);
+        return new Parser().parse(source, tokens, diagnostics);
+    }
+
+    private static byte[] read(Path path) {
+        try {
+            return Files.readAllBytes(path);
+        } catch (IOException error) {
+            throw new RuntimeException(error);
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package org.justlang.compiler;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.nio.file.Path;
+import java.util.List;
 import org.junit.jupiter.api.Test;
 import org.objectweb.asm.Opcodes;
 
@@ -26,13 +29,20 @@ public class CodegenTest {
 
         CodegenTestKit.ClassModel option = compilation.inspect("Option");
         assertTrue(option.hasField("tag", "I"));
-        assertTrue(option.hasField("payload", "Ljava/lang/Object;"));
+        assertFalse(option.hasField("payload", "Ljava/lang/Object;"));
         assertTrue(option.hasMethod("Some", "(Ljava/lang/Object;)LOption;"));
+        assertTrue(option.hasMethod("Some", "(I)LOption;"));
+        assertTrue(option.hasMethod("Some", "(Z)LOption;"));
         assertTrue(option.hasMethod("None", "()LOption;"));
+        assertTrue(compilation.inspect("Option$Some").hasField("value", "Ljava/lang/Object;"));
+        assertTrue(compilation.inspect("Option$Some$i32").hasField("value", "I"));
+        assertTrue(compilation.inspect("Option$Some$bool").hasField("value", "Z"));
+        assertTrue(compilation.hasClass("Option$None"));
 
         CodegenTestKit.ClassModel result = compilation.inspect("Result");
         assertTrue(result.hasMethod("Ok", "(Ljava/lang/Object;)LResult;"));
         assertTrue(result.hasMethod("Err", "(Ljava/lang/Object;)LResult;"));
+        assertTrue(result.hasMethod("Err", "(I)LResult;"));
     }
 
     @Test
@@ -56,13 +66,246 @@ public class CodegenTest {
 
         CodegenTestKit.MethodModel unwrapOrZero = compilation.inspect("Main").method("unwrap_or_zero", "(LOption;)I");
         assertTrue(unwrapOrZero.containsFieldAccess(Opcodes.GETFIELD, "Option", "tag", "I"));
-        assertTrue(unwrapOrZero.containsFieldAccess(Opcodes.GETFIELD, "Option", "payload", "Ljava/lang/Object;"));
-        assertTrue(unwrapOrZero.containsTypeOp(Opcodes.CHECKCAST, "java/lang/Integer"));
-        assertTrue(unwrapOrZero.containsInvoke(Opcodes.INVOKEVIRTUAL, "java/lang/Integer", "intValue", "()I"));
+        assertTrue(unwrapOrZero.containsTypeOp(Opcodes.CHECKCAST, "Option$Some$i32"));
+        assertTrue(unwrapOrZero.containsFieldAccess(Opcodes.GETFIELD, "Option$Some$i32", "value", "I"));
 
         assertEquals(Integer.toString(someValue), compilation.runMainInMemory());
     }
 
+    @Test
+    void checkedTypesKeepGenericPayloadsUnboxed() throws Exception {
+        CodegenTestKit.Compilation compilation = CodegenTestKit.compile("""
+            fn twice(x: Option<i32>) -> i32 {
+                let doubled = match x {
+                    Option::Some(v) => v * 2,
+                    Option::None => 0,
+                };
+                if doubled == 8 {
+                    return doubled + doubled;
+                }
+                return doubled;
+            }
+
+            fn main() {
+                std::print(twice(Option::Some(4)));
+                return;
+            }
+            """);
+
+        CodegenTestKit.MethodModel twice = compilation.inspect("Main").method("twice", "(LOption;)I");
+        // The payload binding reads an int field and the match result lives in an int slot.
+        assertEquals(0, twice.countInvoke(Opcodes.INVOKEVIRTUAL, "java/lang/Integer", "intValue", "()I"));
+        assertFalse(twice.containsInvoke(Opcodes.INVOKESTATIC, "java/util/Objects", "equals", "(Ljava/lang/Object;Ljava/lang/Object;)Z"));
+        assertEquals("16", compilation.runMainInMemory());
+    }
+
+    @Test
+    void enumPayloadsLiveInTypedVariantFields() throws Exception {
+        CodegenTestKit.Compilation compilation = CodegenTestKit.compile("""
+            enum Shape { Circle(i32), Label(String), Empty }
+
+            fn size(shape: Shape) -> i32 {
+                let out = match shape {
+                    Shape::Circle(r) => r * r,
+                    Shape::Label(_) => 1,
+                    Shape::Empty => 0,
+                };
+                return out;
+            }
+
+            fn flag(x: Option<bool>) -> bool {
+                if let Option::Some(b) = x {
+                    return b;
+                }
+                return false;
+            }
+
+            fn main() {
+                std::print(size(Shape::Circle(3)));
+                std::print(size(Shape::Label("hi")));
+                std::print(flag(Option::Some(true)));
+                let err: Result<i32, String> = Result::Err("boom");
+                std::print(err);
+                return;
+            }
+            """);
+
+        assertTrue(compilation.inspect("Shape$Circle").hasField("value", "I"));
+        assertTrue(compilation.inspect("Shape$Label").hasField("value", "Ljava/lang/String;"));
+        assertTrue(compilation.inspect("Shape").hasMethod("Circle", "(I)LShape;"));
+        assertFalse(compilation.hasClass("Shape$Circle$i32"));
+
+        CodegenTestKit.MethodModel size = compilation.inspect("Main").method("size", "(LShape;)I");
+        assertTrue(size.containsFieldAccess(Opcodes.GETFIELD, "Shape$Circle", "value", "I"));
+        CodegenTestKit.MethodModel flag = compilation.inspect("Main").method("flag", "(LOption;)Z");
+        assertTrue(flag.containsFieldAccess(Opcodes.GETFIELD, "Option$Some$bool", "value", "Z"));
+        assertFalse(flag.containsInvoke(Opcodes.INVOKEVIRTUAL, "java/lang/Boolean", "booleanValue", "()Z"));
+        CodegenTestKit.MethodModel main = compilation.inspect("Main").method("main", "([Ljava/lang/String;)V");
+        assertTrue(main.containsInvoke(Opcodes.INVOKESTATIC, "Option", "Some", "(Z)LOption;"));
+        assertFalse(main.containsInvoke(Opcodes.INVOKESTATIC, "java/lang/Boolean", "valueOf", "(Z)Ljava/lang/Boolean;"));
+
+        assertEquals("9\n1\ntrue\nResult::Err", compilation.runMainInMemory());
+    }
+
+    @Test
+    void matchesLowerToSwitchesAndKeepGuardOrder() throws Exception {
+        CodegenTestKit.Compilation compilation = CodegenTestKit.compile("""
+            enum Op { Add(i32), Sub(i32), Nop }
+
+            fn opcode(x: i32) -> i32 {
+                let out = match x {
+                    1 => 10,
+                    2 => 20,
+                    3 if x > 5 => 0,
+                    3 => 30,
+                    4 => 40,
+                    _ => -1,
+                };
+                return out;
+            }
+
+            fn sparse(x: i32) -> i32 {
+                let out = match x {
+                    7 => 1,
+                    1000 => 2,
+                    50000 => 3,
+                    _ => 0,
+                };
+                return out;
+            }
+
+            fn word(s: String) -> i32 {
+                let out = match s {
+                    "Aa" => 1,
+                    "BB" => 2,
+                    "go" if 1 > 2 => 0,
+                    _ => 3,
+                };
+                return out;
+            }
+
+            fn apply(op: Op, acc: i32) -> i32 {
+                let out = match op {
+                    Op::Add(n) if n > 100 => acc,
+                    _ if acc < 0 => 0,
+                    Op::Add(n) => acc + n,
+                    Op::Sub(n) => acc - n,
+                    Op::Nop => acc,
+                };
+                return out;
+            }
+
+            fn main() {
+                std::print(opcode(3) + opcode(4) + opcode(9));
+                std::print(sparse(1000) + sparse(50000) + sparse(8));
+                std::print(word("Aa") + word("BB") + word("go"));
+                std::print(apply(Op::Add(500), 5) + apply(Op::Add(2), 5) + apply(Op::Sub(1), -3) + apply(Op::Nop, 4));
+                return;
+            }
+            """);
+
+        CodegenTestKit.ClassModel main = compilation.inspect("Main");
+        CodegenTestKit.MethodModel opcode = main.method("opcode", "(I)I");
+        assertTrue(opcode.containsTableSwitch());
+        assertFalse(opcode.containsOpcode(Opcodes.IF_ICMPEQ));
+        assertTrue(main.method("sparse", "(I)I").containsLookupSwitch());
+        CodegenTestKit.MethodModel word = main.method("word", "(Ljava/lang/String;)I");
+        assertTrue(word.containsInvoke(Opcodes.INVOKEVIRTUAL, "java/lang/String", "hashCode", "()I"));
+        assertTrue(word.containsLookupSwitch());
+        CodegenTestKit.MethodModel apply = main.method("apply", "(LOp;I)I");
+        assertTrue(apply.containsTableSwitch());
+        assertTrue(apply.containsFieldAccess(Opcodes.GETFIELD, "Op", "tag", "I"));
+
+        assertEquals("69\n5\n6\n16", compilation.runMainInMemory());
+    }
+
+    @Test
+    void branchingExpressionsKeepCheckedResultTypes() throws Exception {
+        CodegenTestKit.Compilation compilation = CodegenTestKit.compile("""
+            fn score(n: i32) -> i32 {
+                let mut total = 0;
+                let mut i = 0;
+                while i < n {
+                    let step = match i {
+                        0 => 5,
+                        1 => 7,
+                        _ => if i > 3 { 1 } else { 2 },
+                    };
+                    total += step;
+                    i += 1;
+                }
+                let found = loop {
+                    if total > 0 {
+                        break match total { 1 => 1, _ => total };
+                    }
+                };
+                return found;
+            }
+
+            fn label(x: Option<i32>) -> String {
+                let text = match x {
+                    Option::Some(_) => "some",
+                    Option::None => "none",
+                };
+                return text;
+            }
+
+            fn main() {
+                std::print(score(6));
+                std::print(label(Option::None));
+                return;
+            }
+            """);
+
+        CodegenTestKit.MethodModel score = compilation.inspect("Main").method("score", "(I)I");
+        assertFalse(score.containsInvoke(Opcodes.INVOKESTATIC, "java/lang/Integer", "valueOf", "(I)Ljava/lang/Integer;"));
+        assertFalse(score.containsInvoke(Opcodes.INVOKEVIRTUAL, "java/lang/Integer", "intValue", "()I"));
+        CodegenTestKit.MethodModel label = compilation.inspect("Main").method("label", "(LOption;)Ljava/lang/String;");
+        assertFalse(label.containsTypeOp(Opcodes.CHECKCAST, "java/lang/String"));
+
+        assertEquals("18\nnone", compilation.runMainInMemory());
+    }
+
+    @Test
+    void unitVariantsShareOneInstance() throws Exception {
+        CodegenTestKit.Compilation compilation = CodegenTestKit.compile("""
+            enum State { Idle, Busy(i32) }
+
+            fn step(s: State) -> State {
+                let next = match s {
+                    State::Idle => State::Busy(1),
+                    State::Busy(n) => State::Idle,
+                };
+                return next;
+            }
+
+            fn main() {
+                let mut s = State::Idle;
+                let mut i = 0;
+                while i < 3 {
+                    s = step(s);
+                    i += 1;
+                }
+                std::print(s);
+                let none: Option<i32> = Option::None;
+                std::print(none);
+                return;
+            }
+            """);
+
+        assertTrue(compilation.inspect("State$Idle").hasField("INSTANCE", "LState;"));
+        CodegenTestKit.MethodModel step = compilation.inspect("Main").method("step", "(LState;)LState;");
+        assertTrue(step.containsFieldAccess(Opcodes.GETSTATIC, "State$Idle", "INSTANCE", "LState;"));
+        assertFalse(step.containsTypeOp(Opcodes.NEW, "State$Idle"));
+        CodegenTestKit.MethodModel main = compilation.inspect("Main").method("main", "([Ljava/lang/String;)V");
+        assertTrue(main.containsFieldAccess(Opcodes.GETSTATIC, "Option$None", "INSTANCE", "LOption;"));
+        assertFalse(main.containsInvoke(Opcodes.INVOKESTATIC, "Option", "None", "()LOption;"));
+        assertTrue(compilation.inspect("State").method("Idle", "()LState;")
+            .containsFieldAccess(Opcodes.GETSTATIC, "State$Idle", "INSTANCE", "LState;"));
+
+        assertEquals("State::Busy\nOption::None", compilation.runMainInMemory());
+    }
+
     @Test
     void runsResultMatchProgramViaJar() throws Exception {
         CodegenTestKit.Compilation compilation = CodegenTestKit.compile("""
@@ -89,7 +332,7 @@ public class CodegenTest {
 
         CodegenTestKit.MethodModel valueOrDefault = compilation.inspect("Main").method("value_or_default", "(LResult;)I");
         assertTrue(valueOrDefault.containsFieldAccess(Opcodes.GETFIELD, "Result", "tag", "I"));
-        assertTrue(valueOrDefault.containsFieldAccess(Opcodes.GETFIELD, "Result", "payload", "Ljava/lang/Object;"));
+        assertTrue(valueOrDefault.containsFieldAccess(Opcodes.GETFIELD, "Result$Ok$i32", "value", "I"));
 
         assertEquals("9\n0", compilation.runMainViaJar());
     }
@@ -104,10 +347,50 @@ public class CodegenTest {
             """);
 
         CodegenTestKit.MethodModel main = compilation.inspect("Main").method("main", "([Ljava/lang/String;)V");
-        assertTrue(main.containsFieldAccess(Opcodes.GETSTATIC, "java/lang/System", "out", "Ljava/io/PrintStream;"));
+        assertFalse(main.containsFieldAccess(Opcodes.GETSTATIC, "java/lang/System", "out", "Ljava/io/PrintStream;"));
         assertTrue(main.containsLdc(42));
-        assertTrue(main.containsInvoke(Opcodes.INVOKEVIRTUAL, "java/io/PrintStream", "println", "(I)V"));
-        assertTrue(main.containsOpcodeSequence(Opcodes.GETSTATIC, Opcodes.LDC, Opcodes.INVOKEVIRTUAL));
+        assertTrue(main.containsInvoke(Opcodes.INVOKESTATIC, "org/justlang/runtime/Stdout", "println", "(I)V"));
+        assertTrue(main.containsOpcodeSequence(Opcodes.LDC, Opcodes.INVOKESTATIC));
+    }
+
+    @Test
+    void printsAreBufferedUnlessLineFlushed() throws Exception {
+        String source = """
+            fn shout(n: i32) {
+                if n > 2 {
+                    return;
+                }
+                std::print(n);
+                return;
+            }
+
+            fn main() {
+                let mut i = 0;
+                while i < 4 {
+                    shout(i);
+                    i += 1;
+                }
+                println!("done {}", i);
+                return;
+            }
+            """;
+        CodegenTestKit.Compilation buffered = CodegenTestKit.compile(source);
+        assertTrue(buffered.hasClass("org/justlang/runtime/Stdout"));
+        CodegenTestKit.MethodModel bufferedMain = buffered.inspect("Main").method("main", "([Ljava/lang/String;)V");
+        assertTrue(bufferedMain.containsInvoke(Opcodes.INVOKESTATIC, "org/justlang/runtime/Stdout", "flush", "()V"));
+        assertFalse(buffered.inspect("Main").method("shout", "(I)V")
+            .containsInvoke(Opcodes.INVOKESTATIC, "org/justlang/runtime/Stdout", "flush", "()V"));
+        assertEquals("0\n1\n2\ndone 4", buffered.runMainInMemory());
+        assertEquals("0\n1\n2\ndone 4", buffered.runMainViaJar());
+
+        CodegenTestKit.Compilation lineFlushed = CodegenTestKit.compile(source, new Codegen().withLineFlushedOutput());
+        assertFalse(lineFlushed.hasClass("org/justlang/runtime/Stdout"));
+        CodegenTestKit.MethodModel shout = lineFlushed.inspect("Main").method("shout", "(I)V");
+        assertTrue(shout.containsFieldAccess(Opcodes.GETSTATIC, "java/lang/System", "out", "Ljava/io/PrintStream;"));
+        assertTrue(shout.containsInvoke(Opcodes.INVOKEVIRTUAL, "java/io/PrintStream", "println", "(I)V"));
+        assertFalse(lineFlushed.inspect("Main").method("main", "([Ljava/lang/String;)V")
+            .containsInvoke(Opcodes.INVOKESTATIC, "org/justlang/runtime/Stdout", "flush", "()V"));
+        assertEquals("0\n1\n2\ndone 4", lineFlushed.runMainViaJar());
     }
 
     @Test
@@ -134,6 +417,39 @@ public class CodegenTest {
         assertEquals("value=42", compilation.runMainInMemory());
     }
 
+    @Test
+    void formatStringsLowerToIndyConcatWithPrimitiveArguments() throws Exception {
+        CodegenTestKit.Compilation compilation = CodegenTestKit.compile("""
+            struct Point { x: i32, y: i32, name: String }
+
+            fn report(a: i32, ok: bool) {
+                println!("a={} ok={} twice={}", a, ok, a * 2);
+                return;
+            }
+
+            fn main() {
+                let p = Point { x: 1, y: -2, name: "p" };
+                report(4, true);
+                std::print("{} at {}/{}", p.name, p.x, p.y);
+                std::print("{{}}", 0);
+                return;
+            }
+            """);
+
+        String concat = "java/lang/invoke/StringConcatFactory";
+        CodegenTestKit.MethodModel report = compilation.inspect("Main").method("report", "(IZ)V");
+        assertTrue(report.containsInvokeDynamic(concat, "makeConcatWithConstants", "(IZI)Ljava/lang/String;", "a=\u0001 ok=\u0001 twice=\u0001"));
+        assertFalse(report.containsInvoke(Opcodes.INVOKESTATIC, "java/lang/String", "valueOf", "(I)Ljava/lang/String;"));
+        assertFalse(report.containsInvoke(Opcodes.INVOKEVIRTUAL, "java/lang/String", "replace", "(Ljava/lang/CharSequence;Ljava/lang/CharSequence;)Ljava/lang/String;"));
+        CodegenTestKit.MethodModel main = compilation.inspect("Main").method("main", "([Ljava/lang/String;)V");
+        assertTrue(main.containsInvokeDynamic(concat, "makeConcatWithConstants", "(Ljava/lang/String;II)Ljava/lang/String;", "\u0001 at \u0001/\u0001"));
+        CodegenTestKit.MethodModel toString = compilation.inspect("Point").method("toString", "()Ljava/lang/String;");
+        assertTrue(toString.containsInvokeDynamic(concat, "makeConcatWithConstants", "(IILjava/lang/String;)Ljava/lang/String;", "Point{x=\u0001, y=\u0001, name=\u0001}"));
+        assertFalse(toString.containsTypeOp(Opcodes.NEW, "java/lang/StringBuilder"));
+
+        assertEquals("a=4 ok=true twice=8\np at 1/-2\n{0}", compilation.runMainInMemory());
+    }
+
     @Test
     void runsBorrowAndDerefProgram() throws Exception {
         CodegenTestKit.Compilation compilation = CodegenTestKit.compile("""
@@ -152,4 +468,324 @@ public class CodegenTest {
 
         assertEquals("5\n5", compilation.runMainInMemory());
     }
+
+    @Test
+    void incrementalCodegenReusesUnchangedFunctions() throws Exception {
+        String program = """
+            struct Inner {
+                value: i32,
+            }
+
+            struct Outer {
+                inner: Inner,
+            }
+
+            fn read(o: Outer) -> i32 {
+                return o.inner.value;
+            }
+
+            fn twice(x: i32) -> i32 {
+                return x * 2;
+            }
+
+            fn main() {
+                let o = Outer { inner: Inner { value: %s } };
+                std::print(twice(read(o)));
+                return;
+            }
+            """;
+        MethodCache cache = new MethodCache();
+
+        CodegenTestKit.Compilation first = CodegenTestKit.compile(program.formatted("4"), new Codegen(cache));
+        assertEquals("8", first.runMainInMemory());
+        assertEquals(3, cache.misses());
+
+        CodegenTestKit.Compilation second = CodegenTestKit.compile(program.formatted("4"), new Codegen(cache));
+        assertEquals("8", second.runMainInMemory());
+        assertEquals(3, cache.hits());
+
+        // Only main's body changed, so read/twice are spliced from the cache.
+        CodegenTestKit.Compilation edited = CodegenTestKit.compile(program.formatted("5"), new Codegen(cache));
+        assertEquals("10", edited.runMainInMemory());
+        assertEquals(5, cache.hits());
+        assertEquals(4, cache.misses());
+    }
+
+    @Test
+    void incrementalCodegenReemitsWhenReachableLayoutChanges() throws Exception {
+        String program = """
+            struct Inner {
+                value: %s,
+            }
+
+            struct Outer {
+                inner: Inner,
+            }
+
+            fn show(o: Outer) {
+                std::print(o.inner.value);
+                return;
+            }
+
+            fn main() {
+                show(Outer { inner: Inner { value: %s } });
+                return;
+            }
+            """;
+        MethodCache cache = new MethodCache();
+
+        assertEquals("3", CodegenTestKit.compile(program.formatted("i32", "3"), new Codegen(cache)).runMainInMemory());
+        assertEquals(0, cache.hits());
+
+        // `show` never names Inner, but reaches it through Outer's field.
+        CodegenTestKit.Compilation changed = CodegenTestKit.compile(program.formatted("bool", "true"), new Codegen(cache));
+        assertEquals("true", changed.runMainInMemory());
+        assertEquals(0, cache.hits());
+        assertTrue(changed.inspect("Main").method("show", "(LOuter;)V").containsFieldAccess(Opcodes.GETFIELD, "Inner", "value", "Z"));
+    }
+
+    @Test
+    void scalarLoopsLowerThroughMirToFusedCompareAndIinc() throws Exception {
+        CodegenTestKit.Compilation compilation = CodegenTestKit.compile("""
+            fn triangle(n: i32) -> i32 {
+                let mut total = 0;
+                for i in 0..(n) {
+                    total += i * (n * 0 + 1);
+                }
+                return total;
+            }
+
+            fn main() {
+                std::print(triangle(5));
+                return;
+            }
+            """);
+
+        assertEquals("10", compilation.runMainInMemory());
+        CodegenTestKit.MethodModel triangle = compilation.inspect("Main").method("triangle", "(I)I");
+        assertTrue(triangle.containsOpcode(Opcodes.IINC));
+        assertTrue(triangle.containsOpcode(Opcodes.IF_ICMPGE));
+        assertFalse(triangle.containsOpcode(Opcodes.IMUL));
+        assertFalse(triangle.containsOpcode(Opcodes.ISUB));
+    }
+
+    @Test
+    void wideNumericAndArrayLoopsLowerThroughMir() throws Exception {
+        CodegenTestKit.Compilation compilation = CodegenTestKit.compile("""
+            fn dot(a: &[f64; 4], b: &[f64; 4]) -> f64 {
+                let mut sum = 0.0;
+                for i in 0..4 {
+                    sum += a[i] * b[i];
+                }
+                return sum;
+            }
+
+            fn checksum(n: i32) -> u64 {
+                let mut hash = 14695981039346656037u64;
+                let mut i = 0;
+                while i < n {
+                    hash = hash * 1099511628211u64 + 7u64;
+                    i += 1;
+                }
+                return hash / 3u64;
+            }
+
+            fn main() {
+                let a = [1.0, 2.0, 0.0, 4.0];
+                let b = [0.5; 4];
+                let mut counts = [0i64; 3];
+                counts[1] += 5000000000i64;
+                std::print("{} {} {}", dot(&a, &b), checksum(3), counts[1]);
+                std::print(-2.5f32 < 1.0f32);
+                return;
+            }
+            """);
+
+        assertEquals("3.5 5221631699311470059 5000000000\ntrue", compilation.runMainInMemory());
+        CodegenTestKit.MethodModel dot = compilation.inspect("Main").method("dot", "([D[D)D");
+        assertTrue(dot.containsOpcodeSequence(Opcodes.DALOAD, Opcodes.DALOAD, Opcodes.DMUL, Opcodes.DADD));
+        assertTrue(dot.containsOpcode(Opcodes.IINC));
+        CodegenTestKit.MethodModel checksum = compilation.inspect("Main").method("checksum", "(I)J");
+        assertTrue(checksum.containsOpcode(Opcodes.LMUL));
+        assertTrue(checksum.containsInvoke(Opcodes.INVOKESTATIC, "java/lang/Long", "divideUnsigned", "(JJ)J"));
+        CodegenTestKit.MethodModel main = compilation.inspect("Main").method("main", "([Ljava/lang/String;)V");
+        assertTrue(main.containsInvoke(Opcodes.INVOKESTATIC, "java/util/Arrays", "fill", "([DD)V"));
+        assertTrue(main.containsOpcodeSequence(Opcodes.LALOAD, Opcodes.LADD, Opcodes.LASTORE));
+        assertTrue(main.containsInvoke(Opcodes.INVOKESTATIC, "java/lang/Long", "toUnsignedString", "(J)Ljava/lang/String;"));
+        assertFalse(main.containsOpcode(Opcodes.FCMPG));
+    }
+
+    @Test
+    void genericsSpecializeOncePerTypeArgumentsWithPrimitiveDescriptors() throws Exception {
+        CodegenTestKit.Compilation compilation = CodegenTestKit.compile("""
+            struct Pair<T> {
+                first: T,
+                second: T,
+            }
+
+            fn identity<T>(value: T) -> T {
+                return value;
+            }
+
+            fn swap<T>(pair: Pair<T>) -> Pair<T> {
+                return Pair { first: identity(pair.second), second: pair.first };
+            }
+
+            fn main() {
+                let answer = identity(41) + 1;
+                let greeting = identity("hi");
+                let swapped = swap(Pair { first: 1, second: identity(2) });
+                std::print(answer);
+                std::print(greeting);
+                std::print(swapped.first);
+                std::print(identity(true));
+                return;
+            }
+            """);
+
+        assertEquals("42\nhi\n2\ntrue", compilation.runMainInMemory());
+
+        CodegenTestKit.ClassModel main = compilation.inspect("Main");
+        assertTrue(main.hasMethod("identity$i32", "(I)I"));
+        assertTrue(main.hasMethod("identity$String", "(Ljava/lang/String;)Ljava/lang/String;"));
+        assertTrue(main.hasMethod("identity$bool", "(Z)Z"));
+        assertFalse(main.hasMethod("identity", "(Ljava/lang/Object;)Ljava/lang/Object;"));
+        assertFalse(main.method("identity$i32", "(I)I").containsInvoke(Opcodes.INVOKESTATIC, "java/lang/Integer", "valueOf", "(I)Ljava/lang/Integer;"));
+        assertTrue(main.method("swap$i32", "(LPair$i32;)LPair$i32;").containsInvoke(Opcodes.INVOKESTATIC, "Main", "identity$i32", "(I)I"));
+
+        assertTrue(compilation.inspect("Pair$i32").hasField("first", "I"));
+        assertFalse(compilation.hasClass("Pair"));
+        assertEquals(1, compilation.files().stream().filter(file -> file.internalName().equals("Pair$i32")).count());
+    }
+
+    @Test
+    void wideAndFloatingNumbersUseTypedOpcodesAndSlots() throws Exception {
+        CodegenTestKit.Compilation compilation = CodegenTestKit.compile("""
+            struct Point { x: f64, y: f64 }
+
+            fn scale(value: i64, by: i64) -> i64 {
+                return value * by;
+            }
+
+            fn main() {
+                let mut total = 0i64;
+                let mut i = 0;
+                while i < 3 {
+                    total += scale(4000000000i64, 2i64);
+                    i += 1;
+                }
+                let big = 18446744073709551615u64;
+                let quarter = 1.0 / 4.0;
+                let p = Point { x: quarter, y: -2.5 };
+                std::print(total);
+                std::print(big / 5u64);
+                std::print(quarter < 0.5);
+                std::print("{} {} {}", big, p.x, p.y);
+                std::print(1.5f32 * 2.0f32);
+                return;
+            }
+            """);
+
+        assertEquals("24000000000\n3689348814741910323\ntrue\n18446744073709551615 0.25 -2.5\n3.0", compilation.runMainInMemory());
+
+        CodegenTestKit.MethodModel scale = compilation.inspect("Main").method("scale", "(JJ)J");
+        assertTrue(scale.containsOpcodeSequence(Opcodes.LMUL, Opcodes.LRETURN));
+        CodegenTestKit.MethodModel main = compilation.inspect("Main").method("main", "([Ljava/lang/String;)V");
+        assertTrue(main.containsLdc(4000000000L));
+        assertTrue(main.containsOpcode(Opcodes.LADD));
+        assertTrue(main.containsInvoke(Opcodes.INVOKESTATIC, "java/lang/Long", "divideUnsigned", "(JJ)J"));
+        assertTrue(main.containsOpcodeSequence(Opcodes.DCMPG, Opcodes.IFLT));
+        assertTrue(main.containsOpcode(Opcodes.FMUL));
+        assertTrue(main.containsInvoke(Opcodes.INVOKESTATIC, "org/justlang/runtime/Stdout", "println", "(J)V"));
+        assertFalse(main.containsInvoke(Opcodes.INVOKESTATIC, "java/lang/Long", "valueOf", "(J)Ljava/lang/Long;"));
+        assertTrue(compilation.inspect("Point").hasField("x", "D"));
+    }
+
+    @Test
+    void fixedSizeArraysLowerToJvmArrays() throws Exception {
+        CodegenTestKit.Compilation compilation = CodegenTestKit.compile("""
+            struct Point { x: i32, y: i32 }
+
+            fn bump(cells: &mut [i32; 4]) {
+                let mut i = 0;
+                while i < 4 {
+                    cells[i] += i * 10;
+                    i += 1;
+                }
+                return;
+            }
+
+            fn main() {
+                let mut cells = [1, 0, 3, 4];
+                bump(&mut cells);
+                let weights = [0.5; 3];
+                let points = [Point { x: 1, y: 2 }, Point { x: 3, y: 4 }];
+                let flags = [false; 8];
+                cells[1] += cells[0] + points[1].y;
+                std::print("{} {} {} {}", cells[1], cells[3], weights[2], flags[7]);
+                return;
+            }
+            """);
+
+        assertEquals("15 34 0.5 false", compilation.runMainInMemory());
+
+        CodegenTestKit.MethodModel bump = compilation.inspect("Main").method("bump", "([I)V");
+        assertTrue(bump.containsOpcodeSequence(Opcodes.IALOAD, Opcodes.IADD, Opcodes.IASTORE));
+        CodegenTestKit.MethodModel main = compilation.inspect("Main").method("main", "([Ljava/lang/String;)V");
+        assertTrue(main.containsOpcodeSequence(Opcodes.DUP2, Opcodes.IALOAD, Opcodes.IADD, Opcodes.IASTORE));
+        assertTrue(main.containsOpcode(Opcodes.NEWARRAY));
+        assertTrue(main.containsTypeOp(Opcodes.ANEWARRAY, "Point"));
+        assertTrue(main.containsInvoke(Opcodes.INVOKESTATIC, "java/util/Arrays", "fill", "([DD)V"));
+        assertFalse(main.containsInvoke(Opcodes.INVOKESTATIC, "java/util/Arrays", "fill", "([ZZ)V"));
+        assertTrue(main.containsOpcode(Opcodes.DALOAD));
+        assertTrue(main.containsOpcode(Opcodes.BALOAD));
+    }
+
+    @Test
+    void eachModuleGetsItsOwnLazilyLoadedClass() throws Exception {
+        List<SourceFile> sources = List.of(
+            new SourceFile(Path.of("app.just"), """
+                import "geometry.just";
+                import "report.just";
+
+                fn announce() {
+                    report::banner();
+                    return;
+                }
+
+                fn main() {
+                    std::print(geometry::area(3, 4));
+                    return;
+                }
+                """),
+            new SourceFile(Path.of("geometry.just"), """
+                pub fn area(w: i32, h: i32) -> i32 {
+                    return scale(w) * h;
+                }
+
+                fn scale(value: i32) -> i32 {
+                    return value * 2;
+                }
+                """),
+            new SourceFile(Path.of("report.just"), """
+                pub fn banner() {
+                    std::print("report");
+                    return;
+                }
+                """)
+        );
+        CodegenTestKit.Compilation compilation = CodegenTestKit.compile(sources, new Codegen());
+
+        assertEquals("24", compilation.runMainInMemory());
+        assertTrue(compilation.loadedClasses().contains("geometry"));
+        assertFalse(compilation.loadedClasses().contains("report"));
+
+        CodegenTestKit.ClassModel main = compilation.inspect("Main");
+        assertFalse(main.hasMethod("area", "(II)I"));
+        assertTrue(main.method("main", "([Ljava/lang/String;)V").containsInvoke(Opcodes.INVOKESTATIC, "geometry", "area", "(II)I"));
+        assertTrue(main.method("announce", "()V").containsInvoke(Opcodes.INVOKESTATIC, "report", "banner", "()V"));
+        CodegenTestKit.ClassModel geometry = compilation.inspect("geometry");
+        assertTrue(geometry.method("area", "(II)I").containsInvoke(Opcodes.INVOKESTATIC, "geometry", "scale", "(I)I"));
+        assertTrue(compilation.inspect("report").hasMethod("banner", "()V"));
+    }
 }
@@ -22,6 +22,7 @@ import java.util.Objects;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.Handle;
 import org.objectweb.asm.Label;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
@@ -32,19 +33,30 @@ final class CodegenTestKit {
     private CodegenTestKit() {}
 
     static Compilation compile(String source) {
+        return compile(source, new Codegen());
+    }
+
+    static Compilation compile(String source, CodegenStrategy codegen) {
+        return compile(List.of(new SourceFile(Path.of("test.just"), source)), codegen);
+    }
+
+    /** Compiles several files as one program, merging their items in order like {@code JustCompiler}. */
+    static Compilation compile(List<SourceFile> sourceFiles, CodegenStrategy codegen) {
         Diagnostics diagnostics = new Diagnostics();
-        SourceFile sourceFile = new SourceFile(Path.of("test.just"), source);
         Lexer lexer = new Lexer();
         Parser parser = new Parser();
         TypeChecker checker = new TypeChecker();
-        Codegen codegen = new Codegen();
 
-        var tokens = lexer.lex(sourceFile, diagnostics);
-        AstModule module = parser.parse(sourceFile, tokens, diagnostics);
+        List<AstItem> items = new ArrayList<>();
+        for (SourceFile sourceFile : sourceFiles) {
+            var tokens = lexer.lex(sourceFile, diagnostics);
+            items.addAll(parser.parse(sourceFile, tokens, diagnostics).items());
+        }
+        AstModule module = new AstModule(items);
         TypeResult typeResult = checker.typeCheck(module);
         assertTrue(typeResult.success(), "type checker failed: " + typeResult.environment().errors());
 
-        List<ClassFile> files = codegen.emit(module);
+        List<ClassFile> files = codegen.emit(module, typeResult.typedModule());
         Map<String, byte[]> bytecode = new HashMap<>();
         for (ClassFile file : files) {
             bytecode.put(file.internalName(), file.bytes());
@@ -58,6 +70,7 @@ final class CodegenTestKit {
         private final AstModule module;
         private final List<ClassFile> files;
         private final Map<String, byte[]> bytecode;
+        private final List<String> loadedClasses = new ArrayList<>();
 
         private Compilation(AstModule module, List<ClassFile> files, Map<String, byte[]> bytecode) {
             this.module = module;
@@ -91,12 +104,14 @@ final class CodegenTestKit {
                 protected Class<?> findClass(String name) throws ClassNotFoundException {
                     byte[] bytes = bytecode.get(name);
                     if (bytes != null) {
+                        loadedClasses.add(name);
                         return defineClass(name, bytes, 0, bytes.length);
                     }
                     return super.findClass(name);
                 }
             };
 
+            loadedClasses.clear();
             Class<?> mainClass = loader.loadClass("Main");
             Method main = mainClass.getMethod("main", String[].class);
 
@@ -111,6 +126,11 @@ final class CodegenTestKit {
             return normalize(buffer.toString(StandardCharsets.UTF_8));
         }
 
+        /** Generated classes the last {@link #runMainInMemory()} call actually loaded. */
+        List<String> loadedClasses() {
+            return loadedClasses;
+        }
+
         String runMainViaJar() throws Exception {
             Path jar = Files.createTempFile("just-codegen-", ".jar");
             try {
@@ -211,6 +231,11 @@ final class CodegenTestKit {
                             instructions.add(Instruction.intOp(opcode, operand));
                         }
 
+                        @Override
+                        public void visitIincInsn(int varIndex, int increment) {
+                            instructions.add(Instruction.intOp(Opcodes.IINC, increment));
+                        }
+
                         @Override
                         public void visitTypeInsn(int opcode, String type) {
                             instructions.add(Instruction.typeOp(opcode, type));
@@ -226,6 +251,12 @@ final class CodegenTestKit {
                             instructions.add(Instruction.invoke(opcode, owner, name, descriptor, isInterface));
                         }
 
+                        @Override
+                        public void visitInvokeDynamicInsn(String name, String descriptor, Handle bootstrap, Object... bootstrapArguments) {
+                            Object first = bootstrapArguments.length == 0 ? null : bootstrapArguments[0];
+                            instructions.add(Instruction.invokeDynamic(bootstrap.getOwner(), name, descriptor, first));
+                        }
+
                         @Override
                         public void visitJumpInsn(int opcode, Label label) {
                             instructions.add(Instruction.jump(opcode));
@@ -320,6 +351,24 @@ final class CodegenTestKit {
                     && methodDescriptor.equals(insn.descriptor()));
         }
 
+        long countInvoke(int opcode, String owner, String method, String methodDescriptor) {
+            return instructions.stream().filter(insn ->
+                insn.opcode() == opcode
+                    && owner.equals(insn.owner())
+                    && method.equals(insn.member())
+                    && methodDescriptor.equals(insn.descriptor())).count();
+        }
+
+        /** Matches an {@code invokedynamic} by bootstrap owner, call-site name, descriptor and first bootstrap argument. */
+        boolean containsInvokeDynamic(String bootstrapOwner, String name, String descriptor, Object firstArgument) {
+            return instructions.stream().anyMatch(insn ->
+                insn.opcode() == Opcodes.INVOKEDYNAMIC
+                    && bootstrapOwner.equals(insn.owner())
+                    && name.equals(insn.member())
+                    && descriptor.equals(insn.descriptor())
+                    && Objects.equals(firstArgument, insn.literal()));
+        }
+
         boolean containsFieldAccess(int opcode, String owner, String field, String fieldDescriptor) {
             return instructions.stream().anyMatch(insn ->
                 insn.opcode() == opcode
@@ -409,6 +458,10 @@ final class CodegenTestKit {
             return new Instruction(Opcodes.LDC, null, null, null, null, literal, null);
         }
 
+        static Instruction invokeDynamic(String bootstrapOwner, String name, String descriptor, Object firstArgument) {
+            return new Instruction(Opcodes.INVOKEDYNAMIC, bootstrapOwner, name, descriptor, null, firstArgument, null);
+        }
+
         static Instruction tableSwitch(int min, int max) {
             return new Instruction(Opcodes.TABLESWITCH, null, null, null, null, null, max - min + 1);
         }
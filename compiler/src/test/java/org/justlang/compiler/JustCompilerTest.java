@@ -0,0 +1,144 @@
+package org.justlang.compiler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class JustCompilerTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void parallelFrontEndReportsDiagnosticsInSourceOrder() throws IOException {
+        Path main = tempDir.resolve("main.just");
+        Files.writeString(main, """
+            import "alpha.just";
+            import "beta.just";
+
+            fn main() { return; }
+            """);
+        Files.writeString(tempDir.resolve("alpha.just"), "fn alpha() { let = 1; }\n");
+        Files.writeString(tempDir.resolve("beta.just"), "fn beta() { return $; }\n");
+
+        CompileRequest request = CompileRequest.forCheck(main);
+        CompileResult serial = new JustCompiler().compile(request.withParallelFrontEnd(false));
+        CompileResult parallel = new JustCompiler().compile(request.withParallelFrontEnd(true));
+
+        assertFalse(serial.success());
+        assertFalse(parallel.success());
+        assertEquals(messages(serial), messages(parallel));
+        assertEquals(2, parallel.diagnostics().size());
+        assertTrue(parallel.diagnostics().get(0).path().endsWith("alpha.just"));
+        assertTrue(parallel.diagnostics().get(1).path().endsWith("beta.just"));
+    }
+
+    @Test
+    void parallelFrontEndChecksMultiFileProgram() throws IOException {
+        Path main = tempDir.resolve("main.just");
+        Files.writeString(main, """
+            import "util.just";
+
+            fn main() { print(util::twice(21)); }
+            """);
+        Files.writeString(tempDir.resolve("util.just"), "pub fn twice(value: i32) -> i32 { return value * 2; }\n");
+
+        CompileResult result = new JustCompiler().compile(CompileRequest.forCheck(main));
+
+        assertTrue(result.success(), () -> messages(result).toString());
+        assertEquals("Checked 2 source file(s).", result.diagnostics().get(0).message());
+    }
+
+    @Test
+    void buildIdExtendsVersionWithClassHash() {
+        String buildId = JustCompiler.buildId();
+
+        assertTrue(buildId.startsWith(JustCompiler.version() + "+"), buildId);
+        assertTrue(buildId.length() > JustCompiler.version().length() + 1, buildId);
+        assertEquals(buildId, JustCompiler.buildId());
+    }
+
+    @Test
+    void emittedJarRunsOnJava17() throws IOException {
+        Path main = tempDir.resolve("main.just");
+        Files.writeString(main, """
+            fn main() {
+                std::print(1);
+                return;
+            }
+            """);
+        Path jar = tempDir.resolve("build/just.jar");
+
+        CompileResult result = new JustCompiler().compile(CompileRequest.forBuild(main, jar));
+
+        assertTrue(result.success(), () -> messages(result).toString());
+        int classes = 0;
+        try (JarFile file = new JarFile(jar.toFile())) {
+            assertTrue(file.getEntry("org/justlang/runtime/Stdout.class") != null);
+            for (JarEntry entry : file.stream().toList()) {
+                if (!entry.getName().endsWith(".class")) {
+                    continue;
+                }
+                try (DataInputStream in = new DataInputStream(file.getInputStream(entry))) {
+                    assertEquals(0xCAFEBABE, in.readInt(), entry.getName());
+                    in.readUnsignedShort();
+                    assertTrue(in.readUnsignedShort() <= 61, () -> entry.getName() + " needs a JVM newer than 17");
+                }
+                classes++;
+            }
+        }
+        assertTrue(classes > 1);
+    }
+
+    @Test
+    void buildPrunesMethodFragmentsItNoLongerUses() throws IOException {
+        Path main = tempDir.resolve("main.just");
+        Path cache = tempDir.resolve("build/.just-cache");
+        CompileRequest request = CompileRequest.forBuild(main, tempDir.resolve("build/just.jar")).withCacheDirectory(cache);
+        Files.writeString(main, """
+            fn helper() -> i32 {
+                return 1;
+            }
+
+            fn main() {
+                std::print(helper());
+                return;
+            }
+            """);
+        assertTrue(new JustCompiler().compile(request).success());
+        List<Path> before = entries(cache.resolve("methods"), ".class");
+
+        Files.writeString(main, """
+            fn main() {
+                std::print(2);
+                return;
+            }
+            """);
+        assertTrue(new JustCompiler().compile(request).success());
+        List<Path> after = entries(cache.resolve("methods"), ".class");
+
+        assertEquals(2, before.size(), before::toString);
+        assertEquals(1, after.size(), after::toString);
+        assertFalse(before.contains(after.get(0)));
+    }
+
+    private static List<String> messages(CompileResult result) {
+        return result.diagnostics().stream().map(Diagnostic::message).toList();
+    }
+
+    private static List<Path> entries(Path directory, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(suffix)).sorted().toList();
+        }
+    }
+}
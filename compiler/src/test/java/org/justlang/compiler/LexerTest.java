@@ -0,0 +1,149 @@
+package org.justlang.compiler;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class LexerTest {
+    @Test
+    void classifiesKeywordsWithoutAllocatingLexemes() {
+        TokenBuffer tokens = lex("fn format continue continues as asx let\n");
+
+        assertEquals(Token.TokenKind.KEYWORD, tokens.kind(0));
+        assertEquals(Token.TokenKind.IDENT, tokens.kind(1));
+        assertEquals(Token.TokenKind.KEYWORD, tokens.kind(2));
+        assertEquals(Token.TokenKind.IDENT, tokens.kind(3));
+        assertEquals(Token.TokenKind.KEYWORD, tokens.kind(4));
+        assertEquals(Token.TokenKind.IDENT, tokens.kind(5));
+        assertEquals(Token.TokenKind.KEYWORD, tokens.kind(6));
+        assertSame(Lexer.keyword(utf8("continue"), 0, 8), tokens.lexeme(2));
+        assertNull(Lexer.keyword(utf8("format"), 0, 6));
+    }
+
+    @Test
+    void keepsSourceOffsetsAndPositions() {
+        TokenBuffer tokens = lex("let x = 10;\n  x += 2..=3;");
+
+        assertTrue(tokens.lexemeEquals(1, "x"));
+        assertFalse(tokens.lexemeEquals(1, "xy"));
+        assertEquals("10", tokens.lexeme(3));
+        assertEquals(2, tokens.line(5));
+        assertEquals(3, tokens.column(5));
+        assertEquals("+=", tokens.lexeme(6));
+        assertEquals("..=", tokens.lexeme(8));
+        assertEquals(Token.TokenKind.EOF, tokens.kind(tokens.size() - 1));
+    }
+
+    @Test
+    void decodesOnlyEscapedStrings() {
+        TokenBuffer tokens = lex("\"plain\" \"a\\\"b\\n\"");
+
+        assertEquals("plain", tokens.lexeme(0));
+        assertEquals("a\"b\n", tokens.lexeme(1));
+        assertTrue(tokens.lexemeEquals(1, "a\"b\n"));
+        Token first = tokens.get(0);
+        assertEquals("plain", first.lexeme());
+        assertEquals(1, first.column());
+    }
+
+    @Test
+    void parserAcceptsPlainTokenLists() {
+        SourceFile source = new SourceFile(Path.of("a.just"), "fn main() { let x = 1; }");
+        Diagnostics diagnostics = new Diagnostics();
+        List<Token> copied = List.copyOf(new Lexer().lex(source, diagnostics));
+
+        AstModule module = new Parser().parse(source, copied, diagnostics);
+
+        assertEquals("main", ((AstFunction) module.items().get(0)).name());
+    }
+
+    @Test
+    void streamLexesOnDemandWithinBoundedWindow() {
+        SourceFile source = new SourceFile(Path.of("s.just"), "a b c d e f g h i j k");
+        TokenStream tokens = new Lexer().stream(source, new Diagnostics());
+
+        assertEquals("a", tokens.lexeme(0));
+        assertEquals("j", tokens.lexeme(9));
+        assertEquals(Token.TokenKind.EOF, tokens.kind(11));
+        assertEquals(Token.TokenKind.EOF, tokens.kind(14));
+        assertTrue(tokens.lexemeEquals(10, "k"));
+        assertThrows(IllegalStateException.class, () -> tokens.lexeme(0));
+    }
+
+    @Test
+    void streamingParseMatchesListParse() {
+        SourceFile source = new SourceFile(Path.of("p.just"), """
+            enum Shape { Circle(i32), Empty }
+
+            fn main() {
+                let mut total = 0;
+                'outer: for i in 0..=3 { total += i; }
+                match Shape::Circle(2) { Shape::Circle(r) => print(r), _ => print(total), };
+            }
+            """);
+        Diagnostics diagnostics = new Diagnostics();
+        AstModule listed = new Parser().parse(source, new Lexer().lex(source, diagnostics), diagnostics);
+        AstModule streamed = new Parser().parseStream(source, new Lexer().stream(source, diagnostics), diagnostics);
+
+        assertTrue(diagnostics.all().isEmpty());
+        assertEquals(listed.items().size(), streamed.items().size());
+        for (int i = 0; i < listed.items().size(); i++) {
+            assertArrayEquals(
+                AstCache.fingerprint(listed.items().get(i)).encoded(),
+                AstCache.fingerprint(streamed.items().get(i)).encoded()
+            );
+        }
+    }
+
+    @Test
+    void scansNonAsciiSourceBytesInPlace() {
+        TokenBuffer tokens = lex("let café = \"naïve \\\"ü\\\"\"; x\n  über");
+
+        assertEquals(Token.TokenKind.IDENT, tokens.kind(1));
+        assertEquals("café", tokens.lexeme(1));
+        assertTrue(tokens.lexemeEquals(1, "café"));
+        assertEquals(10, tokens.column(2));
+        assertEquals("naïve \"ü\"", tokens.lexeme(3));
+        assertEquals(27, tokens.column(5));
+        assertEquals("über", tokens.lexeme(6));
+        assertEquals(3, tokens.column(6));
+    }
+
+    @Test
+    void lexesMappedSourceWithoutDecodingContents(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("big.just");
+        String line = "fn f() { let s = \"héllo\"; }\n";
+        Files.writeString(file, line.repeat(2000));
+
+        SourceFile source = SourceFile.read(file);
+        TokenBuffer tokens = (TokenBuffer) new Lexer().lex(source, new Diagnostics());
+
+        assertEquals(2000 * 11 + 1, tokens.size());
+        assertEquals("héllo", tokens.lexeme(2000 * 11 - 3));
+        assertEquals(2000, tokens.line(2000 * 11 - 3));
+        assertEquals(line.repeat(2000), source.contents());
+    }
+
+    private static ByteBuffer utf8(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static TokenBuffer lex(String contents) {
+        List<Token> tokens = new Lexer().lex(new SourceFile(Path.of("t.just"), contents), new Diagnostics());
+        assertTrue(tokens instanceof TokenBuffer);
+        return (TokenBuffer) tokens;
+    }
+}
@@ -0,0 +1,155 @@
+package org.justlang.compiler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class MirPassManagerTest {
+    @Test
+    void hoistsLoopInvariantsAndFoldsConstants() {
+        MirModule mir = optimize("""
+            fn sum(n: i32) -> i32 {
+                let mut total = 0;
+                let mut i = 0;
+                while i < n {
+                    total = total + i + n * 3;
+                    i += 1 + 0;
+                }
+                return total;
+            }
+
+            fn main() {
+                std::print(sum(4));
+                return;
+            }
+            """);
+
+        MirFunction sum = function(mir, "sum");
+        MirBlock entry = sum.block(sum.entry());
+        assertTrue(entry.instructions().contains(new MirInstr.Binary(5, "*", new MirOperand.Copy(0), MirOperand.of(3))), sum.toString());
+        long multiplies = instructions(sum).stream()
+            .filter(instruction -> instruction instanceof MirInstr.Binary binary && "*".equals(binary.op()))
+            .count();
+        assertEquals(1, multiplies, sum.toString());
+        assertTrue(instructions(sum).contains(new MirInstr.Binary(2, "+", new MirOperand.Copy(2), MirOperand.of(1))), sum.toString());
+    }
+
+    @Test
+    void reusesCommonSubexpressionsWithinABlock() {
+        MirModule mir = optimize("""
+            fn square_twice(a: i32) -> i32 {
+                return a * a + a * a;
+            }
+
+            fn main() {
+                std::print(square_twice(3));
+                return;
+            }
+            """);
+
+        List<MirInstr> instructions = instructions(function(mir, "square_twice"));
+        assertEquals(
+            List.of(
+                new MirInstr.Binary(1, "*", new MirOperand.Copy(0), new MirOperand.Copy(0)),
+                new MirInstr.Binary(3, "+", new MirOperand.Copy(1), new MirOperand.Copy(1))
+            ),
+            instructions
+        );
+    }
+
+    @Test
+    void keepsTrappingDivisionButDropsDeadBranches() {
+        MirModule mir = optimize("""
+            fn main() {
+                let zero = 0;
+                let unused = 7 / zero;
+                if false {
+                    std::print(1);
+                }
+                return;
+            }
+            """);
+
+        MirFunction main = function(mir, "main");
+        assertEquals(1, main.blocks().size(), main.toString());
+        assertEquals(List.of(new MirInstr.Binary(2, "/", MirOperand.of(7), MirOperand.of(0))), instructions(main));
+    }
+
+    @Test
+    void lowersWideNumericAndArrayCodeAndFoldsTypedConstants() {
+        MirModule mir = optimize("""
+            fn scale(values: &mut [f32; 3], factor: f32) {
+                for i in 0..3 {
+                    values[i] *= factor * (1.5f32 * 2.0f32);
+                }
+                return;
+            }
+
+            fn main() {
+                let mut values = [1.0f32, 0.0f32, 2.0f32];
+                scale(&mut values, 0.5f32);
+                let big = 4000000000u64 * 2u64;
+                std::print("{} {}", values[2], big);
+                return;
+            }
+            """);
+
+        MirFunction scale = function(mir, "scale");
+        assertTrue(instructions(scale).contains(
+            new MirInstr.Binary(7, "*", new MirOperand.Copy(1), MirOperand.ofFloat(TypeId.F32, 3.0))), scale.toString());
+        assertTrue(instructions(scale).stream().anyMatch(MirInstr.ArrayStore.class::isInstance), scale.toString());
+        List<MirInstr> main = instructions(function(mir, "main"));
+        assertEquals(2, main.stream().filter(MirInstr.ArrayStore.class::isInstance).count(), main.toString());
+        assertTrue(main.stream().anyMatch(instruction -> instruction.operands().contains(MirOperand.ofInteger(TypeId.U64, 8000000000L))), main.toString());
+    }
+
+    @Test
+    void leavesFunctionsOutsideTheScalarSubsetUnlowered() {
+        MirModule mir = optimize("""
+            fn greet(name: String) {
+                std::print("hello {}", name);
+                return;
+            }
+
+            fn main() {
+                greet("just");
+                return;
+            }
+            """);
+
+        AstFunction greet = (AstFunction) mir.source().items().get(0);
+        AstFunction main = (AstFunction) mir.source().items().get(1);
+        assertNull(mir.function(greet));
+        assertNull(mir.function(main));
+        assertTrue(mir.functions().isEmpty());
+    }
+
+    private static MirFunction function(MirModule mir, String name) {
+        for (MirFunction function : mir.functions()) {
+            if (function.name().equals(name)) {
+                return function;
+            }
+        }
+        throw new AssertionError("no MIR for " + name);
+    }
+
+    private static List<MirInstr> instructions(MirFunction function) {
+        return function.blocks().stream().flatMap(block -> block.instructions().stream()).toList();
+    }
+
+    private static MirModule optimize(String source) {
+        Diagnostics diagnostics = new Diagnostics();
+        SourceFile sourceFile = new SourceFile(Path.of("test.just"), source);
+        AstModule module = new Parser().parse(sourceFile, new Lexer().lex(sourceFile, diagnostics), diagnostics);
+        TypeResult result = new TypeChecker().typeCheck(module);
+        assertTrue(result.success(), "type checker failed: " + result.environment().errors());
+        MirModule mir = new MirBuilder().lower(result.typedModule());
+        assertNotNull(mir);
+        return MirPassManager.standard().run(mir);
+    }
+}
@@ -0,0 +1,77 @@
+package org.justlang.compiler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class NameResolverTest {
+    private static final Path MAIN = Path.of("app/main.just");
+    private static final Path UTIL = Path.of("app/string-util.just");
+
+    @Test
+    void resolvesCallsToSymbolIdsPerCallingModule() {
+        AstCallExpr local = call("main_helper");
+        AstCallExpr qualified = call("crate::string_util", "shout");
+        AstCallExpr aliased = call("yell");
+        AstCallExpr notImported = call("whisper");
+        AstCallExpr unknown = call("missing");
+        AstCallExpr variant = call("Option", "Some");
+        AstModule module = new AstModule(List.of(
+            new AstUse("string_util", "shout", "yell", MAIN),
+            function("main", MAIN, local, qualified, aliased, notImported, unknown, variant),
+            function("main_helper", MAIN),
+            function("shout", UTIL),
+            function("whisper", UTIL)
+        ));
+
+        HirModule hir = new NameResolver().resolve(module);
+
+        HirModule.CallTarget localTarget = hir.callTarget(local);
+        assertEquals(HirModule.CallKind.LOCAL, localTarget.kind());
+        assertSame(module.items().get(2), hir.symbol(localTarget.symbol()).declaration());
+        int shout = hir.functionId((AstFunction) module.items().get(3));
+        assertEquals(new HirModule.CallTarget(shout, HirModule.CallKind.QUALIFIED, null), hir.callTarget(qualified));
+        assertEquals(new HirModule.CallTarget(shout, HirModule.CallKind.ALIAS, "string_util::shout"), hir.callTarget(aliased));
+        assertEquals(HirModule.CallKind.NOT_IMPORTED, hir.callTarget(notImported).kind());
+        assertEquals(HirModule.CallKind.UNKNOWN, hir.callTarget(unknown).kind());
+        assertEquals(HirModule.CallKind.NONE, hir.callTarget(variant).kind());
+        assertEquals("string_util", hir.symbol(shout).moduleName());
+        assertEquals("main", hir.moduleName(MAIN));
+    }
+
+    @Test
+    void resolvesTypeReferencesAndReportsDuplicateAliases() {
+        AstStruct point = new AstStruct("Point", List.of(new AstField("x", "i32")));
+        AstEnum shape = new AstEnum("Shape", List.of(new AstEnumVariant("Dot", "&Point")));
+        AstParam param = new AstParam("shape", "Option<Shape>", false);
+        AstPathExpr path = new AstPathExpr(List.of("Shape", "Dot"));
+        AstModule module = new AstModule(List.of(
+            point,
+            shape,
+            new AstUse("a", "f", "g", MAIN),
+            new AstUse("b", "f", "g", MAIN),
+            AstFunction.of("main", List.of(param), null, List.of(new AstExprStmt(path)), false, MAIN)
+        ));
+
+        HirModule hir = new NameResolver().resolve(module);
+
+        AstType payload = shape.variants().get(0).payloadTypeNode().referent();
+        assertEquals(HirModule.SymbolKind.STRUCT, hir.symbol(hir.typeTarget(payload)).kind());
+        assertSame(shape, hir.symbol(hir.typeTarget(param.typeNode().arguments().get(0))).declaration());
+        assertSame(shape, hir.symbol(hir.pathTarget(path)).declaration());
+        assertEquals(HirModule.UNRESOLVED, hir.typeTarget(point.fields().get(0).typeNode()));
+        assertEquals(List.of("Duplicate use alias 'g' in module main"), hir.errors());
+    }
+
+    private static AstFunction function(String name, Path source, AstCallExpr... calls) {
+        List<AstStmt> body = java.util.Arrays.stream(calls).<AstStmt>map(AstExprStmt::new).toList();
+        return new AstFunction(name, List.of(), null, body, true, source);
+    }
+
+    private static AstCallExpr call(String... callee) {
+        return new AstCallExpr(List.of(callee), List.of());
+    }
+}
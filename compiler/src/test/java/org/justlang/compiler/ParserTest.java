@@ -0,0 +1,97 @@
+package org.justlang.compiler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class ParserTest {
+    @Test
+    void parsesTypeAnnotationsIntoStructuredNodes() {
+        AstFunction fn = (AstFunction) parse("""
+            fn f(a: &mut Point, b: Result<Option<i32>, String>) -> std::String { return "x"; }
+            """).items().get(0);
+
+        AstType first = fn.params().get(0).typeNode();
+        assertEquals(AstType.Kind.REFERENCE, first.kind());
+        assertTrue(first.mutable());
+        assertEquals("Point", first.referent().name());
+        assertEquals("&mut Point", fn.params().get(0).type());
+
+        AstType second = fn.params().get(1).typeNode();
+        assertEquals(AstType.Kind.GENERIC, second.kind());
+        assertEquals("Result", second.name());
+        assertEquals(AstType.Kind.GENERIC, second.arguments().get(0).kind());
+        assertEquals("i32", second.arguments().get(0).arguments().get(0).name());
+        assertEquals("Result<Option<i32>, String>", second.text());
+
+        assertEquals(AstType.Kind.NAMED, fn.returnTypeNode().kind());
+        assertEquals("std::String", fn.returnTypeNode().name());
+    }
+
+    @Test
+    void textConstructorsBuildTheSameStructure() {
+        AstType parsed = AstType.parse("Result< &Option<i32> ,Shape>");
+
+        assertEquals(AstType.Kind.GENERIC, parsed.kind());
+        assertEquals(2, parsed.arguments().size());
+        assertEquals("&Option<i32>", parsed.arguments().get(0).text());
+        assertEquals("Shape", parsed.arguments().get(1).name());
+        assertEquals("Result< &Option<i32> ,Shape>", parsed.text());
+        assertEquals("&", new AstParam("x", "&", false).type());
+        assertNull(new AstLetStmt("x", false, null, null).typeNode());
+    }
+
+    @Test
+    void typeCheckerResolvesParsedTypes() {
+        AstModule module = parse("""
+            enum Shape { Circle(i32), Empty }
+
+            fn wrap(shape: &Shape) -> Option<Result<i32, String>> {
+                return Option::Some(Result::Ok(1));
+            }
+
+            fn main() {
+                let shape: Shape = Shape::Empty;
+                let value: Option<Result<i32, String>> = wrap(&shape);
+                print(1);
+            }
+            """);
+
+        TypeResult result = new TypeChecker().typeCheck(module);
+
+        assertTrue(result.success(), () -> String.join("\n", result.environment().errors()));
+    }
+
+    @Test
+    void parsesTypeParametersOnFunctionsAndStructs() {
+        AstModule module = parse("""
+            struct Pair<A, B> {
+                first: A,
+                second: B,
+            }
+
+            fn swap<A, B>(pair: Pair<A, B>) -> Pair<B, A> {
+                return Pair { first: pair.second, second: pair.first };
+            }
+            """);
+
+        AstStruct pair = (AstStruct) module.items().get(0);
+        AstFunction swap = (AstFunction) module.items().get(1);
+        assertEquals(List.of("A", "B"), pair.typeParams());
+        assertEquals(List.of("A", "B"), swap.typeParams());
+        assertTrue(swap.isGeneric());
+        assertEquals(AstType.Kind.GENERIC, swap.returnTypeNode().kind());
+        assertEquals("Pair<B, A>", swap.returnTypeNode().text());
+    }
+
+    private static AstModule parse(String contents) {
+        SourceFile source = new SourceFile(Path.of("t.just"), contents);
+        Diagnostics diagnostics = new Diagnostics();
+        List<Token> tokens = new Lexer().lex(source, diagnostics);
+        return new Parser().parse(source, tokens, diagnostics);
+    }
+}
@@ -7,6 +7,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -43,6 +44,34 @@ public class SourceLoaderTest {
         assertEquals(List.of(model, service, main), loaded);
     }
 
+    @Test
+    void loadFileGraphFindsImportsAfterItemsAndComments() throws IOException {
+        Path main = tempDir.resolve("main.just").toAbsolutePath().normalize();
+        Path util = tempDir.resolve("util.just").toAbsolutePath().normalize();
+        Path model = tempDir.resolve("model.just").toAbsolutePath().normalize();
+
+        Files.writeString(main, """
+            /* header
+               comment */
+            use util::{
+                twice,
+            };
+
+            fn helper() -> i32 { return 21; }
+
+            import "util.just";
+            mod model;
+
+            fn main() { print(util::twice(helper())); }
+            """);
+        Files.writeString(util, "pub fn twice(value: i32) -> i32 { return value * 2; }\n");
+        Files.writeString(model, "fn model_fn() { return; }\n");
+
+        List<Path> loaded = new SourceLoader().loadFileGraph(main).stream().map(SourceFile::path).toList();
+
+        assertEquals(List.of(util, model, main), loaded);
+    }
+
     @Test
     void loadFileGraphFailsWhenImportDoesNotExist() throws IOException {
         Path main = tempDir.resolve("main.just");
@@ -187,4 +216,38 @@ public class SourceLoaderTest {
         RuntimeException error = assertThrows(RuntimeException.class, () -> loader.loadFileGraph(main, Map.of()));
         assertTrue(error.getMessage().contains("Unknown dependency alias in import"));
     }
+
+    @Test
+    void loadFileGraphKeepsPostorderForWideGraphs() throws IOException {
+        Path main = tempDir.resolve("main.just").toAbsolutePath().normalize();
+        StringBuilder header = new StringBuilder("// entry\n#[allow(dead_code)]\n");
+        List<Path> expected = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Path leaf = tempDir.resolve("leaf" + i + ".just").toAbsolutePath().normalize();
+            Path mid = tempDir.resolve("mid" + i + ".just").toAbsolutePath().normalize();
+            Files.writeString(leaf, "fn leaf" + i + "() { return; }\n");
+            Files.writeString(mid, "import \"leaf" + i + ".just\";\nimport \"leaf0.just\";\n\nfn mid" + i + "() { return; }\n");
+            header.append("import \"mid").append(i).append(".just\";\n");
+            expected.add(leaf);
+            expected.add(mid);
+        }
+        Files.writeString(main, header + "\nfn main() { return; }\n");
+        expected.add(main);
+
+        List<Path> loaded = new SourceLoader().loadFileGraph(main).stream().map(SourceFile::path).toList();
+        assertEquals(expected, loaded);
+    }
+
+    @Test
+    void loadFileGraphReportsFullCyclePath() throws IOException {
+        Path a = tempDir.resolve("a.just").toAbsolutePath().normalize();
+        Path b = tempDir.resolve("b.just").toAbsolutePath().normalize();
+        Path c = tempDir.resolve("c.just").toAbsolutePath().normalize();
+        Files.writeString(a, "import \"b.just\";\nfn a() { return; }\n");
+        Files.writeString(b, "import \"c.just\";\nfn b() { return; }\n");
+        Files.writeString(c, "import \"a.just\";\nfn c() { return; }\n");
+
+        RuntimeException error = assertThrows(RuntimeException.class, () -> new SourceLoader().loadFileGraph(a));
+        assertEquals("Import cycle detected: " + a + " -> " + b + " -> " + c + " -> " + a, error.getMessage());
+    }
 }
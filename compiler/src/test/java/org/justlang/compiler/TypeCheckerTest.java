@@ -2,6 +2,8 @@ package org.justlang.compiler;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -529,6 +531,53 @@ public class TypeCheckerTest {
         assertTrue(result.environment().errors().stream().anyMatch(err -> err.contains("Equality requires matching operand types")));
     }
 
+    @Test
+    void numericTypesNeverMixImplicitly() {
+        TypeResult result = typeCheck("""
+            fn main() {
+                let wide = 1i64 + 2;
+                let mut ratio = 0.5;
+                ratio += 1f32;
+                let less = 2u64 < 3i64;
+                let flipped = -7u64;
+                let overflow = 3000000000;
+                return;
+            }
+            """);
+
+        assertFalse(result.success(), "expected type check to fail");
+        List<String> errors = result.environment().errors();
+        assertTrue(errors.stream().anyMatch(err -> err.contains("Arithmetic operator requires matching numeric operands: I64 and Int")), errors::toString);
+        assertTrue(errors.stream().anyMatch(err -> err.contains("Compound assignment requires matching numeric operands: F64 and F32")), errors::toString);
+        assertTrue(errors.stream().anyMatch(err -> err.contains("Comparison operator requires matching numeric operands: U64 and I64")), errors::toString);
+        assertTrue(errors.stream().anyMatch(err -> err.contains("Unary - cannot negate unsigned operand")), errors::toString);
+        assertTrue(errors.stream().anyMatch(err -> err.contains("Number literal 3000000000 does not fit Int")), errors::toString);
+    }
+
+    @Test
+    void arraysCheckElementsIndicesAndMutability() {
+        TypeResult result = typeCheck("""
+            fn main() {
+                let cells = [1, 2, 3, 4];
+                let mixed = [1, true];
+                let past = cells[4];
+                cells[0] = 9;
+                let mut grid = [0; 2];
+                grid[1] = 2i64;
+                let wrong = grid[true];
+                return;
+            }
+            """);
+
+        assertFalse(result.success(), "expected type check to fail");
+        List<String> errors = result.environment().errors();
+        assertTrue(errors.stream().anyMatch(err -> err.contains("Array elements must share one type: Int and Bool")), errors::toString);
+        assertTrue(errors.stream().anyMatch(err -> err.contains("Index 4 is out of bounds for [Int; 4]")), errors::toString);
+        assertTrue(errors.stream().anyMatch(err -> err.contains("Cannot assign to element of immutable array: cells")), errors::toString);
+        assertTrue(errors.stream().anyMatch(err -> err.contains("Type mismatch in assignment to element of grid: expected Int got I64")), errors::toString);
+        assertTrue(errors.stream().anyMatch(err -> err.contains("Array index must be i32, got Bool")), errors::toString);
+    }
+
     @Test
     void logicalOperatorsRequireBool() {
         TypeResult result = typeCheck("""
@@ -704,9 +753,25 @@ public class TypeCheckerTest {
     }
 
     @Test
-    void hirTypeCheckIsNotImplementedYet() {
-        TypeChecker checker = new TypeChecker();
-        assertThrows(UnsupportedOperationException.class, () -> checker.typeCheck((HirModule) null));
+    void hirTypeCheckMatchesAstTypeCheck() {
+        SourceFile sourceFile = new SourceFile(Path.of("test.just"), """
+            fn add(a: i32, b: i32) -> i32 {
+                return a + b;
+            }
+
+            fn main() {
+                std::print(add(1, 2));
+                return;
+            }
+            """);
+        Diagnostics diagnostics = new Diagnostics();
+        AstModule module = new Parser().parse(sourceFile, new Lexer().lex(sourceFile, diagnostics), diagnostics);
+        HirModule hir = new NameResolver().resolve(module);
+
+        TypeResult result = new TypeChecker().typeCheck(hir);
+
+        assertTrue(result.success(), "expected type check to succeed");
+        assertSame(hir, result.typedModule().hir());
     }
 
     @Test
@@ -1149,7 +1214,30 @@ public class TypeCheckerTest {
             """);
 
         assertFalse(result.success(), "expected type check to fail");
-        assertTrue(result.environment().errors().stream().anyMatch(err -> err.contains("print supports at most a format string and one value")));
+        assertTrue(result.environment().errors().stream().anyMatch(err -> err.contains("format string has 1 placeholder(s) but 2 value(s)")));
+    }
+
+    @Test
+    void formattedPrintTakesOneValuePerPlaceholder() {
+        assertTrue(typeCheck("""
+            fn main() {
+                std::print("{} + {} = {}", 1, 2, 3);
+                return;
+            }
+            """).success(), "expected type check to succeed");
+        assertError("""
+            fn main() {
+                std::print("{} and {}", 1);
+                return;
+            }
+            """, "format string has 2 placeholder(s) but 1 value(s)");
+        assertError("""
+            fn main() {
+                let format = "{} {}";
+                std::print(format, 1, 2);
+                return;
+            }
+            """, "print with several values requires a string literal format");
     }
 
     @Test
@@ -2168,6 +2256,123 @@ public class TypeCheckerTest {
         assertTrue(result.environment().errors().stream().anyMatch(err -> err.contains("Unknown type: &void")));
     }
 
+    @Test
+    void typedModuleRecordsExpressionAndBindingTypes() {
+        SourceFile sourceFile = new SourceFile(Path.of("test.just"), """
+            fn twice(x: Option<i32>) -> i32 {
+                let doubled = match x {
+                    Option::Some(v) => v * 2,
+                    Option::None => 0,
+                };
+                return doubled;
+            }
+
+            fn main() {
+                std::print(twice(Option::Some(4)));
+                return;
+            }
+            """);
+        Diagnostics diagnostics = new Diagnostics();
+        AstModule module = new Parser().parse(sourceFile, new Lexer().lex(sourceFile, diagnostics), diagnostics);
+
+        TypeResult result = new TypeChecker().typeCheck(module);
+
+        assertTrue(result.success(), "expected type check to succeed");
+        TypedModule types = result.typedModule();
+        AstLetStmt let = (AstLetStmt) ((AstFunction) module.items().get(0)).body().get(0);
+        AstMatchExpr match = (AstMatchExpr) let.initializer();
+        assertEquals(TypeId.INT, types.bindingType(let));
+        assertEquals(TypeId.option(TypeId.INT), types.typeOf(match.target()));
+        assertEquals(TypeId.INT, types.bindingType(match.arms().get(0).pattern()));
+        assertEquals(TypeId.INT, types.typeOf(match.arms().get(0).expr()));
+        assertNull(types.bindingType(match.arms().get(1).pattern()));
+    }
+
+    @Test
+    void genericCallsInferAndRecordTypeArguments() {
+        SourceFile sourceFile = new SourceFile(Path.of("test.just"), """
+            struct Pair<T> {
+                first: T,
+                second: T,
+            }
+
+            fn first<T>(pair: Pair<T>) -> T {
+                return pair.first;
+            }
+
+            fn main() {
+                let value = first(Pair { first: 1, second: 2 });
+                return;
+            }
+            """);
+        Diagnostics diagnostics = new Diagnostics();
+        AstModule module = new Parser().parse(sourceFile, new Lexer().lex(sourceFile, diagnostics), diagnostics);
+
+        TypeResult result = new TypeChecker().typeCheck(module);
+
+        assertTrue(result.success(), () -> String.join("\n", result.environment().errors()));
+        AstLetStmt let = (AstLetStmt) ((AstFunction) module.items().get(2)).body().get(0);
+        AstCallExpr call = (AstCallExpr) let.initializer();
+        assertEquals(TypeId.INT, result.typedModule().bindingType(let));
+        assertEquals(List.of(TypeId.INT), result.typedModule().instantiation(call));
+        assertSame(TypeId.struct("Pair", List.of(TypeId.INT)), result.typedModule().typeOf(call.args().get(0)));
+    }
+
+    @Test
+    void genericErrorsAreReported() {
+        assertError("""
+            fn pick<T>(left: T, right: T) -> T {
+                return left;
+            }
+
+            fn main() {
+                let value = pick(1, "one");
+                return;
+            }
+            """, "Argument 2 of 'pick' expected Int got String");
+        assertError("""
+            fn add<T>(left: T, right: T) -> T {
+                return left + right;
+            }
+
+            fn main() {
+                return;
+            }
+            """, "Arithmetic operator requires int operands");
+        assertError("""
+            struct Wrapper<T> {
+                value: i32,
+            }
+
+            fn main() {
+                let w = Wrapper { value: 1 };
+                return;
+            }
+            """, "Cannot infer type parameter 'T' of struct Wrapper");
+        assertError("""
+            struct Wrapper<T> {
+                value: T,
+            }
+
+            fn take(w: Wrapper) {
+                return;
+            }
+
+            fn main() {
+                return;
+            }
+            """, "Unknown parameter type: Wrapper");
+    }
+
+    private void assertError(String source, String expected) {
+        TypeResult result = typeCheck(source);
+        assertFalse(result.success(), "expected type check to fail");
+        assertTrue(
+            result.environment().errors().stream().anyMatch(error -> error.contains(expected)),
+            () -> "missing '" + expected + "' in " + result.environment().errors()
+        );
+    }
+
     private TypeResult typeCheck(String source) {
         Diagnostics diagnostics = new Diagnostics();
         SourceFile sourceFile = new SourceFile(Path.of("test.just"), source);
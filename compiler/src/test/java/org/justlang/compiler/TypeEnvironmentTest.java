@@ -0,0 +1,80 @@
+package org.justlang.compiler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class TypeEnvironmentTest {
+    @Test
+    void forksSeeParentBindingsWithoutSharingUpdates() {
+        TypeEnvironment locals = new TypeEnvironment();
+        locals.define("a", TypeId.INT, true);
+        locals.define("b", TypeId.INFER, false);
+        TypeEnvironment.Binding before = locals.lookup("b");
+
+        TypeEnvironment branch = locals.fork();
+        branch.markMoved("a");
+        branch.setType("b", TypeId.STRING);
+        branch.define("c", TypeId.BOOL, false);
+        locals.setType("a", TypeId.ANY);
+
+        assertTrue(branch.lookup("a").moved());
+        assertEquals(TypeId.INT, branch.lookup("a").type());
+        assertEquals(TypeId.STRING, branch.lookup("b").type());
+        assertFalse(locals.lookup("a").moved());
+        assertEquals(TypeId.ANY, locals.lookup("a").type());
+        assertSame(before, locals.lookup("b"));
+        assertNull(locals.lookup("c"));
+
+        branch.markMoved("a");
+        branch.refineType("b", TypeId.STRING);
+        assertTrue(branch.lookup("a").moved());
+    }
+
+    @Test
+    void mergesOnlyBranchChangesAcrossNestedForks() {
+        TypeEnvironment locals = new TypeEnvironment();
+        locals.define("a", TypeId.INT, false);
+        locals.define("b", TypeId.INFER, true);
+        locals.define("c", TypeId.STRING, false);
+        TypeEnvironment.Binding untouched = locals.lookup("c");
+
+        TypeEnvironment thenLocals = locals.fork();
+        TypeEnvironment nested = thenLocals.fork();
+        nested.markMoved("a");
+        thenLocals.adoptMovedFrom(nested);
+        thenLocals.setType("b", TypeId.INT);
+        TypeEnvironment elseLocals = locals.fork();
+        elseLocals.setType("b", TypeId.BOOL);
+
+        List<String> errors = new ArrayList<>();
+        locals.joinMovedFrom(thenLocals, elseLocals);
+        assertFalse(locals.joinTypesFromStrict(thenLocals, elseLocals, errors::add));
+
+        assertTrue(locals.lookup("a").moved());
+        assertEquals(TypeId.UNKNOWN, locals.lookup("b").type());
+        assertEquals(List.of("Type mismatch across control flow for b: Int vs Bool"), errors);
+        assertSame(untouched, locals.lookup("c"));
+    }
+
+    @Test
+    void deepForkChainsStayConsistent() {
+        TypeEnvironment locals = new TypeEnvironment();
+        for (int i = 0; i < 100; i++) {
+            locals.define("v" + i, TypeId.INT, false);
+            TypeEnvironment loopLocals = locals.fork();
+            loopLocals.markMoved("v" + (i / 2));
+            locals.mergeMovedFrom(loopLocals);
+        }
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i < 50, locals.lookup("v" + i).moved());
+        }
+    }
+}
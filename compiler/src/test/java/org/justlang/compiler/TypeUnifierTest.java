@@ -1,7 +1,16 @@
 package org.justlang.compiler;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
-
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.Test;
 
 public class TypeUnifierTest {
@@ -91,4 +100,44 @@ public class TypeUnifierTest {
         TypeId constraint = TypeId.result(TypeId.INT, TypeId.STRING);
         assertEquals(current, TypeUnifier.refine(current, constraint));
     }
+
+    @Test
+    void structurallyEqualTypesAreOneInstance() {
+        TypeId nested = TypeId.option(TypeId.result(TypeId.reference(TypeId.struct("Point"), true), TypeId.STRING));
+        assertSame(nested, TypeId.option(TypeId.result(TypeId.reference(TypeId.struct("Point"), true), TypeId.STRING)));
+        assertNotSame(TypeId.reference(TypeId.INT, true), TypeId.reference(TypeId.INT, false));
+        assertNotSame(TypeId.struct("Shape"), TypeId.enumType("Shape"));
+
+        TypeId joined = TypeUnifier.join(TypeId.option(TypeId.INFER), TypeId.option(TypeId.INT));
+        assertSame(TypeId.option(TypeId.INT), joined);
+        assertEquals(TypeId.option(TypeId.INT).hashCode(), joined.hashCode());
+    }
+
+    @Test
+    void internTablesDoNotRetainUnreachableTypes() throws InterruptedException {
+        WeakReference<TypeId> instance = new WeakReference<>(TypeId.struct("Grid", List.of(TypeId.array(TypeId.I64, 4099))));
+        for (int i = 0; i < 100 && instance.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(instance.get());
+
+        TypeId fresh = TypeId.struct("Grid", List.of(TypeId.array(TypeId.I64, 4099)));
+        assertSame(fresh, TypeId.struct("Grid", List.of(TypeId.array(TypeId.I64, 4099))));
+    }
+
+    @Test
+    void bindInfersParametersAndSubstituteAppliesThem() {
+        TypeId t = TypeId.param("T");
+        TypeId u = TypeId.param("U");
+        Map<TypeId, TypeId> bindings = new HashMap<>();
+
+        assertTrue(TypeUnifier.bind(TypeId.struct("Pair", List.of(t, TypeId.option(u))), TypeId.struct("Pair", List.of(TypeId.INT, TypeId.option(TypeId.STRING))), bindings));
+        assertTrue(TypeUnifier.bind(TypeId.reference(t, false), TypeId.reference(TypeId.INT, false), bindings));
+        assertFalse(TypeUnifier.bind(t, TypeId.BOOL, new HashMap<>(bindings)));
+
+        assertSame(TypeId.result(TypeId.INT, TypeId.STRING), TypeUnifier.substitute(TypeId.result(t, u), bindings));
+        assertSame(TypeId.struct("Pair", List.of(TypeId.STRING)), TypeUnifier.substitute(TypeId.struct("Pair", List.of(u)), bindings));
+        assertSame(TypeId.option(TypeId.param("V")), TypeUnifier.substitute(TypeId.option(TypeId.param("V")), bindings));
+    }
 }
@@ -12,6 +12,18 @@ java {
     }
 }
 
+// Classes copied into every emitted jar. Generated code targets Java 17, so they are compiled
+// for 17 as well, while the rest of the runtime uses the newer toolchain (FFM).
+val portable: SourceSet by sourceSets.creating
+
+tasks.named<JavaCompile>(portable.compileJavaTaskName) {
+    options.release.set(17)
+}
+
+tasks.jar {
+    from(portable.output)
+}
+
 dependencies {
     testImplementation(libs.junit.jupiter)
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
@@ -0,0 +1,99 @@
+package org.justlang.runtime;
+
+/**
+ * Buffered standard output for generated programs. Lines from every thread are appended whole
+ * to one shared buffer, which is written to {@code System.out} when it reaches
+ * {@code just.stdout.bufferSize} characters (default 64 KiB), when it has waited
+ * {@code just.stdout.flushMillis} milliseconds (default 100, {@code 0} disables the timer), on
+ * {@link #flush()}, and at JVM exit.
+ */
+public final class Stdout {
+    private static final int BUFFER_SIZE = Math.max(0, Integer.getInteger("just.stdout.bufferSize", 64 * 1024));
+    private static final long FLUSH_MILLIS = Long.getLong("just.stdout.flushMillis", 100L);
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final StringBuilder BUFFER = new StringBuilder();
+    private static boolean flusherStarted;
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(Stdout::flush, "just-stdout-exit"));
+    }
+
+    private Stdout() {
+    }
+
+    public static void println(String value) {
+        append(String.valueOf(value));
+    }
+
+    public static void println(int value) {
+        append(Integer.toString(value));
+    }
+
+    public static void println(boolean value) {
+        append(Boolean.toString(value));
+    }
+
+    public static void println(long value) {
+        append(Long.toString(value));
+    }
+
+    public static void println(float value) {
+        append(Float.toString(value));
+    }
+
+    public static void println(double value) {
+        append(Double.toString(value));
+    }
+
+    public static void println(Object value) {
+        append(String.valueOf(value));
+    }
+
+    public static void flush() {
+        synchronized (BUFFER) {
+            drain();
+        }
+    }
+
+    private static void append(String line) {
+        synchronized (BUFFER) {
+            BUFFER.append(line).append(LINE_SEPARATOR);
+            if (BUFFER.length() >= BUFFER_SIZE) {
+                drain();
+            } else if (!flusherStarted && FLUSH_MILLIS > 0) {
+                startFlusher();
+            }
+        }
+    }
+
+    // Callers hold the buffer lock. Output goes to the current System.out, so redirection still applies.
+    private static void drain() {
+        if (BUFFER.length() > 0) {
+            System.out.append(BUFFER);
+            BUFFER.setLength(0);
+        }
+        System.out.flush();
+    }
+
+    private static void startFlusher() {
+        flusherStarted = true;
+        Thread flusher = new Thread(Stdout::flushPeriodically, "just-stdout-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    private static void flushPeriodically() {
+        while (true) {
+            try {
+                Thread.sleep(FLUSH_MILLIS);
+            } catch (InterruptedException interrupted) {
+                return;
+            }
+            synchronized (BUFFER) {
+                if (BUFFER.length() > 0) {
+                    drain();
+                }
+            }
+        }
+    }
+}